@@ -2,7 +2,7 @@ import React, { useState, useEffect } from 'react';
 import { Box, Typography } from '@mui/material';
 import { MapContainer, TileLayer, Marker, Popup } from 'react-leaflet';
 import 'leaflet/dist/leaflet.css';
-import { getFleetStatus } from '../../services/api';
+import { openFleetStatusStream } from '../../services/api';
 import L from 'leaflet';
 
 // Fix for default marker icon
@@ -19,21 +19,26 @@ let DefaultIcon = L.icon({
 L.Marker.prototype.options.icon = DefaultIcon;
 
 const FleetMap = () => {
-    const [vehicles, setVehicles] = useState([]);
-
-    const fetchData = async () => {
-        try {
-            const res = await getFleetStatus();
-            setVehicles(res.data);
-        } catch (error) {
-            console.error("Error fetching fleet status:", error);
-        }
-    };
+    const [vehicles, setVehicles] = useState({});
 
     useEffect(() => {
-        fetchData();
-        const interval = setInterval(fetchData, 5000); // Poll every 5 seconds
-        return () => clearInterval(interval);
+        // One snapshot on connect, then only the vehicles that moved
+        const source = openFleetStatusStream();
+        const byVehicleId = (positions) =>
+            Object.fromEntries(positions.map((position) => [position.vehicleId, position]));
+
+        source.addEventListener('snapshot', (event) => {
+            setVehicles(byVehicleId(JSON.parse(event.data)));
+        });
+        source.addEventListener('delta', (event) => {
+            const changed = byVehicleId(JSON.parse(event.data));
+            setVehicles((current) => ({ ...current, ...changed }));
+        });
+        source.onerror = (error) => {
+            // EventSource reconnects by itself and receives a fresh snapshot
+            console.error("Fleet status stream error:", error);
+        };
+        return () => source.close();
     }, []);
 
     // Default center (Bangalore)
@@ -47,11 +52,11 @@ const FleetMap = () => {
                     url="https://{s}.tile.openstreetmap.org/{z}/{x}/{y}.png"
                     attribution='&copy; <a href="https://www.openstreetmap.org/copyright">OpenStreetMap</a> contributors'
                 />
-                {vehicles.map((log) => (
-                    <Marker key={log.id} position={[log.latitude, log.longitude]}>
+                {Object.values(vehicles).map((position) => (
+                    <Marker key={position.vehicleId} position={[position.latitude, position.longitude]}>
                         <Popup>
-                            Vehicle: {log.vehicle.licensePlate} <br />
-                            Last Update: {new Date(log.timestamp).toLocaleString()}
+                            Vehicle: {position.licensePlate ?? `#${position.vehicleId}`} <br />
+                            Last Update: {new Date(position.timestamp).toLocaleString()}
                         </Popup>
                     </Marker>
                 ))}
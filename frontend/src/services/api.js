@@ -31,6 +31,7 @@ export const allocateVehicle = (data) => api.post('/admin/allocations', data);
 
 export const getShifts = () => api.get('/admin/shifts');
 export const getFleetStatus = () => api.get('/admin/fleet-status');
+export const openFleetStatusStream = () => new EventSource(`${API_URL}/admin/fleet-status/stream`);
 export const getOrders = () => api.get('/admin/orders');
 export const createOrder = (data) => api.post('/admin/orders', data);
 
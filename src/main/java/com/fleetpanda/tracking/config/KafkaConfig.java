@@ -0,0 +1,22 @@
+package com.fleetpanda.tracking.config;
+
+import com.fleetpanda.tracking.service.GpsUpdateCodec;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+@ConditionalOnProperty(name = "fleet.gps.ingest-mode", havingValue = "kafka")
+public class KafkaConfig {
+
+    @Bean
+    public NewTopic gpsUpdatesTopic(@Value("${fleet.gps.topic-partitions:6}") int partitions) {
+        return TopicBuilder.name(GpsUpdateCodec.TOPIC)
+                .partitions(partitions)
+                .replicas(1)
+                .build();
+    }
+}
@@ -4,9 +4,15 @@ import com.fleetpanda.tracking.dto.*;
 import com.fleetpanda.tracking.entity.*;
 import com.fleetpanda.tracking.service.AdminService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -52,6 +58,25 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllInventory());
     }
 
+    @GetMapping(value = "/inventory", params = "asOf")
+    public ResponseEntity<List<InventoryLevelDTO>> getInventoryAsOf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
+            @RequestParam(required = false) Inventory.LocationType locationType,
+            @RequestParam(required = false) Long locationId,
+            @RequestParam(required = false) Long productId) {
+        return ResponseEntity.ok(adminService.getInventoryAsOf(asOf, locationType, locationId, productId));
+    }
+
+    @GetMapping("/inventory/page")
+    public ResponseEntity<CursorPageDTO<InventorySummaryDTO>> getInventoryPage(
+            @RequestParam(required = false) Inventory.LocationType locationType,
+            @RequestParam(required = false) Long locationId,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(adminService.getInventoryPage(locationType, locationId, productId, cursor, limit));
+    }
+
     @PostMapping("/drivers")
     public ResponseEntity<Driver> createDriver(@RequestBody DriverDTO dto) {
         return ResponseEntity.ok(adminService.createDriver(dto));
@@ -72,14 +97,62 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllVehicles());
     }
 
+    @GetMapping("/vehicles/nearest")
+    public ResponseEntity<List<NearbyVehicleDTO>> getNearestVehicles(
+            @RequestParam(required = false) Long hubId,
+            @RequestParam(required = false) Long terminalId,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(defaultValue = "10") int k) {
+        return ResponseEntity.ok(adminService.getNearestVehicles(hubId, terminalId, latitude, longitude, k));
+    }
+
+    @GetMapping("/vehicles/nearby")
+    public ResponseEntity<List<NearbyVehicleDTO>> getVehiclesWithinRadius(
+            @RequestParam(required = false) Long hubId,
+            @RequestParam(required = false) Long terminalId,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(defaultValue = "5000") double radiusMeters) {
+        return ResponseEntity.ok(adminService.getVehiclesWithinRadius(hubId, terminalId, latitude, longitude, radiusMeters));
+    }
+
+    @GetMapping("/vehicles/{vehicleId}/track")
+    public ResponseEntity<StreamingResponseBody> getVehicleTrack(
+            @PathVariable Long vehicleId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Double toleranceMeters,
+            @RequestParam(required = false) Integer bucketSeconds) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(adminService.streamVehicleTrack(vehicleId, from, to, cursor, limit, toleranceMeters, bucketSeconds));
+    }
+
     @PostMapping("/allocations")
     public ResponseEntity<VehicleAllocation> allocateVehicle(@RequestBody VehicleAllocationDTO dto) {
         return ResponseEntity.ok(adminService.allocateVehicle(dto));
     }
 
+    @PostMapping("/allocations/roster")
+    public ResponseEntity<RosterResultDTO> allocateRoster(@RequestBody RosterDTO dto) {
+        return ResponseEntity.ok(adminService.allocateRoster(dto));
+    }
+
     @GetMapping("/allocations")
-    public ResponseEntity<List<VehicleAllocation>> getAllocations() {
-        return ResponseEntity.ok(adminService.getAllocations(null));
+    public ResponseEntity<List<VehicleAllocation>> getAllocations(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(adminService.getAllocations(date));
+    }
+
+    @GetMapping("/allocations/page")
+    public ResponseEntity<CursorPageDTO<AllocationSummaryDTO>> getAllocationPage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(adminService.getAllocationPage(date, cursor, limit));
     }
 
     @PostMapping("/orders")
@@ -87,18 +160,77 @@ public class AdminController {
         return ResponseEntity.ok(adminService.createOrder(dto));
     }
 
+    @PostMapping("/orders/bulk")
+    public ResponseEntity<BulkOrderResultDTO> createOrders(@RequestBody List<OrderDTO> dtos) {
+        return ResponseEntity.ok(adminService.createOrders(dtos));
+    }
+
     @GetMapping("/shifts")
     public ResponseEntity<List<Shift>> getAllShifts() {
         return ResponseEntity.ok(adminService.getAllShifts());
     }
 
+    @GetMapping("/shifts/page")
+    public ResponseEntity<CursorPageDTO<ShiftSummaryDTO>> getShiftPage(
+            @RequestParam(required = false) Shift.ShiftStatus status,
+            @RequestParam(required = false) Long driverId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(adminService.getShiftPage(status, driverId, cursor, limit));
+    }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(adminService.getCacheStats());
+    }
+
+    @GetMapping("/gps-filter-stats")
+    public ResponseEntity<GpsFilterStatsDTO> getGpsFilterStats() {
+        return ResponseEntity.ok(adminService.getGpsFilterStats());
+    }
+
+    @GetMapping("/geofence-transit-stats")
+    public ResponseEntity<GeofenceTransitStatsDTO> getGeofenceTransitStats() {
+        return ResponseEntity.ok(adminService.getGeofenceTransitStats());
+    }
+
     @GetMapping("/fleet-status")
-    public ResponseEntity<List<GpsLog>> getFleetStatus() {
+    public ResponseEntity<List<VehiclePositionDTO>> getFleetStatus() {
         return ResponseEntity.ok(adminService.getFleetStatus());
     }
 
+    @GetMapping(value = "/fleet-status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamFleetStatus() {
+        return adminService.streamFleetStatus();
+    }
+
     @GetMapping("/orders")
     public ResponseEntity<List<Order>> getAllOrders() {
         return ResponseEntity.ok(adminService.getAllOrders());
     }
+
+    @GetMapping("/orders/page")
+    public ResponseEntity<CursorPageDTO<OrderSummaryDTO>> getOrderPage(
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) Long terminalId,
+            @RequestParam(required = false) Long shiftId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(adminService.getOrderPage(status, terminalId, shiftId, from, to, cursor, limit));
+    }
+
+    @PostMapping("/dispatch/optimize")
+    public ResponseEntity<DispatchPlanDTO> optimizeDispatch(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Long timeBudgetMs,
+            @RequestParam(defaultValue = "false") boolean apply) {
+        return ResponseEntity.ok(adminService.optimizeDispatch(date, timeBudgetMs, apply));
+    }
+
+    @GetMapping("/orders/eta")
+    public ResponseEntity<FleetEtaDTO> getOrderEtas() {
+        return ResponseEntity.ok(adminService.getOrderEtas());
+    }
 }
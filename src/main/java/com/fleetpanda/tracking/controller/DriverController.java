@@ -52,4 +52,9 @@ public class DriverController {
         driverService.sendGpsUpdate(dto);
         return ResponseEntity.ok().build();
     }
+
+    @PostMapping("/gps/batch")
+    public ResponseEntity<GpsBatchResultDTO> sendGpsBatch(@RequestBody List<GpsLogDTO> dtos) {
+        return ResponseEntity.ok(driverService.sendGpsBatch(dtos));
+    }
 }
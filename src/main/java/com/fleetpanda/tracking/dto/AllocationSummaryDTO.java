@@ -0,0 +1,15 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+@Value
+public class AllocationSummaryDTO {
+    Long id;
+    LocalDate date;
+    Long driverId;
+    String driverName;
+    Long vehicleId;
+    String licensePlate;
+}
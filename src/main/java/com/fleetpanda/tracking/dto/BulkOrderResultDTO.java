@@ -0,0 +1,14 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkOrderResultDTO {
+    private int received;
+    private int created;
+    // Rows that were skipped, by their index in the request
+    private List<RowErrorDTO> errors = new ArrayList<>();
+}
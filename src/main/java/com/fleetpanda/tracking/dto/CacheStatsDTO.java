@@ -0,0 +1,17 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Value;
+
+@Value
+public class CacheStatsDTO {
+    String name;
+    long size;
+    long hitCount;
+    long missCount;
+    long evictionCount;
+
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+}
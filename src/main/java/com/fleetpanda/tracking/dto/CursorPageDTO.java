@@ -0,0 +1,15 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list. {@code nextCursor} is the id to pass as {@code cursor}
+ * for the following page, or null on the last page.
+ */
+@Value
+public class CursorPageDTO<T> {
+    List<T> items;
+    Long nextCursor;
+}
@@ -0,0 +1,26 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A dispatch plan for one day. Distances are the sum of hub-to-terminal legs, after the
+ * construction heuristic and after local search; {@code appliedOrders} is how many orders were
+ * written to their shifts, zero unless the plan was applied.
+ */
+@Value
+public class DispatchPlanDTO {
+    LocalDate date;
+    int orders;
+    int assignedOrders;
+    double constructionDistanceMeters;
+    double distanceMeters;
+    int rounds;
+    int moves;
+    long elapsedMs;
+    int appliedOrders;
+    List<VehicleDispatchDTO> vehicles;
+    List<Long> unassignedOrderIds;
+}
@@ -0,0 +1,18 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ETAs for every open order. {@code recomputedVehicles} counts the vehicles whose ETAs had to
+ * be recomputed because they moved or their orders changed; the rest were reused.
+ */
+@Value
+public class FleetEtaDTO {
+    LocalDateTime computedAt;
+    int vehicles;
+    int recomputedVehicles;
+    List<OrderEtaDTO> orders;
+}
@@ -0,0 +1,10 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Value;
+
+@Value
+public class GeofenceTransitStatsDTO {
+    long queued;
+    long dropped;
+    long awaitingCatchUp;
+}
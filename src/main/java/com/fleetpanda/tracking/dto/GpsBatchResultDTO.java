@@ -0,0 +1,16 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Data;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+@Data
+public class GpsBatchResultDTO {
+    private int received;
+    private int accepted;
+    // Valid fixes the ping filter did not store: duplicates, stale and dead-band fixes
+    private int filtered;
+    private int rejected;
+    private Set<Long> unknownVehicleIds = new TreeSet<>();
+}
@@ -0,0 +1,20 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Value;
+
+@Value
+public class GpsFilterStatsDTO {
+    long kept;
+    long suppressed;
+    long duplicates;
+    long stale;
+
+    public long getDropped() {
+        return suppressed + duplicates + stale;
+    }
+
+    public double getDropRate() {
+        long total = kept + getDropped();
+        return total == 0 ? 0.0 : (double) getDropped() / total;
+    }
+}
@@ -0,0 +1,16 @@
+package com.fleetpanda.tracking.dto;
+
+import com.fleetpanda.tracking.entity.Inventory;
+import lombok.Value;
+
+/**
+ * Stock of a product at a location at the requested point in time.
+ */
+@Value
+public class InventoryLevelDTO {
+    Inventory.LocationType locationType;
+    Long locationId;
+    Long productId;
+    String productName;
+    Double quantity;
+}
@@ -0,0 +1,17 @@
+package com.fleetpanda.tracking.dto;
+
+import com.fleetpanda.tracking.entity.Inventory;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class InventorySummaryDTO {
+    Long id;
+    Inventory.LocationType locationType;
+    Long locationId;
+    Long productId;
+    String productName;
+    Double quantity;
+    LocalDateTime updatedAt;
+}
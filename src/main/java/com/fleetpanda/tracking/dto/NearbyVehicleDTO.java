@@ -0,0 +1,18 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * A vehicle's last known position together with its distance from the queried origin.
+ */
+@Value
+public class NearbyVehicleDTO {
+    Long vehicleId;
+    String licensePlate;
+    Double latitude;
+    Double longitude;
+    LocalDateTime timestamp;
+    double distanceMeters;
+}
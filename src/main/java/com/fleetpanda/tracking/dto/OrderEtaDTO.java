@@ -0,0 +1,23 @@
+package com.fleetpanda.tracking.dto;
+
+import com.fleetpanda.tracking.entity.Order;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estimated arrival of an order's vehicle at the order's terminal. The distance, speed and
+ * arrival are null when the vehicle has not reported a position yet.
+ */
+@Value
+public class OrderEtaDTO {
+    Long orderId;
+    Order.OrderStatus status;
+    Long shiftId;
+    Long vehicleId;
+    Long terminalId;
+    Double distanceMeters;
+    Double speedKmh;
+    LocalDateTime positionTimestamp;
+    LocalDateTime estimatedArrival;
+}
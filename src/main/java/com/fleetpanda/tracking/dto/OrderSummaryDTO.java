@@ -0,0 +1,25 @@
+package com.fleetpanda.tracking.dto;
+
+import com.fleetpanda.tracking.entity.Order;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class OrderSummaryDTO {
+    Long id;
+    Order.OrderStatus status;
+    Double quantity;
+    String failReason;
+    Long shiftId;
+    Long driverId;
+    String driverName;
+    Long vehicleId;
+    String licensePlate;
+    Long terminalId;
+    String terminalName;
+    Long productId;
+    String productName;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+}
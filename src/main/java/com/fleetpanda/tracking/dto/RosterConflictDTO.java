@@ -0,0 +1,18 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Why a roster pair was not allocated on {@code date}, or on any day when {@code date} is null.
+ * {@code pairIndex} is the pair's position in the request.
+ */
+@Value
+public class RosterConflictDTO {
+    int pairIndex;
+    Long driverId;
+    Long vehicleId;
+    LocalDate date;
+    String message;
+}
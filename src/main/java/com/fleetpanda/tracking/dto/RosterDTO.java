@@ -0,0 +1,14 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class RosterDTO {
+    // Both ends are inclusive
+    private LocalDate from;
+    private LocalDate to;
+    private List<RosterPairDTO> pairs;
+}
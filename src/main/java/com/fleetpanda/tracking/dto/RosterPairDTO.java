@@ -0,0 +1,9 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Data;
+
+@Data
+public class RosterPairDTO {
+    private Long driverId;
+    private Long vehicleId;
+}
@@ -0,0 +1,15 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class RosterResultDTO {
+    private int pairs;
+    private int days;
+    private int created;
+    // Pair/day combinations that were skipped
+    private List<RosterConflictDTO> conflicts = new ArrayList<>();
+}
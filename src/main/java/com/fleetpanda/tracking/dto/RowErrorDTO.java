@@ -0,0 +1,12 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Value;
+
+/**
+ * Why one row of a bulk request was rejected; {@code index} is its position in the request.
+ */
+@Value
+public class RowErrorDTO {
+    int index;
+    String message;
+}
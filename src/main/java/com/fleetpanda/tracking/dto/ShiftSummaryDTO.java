@@ -0,0 +1,22 @@
+package com.fleetpanda.tracking.dto;
+
+import com.fleetpanda.tracking.entity.Shift;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class ShiftSummaryDTO {
+    Long id;
+    Shift.ShiftStatus status;
+    Long driverId;
+    String driverName;
+    Long vehicleId;
+    String licensePlate;
+    LocalDateTime startTime;
+    LocalDateTime endTime;
+    Double distanceMeters;
+    Long movingSeconds;
+    Long idleSeconds;
+    Double maxSpeedKmh;
+}
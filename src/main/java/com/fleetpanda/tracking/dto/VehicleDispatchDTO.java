@@ -0,0 +1,23 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One allocated vehicle's share of a dispatch plan. {@code hubId} is null for a vehicle with no
+ * known position, which loads at whichever hub is nearest each terminal; {@code load} includes
+ * the orders its shift already had.
+ */
+@Value
+public class VehicleDispatchDTO {
+    Long allocationId;
+    Long shiftId;
+    Long vehicleId;
+    Long driverId;
+    Long hubId;
+    double capacity;
+    double load;
+    double distanceMeters;
+    List<Long> orderIds;
+}
@@ -0,0 +1,18 @@
+package com.fleetpanda.tracking.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable snapshot of a vehicle's last known position. Instances are replaced, never mutated,
+ * so they can be shared freely between the ingest path and readers.
+ */
+@Value
+public class VehiclePositionDTO {
+    Long vehicleId;
+    String licensePlate;
+    Double latitude;
+    Double longitude;
+    LocalDateTime timestamp;
+}
@@ -0,0 +1,45 @@
+package com.fleetpanda.tracking.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A vehicle's GPS fixes for one closed day, compacted out of gps_log into a single compressed
+ * blob (see {@code GpsChunk}). Written and read with plain JDBC; the entity only declares the
+ * table.
+ */
+@Entity
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_gps_archive_chunk_vehicle_date", columnNames = {"vehicle_id", "date"})
+})
+public class GpsArchiveChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long vehicleId;
+
+    private LocalDate date;
+
+    private Integer pointCount;
+
+    private LocalDateTime firstTimestamp;
+
+    private LocalDateTime lastTimestamp;
+
+    @Column(length = 64 * 1024 * 1024)
+    private byte[] data;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
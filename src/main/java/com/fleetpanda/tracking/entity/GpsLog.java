@@ -1,17 +1,37 @@
 package com.fleetpanda.tracking.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Getter
 @Setter
-public class GpsLog extends BaseEntity {
+public class GpsLog {
 
-    @ManyToOne
+    // GPS logs are the only high-volume table, so unlike BaseEntity we use a pooled
+    // sequence here: IDENTITY forces one round trip per row and disables JDBC batching.
+    // JPA has no way to swap the generator of an inherited @Id, so GpsLog does not extend
+    // BaseEntity and repeats its annotations below; keep the two in step.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "gps_log_seq")
+    @SequenceGenerator(name = "gps_log_seq", sequenceName = "gps_log_id_seq", allocationSize = 50)
+    private Long id;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "vehicle_id")
     private Vehicle vehicle;
 
@@ -7,6 +7,12 @@ import lombok.Setter;
 @Entity
 @Getter
 @Setter
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_inventory_location_product",
+                columnNames = {"location_id", "location_type", "product_id"})
+}, indexes = {
+        @Index(name = "idx_inventory_location_id", columnList = "location_type, location_id, id")
+})
 public class Inventory extends BaseEntity {
 
     private Long locationId;
@@ -14,7 +20,7 @@ public class Inventory extends BaseEntity {
     @Enumerated(EnumType.STRING)
     private LocationType locationType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 
@@ -0,0 +1,49 @@
+package com.fleetpanda.tracking.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One signed change to the stock of a product at a location. Rows are only ever inserted, so
+ * the ledger can answer what the stock was at any point in time.
+ */
+@Entity
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@Table(indexes = {
+        @Index(name = "idx_inventory_movement_occurred_at", columnList = "occurred_at")
+})
+public class InventoryMovement {
+
+    // Append-only, so unlike BaseEntity there is no updatedAt
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long locationId;
+
+    @Enumerated(EnumType.STRING)
+    private Inventory.LocationType locationType;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    private Double quantity;
+
+    @Enumerated(EnumType.STRING)
+    private MovementType type;
+
+    private Long orderId;
+
+    private LocalDateTime occurredAt;
+
+    public enum MovementType {
+        OPENING, DELIVERY
+    }
+}
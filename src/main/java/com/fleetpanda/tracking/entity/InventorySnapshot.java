@@ -0,0 +1,40 @@
+package com.fleetpanda.tracking.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock of a product at a location as of {@code snapshotAt}, folded from the movement ledger.
+ * Every location is snapshotted at the same instant, so one snapshot time covers the whole
+ * inventory.
+ */
+@Entity
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Getter
+@Setter
+@Table(indexes = {
+        @Index(name = "idx_inventory_snapshot_at", columnList = "snapshot_at, location_type, location_id")
+})
+public class InventorySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private LocalDateTime snapshotAt;
+
+    private Long locationId;
+
+    @Enumerated(EnumType.STRING)
+    private Inventory.LocationType locationType;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    private Double quantity;
+}
@@ -7,18 +7,23 @@ import lombok.Setter;
 @Entity
 @Getter
 @Setter
-@Table(name = "orders") // Order is a reserved keyword in SQL
+@Table(name = "orders", indexes = { // Order is a reserved keyword in SQL
+        @Index(name = "idx_orders_status_id", columnList = "status, id"),
+        @Index(name = "idx_orders_terminal_id", columnList = "terminal_id, id"),
+        @Index(name = "idx_orders_shift_id", columnList = "shift_id, id"),
+        @Index(name = "idx_orders_created_at", columnList = "created_at, id")
+})
 public class Order extends BaseEntity {
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "shift_id")
     private Shift shift;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "terminal_id")
     private Terminal terminal;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 
@@ -9,13 +9,17 @@ import java.time.LocalDateTime;
 @Entity
 @Getter
 @Setter
+@Table(indexes = {
+        @Index(name = "idx_shift_status_id", columnList = "status, id"),
+        @Index(name = "idx_shift_driver_id", columnList = "driver_id, id")
+})
 public class Shift extends BaseEntity {
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "driver_id")
     private Driver driver;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "vehicle_id")
     private Vehicle vehicle;
 
@@ -25,6 +29,9 @@ public class Shift extends BaseEntity {
     @Enumerated(EnumType.STRING)
     private ShiftStatus status;
 
+    @Embedded
+    private TripSummary tripSummary;
+
     public enum ShiftStatus {
         SCHEDULED, ACTIVE, COMPLETED
     }
@@ -0,0 +1,35 @@
+package com.fleetpanda.tracking.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Distance, moving time, idle time and top speed of a shift, computed from its GPS fixes as
+ * they arrive. Stored on the shift when it ends; null for shifts that ended without any.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripSummary {
+
+    @Column(name = "trip_distance_meters")
+    private Double distanceMeters;
+
+    @Column(name = "trip_moving_seconds")
+    private Long movingSeconds;
+
+    @Column(name = "trip_idle_seconds")
+    private Long idleSeconds;
+
+    @Column(name = "trip_max_speed_kmh")
+    private Double maxSpeedKmh;
+
+    @Column(name = "trip_fix_count")
+    private Long fixCount;
+}
@@ -12,14 +12,16 @@ import java.time.LocalDate;
 @Table(uniqueConstraints = {
         @UniqueConstraint(columnNames = { "vehicle_id", "date" }),
         @UniqueConstraint(columnNames = { "driver_id", "date" })
+}, indexes = {
+        @Index(name = "idx_vehicle_allocation_date_id", columnList = "date, id")
 })
 public class VehicleAllocation extends BaseEntity {
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "driver_id")
     private Driver driver;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "vehicle_id")
     private Vehicle vehicle;
 
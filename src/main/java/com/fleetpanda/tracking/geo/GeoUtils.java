@@ -0,0 +1,41 @@
+package com.fleetpanda.tracking.geo;
+
+/**
+ * Distance helpers for WGS84 coordinates in degrees. Distances are in metres.
+ */
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private GeoUtils() {
+    }
+
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Distance from point P to the segment A-B. Uses an equirectangular projection around A,
+     * which is accurate to well under a metre for the few-kilometre segments of a GPS track.
+     */
+    public static double segmentDistanceMeters(double pLat, double pLon,
+                                               double aLat, double aLon,
+                                               double bLat, double bLon) {
+        double cosLat = Math.cos(Math.toRadians(aLat));
+        double px = Math.toRadians(pLon - aLon) * cosLat;
+        double py = Math.toRadians(pLat - aLat);
+        double bx = Math.toRadians(bLon - aLon) * cosLat;
+        double by = Math.toRadians(bLat - aLat);
+
+        double lengthSquared = bx * bx + by * by;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * bx + py * by) / lengthSquared));
+        double dx = px - t * bx;
+        double dy = py - t * by;
+        return Math.sqrt(dx * dx + dy * dy) * EARTH_RADIUS_METERS;
+    }
+}
@@ -0,0 +1,201 @@
+package com.fleetpanda.tracking.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uniform lat/lon grid over a set of moving points, keyed by id. Updates move a point between
+ * cells in O(1); radius and k-nearest queries only visit the cells around the query point, so
+ * their cost depends on local density rather than on the total number of points.
+ */
+public class SpatialGrid {
+
+    private static final double METERS_PER_DEGREE = Math.toRadians(1) * GeoUtils.EARTH_RADIUS_METERS;
+
+    private final double cellDegrees;
+    private final ConcurrentHashMap<Long, Point> points = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public SpatialGrid(double cellDegrees) {
+        if (cellDegrees <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellDegrees = cellDegrees;
+    }
+
+    public void put(long id, double latitude, double longitude) {
+        long cell = cellKey(row(latitude), column(longitude));
+        // compute() serializes updates per id, so a point is never in two cells at once
+        points.compute(id, (key, previous) -> {
+            if (previous == null || previous.cell != cell) {
+                if (previous != null) {
+                    removeFromCell(previous.cell, id);
+                }
+                cells.computeIfAbsent(cell, c -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+            return new Point(id, latitude, longitude, cell);
+        });
+    }
+
+    public void remove(long id) {
+        points.computeIfPresent(id, (key, previous) -> {
+            removeFromCell(previous.cell, id);
+            return null;
+        });
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * All points within {@code radiusMeters} of the origin, nearest first.
+     */
+    public List<Neighbor> withinRadius(double latitude, double longitude, double radiusMeters) {
+        int rowSpan = (int) Math.ceil(radiusMeters / (METERS_PER_DEGREE * cellDegrees));
+        int columnSpan = (int) Math.ceil(radiusMeters / cellWidthMeters(latitude, rowSpan));
+
+        List<Neighbor> result = new ArrayList<>();
+        if ((long) (2 * rowSpan + 1) * (2 * columnSpan + 1) > points.size()) {
+            // A huge radius over a sparse grid is cheaper as a plain scan
+            for (Point point : points.values()) {
+                addIfWithin(result, point, latitude, longitude, radiusMeters);
+            }
+        } else {
+            int centerRow = row(latitude);
+            int centerColumn = column(longitude);
+            for (int r = centerRow - rowSpan; r <= centerRow + rowSpan; r++) {
+                for (int c = centerColumn - columnSpan; c <= centerColumn + columnSpan; c++) {
+                    Set<Long> ids = cells.get(cellKey(r, c));
+                    if (ids == null) {
+                        continue;
+                    }
+                    for (Long id : ids) {
+                        Point point = points.get(id);
+                        if (point != null) {
+                            addIfWithin(result, point, latitude, longitude, radiusMeters);
+                        }
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparingDouble(Neighbor::distanceMeters));
+        return result;
+    }
+
+    /**
+     * The {@code k} points nearest to the origin, nearest first. Searches rings of cells outwards
+     * and stops once no unvisited cell can hold anything closer than the current k-th neighbour.
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, int k) {
+        if (k <= 0 || points.isEmpty()) {
+            return List.of();
+        }
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(
+                Comparator.comparingDouble(Neighbor::distanceMeters).reversed());
+
+        int centerRow = row(latitude);
+        int centerColumn = column(longitude);
+        int visitedCells = 0;
+        for (int ring = 0; ; ring++) {
+            // Anything outside rings 0..ring-1 is at least (ring - 1) cell widths away; cells
+            // narrow towards the poles, so use the narrowest width the ring can reach
+            if (best.size() == k && best.peek().distanceMeters() <= (ring - 1) * cellWidthMeters(latitude, ring)) {
+                break;
+            }
+            if (visitedCells > points.size()) {
+                // Sparse neighbourhood: finish with a scan instead of walking empty rings
+                return nearestByScan(latitude, longitude, k);
+            }
+            for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+                boolean edgeRow = r == centerRow - ring || r == centerRow + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int c = centerColumn - ring; c <= centerColumn + ring; c += Math.max(step, 1)) {
+                    visitedCells++;
+                    Set<Long> ids = cells.get(cellKey(r, c));
+                    if (ids == null) {
+                        continue;
+                    }
+                    for (Long id : ids) {
+                        Point point = points.get(id);
+                        if (point != null) {
+                            offer(best, k, new Neighbor(id, point.latitude, point.longitude,
+                                    GeoUtils.haversineMeters(latitude, longitude, point.latitude, point.longitude)));
+                        }
+                    }
+                }
+            }
+            if (best.size() == points.size()) {
+                break;
+            }
+        }
+        return sortedAscending(best);
+    }
+
+    private List<Neighbor> nearestByScan(double latitude, double longitude, int k) {
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(
+                Comparator.comparingDouble(Neighbor::distanceMeters).reversed());
+        for (Point point : points.values()) {
+            offer(best, k, new Neighbor(point.id, point.latitude, point.longitude,
+                    GeoUtils.haversineMeters(latitude, longitude, point.latitude, point.longitude)));
+        }
+        return sortedAscending(best);
+    }
+
+    private static void offer(PriorityQueue<Neighbor> best, int k, Neighbor candidate) {
+        if (best.size() < k) {
+            best.add(candidate);
+        } else if (candidate.distanceMeters() < best.peek().distanceMeters()) {
+            best.poll();
+            best.add(candidate);
+        }
+    }
+
+    private static List<Neighbor> sortedAscending(PriorityQueue<Neighbor> best) {
+        List<Neighbor> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceMeters));
+        return result;
+    }
+
+    private static void addIfWithin(List<Neighbor> result, Point point, double latitude, double longitude,
+                                    double radiusMeters) {
+        double distance = GeoUtils.haversineMeters(latitude, longitude, point.latitude, point.longitude);
+        if (distance <= radiusMeters) {
+            result.add(new Neighbor(point.id, point.latitude, point.longitude, distance));
+        }
+    }
+
+    private double cellWidthMeters(double latitude, int rings) {
+        double farthestLatitude = Math.min(89.0, Math.abs(latitude) + rings * cellDegrees);
+        return METERS_PER_DEGREE * cellDegrees * Math.max(Math.cos(Math.toRadians(farthestLatitude)), 1e-6);
+    }
+
+    private void removeFromCell(long cell, long id) {
+        cells.computeIfPresent(cell, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    private record Point(long id, double latitude, double longitude, long cell) {
+    }
+
+    public record Neighbor(long id, double latitude, double longitude, double distanceMeters) {
+    }
+}
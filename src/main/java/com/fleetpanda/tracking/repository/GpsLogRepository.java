@@ -2,10 +2,16 @@ package com.fleetpanda.tracking.repository;
 
 import com.fleetpanda.tracking.entity.GpsLog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.fleetpanda.tracking.entity.Vehicle;
+import java.util.List;
 import java.util.Optional;
 
 public interface GpsLogRepository extends JpaRepository<GpsLog, Long> {
     Optional<GpsLog> findTopByVehicleOrderByTimestampDesc(Vehicle vehicle);
+
+    @Query(value = "SELECT DISTINCT ON (vehicle_id) vehicle_id AS vehicleId, latitude, longitude, timestamp "
+            + "FROM gps_log ORDER BY vehicle_id, timestamp DESC", nativeQuery = true)
+    List<LatestPositionView> findLatestPerVehicle();
 }
@@ -0,0 +1,7 @@
+package com.fleetpanda.tracking.repository;
+
+import com.fleetpanda.tracking.entity.InventoryMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+}
@@ -1,10 +1,32 @@
 package com.fleetpanda.tracking.repository;
 
 import com.fleetpanda.tracking.entity.Inventory;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     Optional<Inventory> findByLocationIdAndLocationTypeAndProductId(Long locationId,
             Inventory.LocationType locationType, Long productId);
+
+    @EntityGraph(attributePaths = "product")
+    @Query("select i from Inventory i")
+    List<Inventory> findAllWithDetails();
+
+    /**
+     * Adds {@code quantity} to the stock of a product at a location, creating the row on first
+     * use. A single upsert on uk_inventory_location_product, so concurrent deliveries to the same
+     * terminal serialize on the row lock instead of overwriting each other's totals.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO inventory (location_id, location_type, product_id, quantity, created_at, updated_at) "
+            + "VALUES (:locationId, :locationType, :productId, :quantity, LOCALTIMESTAMP, LOCALTIMESTAMP) "
+            + "ON CONFLICT (location_id, location_type, product_id) DO UPDATE "
+            + "SET quantity = COALESCE(inventory.quantity, 0) + EXCLUDED.quantity, updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    int addQuantity(Long locationId, String locationType, Long productId, Double quantity);
 }
@@ -0,0 +1,13 @@
+package com.fleetpanda.tracking.repository;
+
+import java.time.LocalDateTime;
+
+public interface LatestPositionView {
+    Long getVehicleId();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    LocalDateTime getTimestamp();
+}
@@ -0,0 +1,19 @@
+package com.fleetpanda.tracking.repository;
+
+import com.fleetpanda.tracking.entity.Order;
+
+public interface OpenOrderView {
+    Long getId();
+
+    Order.OrderStatus getStatus();
+
+    Long getShiftId();
+
+    Long getVehicleId();
+
+    Long getTerminalId();
+
+    Double getTerminalLatitude();
+
+    Double getTerminalLongitude();
+}
@@ -1,9 +1,73 @@
 package com.fleetpanda.tracking.repository;
 
 import com.fleetpanda.tracking.entity.Order;
+import com.fleetpanda.tracking.entity.Shift;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    @EntityGraph(attributePaths = {"shift.driver", "shift.vehicle", "terminal", "product"})
+    @Query("select o from Order o")
+    List<Order> findAllWithDetails();
+
+    @EntityGraph(attributePaths = {"shift.driver", "shift.vehicle", "terminal", "product"})
     List<Order> findByShiftId(Long shiftId);
+
+    String OPEN_ORDER_SELECT = "select o.id as id, o.status as status, s.id as shiftId, v.id as vehicleId, "
+            + "t.id as terminalId, t.latitude as terminalLatitude, t.longitude as terminalLongitude "
+            + "from Order o join o.shift s join s.vehicle v join o.terminal t ";
+
+    /**
+     * Every order in one of the given statuses, flattened to what an ETA needs.
+     */
+    @Query(OPEN_ORDER_SELECT + "where o.status in :statuses")
+    List<OpenOrderView> findOpenOrders(Collection<Order.OrderStatus> statuses);
+
+    @Query(OPEN_ORDER_SELECT + "where o.status in :statuses and s.id in :shiftIds")
+    List<OpenOrderView> findOpenOrdersByShiftIds(Collection<Order.OrderStatus> statuses, Collection<Long> shiftIds);
+
+    @Query(OPEN_ORDER_SELECT + "where o.status in :statuses and v.id = :vehicleId")
+    List<OpenOrderView> findOpenOrdersByVehicleId(Collection<Order.OrderStatus> statuses, Long vehicleId);
+
+    /**
+     * PENDING orders not yet given to a shift, created before {@code before}, for the dispatch
+     * optimizer.
+     */
+    @Query("select o.id as id, o.quantity as quantity, t.id as terminalId, t.latitude as terminalLatitude, "
+            + "t.longitude as terminalLongitude from Order o join o.terminal t "
+            + "where o.shift is null and o.status = PENDING and o.createdAt < :before order by o.id")
+    List<UnassignedOrderView> findUnassignedOrders(LocalDateTime before);
+
+    /**
+     * Total quantity of each shift's orders in one of the given statuses.
+     */
+    @Query("select o.shift.id as shiftId, sum(o.quantity) as quantity from Order o "
+            + "where o.status in :statuses and o.shift.id in :shiftIds group by o.shift.id")
+    List<ShiftLoadView> sumQuantityByShift(Collection<Order.OrderStatus> statuses, Collection<Long> shiftIds);
+
+    /**
+     * Moves the orders of the vehicle's shifts in {@code shiftStatus} for one terminal from
+     * {@code from} to {@code to}, in a single statement.
+     */
+    @Modifying
+    @Query("update Order o set o.status = :to, o.updatedAt = local datetime "
+            + "where o.status = :from and o.terminal.id = :terminalId and o.shift.id in "
+            + "(select s.id from Shift s where s.vehicle.id = :vehicleId and s.status = :shiftStatus)")
+    int updateStatusForVehicleAtTerminal(Long vehicleId, Long terminalId, Shift.ShiftStatus shiftStatus,
+                                         Order.OrderStatus from, Order.OrderStatus to);
+
+    /**
+     * Sets the order's status unless it already has it. Returns 0 when the order does not exist
+     * or was already moved there, which lets concurrent callers tell who won the transition.
+     */
+    @Modifying
+    @Query("update Order o set o.status = :status, o.updatedAt = local datetime "
+            + "where o.id = :orderId and o.status <> :status")
+    int updateStatusIfChanged(Long orderId, Order.OrderStatus status);
 }
@@ -0,0 +1,7 @@
+package com.fleetpanda.tracking.repository;
+
+public interface ShiftLoadView {
+    Long getShiftId();
+
+    Double getQuantity();
+}
@@ -1,9 +1,54 @@
 package com.fleetpanda.tracking.repository;
 
 import com.fleetpanda.tracking.entity.Shift;
+import com.fleetpanda.tracking.entity.TripSummary;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ShiftRepository extends JpaRepository<Shift, Long> {
+    @EntityGraph(attributePaths = {"driver", "vehicle"})
     Optional<Shift> findByDriverIdAndStatus(Long driverId, Shift.ShiftStatus status);
+
+    @EntityGraph(attributePaths = {"driver", "vehicle"})
+    List<Shift> findByDriverIdAndStatusIn(Long driverId, Collection<Shift.ShiftStatus> statuses);
+
+    @EntityGraph(attributePaths = {"driver", "vehicle"})
+    List<Shift> findByStatusIn(Collection<Shift.ShiftStatus> statuses);
+
+    @EntityGraph(attributePaths = {"driver", "vehicle"})
+    Optional<Shift> findWithDetailsById(Long id);
+
+    @EntityGraph(attributePaths = {"driver", "vehicle"})
+    @Query("select s from Shift s")
+    List<Shift> findAllWithDetails();
+
+    @Query("select s.id from Shift s where s.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    /**
+     * Activates a SCHEDULED shift. Returns 0 when the shift is no longer SCHEDULED.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Shift s set s.status = ACTIVE, s.startTime = :startTime, s.updatedAt = :startTime "
+            + "where s.id = :shiftId and s.status = SCHEDULED")
+    int start(Long shiftId, LocalDateTime startTime);
+
+    /**
+     * Completes a shift that has not been completed yet, recording its trip summary. Returns 0
+     * when it already was.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Shift s set s.status = COMPLETED, s.endTime = :endTime, s.updatedAt = :endTime, "
+            + "s.tripSummary = :tripSummary where s.id = :shiftId and s.status <> COMPLETED")
+    int end(Long shiftId, LocalDateTime endTime, TripSummary tripSummary);
 }
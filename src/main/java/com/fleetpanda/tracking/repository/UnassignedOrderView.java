@@ -0,0 +1,13 @@
+package com.fleetpanda.tracking.repository;
+
+public interface UnassignedOrderView {
+    Long getId();
+
+    Double getQuantity();
+
+    Long getTerminalId();
+
+    Double getTerminalLatitude();
+
+    Double getTerminalLongitude();
+}
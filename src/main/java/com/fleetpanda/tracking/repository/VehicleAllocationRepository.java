@@ -1,12 +1,36 @@
 package com.fleetpanda.tracking.repository;
 
+import com.fleetpanda.tracking.dto.AllocationSummaryDTO;
 import com.fleetpanda.tracking.entity.VehicleAllocation;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface VehicleAllocationRepository extends JpaRepository<VehicleAllocation, Long> {
     Optional<VehicleAllocation> findByVehicleIdAndDate(Long vehicleId, LocalDate date);
 
     Optional<VehicleAllocation> findByDriverIdAndDate(Long driverId, LocalDate date);
+
+    @EntityGraph(attributePaths = {"driver", "vehicle"})
+    @Query("select a from VehicleAllocation a")
+    List<VehicleAllocation> findAllWithDetails();
+
+    @EntityGraph(attributePaths = {"driver", "vehicle"})
+    List<VehicleAllocation> findByDate(LocalDate date);
+
+    /**
+     * Allocations between {@code from} and {@code to} (inclusive) that involve any of the given
+     * drivers or vehicles, for checking a whole roster against the existing plan in one query.
+     */
+    @Query("select new com.fleetpanda.tracking.dto.AllocationSummaryDTO("
+            + "a.id, a.date, d.id, d.name, v.id, v.licensePlate) "
+            + "from VehicleAllocation a join a.driver d join a.vehicle v "
+            + "where a.date between :from and :to and (d.id in :driverIds or v.id in :vehicleIds)")
+    List<AllocationSummaryDTO> findInRange(LocalDate from, LocalDate to,
+                                           Collection<Long> driverIds, Collection<Long> vehicleIds);
 }
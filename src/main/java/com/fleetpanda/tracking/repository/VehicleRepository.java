@@ -2,6 +2,12 @@ package com.fleetpanda.tracking.repository;
 
 import com.fleetpanda.tracking.entity.Vehicle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
+    @Query("select v.id from Vehicle v where v.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
 }
@@ -0,0 +1,133 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.*;
+import com.fleetpanda.tracking.entity.Inventory;
+import com.fleetpanda.tracking.entity.Order;
+import com.fleetpanda.tracking.entity.Shift;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Filtered, keyset-paginated admin lists. Pages are ordered newest first by id and continue
+ * from the last id of the previous page, so a page costs the same however deep the client
+ * scrolls. Rows are read straight into summary DTOs with one joined query; only the filters
+ * actually given end up in the SQL, so each combination can use its matching index.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AdminListingService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private final EntityManager entityManager;
+
+    public CursorPageDTO<OrderSummaryDTO> findOrders(Order.OrderStatus status, Long terminalId, Long shiftId,
+                                                     LocalDateTime from, LocalDateTime to,
+                                                     Long cursor, Integer limit) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new RuntimeException("'from' must be before 'to'");
+        }
+        Filter filter = new Filter("o")
+                .add("o.status = :status", "status", status)
+                .add("o.terminal.id = :terminalId", "terminalId", terminalId)
+                .add("o.shift.id = :shiftId", "shiftId", shiftId)
+                .add("o.createdAt >= :from", "from", from)
+                .add("o.createdAt < :to", "to", to);
+        String select = "select new com.fleetpanda.tracking.dto.OrderSummaryDTO("
+                + "o.id, o.status, o.quantity, o.failReason, s.id, d.id, d.name, v.id, v.licensePlate, "
+                + "t.id, t.name, p.id, p.name, o.createdAt, o.updatedAt) "
+                + "from Order o left join o.shift s left join s.driver d left join s.vehicle v "
+                + "left join o.terminal t left join o.product p";
+        return page(select, filter, cursor, limit, OrderSummaryDTO.class, OrderSummaryDTO::getId);
+    }
+
+    public CursorPageDTO<ShiftSummaryDTO> findShifts(Shift.ShiftStatus status, Long driverId,
+                                                     Long cursor, Integer limit) {
+        Filter filter = new Filter("s")
+                .add("s.status = :status", "status", status)
+                .add("s.driver.id = :driverId", "driverId", driverId);
+        String select = "select new com.fleetpanda.tracking.dto.ShiftSummaryDTO("
+                + "s.id, s.status, d.id, d.name, v.id, v.licensePlate, s.startTime, s.endTime, "
+                + "s.tripSummary.distanceMeters, s.tripSummary.movingSeconds, s.tripSummary.idleSeconds, "
+                + "s.tripSummary.maxSpeedKmh) "
+                + "from Shift s left join s.driver d left join s.vehicle v";
+        return page(select, filter, cursor, limit, ShiftSummaryDTO.class, ShiftSummaryDTO::getId);
+    }
+
+    public CursorPageDTO<AllocationSummaryDTO> findAllocations(LocalDate date, Long cursor, Integer limit) {
+        Filter filter = new Filter("a")
+                .add("a.date = :date", "date", date);
+        String select = "select new com.fleetpanda.tracking.dto.AllocationSummaryDTO("
+                + "a.id, a.date, d.id, d.name, v.id, v.licensePlate) "
+                + "from VehicleAllocation a left join a.driver d left join a.vehicle v";
+        return page(select, filter, cursor, limit, AllocationSummaryDTO.class, AllocationSummaryDTO::getId);
+    }
+
+    public CursorPageDTO<InventorySummaryDTO> findInventory(Inventory.LocationType locationType, Long locationId,
+                                                            Long productId, Long cursor, Integer limit) {
+        Filter filter = new Filter("i")
+                .add("i.locationType = :locationType", "locationType", locationType)
+                .add("i.locationId = :locationId", "locationId", locationId)
+                .add("i.product.id = :productId", "productId", productId);
+        String select = "select new com.fleetpanda.tracking.dto.InventorySummaryDTO("
+                + "i.id, i.locationType, i.locationId, p.id, p.name, i.quantity, i.updatedAt) "
+                + "from Inventory i left join i.product p";
+        return page(select, filter, cursor, limit, InventorySummaryDTO.class, InventorySummaryDTO::getId);
+    }
+
+    private <T> CursorPageDTO<T> page(String select, Filter filter, Long cursor, Integer limit,
+                                      Class<T> type, Function<T, Long> idOf) {
+        int pageSize = limit != null ? limit : DEFAULT_LIMIT;
+        if (pageSize <= 0 || pageSize > MAX_LIMIT) {
+            throw new RuntimeException("'limit' must be between 1 and " + MAX_LIMIT);
+        }
+        filter.add(filter.alias + ".id < :cursor", "cursor", cursor);
+
+        TypedQuery<T> query = entityManager.createQuery(
+                select + filter.where() + " order by " + filter.alias + ".id desc", type);
+        filter.parameters.forEach(query::setParameter);
+        // One extra row tells us whether another page exists without a count query
+        List<T> rows = query.setMaxResults(pageSize + 1).getResultList();
+
+        if (rows.size() <= pageSize) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, pageSize));
+        return new CursorPageDTO<>(items, idOf.apply(items.get(pageSize - 1)));
+    }
+
+    private static final class Filter {
+        private final String alias;
+        private final List<String> conditions = new ArrayList<>();
+        private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+        private Filter(String alias) {
+            this.alias = alias;
+        }
+
+        private Filter add(String condition, String name, Object value) {
+            if (value != null) {
+                conditions.add(condition);
+                parameters.put(name, value);
+            }
+            return this;
+        }
+
+        private String where() {
+            return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+        }
+    }
+}
@@ -4,12 +4,15 @@ import com.fleetpanda.tracking.dto.*;
 import com.fleetpanda.tracking.entity.*;
 import com.fleetpanda.tracking.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,7 +27,24 @@ public class AdminService {
     private final OrderRepository orderRepository;
     private final ShiftRepository shiftRepository;
     private final InventoryRepository inventoryRepository;
-    private final GpsLogRepository gpsLogRepository;
+    private final LatestPositionRegistry latestPositionRegistry;
+    private final FleetStreamService fleetStreamService;
+    private final TrackHistoryService trackHistoryService;
+    private final GeofenceService geofenceService;
+    private final AdminListingService adminListingService;
+    private final ReferenceDataCache referenceDataCache;
+    private final BulkOrderService bulkOrderService;
+    private final InventoryHistoryService inventoryHistoryService;
+    private final RosterService rosterService;
+    private final ShiftRegistry shiftRegistry;
+    private final GpsPingFilter gpsPingFilter;
+    private final OpenOrderRegistry openOrderRegistry;
+    private final OrderEtaService orderEtaService;
+    private final DispatchService dispatchService;
+    // Absent when fleet.geofence.auto-transit is off
+    private final ObjectProvider<GeofenceOrderTransitioner> geofenceOrderTransitioner;
+
+    private static final int MAX_NEAREST = 1000;
 
     // Hubs
     public Hub createHub(HubDTO dto) {
@@ -33,11 +53,14 @@ public class AdminService {
         hub.setAddress(dto.getAddress());
         hub.setLatitude(dto.getLatitude());
         hub.setLongitude(dto.getLongitude());
-        return hubRepository.save(hub);
+        Hub saved = hubRepository.save(hub);
+        referenceDataCache.cacheHub(saved);
+        geofenceService.registerHub(saved);
+        return saved;
     }
 
     public List<Hub> getAllHubs() {
-        return hubRepository.findAll();
+        return referenceDataCache.getAllHubs();
     }
 
     // Terminals
@@ -47,11 +70,14 @@ public class AdminService {
         terminal.setAddress(dto.getAddress());
         terminal.setLatitude(dto.getLatitude());
         terminal.setLongitude(dto.getLongitude());
-        return terminalRepository.save(terminal);
+        Terminal saved = terminalRepository.save(terminal);
+        referenceDataCache.cacheTerminal(saved);
+        geofenceService.registerTerminal(saved);
+        return saved;
     }
 
     public List<Terminal> getAllTerminals() {
-        return terminalRepository.findAll();
+        return referenceDataCache.getAllTerminals();
     }
 
     // Products
@@ -59,16 +85,28 @@ public class AdminService {
         Product product = new Product();
         product.setName(dto.getName());
         product.setType(dto.getType());
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        referenceDataCache.cacheProduct(saved);
+        return saved;
     }
 
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return referenceDataCache.getAllProducts();
     }
 
     // Inventory
     public List<Inventory> getAllInventory() {
-        return inventoryRepository.findAll();
+        return inventoryRepository.findAllWithDetails();
+    }
+
+    public List<InventoryLevelDTO> getInventoryAsOf(LocalDateTime asOf, Inventory.LocationType locationType,
+                                                    Long locationId, Long productId) {
+        return inventoryHistoryService.getLevelsAsOf(asOf, locationType, locationId, productId);
+    }
+
+    public CursorPageDTO<InventorySummaryDTO> getInventoryPage(Inventory.LocationType locationType, Long locationId,
+                                                               Long productId, Long cursor, Integer limit) {
+        return adminListingService.findInventory(locationType, locationId, productId, cursor, limit);
     }
 
     // Drivers
@@ -77,11 +115,13 @@ public class AdminService {
         driver.setName(dto.getName());
         driver.setLicenseNumber(dto.getLicenseNumber());
         driver.setStatus(Driver.DriverStatus.ACTIVE);
-        return driverRepository.save(driver);
+        Driver saved = driverRepository.save(driver);
+        referenceDataCache.cacheDriver(saved);
+        return saved;
     }
 
     public List<Driver> getAllDrivers() {
-        return driverRepository.findAll();
+        return referenceDataCache.getAllDrivers();
     }
 
     // Vehicles
@@ -90,11 +130,14 @@ public class AdminService {
         vehicle.setLicensePlate(dto.getLicensePlate());
         vehicle.setCapacity(dto.getCapacity());
         vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
-        return vehicleRepository.save(vehicle);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        referenceDataCache.cacheVehicle(saved);
+        latestPositionRegistry.registerVehicle(saved);
+        return saved;
     }
 
     public List<Vehicle> getAllVehicles() {
-        return vehicleRepository.findAll();
+        return referenceDataCache.getAllVehicles();
     }
 
     // Allocation
@@ -102,21 +145,21 @@ public class AdminService {
     public VehicleAllocation allocateVehicle(VehicleAllocationDTO dto) {
         // Check if vehicle is already allocated for the day
         if (allocationRepository.findByVehicleIdAndDate(dto.getVehicleId(), dto.getDate()).isPresent()) {
-            Vehicle vehicle = vehicleRepository.findById(dto.getVehicleId()).orElse(null);
+            Vehicle vehicle = referenceDataCache.findVehicle(dto.getVehicleId()).orElse(null);
             String plate = vehicle != null ? vehicle.getLicensePlate() : "ID " + dto.getVehicleId();
             throw new RuntimeException("Vehicle " + plate + " is already allocated for " + dto.getDate());
         }
 
         // Check if driver is already allocated for the day
         if (allocationRepository.findByDriverIdAndDate(dto.getDriverId(), dto.getDate()).isPresent()) {
-            Driver driver = driverRepository.findById(dto.getDriverId()).orElse(null);
+            Driver driver = referenceDataCache.findDriver(dto.getDriverId()).orElse(null);
             String name = driver != null ? driver.getName() : "ID " + dto.getDriverId();
             throw new RuntimeException("Driver " + name + " is already allocated for " + dto.getDate());
         }
 
-        Driver driver = driverRepository.findById(dto.getDriverId())
+        Driver driver = referenceDataCache.findDriver(dto.getDriverId())
                 .orElseThrow(() -> new RuntimeException("Driver not found"));
-        Vehicle vehicle = vehicleRepository.findById(dto.getVehicleId())
+        Vehicle vehicle = referenceDataCache.findVehicle(dto.getVehicleId())
                 .orElseThrow(() -> new RuntimeException("Vehicle not found"));
 
         VehicleAllocation allocation = new VehicleAllocation();
@@ -133,38 +176,37 @@ public class AdminService {
         shift.setStatus(Shift.ShiftStatus.SCHEDULED);
         // We don't set startTime yet
         shiftRepository.save(shift);
+        shiftRegistry.updateAfterCommit(shift);
 
         return allocation;
     }
 
+    public RosterResultDTO allocateRoster(RosterDTO dto) {
+        return rosterService.allocateRoster(dto);
+    }
+
     public List<VehicleAllocation> getAllocations(LocalDate date) {
-        // For simplicity returning all, but ideally filter by date if provided
-        return allocationRepository.findAll();
+        return date != null ? allocationRepository.findByDate(date) : allocationRepository.findAllWithDetails();
+    }
+
+    public CursorPageDTO<AllocationSummaryDTO> getAllocationPage(LocalDate date, Long cursor, Integer limit) {
+        return adminListingService.findAllocations(date, cursor, limit);
     }
 
     // Orders
     @Transactional
     public Order createOrder(OrderDTO dto) {
-        // Ideally we should check if the shift exists and is valid
-        // But for now, we might create orders before shift starts, or assign to a
-        // driver/vehicle directly?
-        // The prompt says "Create and assign orders to drivers".
-        // Let's assume we assign to a Shift (which is Driver + Vehicle + Date).
-        // If Shift doesn't exist yet, maybe we just store it?
-        // But Order entity has Shift relationship.
-        // Let's assume the admin selects a Shift or we create a Shift placeholder?
-        // Or maybe Order is assigned to a Driver for a Date?
-
-        // Let's stick to the entity: Order -> Shift.
-        // So we need a Shift ID.
-
-        Shift shift = shiftRepository.findById(dto.getShiftId())
-                .orElseThrow(() -> new RuntimeException("Shift not found"));
-
-        Terminal terminal = terminalRepository.findById(dto.getTerminalId())
+        // Orders without a shift wait for the dispatch optimizer to give them one
+        Shift shift = null;
+        if (dto.getShiftId() != null) {
+            shift = shiftRepository.findById(dto.getShiftId())
+                    .orElseThrow(() -> new RuntimeException("Shift not found"));
+        }
+
+        Terminal terminal = referenceDataCache.findTerminal(dto.getTerminalId())
                 .orElseThrow(() -> new RuntimeException("Terminal not found"));
 
-        Product product = productRepository.findById(dto.getProductId())
+        Product product = referenceDataCache.findProduct(dto.getProductId())
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
         Order order = new Order();
@@ -174,32 +216,127 @@ public class AdminService {
         order.setQuantity(dto.getQuantity());
         order.setStatus(Order.OrderStatus.PENDING);
 
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        if (shift != null) {
+            openOrderRegistry.reloadShiftsAfterCommit(List.of(shift.getId()));
+        }
+        return saved;
+    }
+
+    public BulkOrderResultDTO createOrders(List<OrderDTO> dtos) {
+        return bulkOrderService.createOrders(dtos);
+    }
+
+    // Dispatch
+    public DispatchPlanDTO optimizeDispatch(LocalDate date, Long timeBudgetMs, boolean apply) {
+        return dispatchService.optimize(date, timeBudgetMs, apply);
     }
 
     // Shifts
     public List<Shift> getAllShifts() {
-        return shiftRepository.findAll();
+        return shiftRepository.findAllWithDetails();
+    }
+
+    public CursorPageDTO<ShiftSummaryDTO> getShiftPage(Shift.ShiftStatus status, Long driverId,
+                                                       Long cursor, Integer limit) {
+        return adminListingService.findShifts(status, driverId, cursor, limit);
+    }
+
+    // Reference data cache
+    public List<CacheStatsDTO> getCacheStats() {
+        return referenceDataCache.getStats();
+    }
+
+    // GPS ping filter
+    public GpsFilterStatsDTO getGpsFilterStats() {
+        return gpsPingFilter.getStats();
+    }
+
+    // Geofence arrivals waiting to move orders to IN_TRANSIT
+    public GeofenceTransitStatsDTO getGeofenceTransitStats() {
+        GeofenceOrderTransitioner transitioner = geofenceOrderTransitioner.getIfAvailable();
+        return transitioner != null ? transitioner.getStats() : new GeofenceTransitStatsDTO(0, 0, 0);
     }
 
     // Fleet Status
-    public List<GpsLog> getFleetStatus() {
-        // Ideally use a custom query to get latest log per vehicle
-        // For simplicity, let's just return all logs or last 100?
-        // Or fetch all vehicles and find their latest log?
-        // Let's try to find latest log for each vehicle.
-        // Since we don't have a custom query ready, let's just return all logs for now
-        // (not efficient but works for mock data)
-        // Or better:
-        List<Vehicle> vehicles = vehicleRepository.findAll();
-        return vehicles.stream()
-                .map(vehicle -> gpsLogRepository.findTopByVehicleOrderByTimestampDesc(vehicle).orElse(null))
-                .filter(java.util.Objects::nonNull)
-                .collect(Collectors.toList());
+    public List<VehiclePositionDTO> getFleetStatus() {
+        // Served from memory; the registry is updated on every GPS write
+        return latestPositionRegistry.snapshot();
+    }
+
+    public SseEmitter streamFleetStatus() {
+        return fleetStreamService.subscribe();
+    }
+
+    // Proximity
+    public List<NearbyVehicleDTO> getNearestVehicles(Long hubId, Long terminalId, Double latitude, Double longitude,
+                                                     int k) {
+        if (k <= 0 || k > MAX_NEAREST) {
+            throw new RuntimeException("'k' must be between 1 and " + MAX_NEAREST);
+        }
+        Origin origin = resolveOrigin(hubId, terminalId, latitude, longitude);
+        return latestPositionRegistry.nearest(origin.latitude(), origin.longitude(), k);
+    }
+
+    public List<NearbyVehicleDTO> getVehiclesWithinRadius(Long hubId, Long terminalId, Double latitude,
+                                                          Double longitude, double radiusMeters) {
+        if (radiusMeters <= 0) {
+            throw new RuntimeException("'radiusMeters' must be positive");
+        }
+        Origin origin = resolveOrigin(hubId, terminalId, latitude, longitude);
+        return latestPositionRegistry.withinRadius(origin.latitude(), origin.longitude(), radiusMeters);
+    }
+
+    private Origin resolveOrigin(Long hubId, Long terminalId, Double latitude, Double longitude) {
+        int given = (hubId != null ? 1 : 0) + (terminalId != null ? 1 : 0)
+                + (latitude != null || longitude != null ? 1 : 0);
+        if (given != 1) {
+            throw new RuntimeException("Specify exactly one of hubId, terminalId or latitude/longitude");
+        }
+        if (hubId != null) {
+            Hub hub = referenceDataCache.findHub(hubId)
+                    .orElseThrow(() -> new RuntimeException("Hub not found"));
+            if (hub.getLatitude() == null || hub.getLongitude() == null) {
+                throw new RuntimeException("Hub has no coordinates");
+            }
+            return new Origin(hub.getLatitude(), hub.getLongitude());
+        }
+        if (terminalId != null) {
+            Terminal terminal = referenceDataCache.findTerminal(terminalId)
+                    .orElseThrow(() -> new RuntimeException("Terminal not found"));
+            if (terminal.getLatitude() == null || terminal.getLongitude() == null) {
+                throw new RuntimeException("Terminal has no coordinates");
+            }
+            return new Origin(terminal.getLatitude(), terminal.getLongitude());
+        }
+        if (latitude == null || longitude == null) {
+            throw new RuntimeException("Both latitude and longitude are required");
+        }
+        return new Origin(latitude, longitude);
+    }
+
+    private record Origin(double latitude, double longitude) {
+    }
+
+    // Track History
+    public StreamingResponseBody streamVehicleTrack(Long vehicleId, LocalDateTime from, LocalDateTime to,
+                                                    String cursor, Integer limit,
+                                                    Double toleranceMeters, Integer bucketSeconds) {
+        return trackHistoryService.streamTrack(vehicleId, from, to, cursor, limit, toleranceMeters, bucketSeconds);
     }
 
     // Orders
     public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+        return orderRepository.findAllWithDetails();
+    }
+
+    public CursorPageDTO<OrderSummaryDTO> getOrderPage(Order.OrderStatus status, Long terminalId, Long shiftId,
+                                                       LocalDateTime from, LocalDateTime to,
+                                                       Long cursor, Integer limit) {
+        return adminListingService.findOrders(status, terminalId, shiftId, from, to, cursor, limit);
+    }
+
+    public FleetEtaDTO getOrderEtas() {
+        return orderEtaService.estimateAll();
     }
 }
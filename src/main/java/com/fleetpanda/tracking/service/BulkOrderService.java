@@ -0,0 +1,118 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.BulkOrderResultDTO;
+import com.fleetpanda.tracking.dto.OrderDTO;
+import com.fleetpanda.tracking.dto.RowErrorDTO;
+import com.fleetpanda.tracking.entity.Order;
+import com.fleetpanda.tracking.repository.ShiftRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates a day's dispatch plan in one go. Every shift, terminal and product id in the request
+ * is resolved up front with at most one IN query per type, invalid rows are reported by index,
+ * and the valid ones are written as JDBC batches in a single transaction. Orders use IDENTITY
+ * ids, which rules out Hibernate insert batching, hence plain JDBC as for GPS fixes. Orders may
+ * leave the shift out, to be assigned later by {@link DispatchService}.
+ */
+@Service
+@RequiredArgsConstructor
+public class BulkOrderService {
+
+    public static final int MAX_ORDERS = 10_000;
+
+    private static final String INSERT_SQL = "INSERT INTO orders "
+            + "(shift_id, terminal_id, product_id, quantity, status, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShiftRepository shiftRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final OpenOrderRegistry openOrderRegistry;
+
+    @Value("${fleet.orders.bulk-batch-size:500}")
+    private int batchSize;
+
+    @Transactional
+    public BulkOrderResultDTO createOrders(List<OrderDTO> dtos) {
+        if (dtos.size() > MAX_ORDERS) {
+            throw new RuntimeException("At most " + MAX_ORDERS + " orders per request");
+        }
+        BulkOrderResultDTO result = new BulkOrderResultDTO();
+        result.setReceived(dtos.size());
+
+        Set<Long> shiftIds = new HashSet<>(shiftRepository.findExistingIds(idsOf(dtos, OrderDTO::getShiftId)));
+        Set<Long> terminalIds = referenceDataCache.findTerminals(idsOf(dtos, OrderDTO::getTerminalId)).keySet();
+        Set<Long> productIds = referenceDataCache.findProducts(idsOf(dtos, OrderDTO::getProductId)).keySet();
+
+        List<OrderDTO> valid = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            OrderDTO dto = dtos.get(i);
+            String error = validate(dto, shiftIds, terminalIds, productIds);
+            if (error != null) {
+                result.getErrors().add(new RowErrorDTO(i, error));
+            } else {
+                valid.add(dto);
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(INSERT_SQL, valid, batchSize, (ps, dto) -> {
+                ps.setObject(1, dto.getShiftId(), Types.BIGINT);
+                ps.setLong(2, dto.getTerminalId());
+                ps.setLong(3, dto.getProductId());
+                ps.setDouble(4, dto.getQuantity());
+                ps.setString(5, Order.OrderStatus.PENDING.name());
+                ps.setTimestamp(6, now);
+                ps.setTimestamp(7, now);
+            });
+            openOrderRegistry.reloadShiftsAfterCommit(idsOf(valid, OrderDTO::getShiftId));
+        }
+
+        result.setCreated(valid.size());
+        return result;
+    }
+
+    private static String validate(OrderDTO dto, Set<Long> shiftIds, Set<Long> terminalIds, Set<Long> productIds) {
+        if (dto == null) {
+            return "Order is empty";
+        }
+        // No shift leaves the order for the dispatch optimizer
+        if (dto.getShiftId() != null && !shiftIds.contains(dto.getShiftId())) {
+            return "Shift not found";
+        }
+        if (dto.getTerminalId() == null || !terminalIds.contains(dto.getTerminalId())) {
+            return "Terminal not found";
+        }
+        if (dto.getProductId() == null || !productIds.contains(dto.getProductId())) {
+            return "Product not found";
+        }
+        if (dto.getQuantity() == null || dto.getQuantity() <= 0) {
+            return "Quantity must be positive";
+        }
+        return null;
+    }
+
+    private static Set<Long> idsOf(List<OrderDTO> dtos, Function<OrderDTO, Long> id) {
+        return dtos.stream()
+                .filter(Objects::nonNull)
+                .map(id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,46 @@
+package com.fleetpanda.tracking.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Bounded pool of equally sized direct buffers. Direct buffers are expensive to allocate and
+ * only freed by the garbage collector, so connections borrow one for their lifetime instead of
+ * allocating their own. Not thread-safe; owned by the listener's selector thread.
+ */
+public final class DirectBufferPool {
+
+    private final int bufferBytes;
+    private final int maxBuffers;
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+    private int allocated;
+
+    public DirectBufferPool(int bufferBytes, int maxBuffers) {
+        this.bufferBytes = bufferBytes;
+        this.maxBuffers = maxBuffers;
+    }
+
+    /**
+     * Returns a cleared buffer, or null if all {@code maxBuffers} are in use.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        if (allocated == maxBuffers) {
+            return null;
+        }
+        allocated++;
+        return ByteBuffer.allocateDirect(bufferBytes);
+    }
+
+    public void release(ByteBuffer buffer) {
+        buffer.clear();
+        free.push(buffer);
+    }
+
+    public int inUse() {
+        return allocated - free.size();
+    }
+}
@@ -0,0 +1,369 @@
+package com.fleetpanda.tracking.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Assigns orders to vehicles so that no vehicle is loaded beyond its capacity and the total
+ * distance from each vehicle's depot to its orders' terminals is as small as possible. Every
+ * order is costed as its own leg out of the depot, so this is an assignment problem rather than
+ * a routing one: the order in which a vehicle visits its terminals is not considered.
+ * <p>
+ * A regret heuristic builds the first plan. Orders that would lose the most by missing their
+ * nearest depot are placed first, each into the fullest vehicle that still fits it at the
+ * nearest depot that has one. Local search then improves the plan in rounds until a round finds
+ * nothing or the deadline passes. Each round finds every order's best move against the plan as
+ * it stands, in parallel on a fork/join pool: relocating it to a vehicle at a nearer depot, or
+ * swapping it with an order there. The improving moves are then applied best first, each one
+ * re-checked since the moves before it may have taken its room. Orders that fit nowhere stay
+ * unassigned and are retried every round.
+ */
+public final class DispatchOptimizer {
+
+    public static final int UNASSIGNED = -1;
+
+    // Nearer depots searched for each order per round, nearest first
+    private static final int NEIGHBOUR_DEPOTS = 8;
+    // Orders a fork/join leaf evaluates sequentially
+    private static final int LEAF_ORDERS = 256;
+    // Room left for rounding when quantities add up to exactly the capacity
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * An instance. Depots and terminals are indexes into {@code depotTerminalMeters}; vehicle
+     * capacities are what each vehicle has left for these orders.
+     */
+    public record Problem(double[][] depotTerminalMeters, int[] vehicleDepot, double[] vehicleCapacity,
+                   int[] orderTerminal, double[] orderQuantity) {
+    }
+
+    /**
+     * The plan: the vehicle of each order, or {@link #UNASSIGNED}, with the distance after the
+     * construction heuristic and after local search.
+     */
+    public record Solution(int[] vehicleOfOrder, int assigned, double constructionMeters, double meters,
+                    int rounds, int moves) {
+    }
+
+    private final double[][] cost;
+    private final int[] vehicleDepot;
+    private final int[] orderTerminal;
+    private final double[] quantity;
+    private final double[] remaining;
+    private final int[] vehicleOf;
+    private final OrderList[] ordersOf;
+    private final int[][] depotVehicles;
+    private final int[][] depotsByTerminal;
+    private final long deadline;
+
+    // The best move found for each order in the current round
+    private final int[] moveFrom;
+    private final int[] moveTarget;
+    private final int[] movePartner;
+    private final double[] moveDelta;
+
+    private DispatchOptimizer(Problem problem, long deadline) {
+        this.cost = problem.depotTerminalMeters();
+        this.vehicleDepot = problem.vehicleDepot();
+        this.orderTerminal = problem.orderTerminal();
+        this.quantity = problem.orderQuantity();
+        this.remaining = problem.vehicleCapacity().clone();
+        this.deadline = deadline;
+
+        int orders = orderTerminal.length;
+        int vehicles = vehicleDepot.length;
+        vehicleOf = new int[orders];
+        Arrays.fill(vehicleOf, UNASSIGNED);
+        ordersOf = new OrderList[vehicles];
+        for (int v = 0; v < vehicles; v++) {
+            ordersOf[v] = new OrderList();
+        }
+        depotVehicles = groupByDepot(vehicleDepot, cost.length);
+        depotsByTerminal = depotsByTerminal(cost, depotVehicles);
+        moveFrom = new int[orders];
+        moveTarget = new int[orders];
+        movePartner = new int[orders];
+        moveDelta = new double[orders];
+    }
+
+    /**
+     * Solves the instance, using the common fork/join pool for local search until
+     * {@code budgetNanos} after the call. The construction heuristic always runs to completion.
+     */
+    public static Solution solve(Problem problem, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        DispatchOptimizer optimizer = new DispatchOptimizer(problem, deadline);
+        optimizer.construct();
+        double constructionMeters = optimizer.totalMeters();
+
+        int rounds = 0;
+        int moves = 0;
+        while (System.nanoTime() < deadline) {
+            ForkJoinPool.commonPool().invoke(optimizer.new Evaluate(0, problem.orderTerminal().length));
+            int applied = optimizer.applyMoves();
+            rounds++;
+            moves += applied;
+            if (applied == 0) {
+                break;
+            }
+        }
+
+        int assigned = 0;
+        for (int vehicle : optimizer.vehicleOf) {
+            if (vehicle != UNASSIGNED) {
+                assigned++;
+            }
+        }
+        return new Solution(optimizer.vehicleOf, assigned, constructionMeters, optimizer.totalMeters(), rounds, moves);
+    }
+
+    private void construct() {
+        Integer[] byRegret = new Integer[orderTerminal.length];
+        double[] regret = new double[orderTerminal.length];
+        for (int o = 0; o < byRegret.length; o++) {
+            byRegret[o] = o;
+            int t = orderTerminal[o];
+            int[] depots = depotsByTerminal[t];
+            // With a single depot there is no second choice, so those go first
+            regret[o] = depots.length > 1 ? cost[depots[1]][t] - cost[depots[0]][t] : Double.MAX_VALUE;
+        }
+        Arrays.sort(byRegret, Comparator.<Integer>comparingDouble(o -> -regret[o])
+                .thenComparingDouble(o -> -quantity[o]));
+
+        for (int o : byRegret) {
+            for (int depot : depotsByTerminal[orderTerminal[o]]) {
+                int tightest = UNASSIGNED;
+                for (int v : depotVehicles[depot]) {
+                    if (fits(v, quantity[o]) && (tightest == UNASSIGNED || remaining[v] < remaining[tightest])) {
+                        tightest = v;
+                    }
+                }
+                if (tightest != UNASSIGNED) {
+                    assign(o, tightest);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the best move for order {@code o} against the current plan, without changing it.
+     */
+    private void evaluate(int o) {
+        int from = vehicleOf[o];
+        int t = orderTerminal[o];
+        double q = quantity[o];
+        moveFrom[o] = from;
+        moveTarget[o] = UNASSIGNED;
+        movePartner[o] = UNASSIGNED;
+        moveDelta[o] = 0;
+
+        if (from == UNASSIGNED) {
+            // Any vehicle with room will do, nearest depot first
+            for (int depot : depotsByTerminal[t]) {
+                for (int v : depotVehicles[depot]) {
+                    if (fits(v, q)) {
+                        moveTarget[o] = v;
+                        moveDelta[o] = Double.NEGATIVE_INFINITY;
+                        return;
+                    }
+                }
+            }
+            return;
+        }
+
+        int fromDepot = vehicleDepot[from];
+        double current = cost[fromDepot][t];
+        int searched = 0;
+        for (int depot : depotsByTerminal[t]) {
+            double saving = cost[depot][t] - current;
+            if (saving >= 0 || searched++ == NEIGHBOUR_DEPOTS) {
+                break;
+            }
+            for (int v : depotVehicles[depot]) {
+                if (fits(v, q) && saving < moveDelta[o]) {
+                    moveTarget[o] = v;
+                    movePartner[o] = UNASSIGNED;
+                    moveDelta[o] = saving;
+                }
+                OrderList partners = ordersOf[v];
+                for (int i = 0; i < partners.size; i++) {
+                    int p = partners.items[i];
+                    int pt = orderTerminal[p];
+                    double delta = saving + cost[fromDepot][pt] - cost[depot][pt];
+                    if (delta < moveDelta[o] && swapFits(o, from, p, v)) {
+                        moveTarget[o] = v;
+                        movePartner[o] = p;
+                        moveDelta[o] = delta;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the moves found in this round, best first, skipping those the earlier ones
+     * invalidated. Returns how many were applied.
+     */
+    private int applyMoves() {
+        List<Integer> improving = new ArrayList<>();
+        for (int o = 0; o < moveDelta.length; o++) {
+            if (moveDelta[o] < 0) {
+                improving.add(o);
+            }
+        }
+        improving.sort(Comparator.comparingDouble(o -> moveDelta[o]));
+
+        int applied = 0;
+        for (int o : improving) {
+            int from = moveFrom[o];
+            int target = moveTarget[o];
+            int partner = movePartner[o];
+            if (vehicleOf[o] != from) {
+                continue;
+            }
+            if (partner == UNASSIGNED) {
+                if (fits(target, quantity[o])) {
+                    move(o, target);
+                    applied++;
+                }
+            } else if (vehicleOf[partner] == target && swapFits(o, from, partner, target)) {
+                move(o, target);
+                move(partner, from);
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    private boolean fits(int vehicle, double q) {
+        return remaining[vehicle] + EPSILON >= q;
+    }
+
+    private boolean swapFits(int o, int from, int partner, int target) {
+        double difference = quantity[o] - quantity[partner];
+        return remaining[target] + EPSILON >= difference && remaining[from] + EPSILON >= -difference;
+    }
+
+    private void move(int o, int vehicle) {
+        int from = vehicleOf[o];
+        if (from != UNASSIGNED) {
+            ordersOf[from].remove(o);
+            remaining[from] += quantity[o];
+        }
+        assign(o, vehicle);
+    }
+
+    private void assign(int o, int vehicle) {
+        vehicleOf[o] = vehicle;
+        ordersOf[vehicle].add(o);
+        remaining[vehicle] -= quantity[o];
+    }
+
+    private double totalMeters() {
+        double meters = 0;
+        for (int o = 0; o < vehicleOf.length; o++) {
+            if (vehicleOf[o] != UNASSIGNED) {
+                meters += cost[vehicleDepot[vehicleOf[o]]][orderTerminal[o]];
+            }
+        }
+        return meters;
+    }
+
+    private static int[][] groupByDepot(int[] vehicleDepot, int depots) {
+        int[] counts = new int[depots];
+        for (int depot : vehicleDepot) {
+            counts[depot]++;
+        }
+        int[][] grouped = new int[depots][];
+        for (int d = 0; d < depots; d++) {
+            grouped[d] = new int[counts[d]];
+        }
+        int[] filled = new int[depots];
+        for (int v = 0; v < vehicleDepot.length; v++) {
+            grouped[vehicleDepot[v]][filled[vehicleDepot[v]]++] = v;
+        }
+        return grouped;
+    }
+
+    /**
+     * For each terminal, the depots that have vehicles, nearest first.
+     */
+    private static int[][] depotsByTerminal(double[][] cost, int[][] depotVehicles) {
+        List<Integer> used = new ArrayList<>();
+        for (int d = 0; d < depotVehicles.length; d++) {
+            if (depotVehicles[d].length > 0) {
+                used.add(d);
+            }
+        }
+        int terminals = cost.length > 0 ? cost[0].length : 0;
+        int[][] sorted = new int[terminals][];
+        for (int t = 0; t < terminals; t++) {
+            int terminal = t;
+            sorted[t] = used.stream()
+                    .sorted(Comparator.comparingDouble(d -> cost[d][terminal]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        return sorted;
+    }
+
+    /**
+     * Evaluates a range of orders, splitting it across the pool. Leaves that start after the
+     * deadline find no moves, which ends the search after this round.
+     */
+    private final class Evaluate extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        Evaluate(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_ORDERS) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Evaluate(from, middle), new Evaluate(middle, to));
+                return;
+            }
+            boolean late = System.nanoTime() >= deadline;
+            for (int o = from; o < to; o++) {
+                if (late) {
+                    moveDelta[o] = 0;
+                } else {
+                    evaluate(o);
+                }
+            }
+        }
+    }
+
+    /**
+     * A vehicle's orders; removal swaps in the last one, since order does not matter.
+     */
+    private static final class OrderList {
+        int[] items = new int[8];
+        int size;
+
+        void add(int o) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = o;
+        }
+
+        void remove(int o) {
+            for (int i = 0; i < size; i++) {
+                if (items[i] == o) {
+                    items[i] = items[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.DispatchPlanDTO;
+import com.fleetpanda.tracking.dto.VehicleDispatchDTO;
+import com.fleetpanda.tracking.entity.Hub;
+import com.fleetpanda.tracking.entity.Shift;
+import com.fleetpanda.tracking.entity.VehicleAllocation;
+import com.fleetpanda.tracking.geo.GeoUtils;
+import com.fleetpanda.tracking.repository.OrderRepository;
+import com.fleetpanda.tracking.repository.ShiftLoadView;
+import com.fleetpanda.tracking.repository.UnassignedOrderView;
+import com.fleetpanda.tracking.repository.VehicleAllocationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plans a day's unassigned orders onto the vehicles allocated for that day with
+ * {@link DispatchOptimizer}, and optionally writes the plan.
+ * <p>
+ * Unassigned orders are the PENDING orders without a shift created up to the end of the day.
+ * Shifts carry no date, so each allocation takes orders through the open shift its driver works
+ * next with its vehicle; allocations without one are left out. A vehicle's capacity is reduced
+ * by the open orders its shift already carries. It loads at the hub nearest its last known
+ * position, or, with no position yet, at whichever hub is nearest each terminal.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DispatchService {
+
+    private static final String ASSIGN_SQL = "UPDATE orders SET shift_id = ?, updated_at = ? "
+            + "WHERE id = ? AND shift_id IS NULL AND status = 'PENDING'";
+
+    private final VehicleAllocationRepository allocationRepository;
+    private final OrderRepository orderRepository;
+    private final ShiftRegistry shiftRegistry;
+    private final ReferenceDataCache referenceDataCache;
+    private final LatestPositionRegistry latestPositionRegistry;
+    private final OpenOrderRegistry openOrderRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${fleet.dispatch.time-budget-ms:2000}")
+    private long defaultTimeBudgetMs;
+
+    @Value("${fleet.dispatch.max-time-budget-ms:30000}")
+    private long maxTimeBudgetMs;
+
+    @Value("${fleet.orders.bulk-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Plans the day's unassigned orders, spending at most {@code timeBudgetMs} (or the configured
+     * default) on local search, and assigns them to their shifts when {@code apply} is set.
+     */
+    public DispatchPlanDTO optimize(LocalDate date, Long timeBudgetMs, boolean apply) {
+        long started = System.nanoTime();
+        long budgetMs = timeBudgetMs != null ? timeBudgetMs : defaultTimeBudgetMs;
+        if (budgetMs < 0 || budgetMs > maxTimeBudgetMs) {
+            throw new RuntimeException("Time budget must be between 0 and " + maxTimeBudgetMs + " ms");
+        }
+        List<Hub> hubs = referenceDataCache.getAllHubs().stream()
+                .filter(hub -> hub.getLatitude() != null && hub.getLongitude() != null)
+                .toList();
+        if (hubs.isEmpty()) {
+            throw new RuntimeException("No hubs to dispatch from");
+        }
+
+        List<Candidate> vehicles = candidates(date);
+        Map<Long, Double> loads = new HashMap<>();
+        if (!vehicles.isEmpty()) {
+            List<Long> shiftIds = vehicles.stream().map(candidate -> candidate.shift().getId()).toList();
+            for (ShiftLoadView load : orderRepository.sumQuantityByShift(OpenOrderRegistry.OPEN, shiftIds)) {
+                loads.put(load.getShiftId(), load.getQuantity() != null ? load.getQuantity() : 0.0);
+            }
+        }
+
+        List<UnassignedOrderView> orders = new ArrayList<>();
+        List<Long> unassigned = new ArrayList<>();
+        for (UnassignedOrderView order : orderRepository.findUnassignedOrders(date.plusDays(1).atStartOfDay())) {
+            // Without coordinates there is no distance to weigh
+            if (order.getTerminalLatitude() == null || order.getTerminalLongitude() == null) {
+                unassigned.add(order.getId());
+            } else {
+                orders.add(order);
+            }
+        }
+
+        int considered = orders.size() + unassigned.size();
+        DispatchOptimizer.Problem problem = problem(hubs, vehicles, loads, orders);
+        DispatchOptimizer.Solution solution = DispatchOptimizer.solve(problem,
+                TimeUnit.MILLISECONDS.toNanos(budgetMs));
+
+        List<List<Long>> orderIds = new ArrayList<>(vehicles.size());
+        double[] meters = new double[vehicles.size()];
+        double[] planned = new double[vehicles.size()];
+        vehicles.forEach(candidate -> orderIds.add(new ArrayList<>()));
+        int[] vehicleOf = solution.vehicleOfOrder();
+        for (int o = 0; o < vehicleOf.length; o++) {
+            int v = vehicleOf[o];
+            if (v == DispatchOptimizer.UNASSIGNED) {
+                unassigned.add(orders.get(o).getId());
+                continue;
+            }
+            orderIds.get(v).add(orders.get(o).getId());
+            meters[v] += problem.depotTerminalMeters()[problem.vehicleDepot()[v]][problem.orderTerminal()[o]];
+            planned[v] += problem.orderQuantity()[o];
+        }
+
+        int applied = apply ? apply(vehicles, orderIds) : 0;
+
+        List<VehicleDispatchDTO> plans = new ArrayList<>(vehicles.size());
+        for (int v = 0; v < vehicles.size(); v++) {
+            Candidate candidate = vehicles.get(v);
+            int depot = problem.vehicleDepot()[v];
+            Long hubId = depot < hubs.size() ? hubs.get(depot).getId() : null;
+            plans.add(new VehicleDispatchDTO(candidate.allocation().getId(), candidate.shift().getId(),
+                    candidate.allocation().getVehicle().getId(), candidate.allocation().getDriver().getId(), hubId,
+                    candidate.capacity(), loads.getOrDefault(candidate.shift().getId(), 0.0) + planned[v],
+                    Math.round(meters[v] * 10) / 10.0, orderIds.get(v)));
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Dispatch for {}: {} of {} orders on {} vehicles, {} m after construction, "
+                + "{} m after {} rounds, {} ms",
+                date, solution.assigned(), considered, vehicles.size(), Math.round(solution.constructionMeters()),
+                Math.round(solution.meters()), solution.rounds(), elapsedMs);
+        return new DispatchPlanDTO(date, considered, solution.assigned(),
+                Math.round(solution.constructionMeters() * 10) / 10.0, Math.round(solution.meters() * 10) / 10.0,
+                solution.rounds(), solution.moves(), elapsedMs, applied, plans, unassigned);
+    }
+
+    private List<Candidate> candidates(LocalDate date) {
+        List<Candidate> candidates = new ArrayList<>();
+        for (VehicleAllocation allocation : allocationRepository.findByDate(date)) {
+            Double capacity = allocation.getVehicle().getCapacity();
+            if (capacity == null || capacity <= 0) {
+                continue;
+            }
+            shiftRegistry.findNextShift(allocation.getDriver().getId(), allocation.getVehicle().getId())
+                    .ifPresent(shift -> candidates.add(new Candidate(allocation, shift, capacity)));
+        }
+        return candidates;
+    }
+
+    /**
+     * Depots are the hubs in order, plus one last depot for vehicles without a position whose
+     * distance to each terminal is that of the nearest hub.
+     */
+    private DispatchOptimizer.Problem problem(List<Hub> hubs, List<Candidate> vehicles, Map<Long, Double> loads,
+                                              List<UnassignedOrderView> orders) {
+        Map<Long, Integer> terminalIndex = new HashMap<>();
+        List<UnassignedOrderView> terminals = new ArrayList<>();
+        int[] orderTerminal = new int[orders.size()];
+        double[] orderQuantity = new double[orders.size()];
+        for (int o = 0; o < orders.size(); o++) {
+            UnassignedOrderView order = orders.get(o);
+            orderTerminal[o] = terminalIndex.computeIfAbsent(order.getTerminalId(), id -> {
+                terminals.add(order);
+                return terminals.size() - 1;
+            });
+            orderQuantity[o] = order.getQuantity() != null ? order.getQuantity() : 0.0;
+        }
+
+        double[][] meters = new double[hubs.size() + 1][terminals.size()];
+        double[] nearest = meters[hubs.size()];
+        Arrays.fill(nearest, Double.MAX_VALUE);
+        for (int h = 0; h < hubs.size(); h++) {
+            Hub hub = hubs.get(h);
+            for (int t = 0; t < terminals.size(); t++) {
+                UnassignedOrderView terminal = terminals.get(t);
+                meters[h][t] = GeoUtils.haversineMeters(hub.getLatitude(), hub.getLongitude(),
+                        terminal.getTerminalLatitude(), terminal.getTerminalLongitude());
+                nearest[t] = Math.min(nearest[t], meters[h][t]);
+            }
+        }
+
+        int[] vehicleDepot = new int[vehicles.size()];
+        double[] vehicleCapacity = new double[vehicles.size()];
+        for (int v = 0; v < vehicles.size(); v++) {
+            Candidate candidate = vehicles.get(v);
+            vehicleDepot[v] = latestPositionRegistry.get(candidate.allocation().getVehicle().getId())
+                    .map(position -> nearestHub(hubs, position.getLatitude(), position.getLongitude()))
+                    .orElse(hubs.size());
+            vehicleCapacity[v] = Math.max(0, candidate.capacity() - loads.getOrDefault(candidate.shift().getId(), 0.0));
+        }
+        return new DispatchOptimizer.Problem(meters, vehicleDepot, vehicleCapacity, orderTerminal, orderQuantity);
+    }
+
+    private static int nearestHub(List<Hub> hubs, double latitude, double longitude) {
+        int nearest = 0;
+        double best = Double.MAX_VALUE;
+        for (int h = 0; h < hubs.size(); h++) {
+            double meters = GeoUtils.haversineMeters(latitude, longitude, hubs.get(h).getLatitude(),
+                    hubs.get(h).getLongitude());
+            if (meters < best) {
+                best = meters;
+                nearest = h;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Gives the planned orders to their shifts in one transaction. Orders that were assigned or
+     * moved on since they were read are left alone; returns how many were written.
+     */
+    private int apply(List<Candidate> vehicles, List<List<Long>> orderIds) {
+        List<long[]> assignments = new ArrayList<>();
+        List<Long> shiftIds = new ArrayList<>();
+        for (int v = 0; v < vehicles.size(); v++) {
+            Long shiftId = vehicles.get(v).shift().getId();
+            for (Long orderId : orderIds.get(v)) {
+                assignments.add(new long[]{shiftId, orderId});
+            }
+            if (!orderIds.get(v).isEmpty()) {
+                shiftIds.add(shiftId);
+            }
+        }
+        if (assignments.isEmpty()) {
+            return 0;
+        }
+        Integer written = transactionTemplate.execute(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int[][] counts = jdbcTemplate.batchUpdate(ASSIGN_SQL, assignments, batchSize, (ps, assignment) -> {
+                ps.setLong(1, assignment[0]);
+                ps.setTimestamp(2, now);
+                ps.setLong(3, assignment[1]);
+            });
+            openOrderRegistry.reloadShiftsAfterCommit(shiftIds);
+            int total = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    // Some drivers report success without a count
+                    total += count >= 0 ? count : 1;
+                }
+            }
+            return total;
+        });
+        return written != null ? written : 0;
+    }
+
+    private record Candidate(VehicleAllocation allocation, Shift shift, double capacity) {
+    }
+}
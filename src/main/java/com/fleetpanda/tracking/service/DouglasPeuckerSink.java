@@ -0,0 +1,131 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.geo.GeoUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Douglas-Peucker simplification as a streaming stage. Points are buffered into a fixed-size
+ * window of primitive arrays; each full window is simplified and flushed downstream, and its
+ * last point seeds the next window so the route stays connected. Memory is bounded by the
+ * window size no matter how long the track is, at the cost of always keeping window edges.
+ */
+public class DouglasPeuckerSink implements TrackPointSink {
+
+    public static final int DEFAULT_WINDOW = 4096;
+
+    private final TrackPointSink downstream;
+    private final double toleranceMeters;
+
+    private final long[] ids;
+    private final LocalDateTime[] timestamps;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final boolean[] keep;
+    private final int[] stack;
+    private int size;
+
+    public DouglasPeuckerSink(TrackPointSink downstream, double toleranceMeters) {
+        this(downstream, toleranceMeters, DEFAULT_WINDOW);
+    }
+
+    public DouglasPeuckerSink(TrackPointSink downstream, double toleranceMeters, int window) {
+        if (window < 3) {
+            throw new IllegalArgumentException("Window must hold at least 3 points");
+        }
+        this.downstream = downstream;
+        this.toleranceMeters = toleranceMeters;
+        this.ids = new long[window];
+        this.timestamps = new LocalDateTime[window];
+        this.latitudes = new double[window];
+        this.longitudes = new double[window];
+        this.keep = new boolean[window];
+        this.stack = new int[2 * window];
+    }
+
+    @Override
+    public void accept(long id, LocalDateTime timestamp, double latitude, double longitude) throws IOException {
+        ids[size] = id;
+        timestamps[size] = timestamp;
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        size++;
+
+        if (size == ids.length) {
+            flush(false);
+        }
+    }
+
+    @Override
+    public void complete() throws IOException {
+        flush(true);
+        downstream.complete();
+    }
+
+    private void flush(boolean last) throws IOException {
+        if (size == 0) {
+            return;
+        }
+        simplify();
+
+        // The window's final point is emitted by the next window, where it is the first point
+        int end = last ? size : size - 1;
+        for (int i = 0; i < end; i++) {
+            if (keep[i]) {
+                downstream.accept(ids[i], timestamps[i], latitudes[i], longitudes[i]);
+            }
+        }
+
+        if (last) {
+            size = 0;
+        } else {
+            ids[0] = ids[size - 1];
+            timestamps[0] = timestamps[size - 1];
+            latitudes[0] = latitudes[size - 1];
+            longitudes[0] = longitudes[size - 1];
+            size = 1;
+        }
+        Arrays.fill(timestamps, size, timestamps.length, null);
+    }
+
+    /**
+     * Iterative Douglas-Peucker over the buffered window; marks survivors in {@code keep}.
+     */
+    private void simplify() {
+        Arrays.fill(keep, 0, size, false);
+        keep[0] = true;
+        keep[size - 1] = true;
+        if (size < 3) {
+            return;
+        }
+
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = size - 1;
+        while (top > 0) {
+            int end = stack[--top];
+            int start = stack[--top];
+
+            double maxDistance = -1;
+            int farthest = -1;
+            for (int i = start + 1; i < end; i++) {
+                double distance = GeoUtils.segmentDistanceMeters(latitudes[i], longitudes[i],
+                        latitudes[start], longitudes[start], latitudes[end], longitudes[end]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+
+            if (farthest >= 0 && maxDistance > toleranceMeters) {
+                keep[farthest] = true;
+                stack[top++] = start;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = end;
+            }
+        }
+    }
+}
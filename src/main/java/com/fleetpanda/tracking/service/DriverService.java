@@ -4,6 +4,7 @@ import com.fleetpanda.tracking.dto.*;
 import com.fleetpanda.tracking.entity.*;
 import com.fleetpanda.tracking.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,61 +22,86 @@ public class DriverService {
     private final DriverRepository driverRepository;
     private final OrderRepository orderRepository;
     private final InventoryRepository inventoryRepository;
-    private final GpsLogRepository gpsLogRepository;
     private final KafkaTemplate<String, String> kafkaTemplate;
-    private final VehicleRepository vehicleRepository;
+    private final GpsIngestService gpsIngestService;
+    private final InventoryHistoryService inventoryHistoryService;
+    private final ShiftRegistry shiftRegistry;
+    private final TripAnalyticsService tripAnalyticsService;
+    private final OpenOrderRegistry openOrderRegistry;
 
-    @Transactional
-    public Shift startShift(Long driverId) {
-        // Check if there is an active shift
-        if (shiftRepository.findByDriverIdAndStatus(driverId, Shift.ShiftStatus.ACTIVE).isPresent()) {
-            throw new RuntimeException("Driver already has an active shift");
-        }
+    // "direct" writes on the request thread, "kafka" publishes and lets GpsKafkaConsumer persist
+    @Value("${fleet.gps.ingest-mode:direct}")
+    private String gpsIngestMode;
 
-        // Find SCHEDULED shift for today (or just the latest scheduled one?)
-        // Ideally we should link it to the allocation date, but for now let's find any
-        // SCHEDULED shift for this driver
-        // Or better, find by Driver and Status SCHEDULED.
-        // If multiple, maybe pick the one for today?
-        // Let's assume one scheduled shift at a time for simplicity or find the one
-        // created by allocation.
-
-        // Since we didn't store date in Shift (only startTime/endTime), we rely on the
-        // one created by allocation.
-        // But allocation has date. Shift doesn't have a "scheduled date" field, only
-        // startTime/endTime.
-        // We should probably add `scheduledDate` to Shift or just use `createdAt` or
-        // assume it's the one.
-
-        // For now, let's find the first SCHEDULED shift.
-        Shift shift = shiftRepository.findByDriverIdAndStatus(driverId, Shift.ShiftStatus.SCHEDULED)
-                .stream().findFirst()
-                .orElseThrow(
-                        () -> new RuntimeException("No scheduled shift found. Ask Admin to allocate vehicle first."));
-
-        shift.setStartTime(LocalDateTime.now());
-        shift.setStatus(Shift.ShiftStatus.ACTIVE);
-
-        return shiftRepository.save(shift);
+    public Shift startShift(Long driverId) {
+        return shiftRegistry.withDriverLock(driverId, () -> {
+            // Check if there is an active shift
+            if (shiftRegistry.findActive(driverId).isPresent()) {
+                throw new RuntimeException("Driver already has an active shift");
+            }
+
+            // Shift doesn't have a scheduled date, only startTime/endTime, so we start the oldest
+            // SCHEDULED shift, which is the one created by the earliest allocation.
+            Shift scheduled = shiftRegistry.findNextScheduled(driverId)
+                    .orElseThrow(() -> new RuntimeException(
+                            "No scheduled shift found. Ask Admin to allocate vehicle first."));
+
+            LocalDateTime now = LocalDateTime.now();
+            if (shiftRepository.start(scheduled.getId(), now) == 0) {
+                // The database moved on without us; resync this driver and let the caller retry
+                shiftRegistry.reload(driverId);
+                throw new RuntimeException("Shift " + scheduled.getId() + " is no longer scheduled");
+            }
+
+            Shift shift = ShiftRegistry.copyOf(scheduled);
+            shift.setStartTime(now);
+            shift.setUpdatedAt(now);
+            shift.setStatus(Shift.ShiftStatus.ACTIVE);
+            shiftRegistry.update(shift);
+            tripAnalyticsService.start(shift);
+            return shift;
+        });
     }
 
-    @Transactional
     public Shift endShift(Long shiftId) {
-        Shift shift = shiftRepository.findById(shiftId)
+        // Completed shifts are not in the registry, so those come from the database
+        Shift open = shiftRegistry.findOpenShift(shiftId)
+                .or(() -> shiftRepository.findWithDetailsById(shiftId))
                 .orElseThrow(() -> new RuntimeException("Shift not found"));
-
-        shift.setEndTime(LocalDateTime.now());
-        shift.setStatus(Shift.ShiftStatus.COMPLETED);
-
-        // Logic to handle incomplete deliveries?
-        // For now, just end the shift.
-
-        return shiftRepository.save(shift);
+        Long driverId = open.getDriver().getId();
+
+        return shiftRegistry.withDriverLock(driverId, () -> {
+            LocalDateTime now = LocalDateTime.now();
+            // The trip was measured while the fixes came in; null if the shift was never measured
+            TripSummary trip = tripAnalyticsService.summarize(open).orElse(null);
+            if (shiftRepository.end(shiftId, now, trip) == 0) {
+                shiftRegistry.reload(driverId);
+                throw new RuntimeException("Shift already ended");
+            }
+
+            // Logic to handle incomplete deliveries?
+            // For now, just end the shift.
+            // Re-read under the lock in case the shift was started while we waited for it
+            Shift shift = ShiftRegistry.copyOf(shiftRegistry.findOpenShift(shiftId).orElse(open));
+            shift.setEndTime(now);
+            shift.setUpdatedAt(now);
+            shift.setStatus(Shift.ShiftStatus.COMPLETED);
+            shift.setTripSummary(trip);
+            shiftRegistry.update(shift);
+            tripAnalyticsService.finish(shift);
+            return shift;
+        });
     }
 
+    /**
+     * The driver's active shift, with the trip measured so far.
+     */
     public Shift getActiveShift(Long driverId) {
-        return shiftRepository.findByDriverIdAndStatus(driverId, Shift.ShiftStatus.ACTIVE)
-                .orElse(null);
+        return shiftRegistry.findActive(driverId).map(active -> {
+            Shift shift = ShiftRegistry.copyOf(active);
+            shift.setTripSummary(tripAnalyticsService.summarize(active).orElse(null));
+            return shift;
+        }).orElse(null);
     }
 
     public List<Order> getShiftOrders(Long shiftId) {
@@ -84,18 +110,21 @@ public class DriverService {
 
     @Transactional
     public Order completeDelivery(Long orderId) {
+        // Completing from PENDING is allowed for simplicity if the driver skips IN_TRANSIT. The
+        // conditional update makes completion happen once, so a retried or duplicate request
+        // cannot add the same delivery to inventory twice.
+        if (orderRepository.updateStatusIfChanged(orderId, Order.OrderStatus.COMPLETED) == 0) {
+            if (!orderRepository.existsById(orderId)) {
+                throw new RuntimeException("Order not found");
+            }
+            throw new RuntimeException("Order already completed");
+        }
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
-        if (order.getStatus() != Order.OrderStatus.IN_TRANSIT && order.getStatus() != Order.OrderStatus.PENDING) {
-            // Allow completing from PENDING for simplicity if they skip IN_TRANSIT
-        }
-
-        order.setStatus(Order.OrderStatus.COMPLETED);
-        orderRepository.save(order);
-
         // Update Inventory
-        updateInventory(order.getTerminal(), order.getProduct(), order.getQuantity());
+        updateInventory(order.getId(), order.getTerminal(), order.getProduct(), order.getQuantity());
+        openOrderRegistry.removeAfterCommit(orderId);
 
         return order;
     }
@@ -107,39 +136,50 @@ public class DriverService {
 
         order.setStatus(Order.OrderStatus.FAILED);
         order.setFailReason(reason);
+        openOrderRegistry.removeAfterCommit(orderId);
 
         return orderRepository.save(order);
     }
 
-    private void updateInventory(Terminal terminal, Product product, Double quantity) {
-        Inventory inventory = inventoryRepository.findByLocationIdAndLocationTypeAndProductId(
-                terminal.getId(), Inventory.LocationType.TERMINAL, product.getId())
-                .orElse(new Inventory());
+    private void updateInventory(Long orderId, Terminal terminal, Product product, Double quantity) {
+        inventoryRepository.addQuantity(terminal.getId(), Inventory.LocationType.TERMINAL.name(),
+                product.getId(), quantity);
+        inventoryHistoryService.recordMovement(Inventory.LocationType.TERMINAL, terminal.getId(), product,
+                quantity, InventoryMovement.MovementType.DELIVERY, orderId);
+    }
 
-        if (inventory.getId() == null) {
-            inventory.setLocationId(terminal.getId());
-            inventory.setLocationType(Inventory.LocationType.TERMINAL);
-            inventory.setProduct(product);
-            inventory.setQuantity(0.0);
+    public void sendGpsUpdate(GpsLogDTO dto) {
+        if (isKafkaIngest()) {
+            publishGpsUpdate(dto);
+            return;
         }
 
-        inventory.setQuantity(inventory.getQuantity() + quantity);
-        inventoryRepository.save(inventory);
+        GpsBatchResultDTO result = gpsIngestService.ingest(List.of(dto));
+        if (!result.getUnknownVehicleIds().isEmpty()) {
+            throw new RuntimeException("Vehicle not found");
+        }
     }
 
-    public void sendGpsUpdate(GpsLogDTO dto) {
-        Vehicle vehicle = vehicleRepository.findById(dto.getVehicleId())
-                .orElseThrow(() -> new RuntimeException("Vehicle not found"));
-
-        GpsLog log = new GpsLog();
-        log.setVehicle(vehicle);
-        log.setLatitude(dto.getLatitude());
-        log.setLongitude(dto.getLongitude());
-        log.setTimestamp(dto.getTimestamp() != null ? dto.getTimestamp() : LocalDateTime.now());
+    public GpsBatchResultDTO sendGpsBatch(List<GpsLogDTO> dtos) {
+        if (isKafkaIngest()) {
+            // Validation happens in the consumer, so everything is accepted for now
+            dtos.forEach(this::publishGpsUpdate);
+            GpsBatchResultDTO result = new GpsBatchResultDTO();
+            result.setReceived(dtos.size());
+            result.setAccepted(dtos.size());
+            return result;
+        }
+        return gpsIngestService.ingest(dtos);
+    }
 
-        gpsLogRepository.save(log);
+    private boolean isKafkaIngest() {
+        return "kafka".equals(gpsIngestMode);
+    }
 
-        // Optional: Send to Kafka
-        // kafkaTemplate.send("gps-updates", dto.toString());
+    private void publishGpsUpdate(GpsLogDTO dto) {
+        if (dto.getTimestamp() == null) {
+            dto.setTimestamp(LocalDateTime.now());
+        }
+        kafkaTemplate.send(GpsUpdateCodec.TOPIC, GpsUpdateCodec.key(dto), GpsUpdateCodec.encode(dto));
     }
 }
@@ -0,0 +1,84 @@
+package com.fleetpanda.tracking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetpanda.tracking.dto.VehiclePositionDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes fleet positions to admin maps over server-sent events. Each subscriber gets one
+ * "snapshot" event on connect, then a "delta" event per tick holding only the vehicles that
+ * moved, coalesced to their latest position.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FleetStreamService {
+
+    // Browsers reconnect EventSource on their own, so a bounded lifetime is harmless
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final LatestPositionRegistry latestPositionRegistry;
+    private final ObjectMapper objectMapper;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+
+        // Register before taking the snapshot so no delta can fall between the two
+        emitters.add(emitter);
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("snapshot")
+                    .data(toJson(latestPositionRegistry.snapshot()), MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${fleet.stream.tick-ms:1000}")
+    public void publishChanges() {
+        // Drain even without subscribers, otherwise the change set would only ever grow
+        List<VehiclePositionDTO> changed = latestPositionRegistry.drainChanged();
+        if (changed.isEmpty() || emitters.isEmpty()) {
+            return;
+        }
+
+        // Serialize once per tick, not once per subscriber
+        String payload = toJson(changed);
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("delta").data(payload, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    private String toJson(List<VehiclePositionDTO> positions) {
+        try {
+            return objectMapper.writeValueAsString(positions);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize fleet positions", e);
+        }
+    }
+}
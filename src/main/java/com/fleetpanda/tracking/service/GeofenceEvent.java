@@ -0,0 +1,25 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.Inventory;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * A vehicle entering or leaving the geofence around a hub or terminal, published as a Spring
+ * application event from the GPS ingest path.
+ */
+@Value
+public class GeofenceEvent {
+    Type type;
+    Long vehicleId;
+    Inventory.LocationType siteType;
+    Long siteId;
+    double latitude;
+    double longitude;
+    LocalDateTime timestamp;
+
+    public enum Type {
+        ARRIVAL, DEPARTURE
+    }
+}
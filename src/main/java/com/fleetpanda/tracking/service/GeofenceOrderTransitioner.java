@@ -0,0 +1,132 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.GeofenceTransitStatsDTO;
+import com.fleetpanda.tracking.entity.Inventory;
+import com.fleetpanda.tracking.entity.Order;
+import com.fleetpanda.tracking.entity.Shift;
+import com.fleetpanda.tracking.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * When a vehicle arrives at a terminal, moves the PENDING orders its active shift has for that
+ * terminal to IN_TRANSIT. Runs after the GPS batch commits and in its own transaction, so an
+ * order update can never roll back the fixes that triggered it; a failed update is only logged.
+ * <p>
+ * The update runs on a single thread of its own. After-commit listeners run before the GPS
+ * transaction hands back its connection, so opening a second transaction there takes a second
+ * connection per request, and enough simultaneous arrivals leave every request waiting on the
+ * pool for a connection that only those same requests can give back. Arrivals wait in a bounded
+ * queue. When it is full they are set aside, one per vehicle and terminal, and a scheduled
+ * catch-up pass queues them again once there is room.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "fleet.geofence.auto-transit", havingValue = "true")
+public class GeofenceOrderTransitioner {
+
+    private static final int QUEUED_ARRIVALS = 10_000;
+
+    private final OrderRepository orderRepository;
+    private final OpenOrderRegistry openOrderRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUED_ARRIVALS), task -> new Thread(task, "geofence-transitions"));
+    // Arrivals the full queue turned away, waiting for catchUp()
+    private final Set<Arrival> setAside = ConcurrentHashMap.newKeySet();
+    private final LongAdder dropped = new LongAdder();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGeofenceEvent(GeofenceEvent event) {
+        if (event.getType() != GeofenceEvent.Type.ARRIVAL
+                || event.getSiteType() != Inventory.LocationType.TERMINAL) {
+            return;
+        }
+        Arrival arrival = new Arrival(event.getVehicleId(), event.getSiteId());
+        if (!submit(arrival)) {
+            dropped.increment();
+            setAside.add(arrival);
+            log.warn("Set aside the arrival of vehicle {} at terminal {} for the catch-up pass: "
+                    + "{} arrivals already queued", arrival.vehicleId(), arrival.terminalId(), executor.getQueue().size());
+        }
+    }
+
+    /**
+     * Queues the arrivals a full queue turned away. Applying one late is safe, as it only moves
+     * orders that are still PENDING on the vehicle's active shift.
+     */
+    @Scheduled(fixedDelayString = "${fleet.geofence.catch-up-ms:10000}")
+    public void catchUp() {
+        Iterator<Arrival> it = setAside.iterator();
+        while (it.hasNext()) {
+            // Still full: the rest waits for the next pass
+            if (!submit(it.next())) {
+                return;
+            }
+            it.remove();
+        }
+    }
+
+    public GeofenceTransitStatsDTO getStats() {
+        return new GeofenceTransitStatsDTO(executor.getQueue().size(), dropped.sum(), setAside.size());
+    }
+
+    /**
+     * Lets the arrivals already queued finish.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        if (!setAside.isEmpty()) {
+            log.warn("Stopped with {} arrivals still waiting for the catch-up pass", setAside.size());
+        }
+    }
+
+    private boolean submit(Arrival arrival) {
+        try {
+            executor.execute(() -> transition(arrival.vehicleId(), arrival.terminalId()));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void transition(Long vehicleId, Long terminalId) {
+        try {
+            Integer updated = transactionTemplate.execute(status -> {
+                int count = orderRepository.updateStatusForVehicleAtTerminal(vehicleId, terminalId,
+                        Shift.ShiftStatus.ACTIVE, Order.OrderStatus.PENDING, Order.OrderStatus.IN_TRANSIT);
+                if (count > 0) {
+                    openOrderRegistry.reloadVehicleAfterCommit(vehicleId);
+                }
+                return count;
+            });
+            if (updated != null && updated > 0) {
+                log.info("Vehicle {} arrived at terminal {}: {} orders now IN_TRANSIT", vehicleId, terminalId, updated);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not move the orders of vehicle {} at terminal {} to IN_TRANSIT", vehicleId, terminalId, e);
+        }
+    }
+
+    private record Arrival(Long vehicleId, Long terminalId) {
+    }
+}
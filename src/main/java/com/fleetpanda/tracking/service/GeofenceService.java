@@ -0,0 +1,158 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.Hub;
+import com.fleetpanda.tracking.entity.Inventory;
+import com.fleetpanda.tracking.entity.Terminal;
+import com.fleetpanda.tracking.geo.SpatialGrid;
+import com.fleetpanda.tracking.repository.HubRepository;
+import com.fleetpanda.tracking.repository.TerminalRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checks every current GPS fix against circular geofences around hubs and terminals and
+ * publishes a {@link GeofenceEvent} when a vehicle enters or leaves one. Sites live in spatial
+ * grids, so a fix only looks at the handful of sites in its neighbouring cells. A vehicle has
+ * to move {@code exit-margin-meters} beyond the radius before it counts as departed, which
+ * stops GPS jitter at the fence edge from producing arrival/departure storms.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GeofenceService {
+
+    // Fences are a few hundred metres across, so a fix touches at most a 3x3 block of cells
+    private static final double GRID_CELL_DEGREES = 0.01;
+
+    private final HubRepository hubRepository;
+    private final TerminalRepository terminalRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final SpatialGrid hubs = new SpatialGrid(GRID_CELL_DEGREES);
+    private final SpatialGrid terminals = new SpatialGrid(GRID_CELL_DEGREES);
+    // Fences each vehicle is currently inside
+    private final ConcurrentHashMap<Long, Set<Site>> insideByVehicle = new ConcurrentHashMap<>();
+
+    @Value("${fleet.geofence.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fleet.geofence.hub-radius-meters:300}")
+    private double hubRadiusMeters;
+
+    @Value("${fleet.geofence.terminal-radius-meters:150}")
+    private double terminalRadiusMeters;
+
+    @Value("${fleet.geofence.exit-margin-meters:50}")
+    private double exitMarginMeters;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        hubRepository.findAll().forEach(this::registerHub);
+        terminalRepository.findAll().forEach(this::registerTerminal);
+        log.info("Loaded geofences for {} hubs and {} terminals", hubs.size(), terminals.size());
+    }
+
+    public void registerHub(Hub hub) {
+        if (hub.getLatitude() != null && hub.getLongitude() != null) {
+            hubs.put(hub.getId(), hub.getLatitude(), hub.getLongitude());
+        }
+    }
+
+    public void registerTerminal(Terminal terminal) {
+        if (terminal.getLatitude() != null && terminal.getLongitude() != null) {
+            terminals.put(terminal.getId(), terminal.getLatitude(), terminal.getLongitude());
+        }
+    }
+
+    /**
+     * Evaluates a vehicle's newest fix. Fixes must arrive in time order per vehicle, which the
+     * ingest path guarantees by only passing fixes that became the latest position.
+     */
+    public void evaluate(Long vehicleId, double latitude, double longitude, LocalDateTime timestamp) {
+        if (!enabled) {
+            return;
+        }
+        List<GeofenceEvent> events = new ArrayList<>(2);
+        // compute() serializes evaluation per vehicle, so transitions are never reported twice
+        insideByVehicle.compute(vehicleId, (id, previous) -> {
+            Set<Site> inside = new HashSet<>();
+            collectInside(Inventory.LocationType.HUB, hubs, hubRadiusMeters, latitude, longitude, previous, inside);
+            collectInside(Inventory.LocationType.TERMINAL, terminals, terminalRadiusMeters, latitude, longitude,
+                    previous, inside);
+
+            for (Site site : inside) {
+                if (previous == null || !previous.contains(site)) {
+                    events.add(new GeofenceEvent(GeofenceEvent.Type.ARRIVAL, vehicleId, site.type(), site.id(),
+                            latitude, longitude, timestamp));
+                }
+            }
+            if (previous != null) {
+                for (Site site : previous) {
+                    if (!inside.contains(site)) {
+                        events.add(new GeofenceEvent(GeofenceEvent.Type.DEPARTURE, vehicleId, site.type(), site.id(),
+                                latitude, longitude, timestamp));
+                    }
+                }
+            }
+            return inside.isEmpty() ? null : inside;
+        });
+        // Publish outside compute() so listeners never run while the map bin is locked
+        events.forEach(eventPublisher::publishEvent);
+    }
+
+    /**
+     * The fences these vehicles are inside right now, null for none, for {@link #restore} to go
+     * back to.
+     */
+    public Map<Long, Set<Site>> capture(Collection<Long> vehicleIds) {
+        Map<Long, Set<Site>> captured = new HashMap<>();
+        for (Long vehicleId : vehicleIds) {
+            captured.put(vehicleId, insideByVehicle.get(vehicleId));
+        }
+        return captured;
+    }
+
+    /**
+     * Undoes the evaluation of fixes that were rolled back, putting each vehicle back in the
+     * fences {@code before} holds, so their redelivery reports the same arrivals again. A vehicle
+     * whose fences changed again after {@code after} was captured is left alone.
+     */
+    public void restore(Map<Long, Set<Site>> before, Map<Long, Set<Site>> after) {
+        // Every evaluation stores a new set, so identity tells whether anything evaluated since
+        before.forEach((vehicleId, inside) -> insideByVehicle.compute(vehicleId,
+                (id, current) -> current == after.get(id) ? inside : current));
+    }
+
+    public Set<Site> getSitesContaining(Long vehicleId) {
+        return Set.copyOf(insideByVehicle.getOrDefault(vehicleId, Set.of()));
+    }
+
+    private void collectInside(Inventory.LocationType type, SpatialGrid sites, double radiusMeters,
+                               double latitude, double longitude, Set<Site> previous, Set<Site> inside) {
+        for (SpatialGrid.Neighbor neighbor : sites.withinRadius(latitude, longitude, radiusMeters + exitMarginMeters)) {
+            Site site = new Site(type, neighbor.id());
+            boolean wasInside = previous != null && previous.contains(site);
+            if (neighbor.distanceMeters() <= radiusMeters || wasInside) {
+                inside.add(site);
+            }
+        }
+    }
+
+    public record Site(Inventory.LocationType type, long id) {
+    }
+}
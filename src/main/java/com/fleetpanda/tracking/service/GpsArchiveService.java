@@ -0,0 +1,261 @@
+package com.fleetpanda.tracking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compacts closed days of gps_log into one {@link GpsChunk} per vehicle and day in
+ * gps_archive_chunk, and serves those chunks back to the track history reader.
+ * <p>
+ * A day is archived in one REPEATABLE READ transaction: its rows are read, encoded, written as
+ * chunks and deleted from the same snapshot, so a late fix that commits meanwhile is neither
+ * archived nor deleted. It stays in gps_log, where the track reader merges it with the
+ * archive, and is folded into the existing chunk on the next run.
+ * <p>
+ * When gps_log is partitioned, the day's partition is emptied with TRUNCATE instead of a
+ * DELETE that would leave a day of dead rows to vacuum. The partition is locked against writes
+ * before the snapshot is taken, so no fix can land in it unseen and be truncated with the rest;
+ * late fixes for the day wait for the archive to commit. Only the day's stragglers in
+ * gps_log_default are deleted row by row.
+ */
+@Slf4j
+@Service
+public class GpsArchiveService {
+
+    private static final String OLDEST_SQL = "SELECT MIN(timestamp) FROM gps_log WHERE timestamp < ?";
+    private static final String DAY_PREDICATE = "FROM gps_log WHERE timestamp >= ? AND timestamp < ? "
+            + "AND vehicle_id IS NOT NULL AND latitude IS NOT NULL AND longitude IS NOT NULL";
+    private static final String DAY_ROWS_SQL = "SELECT id, vehicle_id, timestamp, latitude, longitude "
+            + DAY_PREDICATE + " ORDER BY vehicle_id, timestamp, id";
+    private static final String DAY_DELETE_SQL = "DELETE " + DAY_PREDICATE;
+    private static final String DEFAULT_DELETE_SQL = DAY_DELETE_SQL.replace("FROM gps_log ", "FROM gps_log_default ");
+    private static final String PARTITION_EXISTS_SQL = "SELECT COUNT(*) FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'gps_log'::regclass AND c.relname = ?";
+    private static final String ARCHIVED_VEHICLES_SQL = "SELECT vehicle_id FROM gps_archive_chunk WHERE date = ?";
+    private static final String CHUNK_SQL = "SELECT data FROM gps_archive_chunk WHERE vehicle_id = ? AND date = ?";
+    private static final String INSERT_SQL = "INSERT INTO gps_archive_chunk (vehicle_id, date, point_count, "
+            + "first_timestamp, last_timestamp, data, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE gps_archive_chunk SET point_count = ?, first_timestamp = ?, "
+            + "last_timestamp = ?, data = ?, updated_at = ? WHERE vehicle_id = ? AND date = ?";
+    private static final String DAYS_IN_RANGE_SQL = "SELECT date FROM gps_archive_chunk WHERE vehicle_id = ? "
+            + "AND date >= ? AND date <= ? AND last_timestamp >= ? AND first_timestamp < ? ORDER BY date";
+    private static final String EXPIRE_SQL = "DELETE FROM gps_archive_chunk WHERE date < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate dayTransaction;
+
+    @Value("${fleet.gps.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fleet.gps.partitioning.enabled:false}")
+    private boolean partitioned;
+
+    @Value("${fleet.gps.archive.after-days:2}")
+    private int afterDays;
+
+    @Value("${fleet.gps.archive.retention-days:730}")
+    private int retentionDays;
+
+    @Value("${fleet.gps.archive.batch-size:50}")
+    private int batchSize;
+
+    public GpsArchiveService(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${fleet.track.fetch-size:2000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // A day of the whole fleet is read through a cursor, like a track
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.dayTransaction = new TransactionTemplate(transactionManager);
+        this.dayTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @Scheduled(cron = "${fleet.gps.archive.cron:0 45 0 * * *}")
+    public void compactClosedDays() {
+        if (enabled) {
+            compactClosedDays(LocalDate.now());
+        }
+    }
+
+    /**
+     * Archives every day older than {@code after-days} that still has rows in gps_log, then
+     * drops chunks past the archive retention. Returns the number of fixes archived.
+     */
+    public long compactClosedDays(LocalDate today) {
+        LocalDate cutoff = today.minusDays(afterDays);
+        LocalDateTime oldest = jdbcTemplate.queryForObject(OLDEST_SQL, LocalDateTime.class,
+                Timestamp.valueOf(cutoff.atStartOfDay()));
+        long archived = 0;
+        if (oldest != null) {
+            for (LocalDate day = oldest.toLocalDate(); day.isBefore(cutoff); day = day.plusDays(1)) {
+                archived += archiveDay(day);
+            }
+        }
+        int expired = jdbcTemplate.update(EXPIRE_SQL, Date.valueOf(today.minusDays(retentionDays)));
+        if (archived > 0 || expired > 0) {
+            log.info("Archived {} GPS fixes; dropped {} expired archive chunks", archived, expired);
+        }
+        return archived;
+    }
+
+    /**
+     * Moves one day of gps_log into chunks, merging into chunks already archived for that day.
+     */
+    public long archiveDay(LocalDate day) {
+        // Looked up outside the day's transaction, whose snapshot must be taken after the lock
+        String partition = partitioned ? findPartition(day) : null;
+        Long archived = dayTransaction.execute(status -> {
+            if (partition != null) {
+                jdbcTemplate.execute("LOCK TABLE " + partition + " IN EXCLUSIVE MODE");
+            }
+            Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+            Timestamp end = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+            Set<Long> alreadyArchived = new HashSet<>(
+                    jdbcTemplate.queryForList(ARCHIVED_VEHICLES_SQL, Long.class, Date.valueOf(day)));
+
+            ChunkWriter writer = new ChunkWriter(day, alreadyArchived);
+            cursorJdbcTemplate.query(DAY_ROWS_SQL, rs -> {
+                writer.accept(rs.getLong(2), rs.getLong(1), rs.getObject(3, LocalDateTime.class),
+                        rs.getDouble(4), rs.getDouble(5));
+            }, start, end);
+            writer.finish();
+
+            long deleted = partition != null ? emptyPartition(partition, start, end, writer.rows)
+                    : jdbcTemplate.update(DAY_DELETE_SQL, start, end);
+            if (deleted != writer.rows) {
+                // Cannot happen under REPEATABLE READ; never delete fixes that were not archived
+                throw new IllegalStateException("Archived " + writer.rows + " GPS fixes for " + day
+                        + " but would delete " + deleted);
+            }
+            return writer.rows;
+        });
+        if (archived != null && archived > 0) {
+            log.info("Archived {} GPS fixes for {}", archived, day);
+        }
+        return archived != null ? archived : 0;
+    }
+
+    private String findPartition(LocalDate day) {
+        String partition = GpsLogPartitionMaintainer.partitionName(day);
+        Integer found = jdbcTemplate.queryForObject(PARTITION_EXISTS_SQL, Integer.class, partition);
+        return found != null && found > 0 ? partition : null;
+    }
+
+    /**
+     * Deletes the day's archived stragglers from gps_log_default and truncates the day's
+     * partition, unless it also holds rows the archive skips (no vehicle or position), which are
+     * left in place by deleting the archived rows one by one instead. Returns the rows removed.
+     */
+    private long emptyPartition(String partition, Timestamp start, Timestamp end, long archived) {
+        long stragglers = jdbcTemplate.update(DEFAULT_DELETE_SQL, start, end);
+        Long inPartition = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition, Long.class);
+        if (inPartition != null && stragglers + inPartition == archived) {
+            jdbcTemplate.execute("TRUNCATE " + partition);
+            return stragglers + inPartition;
+        }
+        return stragglers + jdbcTemplate.update(DAY_DELETE_SQL.replace("FROM gps_log ", "FROM " + partition + " "),
+                start, end);
+    }
+
+    /**
+     * Days in [from, to) for which the vehicle has an archived chunk overlapping the range.
+     */
+    public List<LocalDate> findArchivedDays(Long vehicleId, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.queryForList(DAYS_IN_RANGE_SQL, LocalDate.class, vehicleId,
+                Date.valueOf(from.toLocalDate()), Date.valueOf(to.toLocalDate()),
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    public GpsChunk loadChunk(Long vehicleId, LocalDate day) {
+        List<byte[]> data = jdbcTemplate.queryForList(CHUNK_SQL, byte[].class, vehicleId, Date.valueOf(day));
+        return data.isEmpty() ? new GpsChunk(0) : GpsChunk.decode(data.get(0));
+    }
+
+    /**
+     * Collects one vehicle's rows at a time (the cursor is ordered by vehicle) and writes the
+     * encoded chunks in batches.
+     */
+    private final class ChunkWriter {
+        private final LocalDate day;
+        private final Set<Long> alreadyArchived;
+        private final List<Object[]> inserts = new ArrayList<>();
+        private final List<Object[]> updates = new ArrayList<>();
+        private final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        private Long vehicleId;
+        private GpsChunk chunk;
+        long rows;
+
+        ChunkWriter(LocalDate day, Set<Long> alreadyArchived) {
+            this.day = day;
+            this.alreadyArchived = alreadyArchived;
+        }
+
+        void accept(long rowVehicleId, long id, LocalDateTime timestamp, double latitude, double longitude) {
+            if (vehicleId == null || vehicleId != rowVehicleId) {
+                finishVehicle();
+                vehicleId = rowVehicleId;
+                chunk = new GpsChunk(4096);
+            }
+            chunk.add(id, timestamp, latitude, longitude);
+            rows++;
+        }
+
+        void finish() {
+            finishVehicle();
+            flush();
+        }
+
+        private void finishVehicle() {
+            if (vehicleId == null) {
+                return;
+            }
+            if (alreadyArchived.contains(vehicleId)) {
+                GpsChunk merged = GpsChunk.merge(loadChunk(vehicleId, day), chunk);
+                updates.add(new Object[]{merged.size(), first(merged), last(merged), merged.encode(), now,
+                        vehicleId, Date.valueOf(day)});
+            } else {
+                inserts.add(new Object[]{vehicleId, Date.valueOf(day), chunk.size(), first(chunk), last(chunk),
+                        chunk.encode(), now, now});
+            }
+            if (inserts.size() + updates.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+                inserts.clear();
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+                updates.clear();
+            }
+        }
+
+        private static Timestamp first(GpsChunk chunk) {
+            return Timestamp.valueOf(chunk.timestamp(0));
+        }
+
+        private static Timestamp last(GpsChunk chunk) {
+            return Timestamp.valueOf(chunk.timestamp(chunk.size() - 1));
+        }
+    }
+}
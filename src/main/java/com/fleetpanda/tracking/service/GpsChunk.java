@@ -0,0 +1,362 @@
+package com.fleetpanda.tracking.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * One vehicle's archived fixes for one day, in (timestamp, id) order, held as columns and
+ * compressed Gorilla-style: timestamps (microseconds, UTC) and ids are delta-of-delta encoded
+ * into variable-width buckets, and latitude and longitude are XORed with the previous value and
+ * stored as only their meaningful bits. Regular 1 Hz fixes cost one bit per timestamp, and a
+ * slowly moving coordinate shares its sign, exponent and leading mantissa bits with the last one,
+ * so a fix typically shrinks from a ~100 byte gps_log row to around ten bytes. Lossless.
+ */
+public final class GpsChunk {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private long[] ids;
+    private long[] epochMicros;
+    private double[] latitudes;
+    private double[] longitudes;
+    private int size;
+
+    public GpsChunk(int capacity) {
+        int initial = Math.max(capacity, 16);
+        ids = new long[initial];
+        epochMicros = new long[initial];
+        latitudes = new double[initial];
+        longitudes = new double[initial];
+    }
+
+    public void add(long id, LocalDateTime timestamp, double latitude, double longitude) {
+        add(id, toEpochMicros(timestamp), latitude, longitude);
+    }
+
+    void add(long id, long micros, double latitude, double longitude) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            epochMicros = Arrays.copyOf(epochMicros, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+        }
+        ids[size] = id;
+        epochMicros[size] = micros;
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long id(int i) {
+        return ids[i];
+    }
+
+    public LocalDateTime timestamp(int i) {
+        return fromEpochMicros(epochMicros[i]);
+    }
+
+    public long epochMicros(int i) {
+        return epochMicros[i];
+    }
+
+    public double latitude(int i) {
+        return latitudes[i];
+    }
+
+    public double longitude(int i) {
+        return longitudes[i];
+    }
+
+    /**
+     * Both chunks' fixes in (timestamp, id) order, for folding late fixes into an archived day.
+     * A fix present in both (same id) is kept once.
+     */
+    public static GpsChunk merge(GpsChunk a, GpsChunk b) {
+        GpsChunk merged = new GpsChunk(a.size + b.size);
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            int order = i == a.size ? 1 : j == b.size ? -1 : a.compare(i, b, j);
+            if (order <= 0) {
+                merged.add(a.ids[i], a.epochMicros[i], a.latitudes[i], a.longitudes[i]);
+                i++;
+                if (order == 0) {
+                    j++;
+                }
+            } else {
+                merged.add(b.ids[j], b.epochMicros[j], b.latitudes[j], b.longitudes[j]);
+                j++;
+            }
+        }
+        return merged;
+    }
+
+    private int compare(int i, GpsChunk other, int j) {
+        int byTime = Long.compare(epochMicros[i], other.epochMicros[j]);
+        return byTime != 0 ? byTime : Long.compare(ids[i], other.ids[j]);
+    }
+
+    public byte[] encode() {
+        BitWriter out = new BitWriter(16 + size * 12);
+        out.write(FORMAT_VERSION, 8);
+        out.write(size, 32);
+        if (size == 0) {
+            return out.toByteArray();
+        }
+        out.write(ids[0], 64);
+        out.write(epochMicros[0], 64);
+        out.write(Double.doubleToRawLongBits(latitudes[0]), 64);
+        out.write(Double.doubleToRawLongBits(longitudes[0]), 64);
+
+        long timeDelta = 0;
+        long idDelta = 0;
+        XorState latitude = new XorState(Double.doubleToRawLongBits(latitudes[0]));
+        XorState longitude = new XorState(Double.doubleToRawLongBits(longitudes[0]));
+        for (int i = 1; i < size; i++) {
+            long delta = epochMicros[i] - epochMicros[i - 1];
+            writeDeltaOfDelta(out, delta - timeDelta);
+            timeDelta = delta;
+            delta = ids[i] - ids[i - 1];
+            writeDeltaOfDelta(out, delta - idDelta);
+            idDelta = delta;
+            latitude.write(out, Double.doubleToRawLongBits(latitudes[i]));
+            longitude.write(out, Double.doubleToRawLongBits(longitudes[i]));
+        }
+        return out.toByteArray();
+    }
+
+    public static GpsChunk decode(byte[] data) {
+        BitReader in = new BitReader(data);
+        int version = (int) in.read(8);
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported GPS chunk format " + version);
+        }
+        int count = (int) in.read(32);
+        GpsChunk chunk = new GpsChunk(count);
+        if (count == 0) {
+            return chunk;
+        }
+        long id = in.read(64);
+        long micros = in.read(64);
+        XorState latitude = new XorState(in.read(64));
+        XorState longitude = new XorState(in.read(64));
+        chunk.add(id, micros, Double.longBitsToDouble(latitude.previous), Double.longBitsToDouble(longitude.previous));
+
+        long timeDelta = 0;
+        long idDelta = 0;
+        for (int i = 1; i < count; i++) {
+            timeDelta += readDeltaOfDelta(in);
+            micros += timeDelta;
+            idDelta += readDeltaOfDelta(in);
+            id += idDelta;
+            chunk.add(id, micros, Double.longBitsToDouble(latitude.read(in)), Double.longBitsToDouble(longitude.read(in)));
+        }
+        return chunk;
+    }
+
+    public static long toEpochMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1000;
+    }
+
+    public static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+
+    // Prefix code: 0 | 10+7 bits | 110+9 | 1110+12 | 11110+32 | 11111+64, values two's complement
+    private static void writeDeltaOfDelta(BitWriter out, long value) {
+        if (value == 0) {
+            out.write(0, 1);
+        } else if (fits(value, 7)) {
+            out.write(0b10, 2);
+            out.write(value, 7);
+        } else if (fits(value, 9)) {
+            out.write(0b110, 3);
+            out.write(value, 9);
+        } else if (fits(value, 12)) {
+            out.write(0b1110, 4);
+            out.write(value, 12);
+        } else if (fits(value, 32)) {
+            out.write(0b11110, 5);
+            out.write(value, 32);
+        } else {
+            out.write(0b11111, 5);
+            out.write(value, 64);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader in) {
+        if (in.read(1) == 0) {
+            return 0;
+        }
+        int bits;
+        if (in.read(1) == 0) {
+            bits = 7;
+        } else if (in.read(1) == 0) {
+            bits = 9;
+        } else if (in.read(1) == 0) {
+            bits = 12;
+        } else {
+            bits = in.read(1) == 0 ? 32 : 64;
+        }
+        long value = in.read(bits);
+        return bits == 64 ? value : value << (64 - bits) >> (64 - bits);
+    }
+
+    private static boolean fits(long value, int bits) {
+        long limit = 1L << (bits - 1);
+        return value >= -limit && value < limit;
+    }
+
+    /**
+     * Gorilla value compression: 0 for an unchanged value, 10 plus the XOR's meaningful bits if
+     * they fit the previous leading/trailing-zero window, otherwise 11 plus a new window.
+     */
+    private static final class XorState {
+        long previous;
+        int leading = -1;
+        int trailing;
+
+        XorState(long first) {
+            previous = first;
+        }
+
+        void write(BitWriter out, long value) {
+            long xor = value ^ previous;
+            previous = value;
+            if (xor == 0) {
+                out.write(0, 1);
+                return;
+            }
+            int lz = Long.numberOfLeadingZeros(xor);
+            int tz = Long.numberOfTrailingZeros(xor);
+            if (leading >= 0 && lz >= leading && tz >= trailing) {
+                out.write(0b10, 2);
+                out.write(xor >>> trailing, 64 - leading - trailing);
+            } else {
+                int meaningful = 64 - lz - tz;
+                out.write(0b11, 2);
+                out.write(lz, 6);
+                out.write(meaningful - 1, 6);
+                out.write(xor >>> tz, meaningful);
+                leading = lz;
+                trailing = tz;
+            }
+        }
+
+        long read(BitReader in) {
+            if (in.read(1) == 0) {
+                return previous;
+            }
+            if (in.read(1) == 1) {
+                leading = (int) in.read(6);
+                int meaningful = (int) in.read(6) + 1;
+                trailing = 64 - leading - meaningful;
+            }
+            long xor = in.read(64 - leading - trailing) << trailing;
+            previous ^= xor;
+            return previous;
+        }
+    }
+
+    private static final class BitWriter {
+        private byte[] bytes;
+        private int length;
+        // Pending bits, most significant first
+        private long pending;
+        private int pendingBits;
+
+        BitWriter(int capacity) {
+            bytes = new byte[Math.max(capacity, 16)];
+        }
+
+        void write(long value, int bits) {
+            if (bits < 64) {
+                value &= (1L << bits) - 1;
+            }
+            int free = 64 - pendingBits;
+            if (bits <= free) {
+                pending |= bits == 64 ? value : value << (free - bits);
+                pendingBits += bits;
+                if (pendingBits == 64) {
+                    flush();
+                }
+                return;
+            }
+            int rest = bits - free;
+            pending |= value >>> rest;
+            pendingBits = 64;
+            flush();
+            pending = value << (64 - rest);
+            pendingBits = rest;
+        }
+
+        private void flush() {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (pending >>> shift);
+            }
+            pending = 0;
+            pendingBits = 0;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            int tail = (pendingBits + 7) / 8;
+            ensure(tail);
+            for (int i = 0; i < tail; i++) {
+                bytes[length + i] = (byte) (pending >>> (56 - 8 * i));
+            }
+            return Arrays.copyOf(bytes, length + tail);
+        }
+    }
+
+    private static final class BitReader {
+        private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+        private final byte[] bytes;
+        private long position;
+
+        BitReader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        long read(int bits) {
+            if (bits == 0) {
+                return 0;
+            }
+            int index = (int) (position >>> 3);
+            int offset = (int) (position & 7);
+            if (position + bits > (long) bytes.length * 8) {
+                throw new IllegalArgumentException("Truncated GPS chunk");
+            }
+            // The 64 bits starting at position: one big-endian word plus the spill-over byte
+            long window;
+            if (index + 9 <= bytes.length) {
+                window = ((long) LONGS.get(bytes, index) << offset) | ((bytes[index + 8] & 0xFFL) >>> (8 - offset));
+            } else {
+                window = 0;
+                for (int i = 0; i < 9; i++) {
+                    long b = index + i < bytes.length ? bytes[index + i] & 0xFFL : 0;
+                    window |= i < 8 ? b << (56 - 8 * i) << offset : b >>> (8 - offset);
+                }
+            }
+            position += bits;
+            return window >>> (64 - bits);
+        }
+    }
+}
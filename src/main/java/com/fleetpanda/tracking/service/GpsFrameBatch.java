@@ -0,0 +1,65 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.GpsLogDTO;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity columns of decoded frames, reused for every batch so decoding never allocates.
+ * Not thread-safe; owned by the listener's selector thread.
+ */
+public final class GpsFrameBatch {
+
+    private final long[] vehicleIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] epochMillis;
+    private int size;
+
+    public GpsFrameBatch(int capacity) {
+        vehicleIds = new long[capacity];
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        epochMillis = new long[capacity];
+    }
+
+    void add(long vehicleId, double latitude, double longitude, long millis) {
+        vehicleIds[size] = vehicleId;
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        epochMillis[size] = millis;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == vehicleIds.length;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Copies the batch into the DTOs the ingest path takes; the batch can be reused right after.
+     */
+    public List<GpsLogDTO> toFixes() {
+        List<GpsLogDTO> fixes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            GpsLogDTO fix = new GpsLogDTO();
+            fix.setVehicleId(vehicleIds[i]);
+            fix.setLatitude(latitudes[i]);
+            fix.setLongitude(longitudes[i]);
+            fix.setTimestamp(LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis[i], 1000),
+                    Math.floorMod(epochMillis[i], 1000) * 1_000_000, ZoneOffset.UTC));
+            fixes.add(fix);
+        }
+        return fixes;
+    }
+}
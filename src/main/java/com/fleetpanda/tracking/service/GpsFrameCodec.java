@@ -0,0 +1,44 @@
+package com.fleetpanda.tracking.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary wire format of the GPS socket listener: fixed-width 24-byte big-endian frames of
+ * {@code int64 vehicleId, int32 latitude, int32 longitude, int64 epochMillis}, with coordinates
+ * in units of 1e-7 degrees (about a centimetre) and the timestamp in UTC like
+ * {@link GpsUpdateCodec}. A connection is just a stream of frames; there is no header or reply.
+ */
+public final class GpsFrameCodec {
+
+    public static final int FRAME_BYTES = 24;
+    public static final double DEGREE_UNITS = 1e7;
+
+    private GpsFrameCodec() {
+    }
+
+    public static void encode(ByteBuffer buffer, long vehicleId, double latitude, double longitude, long epochMillis) {
+        buffer.putLong(vehicleId);
+        buffer.putInt((int) Math.round(latitude * DEGREE_UNITS));
+        buffer.putInt((int) Math.round(longitude * DEGREE_UNITS));
+        buffer.putLong(epochMillis);
+    }
+
+    /**
+     * Decodes every complete frame between the buffer's position and limit into {@code batch},
+     * stopping early if the batch fills up, and leaves the position after the last frame read.
+     * Returns false if a frame holds impossible coordinates, which means the stream is out of step.
+     */
+    public static boolean decode(ByteBuffer buffer, GpsFrameBatch batch) {
+        while (buffer.remaining() >= FRAME_BYTES && !batch.isFull()) {
+            long vehicleId = buffer.getLong();
+            int latitude = buffer.getInt();
+            int longitude = buffer.getInt();
+            long epochMillis = buffer.getLong();
+            if (Math.abs(latitude) > 90 * DEGREE_UNITS || Math.abs(longitude) > 180 * DEGREE_UNITS) {
+                return false;
+            }
+            batch.add(vehicleId, latitude / DEGREE_UNITS, longitude / DEGREE_UNITS, epochMillis);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,199 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.GpsBatchResultDTO;
+import com.fleetpanda.tracking.dto.GpsLogDTO;
+import com.fleetpanda.tracking.repository.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single write path for GPS fixes. Validates vehicle ids against an in-memory id set, runs
+ * valid fixes through {@link GpsPingFilter} and writes the ones it keeps to gps_log as JDBC
+ * batches, bypassing the entity manager. Every fresh fix, stored or suppressed, is checked
+ * against the geofences by {@link GeofenceService} if it is the vehicle's newest fix, and
+ * updates {@link LatestPositionRegistry} and the shift's trip in {@link TripAnalyticsService}
+ * once the batch commits. A rolled-back batch never shows on the map or in a trip, and its
+ * geofence transitions are undone.
+ */
+@Service
+@RequiredArgsConstructor
+public class GpsIngestService {
+
+    private static final String INSERT_SQL = "INSERT INTO gps_log "
+            + "(vehicle_id, latitude, longitude, timestamp, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VehicleRepository vehicleRepository;
+    private final LatestPositionRegistry latestPositionRegistry;
+    private final GeofenceService geofenceService;
+    private final GpsPingFilter gpsPingFilter;
+    private final TripAnalyticsService tripAnalyticsService;
+
+    // Vehicles are never deleted, so once an id has been seen it stays valid
+    private final Set<Long> knownVehicleIds = ConcurrentHashMap.newKeySet();
+
+    @Value("${fleet.gps.batch-size:500}")
+    private int batchSize;
+
+    @Transactional
+    public GpsBatchResultDTO ingest(List<GpsLogDTO> fixes) {
+        GpsBatchResultDTO result = new GpsBatchResultDTO();
+        result.setReceived(fixes.size());
+
+        resolveUnknownVehicles(fixes);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<GpsLogDTO> valid = new ArrayList<>(fixes.size());
+        for (GpsLogDTO fix : fixes) {
+            if (fix.getVehicleId() == null || fix.getLatitude() == null || fix.getLongitude() == null) {
+                continue;
+            }
+            if (!knownVehicleIds.contains(fix.getVehicleId())) {
+                result.getUnknownVehicleIds().add(fix.getVehicleId());
+                continue;
+            }
+            if (fix.getTimestamp() == null) {
+                fix.setTimestamp(now);
+            }
+            valid.add(fix);
+        }
+
+        List<GpsLogDTO> toStore = new ArrayList<>(valid.size());
+        List<GpsLogDTO> fresh = new ArrayList<>(valid.size());
+        int kept = 0;
+        for (GpsLogDTO fix : valid) {
+            GpsPingFilter.Verdict verdict = gpsPingFilter.offer(fix, toStore);
+            if (verdict == GpsPingFilter.Verdict.KEPT) {
+                kept++;
+            }
+            if (verdict == GpsPingFilter.Verdict.KEPT || verdict == GpsPingFilter.Verdict.SUPPRESSED) {
+                fresh.add(fix);
+            }
+        }
+        forgetFilterStateOnRollback(valid);
+
+        if (!toStore.isEmpty()) {
+            Timestamp createdAt = Timestamp.valueOf(now);
+            jdbcTemplate.batchUpdate(INSERT_SQL, toStore, batchSize, (ps, fix) -> {
+                ps.setLong(1, fix.getVehicleId());
+                ps.setDouble(2, fix.getLatitude());
+                ps.setDouble(3, fix.getLongitude());
+                ps.setTimestamp(4, Timestamp.valueOf(fix.getTimestamp()));
+                ps.setTimestamp(5, createdAt);
+                ps.setTimestamp(6, createdAt);
+            });
+        }
+        // Geofences only see a vehicle's newest fix: newer than its current position and than the
+        // fixes before it in this batch
+        Set<Long> freshVehicleIds = new HashSet<>();
+        fresh.forEach(fix -> freshVehicleIds.add(fix.getVehicleId()));
+        Map<Long, Set<GeofenceService.Site>> geofencesBefore = geofenceService.capture(freshVehicleIds);
+        Map<Long, LocalDateTime> newestByVehicle = new HashMap<>();
+        for (GpsLogDTO fix : fresh) {
+            LocalDateTime newest = newestByVehicle.get(fix.getVehicleId());
+            if (newest != null ? !newest.isAfter(fix.getTimestamp())
+                    : latestPositionRegistry.isNewest(fix.getVehicleId(), fix.getTimestamp())) {
+                newestByVehicle.put(fix.getVehicleId(), fix.getTimestamp());
+                geofenceService.evaluate(fix.getVehicleId(), fix.getLatitude(), fix.getLongitude(),
+                        fix.getTimestamp());
+            }
+        }
+        restoreGeofencesOnRollback(geofencesBefore, geofenceService.capture(freshVehicleIds));
+        recordPositionsAfterCommit(fresh);
+
+        result.setAccepted(kept);
+        result.setFiltered(valid.size() - kept);
+        result.setRejected(fixes.size() - valid.size());
+        return result;
+    }
+
+    /**
+     * Suppressed fixes still move the vehicle on the map and count towards its trip.
+     */
+    private void recordPositionsAfterCommit(List<GpsLogDTO> fresh) {
+        if (fresh.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordPositions(fresh);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordPositions(fresh);
+            }
+        });
+    }
+
+    private void recordPositions(List<GpsLogDTO> fresh) {
+        for (GpsLogDTO fix : fresh) {
+            tripAnalyticsService.record(fix.getVehicleId(), fix.getLatitude(), fix.getLongitude(),
+                    fix.getTimestamp());
+            latestPositionRegistry.update(fix.getVehicleId(), fix.getLatitude(), fix.getLongitude(),
+                    fix.getTimestamp());
+        }
+    }
+
+    private void forgetFilterStateOnRollback(List<GpsLogDTO> valid) {
+        if (valid.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        // Otherwise a redelivered batch would be dropped as duplicates of rows that were never written
+        Set<Long> vehicleIds = new HashSet<>();
+        valid.forEach(fix -> vehicleIds.add(fix.getVehicleId()));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    gpsPingFilter.forget(vehicleIds);
+                }
+            }
+        });
+    }
+
+    private void restoreGeofencesOnRollback(Map<Long, Set<GeofenceService.Site>> before,
+                                            Map<Long, Set<GeofenceService.Site>> after) {
+        if (before.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        // Otherwise a redelivered batch would find its vehicles already inside and never report
+        // the arrivals, whose events went down with the rollback
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    geofenceService.restore(before, after);
+                }
+            }
+        });
+    }
+
+    private void resolveUnknownVehicles(List<GpsLogDTO> fixes) {
+        Set<Long> unknown = new HashSet<>();
+        for (GpsLogDTO fix : fixes) {
+            if (fix.getVehicleId() != null && !knownVehicleIds.contains(fix.getVehicleId())) {
+                unknown.add(fix.getVehicleId());
+            }
+        }
+        if (!unknown.isEmpty()) {
+            // One IN query per batch, and only for ids we have not seen before
+            knownVehicleIds.addAll(vehicleRepository.findExistingIds(unknown));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.GpsLogDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drains the gps-updates topic in batches and bulk-writes them through {@link GpsIngestService}.
+ * Batch size and linger are bounded by the consumer's max-poll-records and fetch-max-wait settings.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "fleet.gps.ingest-mode", havingValue = "kafka")
+public class GpsKafkaConsumer {
+
+    private final GpsIngestService gpsIngestService;
+
+    @KafkaListener(topics = GpsUpdateCodec.TOPIC, batch = "true")
+    public void consume(List<String> records) {
+        List<GpsLogDTO> fixes = new ArrayList<>(records.size());
+        for (String record : records) {
+            try {
+                fixes.add(GpsUpdateCodec.decode(record));
+            } catch (IllegalArgumentException e) {
+                // A malformed record must not block the partition; drop it and move on
+                log.warn("Skipping GPS record: {}", e.getMessage());
+            }
+        }
+        if (!fixes.isEmpty()) {
+            gpsIngestService.ingest(fixes);
+        }
+    }
+}
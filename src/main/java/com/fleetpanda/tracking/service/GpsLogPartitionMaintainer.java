@@ -0,0 +1,130 @@
+package com.fleetpanda.tracking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the daily partitions of gps_log in shape: partitions for the next few days are created
+ * ahead of time, and partitions older than the retention window are dropped, which is a
+ * metadata operation instead of a vacuum-heavy DELETE. With the GPS archive on, a partition
+ * has been emptied into the archive by then, and the window is stretched if need be so that no
+ * day is dropped before the archive has had a night to pick it up.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "fleet.gps.partitioning.enabled", havingValue = "true")
+public class GpsLogPartitionMaintainer {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final Pattern DAILY_PARTITION = Pattern.compile("gps_log_p(\\d{8})");
+
+    private static final String LIST_PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'gps_log'::regclass";
+    private static final String MOVE_FROM_DEFAULT_SQL = "WITH moved AS (DELETE FROM gps_log_default "
+            + "WHERE timestamp >= ? AND timestamp < ? RETURNING *) INSERT INTO %s SELECT * FROM moved";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${fleet.gps.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${fleet.gps.partitioning.precreate-days:7}")
+    private int precreateDays;
+
+    @Value("${fleet.gps.archive.enabled:true}")
+    private boolean archiveEnabled;
+
+    @Value("${fleet.gps.archive.after-days:2}")
+    private int archiveAfterDays;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${fleet.gps.partitioning.cron:0 15 0 * * *}")
+    public void maintain() {
+        maintain(LocalDate.now());
+    }
+
+    void maintain(LocalDate today) {
+        Set<String> partitions = new HashSet<>(jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class));
+        for (int i = 0; i <= precreateDays; i++) {
+            LocalDate day = today.plusDays(i);
+            if (!partitions.contains(partitionName(day))) {
+                createPartition(day);
+            }
+        }
+        int keepDays = archiveEnabled ? Math.max(retentionDays, archiveAfterDays + 1) : retentionDays;
+        dropExpiredPartitions(partitions, today.minusDays(keepDays));
+    }
+
+    /**
+     * The name of the daily partition holding {@code day}'s fixes.
+     */
+    static String partitionName(LocalDate day) {
+        return "gps_log_p" + day.format(SUFFIX);
+    }
+
+    /**
+     * Creates the day's partition detached, moves whatever fixes for the day are already in
+     * gps_log_default (a clock-skewed device, or a day whose partition was missing) into it, and
+     * attaches it, in one transaction: a partition cannot be created or attached while the default
+     * partition holds rows for its range. The default partition is locked against writes until
+     * then, so no fix for the day can slip into it before the attach.
+     */
+    private void createPartition(LocalDate day) {
+        String partition = partitionName(day);
+        try {
+            Integer moved = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("LOCK TABLE gps_log_default IN EXCLUSIVE MODE");
+                jdbcTemplate.execute("CREATE TABLE " + partition
+                        + " (LIKE gps_log INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+                int rows = jdbcTemplate.update(String.format(MOVE_FROM_DEFAULT_SQL, partition),
+                        day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+                jdbcTemplate.execute(String.format("ALTER TABLE gps_log ATTACH PARTITION %s "
+                        + "FOR VALUES FROM ('%s') TO ('%s')", partition, day, day.plusDays(1)));
+                return rows;
+            });
+            if (moved != null && moved > 0) {
+                log.info("Created GPS partition {} with {} fixes moved from gps_log_default", partition, moved);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not create GPS partition for {}: {}", day, e.getMessage());
+        }
+    }
+
+    private void dropExpiredPartitions(Set<String> partitions, LocalDate cutoff) {
+        for (String partition : partitions) {
+            Matcher matcher = DAILY_PARTITION.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            LocalDate day = LocalDate.parse(matcher.group(1), SUFFIX);
+            if (day.isBefore(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                log.info("Dropped expired GPS partition {}", partition);
+            }
+        }
+
+        // The default partition only holds stragglers, so a plain DELETE stays cheap there. With the
+        // archive on they are left to it, which picks up late fixes for any closed day
+        if (!archiveEnabled) {
+            jdbcTemplate.update("DELETE FROM gps_log_default WHERE timestamp < ?", cutoff.atStartOfDay());
+        }
+    }
+}
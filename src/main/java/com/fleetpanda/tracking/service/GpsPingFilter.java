@@ -0,0 +1,163 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.GpsFilterStatsDTO;
+import com.fleetpanda.tracking.dto.GpsLogDTO;
+import com.fleetpanda.tracking.geo.GeoUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which GPS fixes are worth a gps_log row. Per vehicle it drops exact duplicates
+ * (retries) and fixes that are not newer than the last one seen, and suppresses fixes that land
+ * within {@code distance-meters} of where the last stored point predicts the vehicle to be: the
+ * same spot for a parked truck, further along the same line at the same speed for a moving one.
+ * A fix is stored at least every {@code max-interval-seconds} regardless.
+ * <p>
+ * Motion boundaries are always stored. When a fix leaves the band, the last suppressed fix is
+ * stored before it, so a parked truck's track shows when it left and a moving one's where it
+ * turned or stopped; the point that broke the band is then the new anchor, with zero velocity
+ * once the vehicle has come to rest.
+ * <p>
+ * State lives in memory and is rebuilt from scratch after a restart, when each vehicle's first
+ * fix is simply stored.
+ */
+@Component
+public class GpsPingFilter {
+
+    public enum Verdict {
+        /** Stored. */
+        KEPT,
+        /** Fresh, but inside the dead band of the last stored point. */
+        SUPPRESSED,
+        /** Same timestamp and position as the previous fix. */
+        DUPLICATE,
+        /** Not newer than the previous fix. */
+        STALE
+    }
+
+    private final ConcurrentHashMap<Long, VehicleState> states = new ConcurrentHashMap<>();
+
+    private final LongAdder kept = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+
+    @Value("${fleet.gps.filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fleet.gps.filter.distance-meters:15}")
+    private double distanceMeters;
+
+    @Value("${fleet.gps.filter.max-interval-seconds:300}")
+    private long maxIntervalSeconds;
+
+    /**
+     * Runs one fix through its vehicle's filter and appends whatever should be stored to
+     * {@code toStore}: nothing, the fix itself, or a held-back start point followed by the fix.
+     * The fix must carry a vehicle id, position and timestamp.
+     */
+    public Verdict offer(GpsLogDTO fix, List<GpsLogDTO> toStore) {
+        if (!enabled) {
+            toStore.add(fix);
+            kept.increment();
+            return Verdict.KEPT;
+        }
+        Point point = new Point(fix.getLatitude(), fix.getLongitude(), fix.getTimestamp());
+        Verdict[] verdict = new Verdict[1];
+        // compute() serializes fixes of one vehicle, so concurrent batches cannot interleave its state
+        states.compute(fix.getVehicleId(), (id, state) -> {
+            if (state == null) {
+                verdict[0] = Verdict.KEPT;
+                toStore.add(fix);
+                return new VehicleState(point, 0, 0, point, null);
+            }
+            if (!point.timestamp().isAfter(state.lastSeen().timestamp())) {
+                verdict[0] = point.equals(state.lastSeen()) ? Verdict.DUPLICATE : Verdict.STALE;
+                return state;
+            }
+
+            Point anchor = state.anchor();
+            double elapsed = seconds(anchor, point);
+            double predictedLatitude = anchor.latitude() + state.latitudePerSecond() * elapsed;
+            double predictedLongitude = anchor.longitude() + state.longitudePerSecond() * elapsed;
+            double deviation = GeoUtils.haversineMeters(predictedLatitude, predictedLongitude,
+                    point.latitude(), point.longitude());
+            if (deviation < distanceMeters && elapsed < maxIntervalSeconds) {
+                verdict[0] = Verdict.SUPPRESSED;
+                return new VehicleState(anchor, state.latitudePerSecond(), state.longitudePerSecond(), point, point);
+            }
+
+            // Off the predicted course (or due a heartbeat): the last fix that was still on it
+            // marks where the vehicle started moving or turned, so it is stored first
+            Point previous = anchor;
+            if (deviation >= distanceMeters && state.heldBack() != null) {
+                toStore.add(toFix(id, state.heldBack()));
+                suppressed.decrement();
+                kept.increment();
+                previous = state.heldBack();
+            }
+            verdict[0] = Verdict.KEPT;
+            toStore.add(fix);
+            double step = seconds(previous, point);
+            double moved = GeoUtils.haversineMeters(previous.latitude(), previous.longitude(),
+                    point.latitude(), point.longitude());
+            if (moved < distanceMeters || step <= 0) {
+                // Stopped (or just jitter): predict that it stays put
+                return new VehicleState(point, 0, 0, point, null);
+            }
+            return new VehicleState(point, (point.latitude() - previous.latitude()) / step,
+                    (point.longitude() - previous.longitude()) / step, point, null);
+        });
+
+        switch (verdict[0]) {
+            case KEPT -> kept.increment();
+            case SUPPRESSED -> suppressed.increment();
+            case DUPLICATE -> duplicates.increment();
+            case STALE -> stale.increment();
+        }
+        return verdict[0];
+    }
+
+    /**
+     * Forgets the given vehicles, for when the fixes they were filtered against never made it
+     * to the database. Their next fix starts a fresh filter.
+     */
+    public void forget(Collection<Long> vehicleIds) {
+        vehicleIds.forEach(states::remove);
+    }
+
+    public GpsFilterStatsDTO getStats() {
+        return new GpsFilterStatsDTO(kept.sum(), suppressed.sum(), duplicates.sum(), stale.sum());
+    }
+
+    private static double seconds(Point from, Point to) {
+        return Duration.between(from.timestamp(), to.timestamp()).toMillis() / 1000.0;
+    }
+
+    private static GpsLogDTO toFix(Long vehicleId, Point point) {
+        GpsLogDTO fix = new GpsLogDTO();
+        fix.setVehicleId(vehicleId);
+        fix.setLatitude(point.latitude());
+        fix.setLongitude(point.longitude());
+        fix.setTimestamp(point.timestamp());
+        return fix;
+    }
+
+    private record Point(double latitude, double longitude, LocalDateTime timestamp) {
+    }
+
+    /**
+     * anchor: last stored point, with the velocity (degrees per second) it was travelling at;
+     * lastSeen: newest fix; heldBack: newest suppressed fix, stored if the next fix leaves the band.
+     */
+    private record VehicleState(Point anchor, double latitudePerSecond, double longitudePerSecond,
+                                Point lastSeen, Point heldBack) {
+    }
+}
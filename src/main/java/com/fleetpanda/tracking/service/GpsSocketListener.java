@@ -0,0 +1,234 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.GpsLogDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional TCP ingest for devices that can speak {@link GpsFrameCodec} frames instead of JSON
+ * over HTTP. One selector thread serves every connection without blocking: each connection
+ * borrows a direct buffer from a {@link DirectBufferPool}, and complete frames are decoded into
+ * a reused {@link GpsFrameBatch}. Batches go through a small queue to a single writer thread,
+ * which hands them to {@link DriverService#sendGpsBatch}, the same path the REST endpoints use.
+ * <p>
+ * One writer keeps each vehicle's fixes in arrival order. When it falls behind, the queue fills,
+ * the selector thread blocks and stops reading, and TCP pushes back on the senders.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "fleet.gps.socket.enabled", havingValue = "true")
+public class GpsSocketListener {
+
+    private static final int QUEUED_BATCHES = 16;
+    private static final long POLL_MS = 200;
+
+    private final DriverService driverService;
+
+    private final BlockingQueue<List<GpsLogDTO>> batches = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+    private final AtomicLong framesReceived = new AtomicLong();
+
+    @Value("${fleet.gps.socket.port:9099}")
+    private int port;
+
+    @Value("${fleet.gps.socket.max-connections:1024}")
+    private int maxConnections;
+
+    @Value("${fleet.gps.socket.buffer-bytes:16384}")
+    private int bufferBytes;
+
+    @Value("${fleet.gps.batch-size:500}")
+    private int batchSize;
+
+    private volatile boolean running;
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Thread selectorThread;
+    private Thread writerThread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.configureBlocking(false);
+        server.bind(new InetSocketAddress(port));
+        server.register(selector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        selectorThread = new Thread(this::selectLoop, "gps-socket-selector");
+        writerThread = new Thread(this::writeLoop, "gps-socket-writer");
+        selectorThread.start();
+        writerThread.start();
+        log.info("Listening for binary GPS frames on port {}", getPort());
+    }
+
+    /**
+     * Stops accepting and reading, then waits until every batch already read has been ingested.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        selectorThread.join();
+        writerThread.join();
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public long getFramesReceived() {
+        return framesReceived.get();
+    }
+
+    private void selectLoop() {
+        DirectBufferPool buffers = new DirectBufferPool(bufferBytes, maxConnections);
+        GpsFrameBatch batch = new GpsFrameBatch(batchSize);
+        try {
+            while (running) {
+                selector.select(POLL_MS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept(buffers);
+                    } else if (key.isReadable()) {
+                        read(key, buffers, batch);
+                    }
+                }
+                // Whatever one round of reads produced goes out now, so a quiet connection is not held back
+                flush(batch);
+            }
+        } catch (IOException e) {
+            log.error("GPS socket listener stopped", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key, buffers);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                log.warn("Failed to close GPS socket selector: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void accept(DirectBufferPool buffers) throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        ByteBuffer buffer = buffers.acquire();
+        if (buffer == null) {
+            log.warn("Refusing GPS socket connection from {}: {} connections open",
+                    channel.getRemoteAddress(), maxConnections);
+            channel.close();
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ, buffer);
+    }
+
+    private void read(SelectionKey key, DirectBufferPool buffers, GpsFrameBatch batch) throws InterruptedException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer buffer = (ByteBuffer) key.attachment();
+        int read;
+        try {
+            read = channel.read(buffer);
+        } catch (IOException e) {
+            read = -1;
+        }
+
+        buffer.flip();
+        boolean inStep = true;
+        while (inStep && buffer.remaining() >= GpsFrameCodec.FRAME_BYTES) {
+            int before = batch.size();
+            inStep = GpsFrameCodec.decode(buffer, batch);
+            framesReceived.addAndGet(batch.size() - before);
+            if (batch.isFull()) {
+                flush(batch);
+            }
+        }
+        // Keep a trailing partial frame for the next read
+        buffer.compact();
+
+        if (!inStep) {
+            log.warn("Closing GPS socket connection {}: frames out of step", channel.socket().getRemoteSocketAddress());
+            close(key, buffers);
+        } else if (read < 0) {
+            close(key, buffers);
+        }
+    }
+
+    private void flush(GpsFrameBatch batch) throws InterruptedException {
+        if (batch.size() == 0) {
+            return;
+        }
+        batches.put(batch.toFixes());
+        batch.clear();
+    }
+
+    private void close(SelectionKey key, DirectBufferPool buffers) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            log.debug("Failed to close GPS socket connection: {}", e.getMessage());
+        }
+        if (key.attachment() instanceof ByteBuffer buffer) {
+            key.attach(null);
+            buffers.release(buffer);
+        }
+    }
+
+    private void writeLoop() {
+        // Drain until the selector thread is gone, so nothing it read is lost on shutdown
+        while (selectorThread.isAlive() || !batches.isEmpty()) {
+            List<GpsLogDTO> fixes;
+            try {
+                fixes = batches.poll(POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (fixes == null) {
+                continue;
+            }
+            try {
+                driverService.sendGpsBatch(fixes);
+            } catch (RuntimeException e) {
+                // There is no reply channel; the fixes are lost like a dropped request
+                log.error("Failed to ingest {} GPS fixes from the socket listener", fixes.size(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.GpsLogDTO;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact wire format for the gps-updates topic: {@code vehicleId,latitude,longitude,epochMillis}.
+ * Records are keyed by vehicle id so each vehicle's fixes stay ordered within one partition.
+ */
+public final class GpsUpdateCodec {
+
+    public static final String TOPIC = "gps-updates";
+
+    private GpsUpdateCodec() {
+    }
+
+    public static String key(GpsLogDTO dto) {
+        return String.valueOf(dto.getVehicleId());
+    }
+
+    public static String encode(GpsLogDTO dto) {
+        long epochMillis = dto.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli();
+        return dto.getVehicleId() + "," + dto.getLatitude() + "," + dto.getLongitude() + "," + epochMillis;
+    }
+
+    public static GpsLogDTO decode(String value) {
+        String[] parts = value.split(",", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed GPS record: " + value);
+        }
+        GpsLogDTO dto = new GpsLogDTO();
+        dto.setVehicleId(Long.parseLong(parts[0]));
+        dto.setLatitude(Double.parseDouble(parts[1]));
+        dto.setLongitude(Double.parseDouble(parts[2]));
+        dto.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(parts[3])), ZoneOffset.UTC));
+        return dto;
+    }
+}
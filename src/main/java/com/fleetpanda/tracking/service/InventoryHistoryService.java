@@ -0,0 +1,160 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.InventoryLevelDTO;
+import com.fleetpanda.tracking.entity.Inventory;
+import com.fleetpanda.tracking.entity.InventoryMovement;
+import com.fleetpanda.tracking.entity.Product;
+import com.fleetpanda.tracking.repository.InventoryMovementRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inventory history from an append-only movement ledger plus periodic snapshots. A
+ * point-in-time lookup starts from the latest snapshot at or before the requested time and only
+ * adds the movements recorded after it, so its cost depends on how much happened since the last
+ * snapshot rather than on the age of the ledger.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryHistoryService {
+
+    private static final String LATEST_SNAPSHOT_SQL = "SELECT MAX(snapshot_at) FROM inventory_snapshot";
+    private static final String LATEST_SNAPSHOT_AS_OF_SQL = LATEST_SNAPSHOT_SQL + " WHERE snapshot_at <= ?";
+    private static final String SNAPSHOT_ROWS_SQL = "SELECT location_type, location_id, product_id, quantity "
+            + "FROM inventory_snapshot WHERE snapshot_at = ?";
+    private static final String MOVEMENT_ROWS_SQL = "SELECT location_type, location_id, product_id, quantity "
+            + "FROM inventory_movement WHERE occurred_at <= ?";
+    private static final String KEY_COLUMNS = "x.location_type, x.location_id, x.product_id";
+
+    private final InventoryMovementRepository movementRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Movements are timestamped before their transaction commits, so a snapshot stays this far
+    // behind the clock to avoid closing over a movement that is not visible yet
+    @Value("${fleet.inventory.snapshot-lag-seconds:300}")
+    private long snapshotLagSeconds;
+
+    public void recordMovement(Inventory.LocationType locationType, Long locationId, Product product,
+                               Double quantity, InventoryMovement.MovementType type, Long orderId) {
+        InventoryMovement movement = new InventoryMovement();
+        movement.setLocationType(locationType);
+        movement.setLocationId(locationId);
+        movement.setProduct(product);
+        movement.setQuantity(quantity);
+        movement.setType(type);
+        movement.setOrderId(orderId);
+        movement.setOccurredAt(LocalDateTime.now());
+        movementRepository.save(movement);
+    }
+
+    @Transactional(readOnly = true)
+    public List<InventoryLevelDTO> getLevelsAsOf(LocalDateTime asOf, Inventory.LocationType locationType,
+                                                 Long locationId, Long productId) {
+        LocalDateTime base = toLocalDateTime(
+                jdbcTemplate.queryForObject(LATEST_SNAPSHOT_AS_OF_SQL, Timestamp.class, Timestamp.valueOf(asOf)));
+
+        List<Object> args = new ArrayList<>();
+        String rows = levelRows(base, asOf, locationType, locationId, productId, args);
+        String sql = "SELECT " + KEY_COLUMNS + ", p.name, SUM(x.quantity) FROM (" + rows + ") x "
+                + "LEFT JOIN product p ON p.id = x.product_id "
+                + "GROUP BY " + KEY_COLUMNS + ", p.name ORDER BY " + KEY_COLUMNS;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new InventoryLevelDTO(
+                Inventory.LocationType.valueOf(rs.getString(1)),
+                rs.getLong(2),
+                rs.getLong(3),
+                rs.getString(4),
+                rs.getDouble(5)), args.toArray());
+    }
+
+    @Scheduled(cron = "${fleet.inventory.snapshot-cron:0 0 * * * *}")
+    @Transactional
+    public void takeSnapshot() {
+        int rows = takeSnapshot(LocalDateTime.now().minusSeconds(snapshotLagSeconds));
+        if (rows > 0) {
+            log.info("Took inventory snapshot of {} rows", rows);
+        }
+    }
+
+    /**
+     * Folds the movements up to {@code cutoff} into a new snapshot taken at {@code cutoff}.
+     * Nothing is written when no movement happened since the previous snapshot, since that one
+     * still answers the same lookups.
+     */
+    int takeSnapshot(LocalDateTime cutoff) {
+        LocalDateTime previous = toLocalDateTime(jdbcTemplate.queryForObject(LATEST_SNAPSHOT_SQL, Timestamp.class));
+        if (previous != null && !cutoff.isAfter(previous)) {
+            return 0;
+        }
+        String changed = "SELECT 1 FROM inventory_movement WHERE occurred_at <= ?"
+                + (previous != null ? " AND occurred_at > ?" : "") + " LIMIT 1";
+        List<Object> changedArgs = new ArrayList<>(List.of(Timestamp.valueOf(cutoff)));
+        if (previous != null) {
+            changedArgs.add(Timestamp.valueOf(previous));
+        }
+        if (jdbcTemplate.queryForList(changed, Integer.class, changedArgs.toArray()).isEmpty()) {
+            return 0;
+        }
+
+        List<Object> args = new ArrayList<>(List.of(Timestamp.valueOf(cutoff)));
+        String rows = levelRows(previous, cutoff, null, null, null, args);
+        return jdbcTemplate.update("INSERT INTO inventory_snapshot "
+                + "(snapshot_at, location_type, location_id, product_id, quantity) "
+                + "SELECT ?, " + KEY_COLUMNS + ", SUM(x.quantity) FROM (" + rows + ") x "
+                + "GROUP BY " + KEY_COLUMNS, args.toArray());
+    }
+
+    /**
+     * Rows whose per-key sum is the stock at {@code asOf}: the snapshot taken at {@code base}
+     * followed by the movements in {@code (base, asOf]}, or the whole ledger up to {@code asOf}
+     * when there is no snapshot yet.
+     */
+    private static String levelRows(LocalDateTime base, LocalDateTime asOf, Inventory.LocationType locationType,
+                                    Long locationId, Long productId, List<Object> args) {
+        StringBuilder sql = new StringBuilder();
+        if (base != null) {
+            sql.append(SNAPSHOT_ROWS_SQL);
+            args.add(Timestamp.valueOf(base));
+            appendFilters(sql, args, locationType, locationId, productId);
+            sql.append(" UNION ALL ");
+        }
+        sql.append(MOVEMENT_ROWS_SQL);
+        args.add(Timestamp.valueOf(asOf));
+        if (base != null) {
+            sql.append(" AND occurred_at > ?");
+            args.add(Timestamp.valueOf(base));
+        }
+        appendFilters(sql, args, locationType, locationId, productId);
+        return sql.toString();
+    }
+
+    private static void appendFilters(StringBuilder sql, List<Object> args, Inventory.LocationType locationType,
+                                      Long locationId, Long productId) {
+        if (locationType != null) {
+            sql.append(" AND location_type = ?");
+            args.add(locationType.name());
+        }
+        if (locationId != null) {
+            sql.append(" AND location_id = ?");
+            args.add(locationId);
+        }
+        if (productId != null) {
+            sql.append(" AND product_id = ?");
+            args.add(productId);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,141 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.NearbyVehicleDTO;
+import com.fleetpanda.tracking.dto.VehiclePositionDTO;
+import com.fleetpanda.tracking.entity.Vehicle;
+import com.fleetpanda.tracking.geo.SpatialGrid;
+import com.fleetpanda.tracking.repository.GpsLogRepository;
+import com.fleetpanda.tracking.repository.LatestPositionView;
+import com.fleetpanda.tracking.repository.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last known position of every vehicle, kept in memory so fleet status never touches gps_log.
+ * Warmed once at startup and then updated by every GPS write. Positions are also indexed in a
+ * spatial grid for nearest-vehicle and radius queries.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LatestPositionRegistry {
+
+    // ~2 km cells: a few hundred vehicles per cell even in a dense depot area
+    private static final double GRID_CELL_DEGREES = 0.02;
+
+    private final VehicleRepository vehicleRepository;
+    private final GpsLogRepository gpsLogRepository;
+
+    private final ConcurrentHashMap<Long, VehiclePositionDTO> positions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> licensePlates = new ConcurrentHashMap<>();
+    // Vehicles that moved since the last drainChanged(); a set, so bursts coalesce per vehicle
+    private final Set<Long> changedVehicleIds = ConcurrentHashMap.newKeySet();
+    private final SpatialGrid grid = new SpatialGrid(GRID_CELL_DEGREES);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        vehicleRepository.findAll().forEach(this::registerVehicle);
+        // Ingest may already be running, so merge rather than overwrite
+        for (LatestPositionView row : gpsLogRepository.findLatestPerVehicle()) {
+            update(row.getVehicleId(), row.getLatitude(), row.getLongitude(), row.getTimestamp());
+        }
+        log.info("Loaded latest positions for {} vehicles", positions.size());
+    }
+
+    public void registerVehicle(Vehicle vehicle) {
+        if (vehicle.getLicensePlate() != null) {
+            licensePlates.put(vehicle.getId(), vehicle.getLicensePlate());
+        }
+    }
+
+    /**
+     * Records a fix unless a newer one is already known, so late or replayed fixes never move
+     * a vehicle backwards. Returns whether the fix became the vehicle's current position.
+     */
+    public boolean update(Long vehicleId, Double latitude, Double longitude, LocalDateTime timestamp) {
+        VehiclePositionDTO candidate = new VehiclePositionDTO(
+                vehicleId, licensePlates.get(vehicleId), latitude, longitude, timestamp);
+        VehiclePositionDTO stored = positions.compute(vehicleId, (id, current) -> {
+            if (current != null && current.getTimestamp().isAfter(candidate.getTimestamp())) {
+                return current;
+            }
+            // Inside compute() so concurrent fixes for one vehicle reach the grid in map order
+            grid.put(vehicleId, latitude, longitude);
+            return candidate;
+        });
+        // Flag after the map write so a concurrent drainChanged() can never miss the new position
+        if (stored == candidate) {
+            changedVehicleIds.add(vehicleId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether {@link #update} would take a fix with this timestamp as the vehicle's current
+     * position, without recording anything.
+     */
+    public boolean isNewest(Long vehicleId, LocalDateTime timestamp) {
+        VehiclePositionDTO current = positions.get(vehicleId);
+        return current == null || !current.getTimestamp().isAfter(timestamp);
+    }
+
+    /**
+     * Returns the current position of every vehicle that moved since the previous call.
+     */
+    public List<VehiclePositionDTO> drainChanged() {
+        List<VehiclePositionDTO> changed = new ArrayList<>();
+        Iterator<Long> it = changedVehicleIds.iterator();
+        while (it.hasNext()) {
+            Long vehicleId = it.next();
+            it.remove();
+            VehiclePositionDTO position = positions.get(vehicleId);
+            if (position != null) {
+                changed.add(position);
+            }
+        }
+        return changed;
+    }
+
+    public Optional<VehiclePositionDTO> get(Long vehicleId) {
+        return Optional.ofNullable(positions.get(vehicleId));
+    }
+
+    public List<NearbyVehicleDTO> nearest(double latitude, double longitude, int k) {
+        return toNearby(grid.nearest(latitude, longitude, k));
+    }
+
+    public List<NearbyVehicleDTO> withinRadius(double latitude, double longitude, double radiusMeters) {
+        return toNearby(grid.withinRadius(latitude, longitude, radiusMeters));
+    }
+
+    private List<NearbyVehicleDTO> toNearby(List<SpatialGrid.Neighbor> neighbors) {
+        List<NearbyVehicleDTO> result = new ArrayList<>(neighbors.size());
+        for (SpatialGrid.Neighbor neighbor : neighbors) {
+            VehiclePositionDTO position = positions.get(neighbor.id());
+            if (position != null) {
+                result.add(new NearbyVehicleDTO(position.getVehicleId(), position.getLicensePlate(),
+                        neighbor.latitude(), neighbor.longitude(), position.getTimestamp(), neighbor.distanceMeters()));
+            }
+        }
+        return result;
+    }
+
+    public List<VehiclePositionDTO> snapshot() {
+        return positions.values().stream()
+                .sorted(Comparator.comparing(VehiclePositionDTO::getVehicleId))
+                .toList();
+    }
+}
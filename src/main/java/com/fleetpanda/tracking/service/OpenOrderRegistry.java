@@ -0,0 +1,154 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.Order;
+import com.fleetpanda.tracking.repository.OpenOrderView;
+import com.fleetpanda.tracking.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The PENDING and IN_TRANSIT orders of the whole fleet, grouped by the vehicle of their shift, so
+ * fleet-wide ETAs are computed without touching the orders table. Loaded with one query before
+ * the web server takes requests; every code path that creates an order or moves it out of the
+ * open states updates it once its transaction commits.
+ * <p>
+ * Each vehicle's orders are an immutable list that is replaced on every change, so a reader can
+ * tell by identity whether anything changed since it last looked. Like the other in-memory
+ * state, this assumes a single application instance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OpenOrderRegistry implements SmartInitializingSingleton {
+
+    static final Set<Order.OrderStatus> OPEN = EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.IN_TRANSIT);
+
+    private final OrderRepository orderRepository;
+
+    private final ConcurrentHashMap<Long, List<OpenOrder>> byVehicle = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> vehicleByOrder = new ConcurrentHashMap<>();
+
+    /**
+     * What an ETA needs to know about an order, with the terminal's coordinates resolved.
+     */
+    record OpenOrder(long id, Order.OrderStatus status, long shiftId, long vehicleId, long terminalId,
+                     Double terminalLatitude, Double terminalLongitude) {
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    public void load() {
+        List<OpenOrderView> open = orderRepository.findOpenOrders(OPEN);
+        byVehicle.clear();
+        vehicleByOrder.clear();
+        put(open);
+        log.info("Loaded {} open orders for {} vehicles", open.size(), byVehicle.size());
+    }
+
+    /**
+     * Each vehicle's open orders. Lists are immutable and replaced whenever they change.
+     */
+    public Map<Long, List<OpenOrder>> byVehicle() {
+        return Collections.unmodifiableMap(byVehicle);
+    }
+
+    public int size() {
+        return vehicleByOrder.size();
+    }
+
+    /**
+     * Picks up orders just created for these shifts, once the surrounding transaction commits.
+     */
+    public void reloadShiftsAfterCommit(Collection<Long> shiftIds) {
+        List<Long> ids = List.copyOf(shiftIds);
+        if (ids.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> put(orderRepository.findOpenOrdersByShiftIds(OPEN, ids)));
+    }
+
+    /**
+     * Re-reads the vehicle's open orders once the surrounding transaction commits, for updates
+     * that move several of its orders at once.
+     */
+    public void reloadVehicleAfterCommit(Long vehicleId) {
+        afterCommit(() -> replaceVehicle(vehicleId, orderRepository.findOpenOrdersByVehicleId(OPEN, vehicleId)));
+    }
+
+    /**
+     * Drops an order that was completed or failed, once the surrounding transaction commits.
+     */
+    public void removeAfterCommit(Long orderId) {
+        afterCommit(() -> remove(orderId));
+    }
+
+    private void put(List<OpenOrderView> rows) {
+        for (OpenOrderView row : rows) {
+            OpenOrder order = new OpenOrder(row.getId(), row.getStatus(), row.getShiftId(), row.getVehicleId(),
+                    row.getTerminalId(), row.getTerminalLatitude(), row.getTerminalLongitude());
+            Long previousVehicle = vehicleByOrder.put(order.id(), order.vehicleId());
+            if (previousVehicle != null && previousVehicle != order.vehicleId()) {
+                without(previousVehicle, order.id());
+            }
+            byVehicle.compute(order.vehicleId(), (id, current) -> {
+                List<OpenOrder> next = new ArrayList<>(current != null ? current.size() + 1 : 1);
+                if (current != null) {
+                    current.stream().filter(o -> o.id() != order.id()).forEach(next::add);
+                }
+                next.add(order);
+                return List.copyOf(next);
+            });
+        }
+    }
+
+    private void replaceVehicle(Long vehicleId, List<OpenOrderView> rows) {
+        List<OpenOrder> previous = byVehicle.remove(vehicleId);
+        if (previous != null) {
+            previous.forEach(order -> vehicleByOrder.remove(order.id(), vehicleId));
+        }
+        put(rows);
+    }
+
+    private void remove(Long orderId) {
+        Long vehicleId = vehicleByOrder.remove(orderId);
+        if (vehicleId != null) {
+            without(vehicleId, orderId);
+        }
+    }
+
+    private void without(Long vehicleId, long orderId) {
+        byVehicle.computeIfPresent(vehicleId, (id, current) -> {
+            List<OpenOrder> next = current.stream().filter(o -> o.id() != orderId).toList();
+            return next.isEmpty() ? null : next;
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
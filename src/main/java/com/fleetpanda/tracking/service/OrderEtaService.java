@@ -0,0 +1,105 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.FleetEtaDTO;
+import com.fleetpanda.tracking.dto.OrderEtaDTO;
+import com.fleetpanda.tracking.dto.VehiclePositionDTO;
+import com.fleetpanda.tracking.geo.GeoUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fleet-wide ETAs for open orders, computed entirely from memory: orders from
+ * {@link OpenOrderRegistry}, positions from {@link LatestPositionRegistry} and recent driving
+ * speeds from {@link TripAnalyticsService}. Vehicles are processed in parallel, and a vehicle's
+ * ETAs are reused as long as neither its position nor its list of open orders has changed, so a
+ * request only pays for the vehicles that moved since the last one.
+ * <p>
+ * The estimate is the great-circle distance to the terminal, stretched by a road factor, at
+ * the vehicle's recent driving speed (or a default until it has driven), measured from the
+ * time of its last fix. Each order is estimated on its own, as if the vehicle went there next.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderEtaService {
+
+    private final OpenOrderRegistry openOrderRegistry;
+    private final LatestPositionRegistry latestPositionRegistry;
+    private final TripAnalyticsService tripAnalyticsService;
+
+    private final ConcurrentHashMap<Long, VehicleEtas> cache = new ConcurrentHashMap<>();
+
+    @Value("${fleet.eta.road-factor:1.3}")
+    private double roadFactor;
+
+    @Value("${fleet.eta.default-speed-kmh:30}")
+    private double defaultSpeedKmh;
+
+    @Value("${fleet.eta.min-speed-kmh:10}")
+    private double minSpeedKmh;
+
+    public FleetEtaDTO estimateAll() {
+        LocalDateTime computedAt = LocalDateTime.now();
+        Map<Long, List<OpenOrderRegistry.OpenOrder>> byVehicle = openOrderRegistry.byVehicle();
+        AtomicInteger recomputed = new AtomicInteger();
+        List<VehicleEtas> perVehicle = byVehicle.entrySet().parallelStream()
+                .map(entry -> etasFor(entry.getKey(), entry.getValue(), recomputed))
+                .toList();
+        // Vehicles without open orders no longer need their cached ETAs
+        cache.keySet().retainAll(byVehicle.keySet());
+
+        int total = 0;
+        for (VehicleEtas etas : perVehicle) {
+            total += etas.etas().size();
+        }
+        List<OrderEtaDTO> orders = new ArrayList<>(total);
+        perVehicle.forEach(etas -> orders.addAll(etas.etas()));
+        return new FleetEtaDTO(computedAt, perVehicle.size(), recomputed.get(), orders);
+    }
+
+    private VehicleEtas etasFor(Long vehicleId, List<OpenOrderRegistry.OpenOrder> orders, AtomicInteger recomputed) {
+        VehiclePositionDTO position = latestPositionRegistry.get(vehicleId).orElse(null);
+        VehicleEtas cached = cache.get(vehicleId);
+        // Order lists and positions are replaced, never mutated, so identity means unchanged
+        if (cached != null && cached.orders() == orders && cached.position() == position) {
+            return cached;
+        }
+        recomputed.incrementAndGet();
+        VehicleEtas etas = new VehicleEtas(orders, position, estimate(orders, position));
+        cache.put(vehicleId, etas);
+        return etas;
+    }
+
+    private List<OrderEtaDTO> estimate(List<OpenOrderRegistry.OpenOrder> orders, VehiclePositionDTO position) {
+        Double recentSpeed = position != null ? tripAnalyticsService.recentSpeedKmh(position.getVehicleId()) : null;
+        double speedKmh = Math.max(recentSpeed != null ? recentSpeed : defaultSpeedKmh, minSpeedKmh);
+        double metersPerSecond = speedKmh / 3.6;
+
+        List<OrderEtaDTO> etas = new ArrayList<>(orders.size());
+        for (OpenOrderRegistry.OpenOrder order : orders) {
+            if (position == null || order.terminalLatitude() == null || order.terminalLongitude() == null) {
+                etas.add(new OrderEtaDTO(order.id(), order.status(), order.shiftId(), order.vehicleId(),
+                        order.terminalId(), null, null, null, null));
+                continue;
+            }
+            double meters = roadFactor * GeoUtils.haversineMeters(position.getLatitude(), position.getLongitude(),
+                    order.terminalLatitude(), order.terminalLongitude());
+            long seconds = Math.round(meters / metersPerSecond);
+            etas.add(new OrderEtaDTO(order.id(), order.status(), order.shiftId(), order.vehicleId(),
+                    order.terminalId(), Math.round(meters * 10) / 10.0, Math.round(speedKmh * 10) / 10.0,
+                    position.getTimestamp(), position.getTimestamp().plusSeconds(seconds)));
+        }
+        return List.copyOf(etas);
+    }
+
+    private record VehicleEtas(List<OpenOrderRegistry.OpenOrder> orders, VehiclePositionDTO position,
+                               List<OrderEtaDTO> etas) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.CacheStatsDTO;
+import com.fleetpanda.tracking.entity.*;
+import com.fleetpanda.tracking.repository.*;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache for the small, rarely-changing reference tables: hubs, terminals,
+ * products, vehicles and drivers. Lookups by id are size-bounded; the full list of each table
+ * is cached separately and dropped whenever a row is written. Writes go through
+ * {@code cache*} so the cache never serves a stale list after a create.
+ * <p>
+ * Cached entities are detached and shared between requests, so callers must treat them as
+ * read-only. They are safe to use as association targets of new entities.
+ */
+@Component
+public class ReferenceDataCache {
+
+    private final ReferenceCache<Hub> hubs;
+    private final ReferenceCache<Terminal> terminals;
+    private final ReferenceCache<Product> products;
+    private final ReferenceCache<Vehicle> vehicles;
+    private final ReferenceCache<Driver> drivers;
+
+    public ReferenceDataCache(HubRepository hubRepository,
+                              TerminalRepository terminalRepository,
+                              ProductRepository productRepository,
+                              VehicleRepository vehicleRepository,
+                              DriverRepository driverRepository,
+                              @Value("${fleet.cache.reference-max-size:10000}") long maxSize) {
+        this.hubs = new ReferenceCache<>("hubs", hubRepository, maxSize);
+        this.terminals = new ReferenceCache<>("terminals", terminalRepository, maxSize);
+        this.products = new ReferenceCache<>("products", productRepository, maxSize);
+        this.vehicles = new ReferenceCache<>("vehicles", vehicleRepository, maxSize);
+        this.drivers = new ReferenceCache<>("drivers", driverRepository, maxSize);
+    }
+
+    public Optional<Hub> findHub(Long id) {
+        return hubs.find(id);
+    }
+
+    public List<Hub> getAllHubs() {
+        return hubs.getAll();
+    }
+
+    public void cacheHub(Hub hub) {
+        hubs.put(hub);
+    }
+
+    public Optional<Terminal> findTerminal(Long id) {
+        return terminals.find(id);
+    }
+
+    public Map<Long, Terminal> findTerminals(Collection<Long> ids) {
+        return terminals.findAll(ids);
+    }
+
+    public List<Terminal> getAllTerminals() {
+        return terminals.getAll();
+    }
+
+    public void cacheTerminal(Terminal terminal) {
+        terminals.put(terminal);
+    }
+
+    public Optional<Product> findProduct(Long id) {
+        return products.find(id);
+    }
+
+    public Map<Long, Product> findProducts(Collection<Long> ids) {
+        return products.findAll(ids);
+    }
+
+    public List<Product> getAllProducts() {
+        return products.getAll();
+    }
+
+    public void cacheProduct(Product product) {
+        products.put(product);
+    }
+
+    public Optional<Vehicle> findVehicle(Long id) {
+        return vehicles.find(id);
+    }
+
+    public Map<Long, Vehicle> findVehicles(Collection<Long> ids) {
+        return vehicles.findAll(ids);
+    }
+
+    public List<Vehicle> getAllVehicles() {
+        return vehicles.getAll();
+    }
+
+    public void cacheVehicle(Vehicle vehicle) {
+        vehicles.put(vehicle);
+    }
+
+    public Optional<Driver> findDriver(Long id) {
+        return drivers.find(id);
+    }
+
+    public Map<Long, Driver> findDrivers(Collection<Long> ids) {
+        return drivers.findAll(ids);
+    }
+
+    public List<Driver> getAllDrivers() {
+        return drivers.getAll();
+    }
+
+    public void cacheDriver(Driver driver) {
+        drivers.put(driver);
+    }
+
+    public List<CacheStatsDTO> getStats() {
+        List<CacheStatsDTO> stats = new ArrayList<>();
+        for (ReferenceCache<?> cache : List.of(hubs, terminals, products, vehicles, drivers)) {
+            stats.add(cache.stats());
+        }
+        return stats;
+    }
+
+    private static final class ReferenceCache<T extends BaseEntity> {
+
+        private final String name;
+        private final JpaRepository<T, Long> repository;
+        private final Cache<Long, T> byId;
+        private final Cache<Boolean, List<T>> all;
+
+        private ReferenceCache(String name, JpaRepository<T, Long> repository, long maxSize) {
+            this.name = name;
+            this.repository = repository;
+            // Maintenance on the calling thread keeps eviction deterministic; these caches are tiny
+            this.byId = Caffeine.newBuilder().maximumSize(maxSize).executor(Runnable::run).recordStats().build();
+            this.all = Caffeine.newBuilder().maximumSize(1).executor(Runnable::run).recordStats().build();
+        }
+
+        private Optional<T> find(Long id) {
+            if (id == null) {
+                return Optional.empty();
+            }
+            // Unknown ids are not cached, so a row created elsewhere is picked up on the next lookup
+            return Optional.ofNullable(byId.get(id, key -> repository.findById(key).orElse(null)));
+        }
+
+        private Map<Long, T> findAll(Collection<Long> ids) {
+            // All misses are loaded together with one IN query; unknown ids are simply absent
+            return byId.getAll(ids, missing -> repository.findAllById(List.copyOf(missing)).stream()
+                    .collect(Collectors.toMap(BaseEntity::getId, Function.identity())));
+        }
+
+        private List<T> getAll() {
+            return all.get(Boolean.TRUE, key -> {
+                List<T> rows = List.copyOf(repository.findAll());
+                rows.forEach(row -> byId.put(row.getId(), row));
+                return rows;
+            });
+        }
+
+        private void put(T entity) {
+            byId.put(entity.getId(), entity);
+            // Single-key invalidate waits for an in-flight load, so a list read before the write is dropped too
+            all.invalidate(Boolean.TRUE);
+        }
+
+        private CacheStatsDTO stats() {
+            CacheStats byIdStats = byId.stats();
+            CacheStats allStats = all.stats();
+            return new CacheStatsDTO(name, byId.estimatedSize(),
+                    byIdStats.hitCount() + allStats.hitCount(),
+                    byIdStats.missCount() + allStats.missCount(),
+                    byIdStats.evictionCount());
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.*;
+import com.fleetpanda.tracking.entity.Driver;
+import com.fleetpanda.tracking.entity.Shift;
+import com.fleetpanda.tracking.entity.Vehicle;
+import com.fleetpanda.tracking.repository.VehicleAllocationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Allocates driver/vehicle pairs for every day of a date range in one request. Drivers and
+ * vehicles are resolved from the reference cache, the existing allocations of the whole range
+ * are read with one query, and the allocations plus their SCHEDULED shifts are written as JDBC
+ * batches in a single transaction. Clashes are reported per pair and day instead of aborting
+ * the roster, so the rest of the plan still goes in.
+ */
+@Service
+@RequiredArgsConstructor
+public class RosterService {
+
+    public static final int MAX_DAYS = 31;
+    public static final int MAX_ALLOCATIONS = 10_000;
+
+    private static final String ALLOCATION_INSERT_SQL = "INSERT INTO vehicle_allocation "
+            + "(driver_id, vehicle_id, date, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String SHIFT_INSERT_SQL = "INSERT INTO shift "
+            + "(driver_id, vehicle_id, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VehicleAllocationRepository allocationRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final ShiftRegistry shiftRegistry;
+
+    @Value("${fleet.allocations.batch-size:500}")
+    private int batchSize;
+
+    @Transactional
+    public RosterResultDTO allocateRoster(RosterDTO dto) {
+        LocalDate from = dto.getFrom();
+        LocalDate to = dto.getTo();
+        if (from == null || to == null) {
+            throw new RuntimeException("'from' and 'to' are required");
+        }
+        if (to.isBefore(from)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        List<LocalDate> days = from.datesUntil(to.plusDays(1)).toList();
+        if (days.size() > MAX_DAYS) {
+            throw new RuntimeException("At most " + MAX_DAYS + " days per roster");
+        }
+        List<RosterPairDTO> pairs = dto.getPairs() != null ? dto.getPairs() : List.of();
+        if ((long) pairs.size() * days.size() > MAX_ALLOCATIONS) {
+            throw new RuntimeException("At most " + MAX_ALLOCATIONS + " allocations per roster");
+        }
+
+        RosterResultDTO result = new RosterResultDTO();
+        result.setPairs(pairs.size());
+        result.setDays(days.size());
+
+        Set<Long> driverIds = new HashSet<>();
+        Set<Long> vehicleIds = new HashSet<>();
+        for (RosterPairDTO pair : pairs) {
+            if (pair != null && pair.getDriverId() != null && pair.getVehicleId() != null) {
+                driverIds.add(pair.getDriverId());
+                vehicleIds.add(pair.getVehicleId());
+            }
+        }
+        Map<Long, Driver> drivers = referenceDataCache.findDrivers(driverIds);
+        Map<Long, Vehicle> vehicles = referenceDataCache.findVehicles(vehicleIds);
+
+        Map<Long, Map<LocalDate, AllocationSummaryDTO>> takenByDriver = new HashMap<>();
+        Map<Long, Map<LocalDate, AllocationSummaryDTO>> takenByVehicle = new HashMap<>();
+        if (!drivers.isEmpty() && !vehicles.isEmpty()) {
+            for (AllocationSummaryDTO taken : allocationRepository.findInRange(from, to, drivers.keySet(), vehicles.keySet())) {
+                takenByDriver.computeIfAbsent(taken.getDriverId(), id -> new HashMap<>()).put(taken.getDate(), taken);
+                takenByVehicle.computeIfAbsent(taken.getVehicleId(), id -> new HashMap<>()).put(taken.getDate(), taken);
+            }
+        }
+
+        Set<Long> rosteredDrivers = new HashSet<>();
+        Set<Long> rosteredVehicles = new HashSet<>();
+        List<Slot> slots = new ArrayList<>();
+        for (int i = 0; i < pairs.size(); i++) {
+            RosterPairDTO pair = pairs.get(i);
+            String error = validate(pair, drivers, vehicles, rosteredDrivers, rosteredVehicles);
+            if (error != null) {
+                result.getConflicts().add(new RosterConflictDTO(i,
+                        pair != null ? pair.getDriverId() : null, pair != null ? pair.getVehicleId() : null, null, error));
+                continue;
+            }
+            for (LocalDate day : days) {
+                String conflict = conflict(pair, day, drivers, vehicles, takenByDriver, takenByVehicle);
+                if (conflict != null) {
+                    result.getConflicts().add(new RosterConflictDTO(i, pair.getDriverId(), pair.getVehicleId(), day, conflict));
+                } else {
+                    slots.add(new Slot(pair.getDriverId(), pair.getVehicleId(), day));
+                }
+            }
+        }
+
+        if (!slots.isEmpty()) {
+            // Truncated to what the database stores, so the registry's shifts match their rows
+            LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            Timestamp now = Timestamp.valueOf(createdAt);
+            jdbcTemplate.batchUpdate(ALLOCATION_INSERT_SQL, slots, batchSize, (ps, slot) -> {
+                ps.setLong(1, slot.driverId());
+                ps.setLong(2, slot.vehicleId());
+                ps.setDate(3, Date.valueOf(slot.date()));
+                ps.setTimestamp(4, now);
+                ps.setTimestamp(5, now);
+            });
+            insertShifts(slots, drivers, vehicles, createdAt).forEach(shiftRegistry::updateAfterCommit);
+        }
+
+        result.setCreated(slots.size());
+        return result;
+    }
+
+    /**
+     * Inserts one SCHEDULED shift per allocation, as allocateVehicle creates, and returns them
+     * with the ids the database generated, so the registry gets them without reading them back.
+     */
+    private List<Shift> insertShifts(List<Slot> slots, Map<Long, Driver> drivers, Map<Long, Vehicle> vehicles,
+                                     LocalDateTime createdAt) {
+        Timestamp now = Timestamp.valueOf(createdAt);
+        List<Shift> shifts = new ArrayList<>(slots.size());
+        for (int start = 0; start < slots.size(); start += batchSize) {
+            List<Slot> batch = slots.subList(start, Math.min(start + batchSize, slots.size()));
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(SHIFT_INSERT_SQL, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Slot slot = batch.get(i);
+                            ps.setLong(1, slot.driverId());
+                            ps.setLong(2, slot.vehicleId());
+                            ps.setString(3, Shift.ShiftStatus.SCHEDULED.name());
+                            ps.setTimestamp(4, now);
+                            ps.setTimestamp(5, now);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keys);
+            List<Map<String, Object>> ids = keys.getKeyList();
+            if (ids.size() != batch.size()) {
+                throw new IllegalStateException("Expected " + batch.size() + " shift ids, got " + ids.size());
+            }
+            // Keys come back in insert order, one single-column row per shift
+            for (int i = 0; i < batch.size(); i++) {
+                Slot slot = batch.get(i);
+                Shift shift = new Shift();
+                shift.setId(((Number) ids.get(i).values().iterator().next()).longValue());
+                shift.setDriver(drivers.get(slot.driverId()));
+                shift.setVehicle(vehicles.get(slot.vehicleId()));
+                shift.setStatus(Shift.ShiftStatus.SCHEDULED);
+                shift.setCreatedAt(createdAt);
+                shift.setUpdatedAt(createdAt);
+                shifts.add(shift);
+            }
+        }
+        return shifts;
+    }
+
+    private static String validate(RosterPairDTO pair, Map<Long, Driver> drivers, Map<Long, Vehicle> vehicles,
+                                   Set<Long> rosteredDrivers, Set<Long> rosteredVehicles) {
+        if (pair == null) {
+            return "Pair is empty";
+        }
+        if (pair.getDriverId() == null || !drivers.containsKey(pair.getDriverId())) {
+            return "Driver not found";
+        }
+        if (pair.getVehicleId() == null || !vehicles.containsKey(pair.getVehicleId())) {
+            return "Vehicle not found";
+        }
+        // A driver or vehicle can only be in one pair per day, and a roster pairs them for every day
+        if (!rosteredDrivers.add(pair.getDriverId())) {
+            return "Driver " + drivers.get(pair.getDriverId()).getName() + " is in more than one pair";
+        }
+        if (!rosteredVehicles.add(pair.getVehicleId())) {
+            rosteredDrivers.remove(pair.getDriverId());
+            return "Vehicle " + vehicles.get(pair.getVehicleId()).getLicensePlate() + " is in more than one pair";
+        }
+        return null;
+    }
+
+    private static String conflict(RosterPairDTO pair, LocalDate day,
+                                   Map<Long, Driver> drivers, Map<Long, Vehicle> vehicles,
+                                   Map<Long, Map<LocalDate, AllocationSummaryDTO>> takenByDriver,
+                                   Map<Long, Map<LocalDate, AllocationSummaryDTO>> takenByVehicle) {
+        if (takenByVehicle.getOrDefault(pair.getVehicleId(), Map.of()).containsKey(day)) {
+            return "Vehicle " + vehicles.get(pair.getVehicleId()).getLicensePlate() + " is already allocated for " + day;
+        }
+        if (takenByDriver.getOrDefault(pair.getDriverId(), Map.of()).containsKey(day)) {
+            return "Driver " + drivers.get(pair.getDriverId()).getName() + " is already allocated for " + day;
+        }
+        return null;
+    }
+
+    private record Slot(Long driverId, Long vehicleId, LocalDate date) {
+    }
+}
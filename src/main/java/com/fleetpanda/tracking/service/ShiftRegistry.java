@@ -0,0 +1,202 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.Shift;
+import com.fleetpanda.tracking.repository.ShiftRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The open (SCHEDULED and ACTIVE) shifts of every driver, so the driver app's shift lookups are
+ * memory reads. Loaded with one query before the web server takes requests and kept current by
+ * every code path that creates or moves a shift.
+ * <p>
+ * Each driver's entry is replaced as a whole, so readers always see a committed state without
+ * locking. Writers for the same driver run one at a time under {@link #withDriverLock}, which
+ * keeps the database and the registry changing in the same order. Like the other in-memory
+ * state, this assumes a single application instance.
+ * <p>
+ * Shifts handed out are detached copies with their driver and vehicle loaded, shared between
+ * requests, so callers must treat them as read-only.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShiftRegistry implements SmartInitializingSingleton {
+
+    static final Set<Shift.ShiftStatus> OPEN = EnumSet.of(Shift.ShiftStatus.SCHEDULED, Shift.ShiftStatus.ACTIVE);
+
+    private final ShiftRepository shiftRepository;
+
+    private final ConcurrentHashMap<Long, DriverShifts> byDriver = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> driverByShift = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, ReentrantLock> driverLocks = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Runs before the web server starts, so no request ever sees a half-loaded registry
+        load();
+    }
+
+    /**
+     * Rebuilds the registry from the database. Only needed at startup, or after shifts were
+     * written behind the application's back.
+     */
+    public void load() {
+        List<Shift> open = shiftRepository.findByStatusIn(OPEN);
+        byDriver.clear();
+        driverByShift.clear();
+        open.forEach(this::update);
+        log.info("Loaded {} open shifts for {} drivers", open.size(), byDriver.size());
+    }
+
+    public Optional<Shift> findActive(Long driverId) {
+        DriverShifts shifts = byDriver.get(driverId);
+        return Optional.ofNullable(shifts != null ? shifts.active() : null);
+    }
+
+    /**
+     * The driver's oldest SCHEDULED shift, which is the one the next startShift activates.
+     */
+    public Optional<Shift> findNextScheduled(Long driverId) {
+        DriverShifts shifts = byDriver.get(driverId);
+        return shifts != null && !shifts.scheduled().isEmpty()
+                ? Optional.of(shifts.scheduled().get(0)) : Optional.empty();
+    }
+
+    /**
+     * The open shift the driver works next with this vehicle: the active one if it uses the
+     * vehicle, else the oldest scheduled one that does.
+     */
+    public Optional<Shift> findNextShift(Long driverId, Long vehicleId) {
+        DriverShifts shifts = byDriver.get(driverId);
+        if (shifts == null) {
+            return Optional.empty();
+        }
+        if (shifts.active() != null && vehicleId.equals(shifts.active().getVehicle().getId())) {
+            return Optional.of(shifts.active());
+        }
+        return shifts.scheduled().stream()
+                .filter(shift -> vehicleId.equals(shift.getVehicle().getId()))
+                .findFirst();
+    }
+
+    public Optional<Shift> findOpenShift(Long shiftId) {
+        Long driverId = driverByShift.get(shiftId);
+        DriverShifts shifts = driverId != null ? byDriver.get(driverId) : null;
+        if (shifts == null) {
+            return Optional.empty();
+        }
+        if (shifts.active() != null && shifts.active().getId().equals(shiftId)) {
+            return Optional.of(shifts.active());
+        }
+        return shifts.scheduled().stream().filter(shift -> shift.getId().equals(shiftId)).findFirst();
+    }
+
+    /**
+     * Runs {@code action} while no other registry writer for the same driver can.
+     */
+    public <T> T withDriverLock(Long driverId, Supplier<T> action) {
+        ReentrantLock lock = driverLocks.computeIfAbsent(driverId, id -> new ReentrantLock());
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the shift's current state once the surrounding transaction commits, or right away
+     * outside a transaction, so a rolled-back write never shows up in the registry.
+     */
+    public void updateAfterCommit(Shift shift) {
+        Shift copy = copyOf(shift);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update(copy);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update(copy);
+            }
+        });
+    }
+
+    /**
+     * Records the shift's current state: SCHEDULED joins the driver's queue, ACTIVE becomes the
+     * driver's active shift and COMPLETED drops it from the registry.
+     */
+    public void update(Shift shift) {
+        Long driverId = shift.getDriver().getId();
+        Long shiftId = shift.getId();
+        byDriver.compute(driverId, (id, current) -> {
+            Shift active = current != null ? current.active() : null;
+            List<Shift> scheduled = new ArrayList<>(current != null ? current.scheduled() : List.of());
+            scheduled.removeIf(s -> s.getId().equals(shiftId));
+            if (active != null && active.getId().equals(shiftId)) {
+                active = null;
+            }
+
+            if (shift.getStatus() == Shift.ShiftStatus.SCHEDULED) {
+                scheduled.add(shift);
+                scheduled.sort(Comparator.comparing(Shift::getId));
+            } else if (shift.getStatus() == Shift.ShiftStatus.ACTIVE) {
+                active = shift;
+            }
+            if (OPEN.contains(shift.getStatus())) {
+                driverByShift.put(shiftId, driverId);
+            } else {
+                driverByShift.remove(shiftId);
+            }
+            return active == null && scheduled.isEmpty() ? null : new DriverShifts(active, List.copyOf(scheduled));
+        });
+    }
+
+    /**
+     * Re-reads one driver's open shifts, for when a conditional write finds the database ahead
+     * of the registry.
+     */
+    public void reload(Long driverId) {
+        List<Shift> open = shiftRepository.findByDriverIdAndStatusIn(driverId, OPEN);
+        DriverShifts previous = byDriver.remove(driverId);
+        if (previous != null) {
+            if (previous.active() != null) {
+                driverByShift.remove(previous.active().getId());
+            }
+            previous.scheduled().forEach(shift -> driverByShift.remove(shift.getId()));
+        }
+        open.forEach(this::update);
+    }
+
+    static Shift copyOf(Shift shift) {
+        Shift copy = new Shift();
+        copy.setId(shift.getId());
+        copy.setCreatedAt(shift.getCreatedAt());
+        copy.setUpdatedAt(shift.getUpdatedAt());
+        copy.setDriver(shift.getDriver());
+        copy.setVehicle(shift.getVehicle());
+        copy.setStartTime(shift.getStartTime());
+        copy.setEndTime(shift.getEndTime());
+        copy.setStatus(shift.getStatus());
+        copy.setTripSummary(shift.getTripSummary());
+        return copy;
+    }
+
+    private record DriverShifts(Shift active, List<Shift> scheduled) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.fleetpanda.tracking.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Downsamples a track to at most one point per fixed time bucket (the first fix in each
+ * bucket). The final fix of the track is always kept so the route ends where the vehicle did.
+ */
+public class TimeBucketSink implements TrackPointSink {
+
+    private final TrackPointSink downstream;
+    private final long bucketSeconds;
+
+    private long currentBucket = Long.MIN_VALUE;
+    private boolean pending;
+    private long lastId;
+    private LocalDateTime lastTimestamp;
+    private double lastLatitude;
+    private double lastLongitude;
+
+    public TimeBucketSink(TrackPointSink downstream, long bucketSeconds) {
+        if (bucketSeconds <= 0) {
+            throw new IllegalArgumentException("Bucket size must be positive");
+        }
+        this.downstream = downstream;
+        this.bucketSeconds = bucketSeconds;
+    }
+
+    @Override
+    public void accept(long id, LocalDateTime timestamp, double latitude, double longitude) throws IOException {
+        long bucket = Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), bucketSeconds);
+        if (bucket != currentBucket) {
+            currentBucket = bucket;
+            pending = false;
+            downstream.accept(id, timestamp, latitude, longitude);
+            return;
+        }
+        pending = true;
+        lastId = id;
+        lastTimestamp = timestamp;
+        lastLatitude = latitude;
+        lastLongitude = longitude;
+    }
+
+    @Override
+    public void complete() throws IOException {
+        if (pending) {
+            downstream.accept(lastId, lastTimestamp, lastLatitude, lastLongitude);
+        }
+        downstream.complete();
+    }
+}
@@ -0,0 +1,41 @@
+package com.fleetpanda.tracking.service;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keyset position in a vehicle's track, serialized as {@code <timestamp>_<id>}. Paging on
+ * (timestamp, id) stays an index range scan however deep the client pages.
+ */
+@Value
+public class TrackCursor {
+    LocalDateTime timestamp;
+    long id;
+
+    /**
+     * Reads a cursor as written by {@link #toString()}. Anything else, including a cursor cut
+     * short or edited by the client, is rejected with an "Invalid cursor" error.
+     */
+    public static TrackCursor parse(String value) {
+        int separator = value != null ? value.lastIndexOf('_') : -1;
+        if (separator <= 0 || separator == value.length() - 1) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        try {
+            long id = Long.parseLong(value.substring(separator + 1));
+            if (id < 0) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            return new TrackCursor(LocalDateTime.parse(value.substring(0, separator)), id);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + "_" + id;
+    }
+}
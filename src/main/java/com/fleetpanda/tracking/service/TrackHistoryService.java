@@ -0,0 +1,295 @@
+package com.fleetpanda.tracking.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetpanda.tracking.repository.VehicleRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a vehicle's GPS history from a forward-only JDBC cursor straight into the JSON
+ * response, so a day of 1 Hz fixes never sits on the heap as a list of entities. Days that have
+ * been compacted into the archive are decoded one chunk at a time and merged into the cursor in
+ * (timestamp, id) order, so callers cannot tell archived fixes from live ones. Optional
+ * time-bucket and Douglas-Peucker stages simplify the track in the same pass.
+ */
+@Service
+public class TrackHistoryService {
+
+    private static final String TRACK_SQL = "SELECT id, timestamp, latitude, longitude FROM gps_log "
+            + "WHERE vehicle_id = ? AND timestamp >= ? AND timestamp < ? ";
+    private static final String AFTER_CURSOR_SQL = "AND (timestamp, id) > (?, ?) ";
+    private static final String ORDER_SQL = "ORDER BY timestamp, id";
+
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final VehicleRepository vehicleRepository;
+    private final GpsArchiveService gpsArchiveService;
+    private final ObjectMapper objectMapper;
+
+    public TrackHistoryService(DataSource dataSource,
+                               PlatformTransactionManager transactionManager,
+                               VehicleRepository vehicleRepository,
+                               GpsArchiveService gpsArchiveService,
+                               ObjectMapper objectMapper,
+                               @Value("${fleet.track.fetch-size:2000}") int fetchSize) {
+        // Postgres only honours the fetch size (instead of buffering the whole result) inside a transaction
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.vehicleRepository = vehicleRepository;
+        this.gpsArchiveService = gpsArchiveService;
+        this.objectMapper = objectMapper;
+    }
+
+    public StreamingResponseBody streamTrack(Long vehicleId, LocalDateTime from, LocalDateTime to,
+                                             String cursor, Integer limit,
+                                             Double toleranceMeters, Integer bucketSeconds) {
+        // Validate before the response is committed, so errors still get a proper status code
+        if (!vehicleRepository.existsById(vehicleId)) {
+            throw new RuntimeException("Vehicle not found");
+        }
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("'from' must be before 'to'");
+        }
+        if (limit != null && limit <= 0) {
+            throw new RuntimeException("'limit' must be positive");
+        }
+        if (toleranceMeters != null && toleranceMeters < 0) {
+            throw new RuntimeException("'toleranceMeters' must not be negative");
+        }
+        if (bucketSeconds != null && bucketSeconds <= 0) {
+            throw new RuntimeException("'bucketSeconds' must be positive");
+        }
+        TrackCursor after = cursor != null ? TrackCursor.parse(cursor) : null;
+
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartObject();
+                generator.writeNumberField("vehicleId", vehicleId);
+                generator.writeStringField("from", from.toString());
+                generator.writeStringField("to", to.toString());
+                generator.writeArrayFieldStart("points");
+
+                TrackJsonWriter writer = new TrackJsonWriter(generator);
+                TrackPointSink pipeline = simplificationPipeline(writer, toleranceMeters, bucketSeconds);
+                TrackScan scan = readTrack(vehicleId, from, to, after, limit, pipeline);
+                pipeline.complete();
+
+                generator.writeEndArray();
+                generator.writeNumberField("scanned", scan.getRows());
+                generator.writeNumberField("count", writer.getCount());
+                // A full page means there may be more; the client resumes from the last row read
+                if (scan.getNextCursor() != null) {
+                    generator.writeStringField("nextCursor", scan.getNextCursor().toString());
+                } else {
+                    generator.writeNullField("nextCursor");
+                }
+                generator.writeEndObject();
+            }
+        };
+    }
+
+    /**
+     * Bucketing runs first so Douglas-Peucker only has to look at the thinned-out points.
+     */
+    public static TrackPointSink simplificationPipeline(TrackPointSink writer, Double toleranceMeters, Integer bucketSeconds) {
+        TrackPointSink sink = writer;
+        if (toleranceMeters != null) {
+            sink = new DouglasPeuckerSink(sink, toleranceMeters);
+        }
+        if (bucketSeconds != null) {
+            sink = new TimeBucketSink(sink, bucketSeconds);
+        }
+        return sink;
+    }
+
+    /**
+     * Feeds rows to the sink as they arrive from the cursor, with archived fixes merged in. The
+     * next cursor is only set when a limit was given and reached.
+     */
+    TrackScan readTrack(Long vehicleId, LocalDateTime from, LocalDateTime to, TrackCursor after,
+                          Integer limit, TrackPointSink sink) {
+        StringBuilder sql = new StringBuilder(TRACK_SQL);
+        List<Object> args = new ArrayList<>(List.of(vehicleId, Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        if (after != null) {
+            sql.append(AFTER_CURSOR_SQL);
+            args.add(Timestamp.valueOf(after.getTimestamp()));
+            args.add(after.getId());
+        }
+        sql.append(ORDER_SQL);
+        if (limit != null) {
+            // The first `limit` rows of the merged track hold at most `limit` live rows
+            sql.append(" LIMIT ?");
+            args.add(limit);
+        }
+
+        MergingReader reader = new MergingReader(sink, limit);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            ArchivedPoints archived = new ArchivedPoints(vehicleId, from, to, after,
+                    gpsArchiveService.findArchivedDays(vehicleId, from, to));
+            reader.archived = archived;
+            cursorJdbcTemplate.query(sql.toString(), rs -> {
+                reader.live(rs.getLong(1), rs.getObject(2, LocalDateTime.class), rs.getDouble(3), rs.getDouble(4));
+            }, args.toArray());
+            reader.drainArchived(Long.MAX_VALUE, Long.MAX_VALUE);
+        });
+
+        TrackCursor next = limit != null && reader.rows == limit
+                ? new TrackCursor(reader.lastTimestamp, reader.lastId)
+                : null;
+        return new TrackScan(reader.rows, next);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class TrackScan {
+        private final int rows;
+        private final TrackCursor nextCursor;
+    }
+
+    /**
+     * Interleaves the live cursor with the archived points in (timestamp, id) order and stops
+     * feeding the sink once the limit is reached.
+     */
+    private static final class MergingReader {
+        private final TrackPointSink sink;
+        private final Integer limit;
+        ArchivedPoints archived;
+        int rows;
+        LocalDateTime lastTimestamp;
+        long lastId;
+
+        MergingReader(TrackPointSink sink, Integer limit) {
+            this.sink = sink;
+            this.limit = limit;
+        }
+
+        void live(long id, LocalDateTime timestamp, double latitude, double longitude) {
+            drainArchived(GpsChunk.toEpochMicros(timestamp), id);
+            emit(id, timestamp, latitude, longitude);
+        }
+
+        /**
+         * Emits the archived points that sort before (micros, id).
+         */
+        void drainArchived(long micros, long id) {
+            while (!full() && archived.hasNext()) {
+                long archivedMicros = archived.epochMicros();
+                if (archivedMicros > micros || archivedMicros == micros && archived.id() >= id) {
+                    return;
+                }
+                emit(archived.id(), archived.timestamp(), archived.latitude(), archived.longitude());
+                archived.advance();
+            }
+        }
+
+        private boolean full() {
+            return limit != null && rows >= limit;
+        }
+
+        private void emit(long id, LocalDateTime timestamp, double latitude, double longitude) {
+            if (full()) {
+                return;
+            }
+            try {
+                sink.accept(id, timestamp, latitude, longitude);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows++;
+            lastTimestamp = timestamp;
+            lastId = id;
+        }
+    }
+
+    /**
+     * The vehicle's archived points in [from, to) after the cursor, decoding one day's chunk at a
+     * time as the merge reaches it.
+     */
+    private final class ArchivedPoints {
+        private final Long vehicleId;
+        private final long fromMicros;
+        private final long toMicros;
+        private final TrackCursor after;
+        private final long afterMicros;
+        private final List<LocalDate> days;
+        private int day;
+        private GpsChunk chunk;
+        private int index;
+
+        ArchivedPoints(Long vehicleId, LocalDateTime from, LocalDateTime to, TrackCursor after, List<LocalDate> days) {
+            this.vehicleId = vehicleId;
+            this.fromMicros = GpsChunk.toEpochMicros(from);
+            this.toMicros = GpsChunk.toEpochMicros(to);
+            this.after = after;
+            this.afterMicros = after != null ? GpsChunk.toEpochMicros(after.getTimestamp()) : Long.MIN_VALUE;
+            this.days = days;
+        }
+
+        boolean hasNext() {
+            while (true) {
+                if (chunk != null && index < chunk.size()) {
+                    long micros = chunk.epochMicros(index);
+                    if (micros >= toMicros) {
+                        chunk = null;
+                        day = days.size();
+                        return false;
+                    }
+                    if (micros < fromMicros || micros < afterMicros
+                            || micros == afterMicros && chunk.id(index) <= after.getId()) {
+                        index++;
+                        continue;
+                    }
+                    return true;
+                }
+                if (day == days.size()) {
+                    return false;
+                }
+                chunk = gpsArchiveService.loadChunk(vehicleId, days.get(day++));
+                index = 0;
+            }
+        }
+
+        long id() {
+            return chunk.id(index);
+        }
+
+        long epochMicros() {
+            return chunk.epochMicros(index);
+        }
+
+        LocalDateTime timestamp() {
+            return chunk.timestamp(index);
+        }
+
+        double latitude() {
+            return chunk.latitude(index);
+        }
+
+        double longitude() {
+            return chunk.longitude(index);
+        }
+
+        void advance() {
+            index++;
+        }
+    }
+
+}
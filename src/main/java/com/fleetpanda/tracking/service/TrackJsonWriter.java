@@ -0,0 +1,34 @@
+package com.fleetpanda.tracking.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Terminal {@link TrackPointSink} that writes each point straight into the response's JSON array.
+ */
+public class TrackJsonWriter implements TrackPointSink {
+
+    private final JsonGenerator generator;
+    private int count;
+
+    public TrackJsonWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    @Override
+    public void accept(long id, LocalDateTime timestamp, double latitude, double longitude) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", id);
+        generator.writeStringField("timestamp", timestamp.toString());
+        generator.writeNumberField("latitude", latitude);
+        generator.writeNumberField("longitude", longitude);
+        generator.writeEndObject();
+        count++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,19 @@
+package com.fleetpanda.tracking.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Receives track points one at a time, in (timestamp, id) order, as they come off the database
+ * cursor. Implementations must not hold on to more than a bounded window of points.
+ */
+public interface TrackPointSink {
+
+    void accept(long id, LocalDateTime timestamp, double latitude, double longitude) throws IOException;
+
+    /**
+     * Called once after the last point, before the response is closed.
+     */
+    default void complete() throws IOException {
+    }
+}
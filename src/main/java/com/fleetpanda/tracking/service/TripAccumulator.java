@@ -0,0 +1,168 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.TripSummary;
+import com.fleetpanda.tracking.geo.GeoUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Running trip statistics for one shift, updated in constant time and space per GPS fix.
+ * <p>
+ * Fixes are measured in segments at least {@code windowSeconds} long rather than fix to fix, so
+ * a parked phone's few metres of jitter at 1 Hz neither adds distance nor shows up as speed. A
+ * segment whose average speed reaches the moving threshold adds its length to the distance and
+ * its duration to the moving time; a slower one counts as idle. Top speed is the fastest segment
+ * average. A segment spanning more than {@code maxGapSeconds} without fixes counts towards
+ * distance but not time, since nothing is known about the gap. A fix implying an impossible
+ * speed is skipped as a GPS jump, unless several in a row agree on the new position.
+ */
+final class TripAccumulator {
+
+    // Consecutive implausible fixes after which the new position is believed
+    private static final int MAX_JUMPS = 3;
+    // Time constant of the recent driving speed average
+    private static final double RECENT_SPEED_SECONDS = 300;
+
+    record Limits(double windowSeconds, double movingMetersPerSecond, double maxMetersPerSecond,
+                  double maxGapSeconds) {
+    }
+
+    private final long shiftId;
+    private final long startMillis;
+    private final Limits limits;
+
+    private boolean started;
+    private double segmentLatitude;
+    private double segmentLongitude;
+    private long segmentMillis;
+    private double lastLatitude;
+    private double lastLongitude;
+    private long lastMillis;
+    private int jumps;
+    private long fixes;
+    private final Totals totals = new Totals();
+    private double recentMetersPerSecond = Double.NaN;
+
+    TripAccumulator(long shiftId, LocalDateTime startTime, Limits limits) {
+        this.shiftId = shiftId;
+        this.startMillis = toMillis(startTime);
+        this.limits = limits;
+    }
+
+    long getShiftId() {
+        return shiftId;
+    }
+
+    /**
+     * Adds a fix. Fixes from before the shift started, or not newer than the last one, are
+     * ignored; returns whether this one was counted.
+     */
+    synchronized boolean add(double latitude, double longitude, LocalDateTime timestamp) {
+        long millis = toMillis(timestamp);
+        if (millis < startMillis || started && millis <= lastMillis) {
+            return false;
+        }
+        lastLatitude = latitude;
+        lastLongitude = longitude;
+        lastMillis = millis;
+        fixes++;
+        if (!started) {
+            started = true;
+            startSegment(latitude, longitude, millis);
+            return true;
+        }
+
+        double seconds = (millis - segmentMillis) / 1000.0;
+        if (seconds < limits.windowSeconds()) {
+            return true;
+        }
+        double meters = GeoUtils.haversineMeters(segmentLatitude, segmentLongitude, latitude, longitude);
+        if (!totals.add(meters, seconds, limits)) {
+            if (++jumps < MAX_JUMPS) {
+                // Measure the next fix from the last believable one
+                return true;
+            }
+        } else if (seconds <= limits.maxGapSeconds() && meters / seconds >= limits.movingMetersPerSecond()) {
+            // Exponentially weighted by time, so a long segment counts for more than a short one
+            double weight = 1 - Math.exp(-seconds / RECENT_SPEED_SECONDS);
+            double speed = meters / seconds;
+            recentMetersPerSecond = Double.isNaN(recentMetersPerSecond)
+                    ? speed : recentMetersPerSecond + weight * (speed - recentMetersPerSecond);
+        }
+        startSegment(latitude, longitude, millis);
+        return true;
+    }
+
+    /**
+     * Average speed over the last few minutes of driving, in m/s; stops do not count. NaN until
+     * the shift has driven a segment.
+     */
+    synchronized double recentMetersPerSecond() {
+        return recentMetersPerSecond;
+    }
+
+    /**
+     * The totals so far, including the segment still open.
+     */
+    synchronized TripSummary toSummary() {
+        Totals current = totals;
+        if (started && lastMillis > segmentMillis) {
+            current = totals.copy();
+            current.add(GeoUtils.haversineMeters(segmentLatitude, segmentLongitude, lastLatitude, lastLongitude),
+                    (lastMillis - segmentMillis) / 1000.0, limits);
+            // Shorter than a window, so too noisy for the top speed
+            current.maxMetersPerSecond = totals.maxMetersPerSecond;
+        }
+        return new TripSummary(Math.round(current.distanceMeters * 10) / 10.0, Math.round(current.movingSeconds),
+                Math.round(current.idleSeconds), Math.round(current.maxMetersPerSecond * 36) / 10.0, fixes);
+    }
+
+    private void startSegment(double latitude, double longitude, long millis) {
+        segmentLatitude = latitude;
+        segmentLongitude = longitude;
+        segmentMillis = millis;
+        jumps = 0;
+    }
+
+    private static final class Totals {
+        double distanceMeters;
+        double movingSeconds;
+        double idleSeconds;
+        double maxMetersPerSecond;
+
+        /**
+         * Counts one segment; returns false, counting nothing, if it implies an impossible speed.
+         */
+        boolean add(double meters, double seconds, Limits limits) {
+            double speed = meters / seconds;
+            if (seconds > limits.maxGapSeconds()) {
+                if (speed >= limits.movingMetersPerSecond()) {
+                    distanceMeters += meters;
+                }
+            } else if (speed > limits.maxMetersPerSecond()) {
+                return false;
+            } else if (speed >= limits.movingMetersPerSecond()) {
+                distanceMeters += meters;
+                movingSeconds += seconds;
+                maxMetersPerSecond = Math.max(maxMetersPerSecond, speed);
+            } else {
+                idleSeconds += seconds;
+            }
+            return true;
+        }
+
+        Totals copy() {
+            Totals copy = new Totals();
+            copy.distanceMeters = distanceMeters;
+            copy.movingSeconds = movingSeconds;
+            copy.idleSeconds = idleSeconds;
+            copy.maxMetersPerSecond = maxMetersPerSecond;
+            return copy;
+        }
+    }
+
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,131 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.Shift;
+import com.fleetpanda.tracking.entity.TripSummary;
+import com.fleetpanda.tracking.repository.ShiftRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a {@link TripAccumulator} for every vehicle on an active shift and feeds it each fresh
+ * GPS fix from {@link GpsIngestService}, stored or suppressed by the ping filter. Ending a shift
+ * takes the totals from memory, so a trip report never rescans gps_log.
+ * <p>
+ * Accumulators only live in memory. On startup, before the web server takes fixes, each active
+ * shift's accumulator is rebuilt from its stored track; only filter-suppressed fixes are missing
+ * from that replay, and the filter keeps the track within its dead band.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TripAnalyticsService implements SmartInitializingSingleton {
+
+    private final ShiftRepository shiftRepository;
+    private final TrackHistoryService trackHistoryService;
+
+    private final ConcurrentHashMap<Long, TripAccumulator> byVehicle = new ConcurrentHashMap<>();
+
+    @Value("${fleet.trip.window-seconds:10}")
+    private double windowSeconds;
+
+    @Value("${fleet.trip.moving-speed-kmh:5}")
+    private double movingSpeedKmh;
+
+    @Value("${fleet.trip.max-speed-kmh:200}")
+    private double maxSpeedKmh;
+
+    @Value("${fleet.trip.max-gap-seconds:600}")
+    private double maxGapSeconds;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        recover();
+    }
+
+    /**
+     * Rebuilds the accumulators of all active shifts from their stored tracks.
+     */
+    public void recover() {
+        List<Shift> active = shiftRepository.findByStatusIn(EnumSet.of(Shift.ShiftStatus.ACTIVE));
+        LocalDateTime now = LocalDateTime.now();
+        long replayed = 0;
+        for (Shift shift : active) {
+            TripAccumulator trip = begin(shift);
+            if (trip == null) {
+                continue;
+            }
+            replayed += trackHistoryService.readTrack(shift.getVehicle().getId(), shift.getStartTime(),
+                    now.plusDays(1), null, null,
+                    (id, timestamp, latitude, longitude) -> trip.add(latitude, longitude, timestamp)).getRows();
+        }
+        log.info("Rebuilt trip analytics for {} active shifts from {} stored GPS fixes", active.size(), replayed);
+    }
+
+    /**
+     * Starts measuring a shift that has just become active.
+     */
+    public void start(Shift shift) {
+        begin(shift);
+    }
+
+    public void record(Long vehicleId, double latitude, double longitude, LocalDateTime timestamp) {
+        TripAccumulator trip = byVehicle.get(vehicleId);
+        if (trip != null) {
+            trip.add(latitude, longitude, timestamp);
+        }
+    }
+
+    /**
+     * The shift's totals so far, if it is being measured.
+     */
+    public Optional<TripSummary> summarize(Shift shift) {
+        return find(shift).map(TripAccumulator::toSummary);
+    }
+
+    /**
+     * The vehicle's recent driving speed on its active shift, or null if it has not driven yet.
+     */
+    public Double recentSpeedKmh(Long vehicleId) {
+        TripAccumulator trip = byVehicle.get(vehicleId);
+        double speed = trip != null ? trip.recentMetersPerSecond() : Double.NaN;
+        return Double.isNaN(speed) ? null : speed * 3.6;
+    }
+
+    /**
+     * Stops measuring an ended shift.
+     */
+    public void finish(Shift shift) {
+        find(shift).ifPresent(trip -> byVehicle.remove(shift.getVehicle().getId(), trip));
+    }
+
+    // A shift without a vehicle or start time has no trip to measure
+    private TripAccumulator begin(Shift shift) {
+        if (shift.getVehicle() == null || shift.getStartTime() == null) {
+            return null;
+        }
+        TripAccumulator trip = new TripAccumulator(shift.getId(), shift.getStartTime(), limits());
+        byVehicle.put(shift.getVehicle().getId(), trip);
+        return trip;
+    }
+
+    private Optional<TripAccumulator> find(Shift shift) {
+        if (shift.getVehicle() == null) {
+            return Optional.empty();
+        }
+        TripAccumulator trip = byVehicle.get(shift.getVehicle().getId());
+        return trip != null && trip.getShiftId() == shift.getId() ? Optional.of(trip) : Optional.empty();
+    }
+
+    private TripAccumulator.Limits limits() {
+        return new TripAccumulator.Limits(windowSeconds, movingSpeedKmh / 3.6, maxSpeedKmh / 3.6, maxGapSeconds);
+    }
+}
@@ -0,0 +1,139 @@
+package com.fleetpanda.tracking.benchmark;
+
+import com.fleetpanda.tracking.geo.GeoUtils;
+import com.fleetpanda.tracking.service.DispatchOptimizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DispatchOptimizer} on a synthetic instance at several time budgets: orders for 3,000
+ * terminals scattered over a 60 km square, vehicles spread over the hubs, and about 10% more
+ * capacity than demand. The distance after construction and after local search is reported
+ * alongside, with the bound of every order leaving from its nearest hub for comparison. Fails
+ * if a plan overloads a vehicle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchOptimizerBenchmark {
+
+    private static final int TERMINALS = 3000;
+
+    @Param({"10000"})
+    public int orders;
+
+    @Param({"1000"})
+    public int vehicles;
+
+    @Param({"40"})
+    public int hubs;
+
+    @Param({"0", "100", "500", "2000"})
+    public long budgetMs;
+
+    private DispatchOptimizer.Problem problem;
+    private double nearestHubKm;
+    private DispatchOptimizer.Solution solution;
+
+    @Setup
+    public void setUp() {
+        problem = instance(new Random(42));
+        nearestHubKm = nearestHubMeters() / 1000;
+    }
+
+    @Benchmark
+    public DispatchOptimizer.Solution solve(Plan plan) {
+        solution = DispatchOptimizer.solve(problem, TimeUnit.MILLISECONDS.toNanos(budgetMs));
+        plan.assigned = solution.assigned();
+        plan.constructionKm = solution.constructionMeters() / 1000;
+        plan.finalKm = solution.meters() / 1000;
+        plan.nearestHubKm = nearestHubKm;
+        plan.rounds = solution.rounds();
+        plan.moves = solution.moves();
+        return solution;
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkCapacity() {
+        double[] load = new double[problem.vehicleCapacity().length];
+        int[] vehicleOf = solution.vehicleOfOrder();
+        for (int o = 0; o < vehicleOf.length; o++) {
+            if (vehicleOf[o] != DispatchOptimizer.UNASSIGNED) {
+                load[vehicleOf[o]] += problem.orderQuantity()[o];
+            }
+        }
+        for (int v = 0; v < load.length; v++) {
+            if (load[v] > problem.vehicleCapacity()[v] + 1e-6) {
+                throw new IllegalStateException("Vehicle " + v + " overloaded");
+            }
+        }
+    }
+
+    /**
+     * The last plan, reported next to the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Plan {
+        public int assigned;
+        public double constructionKm;
+        public double finalKm;
+        public double nearestHubKm;
+        public int rounds;
+        public int moves;
+    }
+
+    private DispatchOptimizer.Problem instance(Random random) {
+        double[][] hubPoints = points(random, hubs);
+        double[][] terminalPoints = points(random, TERMINALS);
+        double[][] meters = new double[hubs][TERMINALS];
+        for (int h = 0; h < hubs; h++) {
+            for (int t = 0; t < TERMINALS; t++) {
+                meters[h][t] = GeoUtils.haversineMeters(hubPoints[h][0], hubPoints[h][1],
+                        terminalPoints[t][0], terminalPoints[t][1]);
+            }
+        }
+
+        int[] orderTerminal = new int[orders];
+        double[] quantity = new double[orders];
+        double demand = 0;
+        for (int o = 0; o < orders; o++) {
+            orderTerminal[o] = random.nextInt(TERMINALS);
+            quantity[o] = 1000 + 500 * random.nextInt(9);
+            demand += quantity[o];
+        }
+        int[] vehicleDepot = new int[vehicles];
+        double[] capacity = new double[vehicles];
+        double perVehicle = demand * 1.1 / vehicles;
+        for (int v = 0; v < vehicles; v++) {
+            vehicleDepot[v] = random.nextInt(hubs);
+            capacity[v] = Math.round(perVehicle * (0.7 + 0.6 * random.nextDouble()));
+        }
+        return new DispatchOptimizer.Problem(meters, vehicleDepot, capacity, orderTerminal, quantity);
+    }
+
+    private static double[][] points(Random random, int count) {
+        double[][] points = new double[count][];
+        for (int i = 0; i < count; i++) {
+            points[i] = new double[]{12.7 + random.nextDouble() * 0.54, 77.3 + random.nextDouble() * 0.55};
+        }
+        return points;
+    }
+
+    private double nearestHubMeters() {
+        double meters = 0;
+        for (int terminal : problem.orderTerminal()) {
+            double nearest = Double.MAX_VALUE;
+            for (int depot : problem.vehicleDepot()) {
+                nearest = Math.min(nearest, problem.depotTerminalMeters()[depot][terminal]);
+            }
+            meters += nearest;
+        }
+        return meters;
+    }
+}
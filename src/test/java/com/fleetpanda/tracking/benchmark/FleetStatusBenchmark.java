@@ -0,0 +1,66 @@
+package com.fleetpanda.tracking.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetpanda.tracking.dto.NearbyVehicleDTO;
+import com.fleetpanda.tracking.dto.VehiclePositionDTO;
+import com.fleetpanda.tracking.entity.Vehicle;
+import com.fleetpanda.tracking.service.LatestPositionRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /api/admin/fleet-status} at several fleet sizes: the snapshot of
+ * {@link LatestPositionRegistry} that {@code AdminService.getFleetStatus} returns, the same
+ * rendered to JSON as the controller does, and a nearest-vehicles query for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FleetStatusBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int vehicles;
+
+    private LatestPositionRegistry registry;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        registry = new LatestPositionRegistry(null, null);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2025, 11, 29, 10, 0);
+        for (long id = 1; id <= vehicles; id++) {
+            Vehicle vehicle = new Vehicle();
+            vehicle.setId(id);
+            vehicle.setLicensePlate("KA-01-" + id);
+            registry.registerVehicle(vehicle);
+            registry.update(id, 12.8 + random.nextDouble() * 0.4, 77.4 + random.nextDouble() * 0.4,
+                    now.minusSeconds(random.nextInt(60)));
+        }
+    }
+
+    @Benchmark
+    public List<VehiclePositionDTO> snapshot() {
+        return registry.snapshot();
+    }
+
+    @Benchmark
+    public byte[] snapshotJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(registry.snapshot());
+    }
+
+    @Benchmark
+    public List<NearbyVehicleDTO> nearestTen() {
+        return registry.nearest(12.97, 77.59, 10);
+    }
+}
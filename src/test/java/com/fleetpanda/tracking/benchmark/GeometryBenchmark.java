@@ -0,0 +1,103 @@
+package com.fleetpanda.tracking.benchmark;
+
+import com.fleetpanda.tracking.geo.GeoUtils;
+import com.fleetpanda.tracking.geo.SpatialGrid;
+import com.fleetpanda.tracking.service.DouglasPeuckerSink;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The geometry helpers on the GPS and proximity paths: great-circle and point-to-segment
+ * distance, nearest and radius queries against a grid of 10,000 vehicles, and Douglas-Peucker
+ * simplification of a 10,000-point track.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+
+    private static final int POINTS = 1024;
+    private static final int VEHICLES = 10_000;
+    private static final int TRACK_POINTS = 10_000;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 11, 29, 6, 0);
+
+    private final double[] latitudes = new double[POINTS];
+    private final double[] longitudes = new double[POINTS];
+    private final SpatialGrid grid = new SpatialGrid(0.02);
+    private final double[] trackLatitudes = new double[TRACK_POINTS];
+    private final double[] trackLongitudes = new double[TRACK_POINTS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = 12.8 + random.nextDouble() * 0.4;
+            longitudes[i] = 77.4 + random.nextDouble() * 0.4;
+        }
+        for (int i = 0; i < VEHICLES; i++) {
+            grid.put(i, 12.8 + random.nextDouble() * 0.4, 77.4 + random.nextDouble() * 0.4);
+        }
+        // 1 Hz drive at about 12 m/s, turning now and then, with a few metres of jitter
+        double lat = 12.97;
+        double lon = 77.59;
+        double heading = 0;
+        for (int i = 0; i < TRACK_POINTS; i++) {
+            if (i % 120 == 0) {
+                heading += (random.nextDouble() - 0.5) * Math.PI;
+            }
+            lat += 12 * Math.cos(heading) / 111_320.0;
+            lon += 12 * Math.sin(heading) / 108_500.0;
+            trackLatitudes[i] = lat + random.nextGaussian() * 3 / 111_320.0;
+            trackLongitudes[i] = lon + random.nextGaussian() * 3 / 108_500.0;
+        }
+    }
+
+    @Benchmark
+    public double haversine() {
+        int i = next++ & (POINTS - 1);
+        int j = (i + 1) & (POINTS - 1);
+        return GeoUtils.haversineMeters(latitudes[i], longitudes[i], latitudes[j], longitudes[j]);
+    }
+
+    @Benchmark
+    public double segmentDistance() {
+        int i = next++ & (POINTS - 1);
+        int j = (i + 1) & (POINTS - 1);
+        int k = (i + 2) & (POINTS - 1);
+        return GeoUtils.segmentDistanceMeters(latitudes[i], longitudes[i], latitudes[j], longitudes[j],
+                latitudes[k], longitudes[k]);
+    }
+
+    @Benchmark
+    public List<SpatialGrid.Neighbor> nearestTen() {
+        int i = next++ & (POINTS - 1);
+        return grid.nearest(latitudes[i], longitudes[i], 10);
+    }
+
+    @Benchmark
+    public List<SpatialGrid.Neighbor> withinTwoKilometres() {
+        int i = next++ & (POINTS - 1);
+        return grid.withinRadius(latitudes[i], longitudes[i], 2000);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void douglasPeucker(Blackhole blackhole) throws IOException {
+        DouglasPeuckerSink sink = new DouglasPeuckerSink((id, timestamp, latitude, longitude) ->
+                blackhole.consume(id), 10);
+        for (int i = 0; i < TRACK_POINTS; i++) {
+            sink.accept(i, START.plusSeconds(i), trackLatitudes[i], trackLongitudes[i]);
+        }
+        sink.complete();
+    }
+}
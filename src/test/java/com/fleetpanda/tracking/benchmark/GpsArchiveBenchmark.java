@@ -0,0 +1,89 @@
+package com.fleetpanda.tracking.benchmark;
+
+import com.fleetpanda.tracking.service.GpsChunk;
+import com.fleetpanda.tracking.service.SyntheticTrack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a day of 1 Hz fixes as a {@link GpsChunk}, with the encoded size per fix
+ * and the compression against a ~100 byte gps_log row reported alongside. Runs the track as
+ * generated (full double precision, exact 1 s spacing) and as a phone reports it (7 decimal
+ * places, millisecond jitter on the timestamps, ids from a sequence shared by 1,000 vehicles).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GpsArchiveBenchmark {
+
+    private static final int POINTS = 86_400;
+    private static final double ROW_BYTES = 100;
+
+    @Param({"synthetic", "phone"})
+    public String data;
+
+    private GpsChunk chunk;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        SyntheticTrack track = new SyntheticTrack(POINTS, 42);
+        chunk = data.equals("phone") ? phoneLike(track) : raw(track);
+        encoded = chunk.encode();
+        if (GpsChunk.decode(encoded).id(POINTS - 1) != chunk.id(POINTS - 1)) {
+            throw new IllegalStateException(data + ": decoded chunk does not match");
+        }
+    }
+
+    @Benchmark
+    public byte[] encode(Size size) {
+        byte[] bytes = chunk.encode();
+        size.record(bytes.length, POINTS);
+        return bytes;
+    }
+
+    @Benchmark
+    public GpsChunk decode() {
+        return GpsChunk.decode(encoded);
+    }
+
+    /**
+     * Size of the last encoding, reported next to the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public double bytesPerFix;
+        public double compression;
+
+        void record(int bytes, int fixes) {
+            bytesPerFix = (double) bytes / fixes;
+            compression = ROW_BYTES / bytesPerFix;
+        }
+    }
+
+    private static GpsChunk raw(SyntheticTrack track) {
+        GpsChunk chunk = new GpsChunk(track.size());
+        for (int i = 0; i < track.size(); i++) {
+            chunk.add(track.ids[i], track.timestamps[i], track.latitudes[i], track.longitudes[i]);
+        }
+        return chunk;
+    }
+
+    private static GpsChunk phoneLike(SyntheticTrack track) {
+        Random random = new Random(42);
+        GpsChunk chunk = new GpsChunk(track.size());
+        long id = 1;
+        for (int i = 0; i < track.size(); i++) {
+            id += 900 + random.nextInt(200);
+            chunk.add(id, track.timestamps[i].plusNanos(random.nextInt(1000) * 1_000_000L),
+                    Math.round(track.latitudes[i] * 1e7) / 1e7, Math.round(track.longitudes[i] * 1e7) / 1e7);
+        }
+        return chunk;
+    }
+}
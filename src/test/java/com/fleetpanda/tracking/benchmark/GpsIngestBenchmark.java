@@ -0,0 +1,113 @@
+package com.fleetpanda.tracking.benchmark;
+
+import com.fleetpanda.tracking.FleetTrackingApplication;
+import com.fleetpanda.tracking.dto.GpsLogDTO;
+import com.fleetpanda.tracking.entity.Vehicle;
+import com.fleetpanda.tracking.repository.VehicleRepository;
+import com.fleetpanda.tracking.service.DriverService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One GPS fix through {@link DriverService#sendGpsUpdate}, the path behind
+ * {@code POST /api/driver/gps}, against the in-memory H2 database of the test profile: ping
+ * filter, insert, latest position, geofences and trip analytics. Every call moves its vehicle
+ * 10 m and one second on along a straight line, which the ping filter mostly suppresses; with
+ * {@code filter=false} every fix is inserted. Each benchmark thread drives its own vehicles; run
+ * with {@code -t 4} to see contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GpsIngestBenchmark {
+
+    private static final int VEHICLES_PER_THREAD = 100;
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 29, 6, 0);
+
+    @Param({"true", "false"})
+    private boolean filter;
+
+    private ConfigurableApplicationContext context;
+    private DriverService driverService;
+    private VehicleRepository vehicleRepository;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup
+    public void startApplication() {
+        context = new SpringApplicationBuilder(FleetTrackingApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "fleet.gps.filter.enabled=" + filter)
+                .run();
+        driverService = context.getBean(DriverService.class);
+        vehicleRepository = context.getBean(VehicleRepository.class);
+        // The ingest inserts without an id, relying on the column default Liquibase sets up
+        context.getBean(JdbcTemplate.class)
+                .execute("ALTER TABLE gps_log ALTER COLUMN id SET DEFAULT nextval('gps_log_id_seq')");
+    }
+
+    @TearDown
+    public void stopApplication() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Fleet {
+        private final List<Long> vehicleIds = new ArrayList<>();
+        private double[] latitudes;
+        private long tick;
+        private int next;
+        private double longitude;
+
+        @Setup
+        public void createVehicles(GpsIngestBenchmark benchmark) {
+            int thread = benchmark.threads.getAndIncrement();
+            for (int i = 0; i < VEHICLES_PER_THREAD; i++) {
+                Vehicle vehicle = new Vehicle();
+                vehicle.setLicensePlate("BENCH-" + thread + "-" + i);
+                vehicle.setCapacity(12_000.0);
+                vehicle.setStatus(Vehicle.VehicleStatus.IN_USE);
+                vehicleIds.add(benchmark.vehicleRepository.save(vehicle).getId());
+            }
+            latitudes = new double[VEHICLES_PER_THREAD];
+            for (int i = 0; i < VEHICLES_PER_THREAD; i++) {
+                latitudes[i] = 12.8 + i * 0.003;
+            }
+            longitude = 77.4 + thread * 0.05;
+        }
+
+        GpsLogDTO nextFix() {
+            int i = next;
+            next = (next + 1) % VEHICLES_PER_THREAD;
+            if (i == 0) {
+                tick++;
+            }
+            latitudes[i] += 10 / 111_320.0;
+            GpsLogDTO dto = new GpsLogDTO();
+            dto.setVehicleId(vehicleIds.get(i));
+            dto.setLatitude(latitudes[i]);
+            dto.setLongitude(longitude);
+            dto.setTimestamp(T0.plusSeconds(tick));
+            return dto;
+        }
+    }
+
+    @Benchmark
+    public void sendGpsUpdate(Fleet fleet) {
+        driverService.sendGpsUpdate(fleet.nextFix());
+    }
+}
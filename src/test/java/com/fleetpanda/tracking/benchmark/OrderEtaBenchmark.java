@@ -0,0 +1,150 @@
+package com.fleetpanda.tracking.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetpanda.tracking.dto.FleetEtaDTO;
+import com.fleetpanda.tracking.entity.Order;
+import com.fleetpanda.tracking.repository.OpenOrderView;
+import com.fleetpanda.tracking.repository.OrderRepository;
+import com.fleetpanda.tracking.service.LatestPositionRegistry;
+import com.fleetpanda.tracking.service.OpenOrderRegistry;
+import com.fleetpanda.tracking.service.OrderEtaService;
+import com.fleetpanda.tracking.service.TripAnalyticsService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OrderEtaService#estimateAll} for 20,000 open orders on 2,000 vehicles, with all, a tenth
+ * or none of the vehicles moving between calls, and the number of vehicles whose ETAs it had to
+ * recompute reported alongside; plus the JSON rendering of the result, which does not depend on
+ * how many moved. The moves happen outside the timed call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderEtaBenchmark {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 29, 10, 0);
+
+    @Param({"20000"})
+    public int orders;
+
+    @Param({"2000"})
+    public int vehicles;
+
+    @Param({"100", "10", "0"})
+    public int movingPercent;
+
+    private final Random random = new Random(42);
+    private LatestPositionRegistry positions;
+    private OrderEtaService service;
+    private ObjectMapper objectMapper;
+    private FleetEtaDTO etas;
+    private long tick;
+
+    @Setup
+    public void setUp() {
+        List<OpenOrderView> rows = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            long vehicleId = 1 + i % vehicles;
+            rows.add(row(i + 1, vehicleId, 12.8 + random.nextDouble() * 0.4, 77.4 + random.nextDouble() * 0.4));
+        }
+        OrderRepository orderRepository = Mockito.mock(OrderRepository.class);
+        Mockito.when(orderRepository.findOpenOrders(Mockito.any())).thenReturn(rows);
+        OpenOrderRegistry openOrderRegistry = new OpenOrderRegistry(orderRepository);
+        openOrderRegistry.load();
+
+        positions = new LatestPositionRegistry(null, null);
+        TripAnalyticsService trips = Mockito.mock(TripAnalyticsService.class);
+        Mockito.when(trips.recentSpeedKmh(Mockito.any())).thenReturn(32.0);
+        service = new OrderEtaService(openOrderRegistry, positions, trips);
+        ReflectionTestUtils.setField(service, "roadFactor", 1.3);
+        ReflectionTestUtils.setField(service, "defaultSpeedKmh", 30.0);
+        ReflectionTestUtils.setField(service, "minSpeedKmh", 10.0);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        move(vehicles);
+        etas = service.estimateAll();
+    }
+
+    /**
+     * A different run of vehicles each time, so every one of them moves in turn.
+     */
+    @Setup(Level.Invocation)
+    public void moveVehicles() {
+        move(vehicles * movingPercent / 100);
+    }
+
+    @Benchmark
+    public FleetEtaDTO estimateAll(Recomputed recomputed) {
+        FleetEtaDTO result = service.estimateAll();
+        recomputed.vehicles = result.getRecomputedVehicles();
+        return result;
+    }
+
+    @Benchmark
+    public byte[] estimateAllJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(etas);
+    }
+
+    /**
+     * Vehicles the last call recomputed, reported next to the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Recomputed {
+        public int vehicles;
+    }
+
+    private void move(int count) {
+        tick++;
+        for (int i = 0; i < count; i++) {
+            long vehicleId = 1 + (tick * count + i) % vehicles;
+            positions.update(vehicleId, 12.8 + random.nextDouble() * 0.4, 77.4 + random.nextDouble() * 0.4,
+                    T0.plusSeconds(tick));
+        }
+    }
+
+    private static OpenOrderView row(long id, long vehicleId, double latitude, double longitude) {
+        return new OpenOrderView() {
+            public Long getId() {
+                return id;
+            }
+
+            public Order.OrderStatus getStatus() {
+                return Order.OrderStatus.PENDING;
+            }
+
+            public Long getShiftId() {
+                return vehicleId;
+            }
+
+            public Long getVehicleId() {
+                return vehicleId;
+            }
+
+            public Long getTerminalId() {
+                return 1 + id % 50;
+            }
+
+            public Double getTerminalLatitude() {
+                return latitude;
+            }
+
+            public Double getTerminalLongitude() {
+                return longitude;
+            }
+        };
+    }
+}
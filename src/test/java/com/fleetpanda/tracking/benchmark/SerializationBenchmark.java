@@ -0,0 +1,143 @@
+package com.fleetpanda.tracking.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fleetpanda.tracking.dto.GpsLogDTO;
+import com.fleetpanda.tracking.dto.OrderSummaryDTO;
+import com.fleetpanda.tracking.dto.ShiftSummaryDTO;
+import com.fleetpanda.tracking.entity.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON rendering of 1,000 orders, shifts and GPS fixes as the entity graphs the older endpoints
+ * return versus the flat DTOs of the paged ones, with the mapper configured the way Spring Boot
+ * configures it. Entities are plain objects here, so this measures Jackson only, without the
+ * lazy loads a real entity graph would also trigger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final int FLEET = 50;
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 29, 6, 0);
+
+    private ObjectMapper objectMapper;
+    private final List<Order> orders = new ArrayList<>();
+    private final List<OrderSummaryDTO> orderDtos = new ArrayList<>();
+    private final List<Shift> shifts = new ArrayList<>();
+    private final List<ShiftSummaryDTO> shiftDtos = new ArrayList<>();
+    private final List<GpsLog> gpsLogs = new ArrayList<>();
+    private final List<GpsLogDTO> gpsLogDtos = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Product product = named(new Product(), 1);
+        product.setName("Diesel");
+        product.setType(Product.ProductType.DIESEL);
+        Terminal terminal = named(new Terminal(), 1);
+        terminal.setName("Terminal 1");
+        terminal.setAddress("Whitefield");
+        terminal.setLatitude(12.97);
+        terminal.setLongitude(77.75);
+
+        for (int i = 1; i <= ROWS; i++) {
+            long fleetId = 1 + i % FLEET;
+            Driver driver = named(new Driver(), fleetId);
+            driver.setName("Driver " + fleetId);
+            driver.setLicenseNumber("DL-" + fleetId);
+            driver.setStatus(Driver.DriverStatus.ACTIVE);
+            Vehicle vehicle = named(new Vehicle(), fleetId);
+            vehicle.setLicensePlate("KA-01-" + fleetId);
+            vehicle.setCapacity(12_000.0);
+            vehicle.setStatus(Vehicle.VehicleStatus.IN_USE);
+
+            Shift shift = named(new Shift(), i);
+            shift.setDriver(driver);
+            shift.setVehicle(vehicle);
+            shift.setStartTime(T0);
+            shift.setEndTime(T0.plusHours(8));
+            shift.setStatus(Shift.ShiftStatus.COMPLETED);
+            shift.setTripSummary(new TripSummary(84_000.0, 14_000L, 14_800L, 62.5, 28_800L));
+            shifts.add(shift);
+            shiftDtos.add(new ShiftSummaryDTO(shift.getId(), shift.getStatus(), driver.getId(), driver.getName(),
+                    vehicle.getId(), vehicle.getLicensePlate(), T0, T0.plusHours(8), 84_000.0, 14_000L, 14_800L,
+                    62.5));
+
+            Order order = named(new Order(), i);
+            order.setShift(shift);
+            order.setTerminal(terminal);
+            order.setProduct(product);
+            order.setQuantity(4000.0);
+            order.setStatus(Order.OrderStatus.COMPLETED);
+            orders.add(order);
+            orderDtos.add(new OrderSummaryDTO(order.getId(), order.getStatus(), 4000.0, null, shift.getId(),
+                    driver.getId(), driver.getName(), vehicle.getId(), vehicle.getLicensePlate(), terminal.getId(),
+                    terminal.getName(), product.getId(), product.getName(), T0, T0));
+
+            GpsLog gpsLog = new GpsLog();
+            gpsLog.setId((long) i);
+            gpsLog.setCreatedAt(T0.plusSeconds(i));
+            gpsLog.setUpdatedAt(T0.plusSeconds(i));
+            gpsLog.setVehicle(vehicle);
+            gpsLog.setLatitude(12.97 + i * 1e-4);
+            gpsLog.setLongitude(77.59 + i * 1e-4);
+            gpsLog.setTimestamp(T0.plusSeconds(i));
+            gpsLogs.add(gpsLog);
+            GpsLogDTO gpsLogDto = new GpsLogDTO();
+            gpsLogDto.setVehicleId(fleetId);
+            gpsLogDto.setLatitude(gpsLog.getLatitude());
+            gpsLogDto.setLongitude(gpsLog.getLongitude());
+            gpsLogDto.setTimestamp(gpsLog.getTimestamp());
+            gpsLogDtos.add(gpsLogDto);
+        }
+    }
+
+    @Benchmark
+    public byte[] orderEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] orderDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderDtos);
+    }
+
+    @Benchmark
+    public byte[] shiftEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(shifts);
+    }
+
+    @Benchmark
+    public byte[] shiftDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(shiftDtos);
+    }
+
+    @Benchmark
+    public byte[] gpsLogEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(gpsLogs);
+    }
+
+    @Benchmark
+    public byte[] gpsLogDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(gpsLogDtos);
+    }
+
+    private static <T extends BaseEntity> T named(T entity, long id) {
+        entity.setId(id);
+        entity.setCreatedAt(T0);
+        entity.setUpdatedAt(T0);
+        return entity;
+    }
+}
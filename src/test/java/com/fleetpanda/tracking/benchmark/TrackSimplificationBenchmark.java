@@ -0,0 +1,71 @@
+package com.fleetpanda.tracking.benchmark;
+
+import com.fleetpanda.tracking.service.SyntheticTrack;
+import com.fleetpanda.tracking.service.TrackHistoryService;
+import com.fleetpanda.tracking.service.TrackPointSink;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A day of 1 Hz fixes through the track simplification pipeline the track history endpoint
+ * builds, for each combination of Douglas-Peucker tolerance and time bucket, with the number of
+ * points that come out reported alongside. {@code none} leaves that stage out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackSimplificationBenchmark {
+
+    private static final int POINTS = 86_400;
+
+    @Param({"none", "5", "10", "25"})
+    public String toleranceMeters;
+
+    @Param({"none", "10", "60"})
+    public String bucketSeconds;
+
+    private SyntheticTrack track;
+    private Double tolerance;
+    private Integer bucket;
+
+    @Setup
+    public void setUp() {
+        track = new SyntheticTrack(POINTS, 42);
+        tolerance = toleranceMeters.equals("none") ? null : Double.valueOf(toleranceMeters);
+        bucket = bucketSeconds.equals("none") ? null : Integer.valueOf(bucketSeconds);
+    }
+
+    @Benchmark
+    public long simplify(Output output, Blackhole blackhole) throws IOException {
+        output.blackhole = blackhole;
+        output.pointsOut = 0;
+        track.replay(TrackHistoryService.simplificationPipeline(output, tolerance, bucket));
+        output.ratio = (double) POINTS / output.pointsOut;
+        return output.pointsOut;
+    }
+
+    /**
+     * Counts what the pipeline writes, reported next to the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Output implements TrackPointSink {
+        public long pointsOut;
+        public double ratio;
+        private Blackhole blackhole;
+
+        @Override
+        public void accept(long id, LocalDateTime timestamp, double latitude, double longitude) {
+            // Consumed so the JIT cannot fold the raw pass into a single add
+            blackhole.consume(id);
+            pointsOut++;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.fleetpanda.tracking.controller;
+
+import com.fleetpanda.tracking.entity.*;
+import com.fleetpanda.tracking.repository.*;
+import com.fleetpanda.tracking.service.ShiftRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements behind each list endpoint, including whatever lazy loads
+ * JSON serialization triggers, so a lost fetch plan shows up as a failing test instead of an
+ * N+1 in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FetchPlanStatementCountTest {
+
+    private static final int DRIVERS = 4;
+    private static final int ORDERS_PER_SHIFT = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private DriverRepository driverRepository;
+    @Autowired
+    private VehicleRepository vehicleRepository;
+    @Autowired
+    private TerminalRepository terminalRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private VehicleAllocationRepository allocationRepository;
+    @Autowired
+    private ShiftRepository shiftRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private ShiftRegistry shiftRegistry;
+
+    private Statistics statistics;
+    private Long firstDriverId;
+    private Long firstShiftId;
+
+    @BeforeAll
+    void seed() {
+        Product product = new Product();
+        product.setName("Diesel");
+        product.setType(Product.ProductType.DIESEL);
+        productRepository.save(product);
+
+        for (int i = 0; i < DRIVERS; i++) {
+            Driver driver = new Driver();
+            driver.setName("Driver " + i);
+            driver.setLicenseNumber("DL-" + i);
+            driver.setStatus(Driver.DriverStatus.ACTIVE);
+            driverRepository.save(driver);
+
+            Vehicle vehicle = new Vehicle();
+            vehicle.setLicensePlate("KA-01-" + i);
+            vehicle.setCapacity(1000.0);
+            vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
+            vehicleRepository.save(vehicle);
+
+            Terminal terminal = new Terminal();
+            terminal.setName("Terminal " + i);
+            terminal.setLatitude(12.9 + i * 0.01);
+            terminal.setLongitude(77.5);
+            terminalRepository.save(terminal);
+
+            VehicleAllocation allocation = new VehicleAllocation();
+            allocation.setDriver(driver);
+            allocation.setVehicle(vehicle);
+            allocation.setDate(LocalDate.of(2025, 11, 29));
+            allocationRepository.save(allocation);
+
+            Shift shift = new Shift();
+            shift.setDriver(driver);
+            shift.setVehicle(vehicle);
+            shift.setStatus(Shift.ShiftStatus.ACTIVE);
+            shift.setStartTime(LocalDateTime.of(2025, 11, 29, 8, 0));
+            shiftRepository.save(shift);
+
+            for (int j = 0; j < ORDERS_PER_SHIFT; j++) {
+                Order order = new Order();
+                order.setShift(shift);
+                order.setTerminal(terminal);
+                order.setProduct(product);
+                order.setQuantity(100.0);
+                order.setStatus(Order.OrderStatus.PENDING);
+                orderRepository.save(order);
+            }
+
+            Inventory inventory = new Inventory();
+            inventory.setLocationId(terminal.getId());
+            inventory.setLocationType(Inventory.LocationType.TERMINAL);
+            inventory.setProduct(product);
+            inventory.setQuantity(500.0);
+            inventoryRepository.save(inventory);
+
+            if (i == 0) {
+                firstDriverId = driver.getId();
+                firstShiftId = shift.getId();
+            }
+        }
+        // The shifts were written straight to the database, behind the registry's back
+        shiftRegistry.load();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void getAllOrders_OneStatement() throws Exception {
+        mockMvc.perform(get("/api/admin/orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(DRIVERS * ORDERS_PER_SHIFT)))
+                .andExpect(jsonPath("$[0].shift.driver.name").exists())
+                .andExpect(jsonPath("$[0].terminal.name").exists());
+        assertStatements(1);
+    }
+
+    @Test
+    void getAllShifts_OneStatement() throws Exception {
+        mockMvc.perform(get("/api/admin/shifts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(DRIVERS)))
+                .andExpect(jsonPath("$[0].vehicle.licensePlate").exists());
+        assertStatements(1);
+    }
+
+    @Test
+    void getAllocations_OneStatement() throws Exception {
+        mockMvc.perform(get("/api/admin/allocations"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(DRIVERS)))
+                .andExpect(jsonPath("$[0].driver.name").exists());
+        assertStatements(1);
+    }
+
+    @Test
+    void getAllInventory_OneStatement() throws Exception {
+        mockMvc.perform(get("/api/admin/inventory"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(DRIVERS)))
+                .andExpect(jsonPath("$[0].product.name").exists());
+        assertStatements(1);
+    }
+
+    @Test
+    void getShiftOrders_OneStatement() throws Exception {
+        mockMvc.perform(get("/api/driver/shift/{shiftId}/orders", firstShiftId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(ORDERS_PER_SHIFT)))
+                .andExpect(jsonPath("$[0].shift.vehicle.licensePlate").exists());
+        assertStatements(1);
+    }
+
+    @Test
+    void getActiveShift_NoStatements() throws Exception {
+        mockMvc.perform(get("/api/driver/{driverId}/shift/active", firstDriverId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.driver.name").value("Driver 0"))
+                .andExpect(jsonPath("$.vehicle.licensePlate").value("KA-01-0"));
+        assertStatements(0);
+    }
+
+    @Test
+    void getOrderPage_OneStatement() throws Exception {
+        mockMvc.perform(get("/api/admin/orders/page").param("status", "PENDING").param("limit", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(7)))
+                .andExpect(jsonPath("$.items[0].driverName").exists())
+                .andExpect(jsonPath("$.nextCursor").exists());
+        assertStatements(1);
+    }
+
+    private void assertStatements(long expected) {
+        assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements executed");
+    }
+}
@@ -0,0 +1,97 @@
+package com.fleetpanda.tracking.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialGridTest {
+
+    private static final int VEHICLES = 10_000;
+
+    @Test
+    void nearest_MatchesBruteForce() {
+        Random random = new Random(42);
+        SpatialGrid grid = new SpatialGrid(0.02);
+        double[][] points = scatter(grid, random);
+
+        for (int q = 0; q < 200; q++) {
+            double lat = 12.7 + random.nextDouble() * 0.6;
+            double lon = 77.3 + random.nextDouble() * 0.6;
+            List<SpatialGrid.Neighbor> result = grid.nearest(lat, lon, 10);
+            List<Double> expected = bruteForceDistances(points, lat, lon).subList(0, 10);
+
+            assertEquals(10, result.size());
+            for (int i = 0; i < 10; i++) {
+                assertEquals(expected.get(i), result.get(i).distanceMeters(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void withinRadius_MatchesBruteForce() {
+        Random random = new Random(7);
+        SpatialGrid grid = new SpatialGrid(0.02);
+        double[][] points = scatter(grid, random);
+
+        for (double radius : new double[]{500, 3_000, 25_000, 500_000}) {
+            double lat = 12.97;
+            double lon = 77.59;
+            long expected = bruteForceDistances(points, lat, lon).stream().filter(d -> d <= radius).count();
+            List<SpatialGrid.Neighbor> result = grid.withinRadius(lat, lon, radius);
+
+            assertEquals(expected, result.size(), "radius " + radius);
+            for (int i = 1; i < result.size(); i++) {
+                assertTrue(result.get(i - 1).distanceMeters() <= result.get(i).distanceMeters());
+            }
+        }
+    }
+
+    @Test
+    void put_MovesPointBetweenCells() {
+        SpatialGrid grid = new SpatialGrid(0.02);
+        grid.put(1L, 12.97, 77.59);
+        grid.put(1L, 13.50, 78.10);
+
+        assertTrue(grid.withinRadius(12.97, 77.59, 1_000).isEmpty());
+        assertEquals(1L, grid.nearest(13.50, 78.10, 1).get(0).id());
+        assertEquals(1, grid.size());
+    }
+
+    @Test
+    void nearest_FindsIsolatedPointFarAway() {
+        SpatialGrid grid = new SpatialGrid(0.02);
+        grid.put(1L, 12.97, 77.59);
+        grid.put(2L, 28.61, 77.21);
+
+        List<SpatialGrid.Neighbor> result = grid.nearest(28.60, 77.20, 2);
+
+        assertEquals(List.of(2L, 1L), result.stream().map(SpatialGrid.Neighbor::id).toList());
+    }
+
+    private static double[][] scatter(SpatialGrid grid, Random random) {
+        // Roughly a metro area, with a denser cluster around a depot
+        double[][] points = new double[VEHICLES][];
+        for (int i = 0; i < VEHICLES; i++) {
+            boolean depot = i % 4 == 0;
+            double lat = depot ? 12.97 + random.nextGaussian() * 0.005 : 12.7 + random.nextDouble() * 0.6;
+            double lon = depot ? 77.59 + random.nextGaussian() * 0.005 : 77.3 + random.nextDouble() * 0.6;
+            points[i] = new double[]{lat, lon};
+            grid.put(i, lat, lon);
+        }
+        return points;
+    }
+
+    private static List<Double> bruteForceDistances(double[][] points, double lat, double lon) {
+        List<Double> distances = new ArrayList<>(points.length);
+        for (double[] point : points) {
+            distances.add(GeoUtils.haversineMeters(lat, lon, point[0], point[1]));
+        }
+        distances.sort(Comparator.naturalOrder());
+        return distances;
+    }
+}
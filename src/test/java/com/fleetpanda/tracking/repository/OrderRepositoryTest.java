@@ -0,0 +1,124 @@
+package com.fleetpanda.tracking.repository;
+
+import com.fleetpanda.tracking.entity.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Product product;
+    private Vehicle vehicle;
+    private Terminal terminal;
+
+    @BeforeEach
+    void seed() {
+        product = new Product();
+        product.setName("Diesel");
+        product.setType(Product.ProductType.DIESEL);
+        entityManager.persist(product);
+        vehicle = persistVehicle("KA-01-1");
+        terminal = persistTerminal("A");
+    }
+
+    @Test
+    void updateStatusForVehicleAtTerminal_MovesOnlyTheActiveShiftsPendingOrdersForThatTerminal() {
+        Shift active = persistShift("Asha", vehicle, Shift.ShiftStatus.ACTIVE);
+        Order first = persistOrder(active, terminal, Order.OrderStatus.PENDING);
+        Order second = persistOrder(active, terminal, Order.OrderStatus.PENDING);
+        Order completed = persistOrder(active, terminal, Order.OrderStatus.COMPLETED);
+        Order otherTerminal = persistOrder(active, persistTerminal("B"), Order.OrderStatus.PENDING);
+        Order scheduledShift = persistOrder(persistShift("Ravi", vehicle, Shift.ShiftStatus.SCHEDULED),
+                terminal, Order.OrderStatus.PENDING);
+        Order endedShift = persistOrder(persistShift("Meena", vehicle, Shift.ShiftStatus.COMPLETED),
+                terminal, Order.OrderStatus.PENDING);
+        Order otherVehicle = persistOrder(persistShift("Kiran", persistVehicle("KA-01-2"), Shift.ShiftStatus.ACTIVE),
+                terminal, Order.OrderStatus.PENDING);
+        entityManager.flush();
+
+        int updated = orderRepository.updateStatusForVehicleAtTerminal(vehicle.getId(), terminal.getId(),
+                Shift.ShiftStatus.ACTIVE, Order.OrderStatus.PENDING, Order.OrderStatus.IN_TRANSIT);
+        entityManager.clear();
+
+        assertEquals(2, updated);
+        assertEquals(Order.OrderStatus.IN_TRANSIT, statusOf(first));
+        assertEquals(Order.OrderStatus.IN_TRANSIT, statusOf(second));
+        assertEquals(Order.OrderStatus.COMPLETED, statusOf(completed));
+        assertEquals(Order.OrderStatus.PENDING, statusOf(otherTerminal));
+        assertEquals(Order.OrderStatus.PENDING, statusOf(scheduledShift));
+        assertEquals(Order.OrderStatus.PENDING, statusOf(endedShift));
+        assertEquals(Order.OrderStatus.PENDING, statusOf(otherVehicle));
+    }
+
+    @Test
+    void updateStatusForVehicleAtTerminal_WithoutAnActiveShift_MovesNothing() {
+        Order order = persistOrder(persistShift("Asha", vehicle, Shift.ShiftStatus.SCHEDULED), terminal,
+                Order.OrderStatus.PENDING);
+        entityManager.flush();
+
+        assertEquals(0, orderRepository.updateStatusForVehicleAtTerminal(vehicle.getId(), terminal.getId(),
+                Shift.ShiftStatus.ACTIVE, Order.OrderStatus.PENDING, Order.OrderStatus.IN_TRANSIT));
+        entityManager.clear();
+        assertEquals(Order.OrderStatus.PENDING, statusOf(order));
+    }
+
+    private Order.OrderStatus statusOf(Order order) {
+        return orderRepository.findById(order.getId()).orElseThrow().getStatus();
+    }
+
+    private Vehicle persistVehicle(String plate) {
+        Vehicle v = new Vehicle();
+        v.setLicensePlate(plate);
+        v.setCapacity(1000.0);
+        v.setStatus(Vehicle.VehicleStatus.AVAILABLE);
+        entityManager.persist(v);
+        return v;
+    }
+
+    private Terminal persistTerminal(String name) {
+        Terminal t = new Terminal();
+        t.setName(name);
+        t.setLatitude(12.97);
+        t.setLongitude(77.59);
+        entityManager.persist(t);
+        return t;
+    }
+
+    // One driver per shift, so no two shifts compete for a driver
+    private Shift persistShift(String driverName, Vehicle v, Shift.ShiftStatus status) {
+        Driver driver = new Driver();
+        driver.setName(driverName);
+        driver.setLicenseNumber("DL-" + driverName);
+        driver.setStatus(Driver.DriverStatus.ACTIVE);
+        entityManager.persist(driver);
+        Shift shift = new Shift();
+        shift.setDriver(driver);
+        shift.setVehicle(v);
+        shift.setStatus(status);
+        entityManager.persist(shift);
+        return shift;
+    }
+
+    private Order persistOrder(Shift shift, Terminal t, Order.OrderStatus status) {
+        Order order = new Order();
+        order.setShift(shift);
+        order.setTerminal(t);
+        order.setProduct(product);
+        order.setQuantity(100.0);
+        order.setStatus(status);
+        entityManager.persist(order);
+        return order;
+    }
+}
@@ -0,0 +1,179 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.*;
+import com.fleetpanda.tracking.entity.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(AdminListingService.class)
+class AdminListingServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 11, 29);
+
+    @Autowired
+    private AdminListingService listingService;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Driver driver;
+    private Shift activeShift;
+    private Terminal terminalA;
+    private Terminal terminalB;
+
+    @BeforeEach
+    void seed() {
+        Product product = new Product();
+        product.setName("Diesel");
+        product.setType(Product.ProductType.DIESEL);
+        entityManager.persist(product);
+
+        driver = persistDriver("Asha");
+        Driver other = persistDriver("Ravi");
+        Vehicle vehicle = persistVehicle("KA-01-1");
+        Vehicle otherVehicle = persistVehicle("KA-01-2");
+
+        persistAllocation(driver, vehicle, DAY);
+        persistAllocation(other, otherVehicle, DAY.plusDays(1));
+
+        activeShift = persistShift(driver, vehicle, Shift.ShiftStatus.ACTIVE);
+        persistShift(driver, vehicle, Shift.ShiftStatus.COMPLETED);
+        persistShift(other, otherVehicle, Shift.ShiftStatus.SCHEDULED);
+
+        terminalA = persistTerminal("A");
+        terminalB = persistTerminal("B");
+        for (int i = 0; i < 10; i++) {
+            Order order = new Order();
+            order.setShift(activeShift);
+            order.setTerminal(i % 2 == 0 ? terminalA : terminalB);
+            order.setProduct(product);
+            order.setQuantity(10.0 * i);
+            order.setStatus(i < 7 ? Order.OrderStatus.PENDING : Order.OrderStatus.COMPLETED);
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void findOrders_PagesThroughAllRowsNewestFirst() {
+        List<Long> ids = new ArrayList<>();
+        Long cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDTO<OrderSummaryDTO> page = listingService.findOrders(null, null, null, null, null, cursor, 3);
+            page.getItems().forEach(order -> ids.add(order.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(10, ids.size());
+        assertEquals(4, pages);
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) > ids.get(i));
+        }
+    }
+
+    @Test
+    void findOrders_CombinesFilters() {
+        CursorPageDTO<OrderSummaryDTO> page = listingService.findOrders(Order.OrderStatus.PENDING,
+                terminalA.getId(), activeShift.getId(), null, null, null, null);
+
+        assertEquals(4, page.getItems().size());
+        assertNull(page.getNextCursor());
+        OrderSummaryDTO first = page.getItems().get(0);
+        assertEquals("A", first.getTerminalName());
+        assertEquals("Asha", first.getDriverName());
+        assertEquals("KA-01-1", first.getLicensePlate());
+    }
+
+    @Test
+    void findOrders_FiltersByCreationRange() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertEquals(10, listingService.findOrders(null, null, null, now.minusHours(1), now.plusHours(1), null, null)
+                .getItems().size());
+        assertTrue(listingService.findOrders(null, null, null, now.plusHours(1), now.plusHours(2), null, null)
+                .getItems().isEmpty());
+        assertThrows(RuntimeException.class,
+                () -> listingService.findOrders(null, null, null, now, now, null, null));
+    }
+
+    @Test
+    void findShifts_FiltersByStatusAndDriver() {
+        assertEquals(2, listingService.findShifts(null, driver.getId(), null, null).getItems().size());
+
+        List<ShiftSummaryDTO> active = listingService.findShifts(Shift.ShiftStatus.ACTIVE, driver.getId(), null, null)
+                .getItems();
+        assertEquals(1, active.size());
+        assertEquals(activeShift.getId(), active.get(0).getId());
+    }
+
+    @Test
+    void findAllocations_FiltersByDate() {
+        List<AllocationSummaryDTO> allocations = listingService.findAllocations(DAY, null, null).getItems();
+
+        assertEquals(1, allocations.size());
+        assertEquals("Asha", allocations.get(0).getDriverName());
+    }
+
+    @Test
+    void findInventory_RejectsOversizedPages() {
+        assertThrows(RuntimeException.class,
+                () -> listingService.findInventory(null, null, null, null, AdminListingService.MAX_LIMIT + 1));
+    }
+
+    private Driver persistDriver(String name) {
+        Driver d = new Driver();
+        d.setName(name);
+        d.setLicenseNumber("DL-" + name);
+        d.setStatus(Driver.DriverStatus.ACTIVE);
+        entityManager.persist(d);
+        return d;
+    }
+
+    private Vehicle persistVehicle(String plate) {
+        Vehicle v = new Vehicle();
+        v.setLicensePlate(plate);
+        v.setCapacity(1000.0);
+        v.setStatus(Vehicle.VehicleStatus.AVAILABLE);
+        entityManager.persist(v);
+        return v;
+    }
+
+    private Terminal persistTerminal(String name) {
+        Terminal t = new Terminal();
+        t.setName(name);
+        entityManager.persist(t);
+        return t;
+    }
+
+    private void persistAllocation(Driver d, Vehicle v, LocalDate date) {
+        VehicleAllocation allocation = new VehicleAllocation();
+        allocation.setDriver(d);
+        allocation.setVehicle(v);
+        allocation.setDate(date);
+        entityManager.persist(allocation);
+    }
+
+    private Shift persistShift(Driver d, Vehicle v, Shift.ShiftStatus status) {
+        Shift shift = new Shift();
+        shift.setDriver(d);
+        shift.setVehicle(v);
+        shift.setStatus(status);
+        entityManager.persist(shift);
+        return shift;
+    }
+}
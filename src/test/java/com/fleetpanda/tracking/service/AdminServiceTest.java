@@ -25,6 +25,8 @@ class AdminServiceTest {
     private DriverRepository driverRepository;
     @Mock
     private VehicleRepository vehicleRepository;
+    @Mock
+    private ReferenceDataCache referenceDataCache;
 
     @InjectMocks
     private AdminService adminService;
@@ -40,6 +42,27 @@ class AdminServiceTest {
         when(allocationRepository.findByVehicleIdAndDate(any(), any()))
                 .thenReturn(Optional.of(new VehicleAllocation()));
 
-        assertThrows(RuntimeException.class, () -> adminService.allocateVehicle(dto));
+        RuntimeException e = assertThrows(RuntimeException.class, () -> adminService.allocateVehicle(dto));
+        assertEquals("Vehicle ID 1 is already allocated for " + dto.getDate(), e.getMessage());
+    }
+
+    @Test
+    void getNearestVehicles_HubWithoutCoordinates() {
+        Hub hub = new Hub();
+        hub.setLatitude(12.97);
+        when(referenceDataCache.findHub(1L)).thenReturn(Optional.of(hub));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> adminService.getNearestVehicles(1L, null, null, null, 10));
+        assertEquals("Hub has no coordinates", e.getMessage());
+    }
+
+    @Test
+    void getVehiclesWithinRadius_TerminalWithoutCoordinates() {
+        when(referenceDataCache.findTerminal(2L)).thenReturn(Optional.of(new Terminal()));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> adminService.getVehiclesWithinRadius(null, 2L, null, null, 5000));
+        assertEquals("Terminal has no coordinates", e.getMessage());
     }
 }
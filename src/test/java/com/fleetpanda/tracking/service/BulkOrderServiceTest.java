@@ -0,0 +1,108 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.BulkOrderResultDTO;
+import com.fleetpanda.tracking.dto.OrderDTO;
+import com.fleetpanda.tracking.entity.Product;
+import com.fleetpanda.tracking.entity.Terminal;
+import com.fleetpanda.tracking.repository.ShiftRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkOrderServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private ShiftRepository shiftRepository;
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+    @Mock
+    private OpenOrderRegistry openOrderRegistry;
+
+    @InjectMocks
+    private BulkOrderService bulkOrderService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createOrders_ResolvesIdsOnceAndReportsBadRows() {
+        when(shiftRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(referenceDataCache.findTerminals(any())).thenReturn(Map.of(10L, new Terminal()));
+        when(referenceDataCache.findProducts(any())).thenReturn(Map.of(20L, new Product()));
+
+        List<OrderDTO> dtos = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            dtos.add(order(1L, 10L, 20L, 5.0));
+        }
+        dtos.add(order(2L, 10L, 20L, 5.0));
+        dtos.add(order(1L, 11L, 20L, 5.0));
+        dtos.add(order(1L, 10L, 21L, 5.0));
+        dtos.add(order(1L, 10L, 20L, 0.0));
+
+        BulkOrderResultDTO result = bulkOrderService.createOrders(dtos);
+
+        assertEquals(1004, result.getReceived());
+        assertEquals(1000, result.getCreated());
+        assertEquals(List.of(1000, 1001, 1002, 1003), result.getErrors().stream().map(e -> e.getIndex()).toList());
+        assertEquals("Shift not found", result.getErrors().get(0).getMessage());
+        assertEquals("Quantity must be positive", result.getErrors().get(3).getMessage());
+
+        ArgumentCaptor<Collection<Long>> shiftIds = ArgumentCaptor.forClass(Collection.class);
+        verify(shiftRepository, times(1)).findExistingIds(shiftIds.capture());
+        assertEquals(2, shiftIds.getValue().size());
+        verify(referenceDataCache, times(1)).findTerminals(any());
+        verify(referenceDataCache, times(1)).findProducts(any());
+
+        ArgumentCaptor<Collection<OrderDTO>> inserted = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), inserted.capture(), anyInt(), any());
+        assertEquals(1000, inserted.getValue().size());
+        verify(openOrderRegistry).reloadShiftsAfterCommit(Set.of(1L));
+    }
+
+    @Test
+    void createOrders_LeavesOrdersWithoutAShiftForDispatch() {
+        when(referenceDataCache.findTerminals(any())).thenReturn(Map.of(10L, new Terminal()));
+        when(referenceDataCache.findProducts(any())).thenReturn(Map.of(20L, new Product()));
+
+        BulkOrderResultDTO result = bulkOrderService.createOrders(List.of(order(null, 10L, 20L, 5.0)));
+
+        assertEquals(1, result.getCreated());
+        assertTrue(result.getErrors().isEmpty());
+        verify(shiftRepository, never()).findExistingIds(argThat(ids -> !ids.isEmpty()));
+    }
+
+    @Test
+    void createOrders_RejectsOversizedRequests() {
+        List<OrderDTO> dtos = new ArrayList<>();
+        for (int i = 0; i <= BulkOrderService.MAX_ORDERS; i++) {
+            dtos.add(order(1L, 10L, 20L, 1.0));
+        }
+
+        assertThrows(RuntimeException.class, () -> bulkOrderService.createOrders(dtos));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static OrderDTO order(Long shiftId, Long terminalId, Long productId, Double quantity) {
+        OrderDTO dto = new OrderDTO();
+        dto.setShiftId(shiftId);
+        dto.setTerminalId(terminalId);
+        dto.setProductId(productId);
+        dto.setQuantity(quantity);
+        return dto;
+    }
+}
@@ -0,0 +1,109 @@
+package com.fleetpanda.tracking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DispatchOptimizerTest {
+
+    private static final long BUDGET = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void solve_FillsTheNearestVehiclesAndLeavesWhatFitsNowhere() {
+        // Depot 0 is next to terminal 0, depot 1 next to terminal 1
+        double[][] meters = {{100, 9000}, {8000, 200}};
+        DispatchOptimizer.Problem problem = new DispatchOptimizer.Problem(meters,
+                new int[]{0, 0, 1}, new double[]{10, 10, 10},
+                new int[]{0, 0, 0, 1, 1}, new double[]{6, 6, 6, 4, 11});
+
+        DispatchOptimizer.Solution solution = DispatchOptimizer.solve(problem, BUDGET);
+
+        int[] vehicleOf = solution.vehicleOfOrder();
+        assertEquals(4, solution.assigned());
+        // Two of terminal 0's three orders fit at depot 0; the third goes to depot 1 alongside order 3
+        assertEquals(2, countAtDepot(problem, vehicleOf, 0, 0));
+        assertEquals(2, vehicleOf[3]);
+        assertEquals(1, countAtDepot(problem, vehicleOf, 0, 1));
+        // Larger than any vehicle
+        assertEquals(DispatchOptimizer.UNASSIGNED, vehicleOf[4]);
+        assertFeasible(problem, vehicleOf);
+    }
+
+    @Test
+    void solve_SwapsOrdersTheConstructionPutInTheWrongVehicle() {
+        // Order 1 has the largest regret and takes vehicle 0, order 2 takes vehicle 2, and order 0,
+        // whose regret looked small because depot 2 is close too, is left with far-away vehicle 1
+        double[][] meters = {{0, 0, 50}, {100, 60, 50}, {5, 60, 0}};
+        DispatchOptimizer.Problem problem = new DispatchOptimizer.Problem(meters,
+                new int[]{0, 1, 2}, new double[]{10, 10, 10},
+                new int[]{0, 1, 2}, new double[]{10, 10, 10});
+
+        DispatchOptimizer.Solution solution = DispatchOptimizer.solve(problem, BUDGET);
+
+        assertEquals(100, solution.constructionMeters(), 1e-9);
+        // Swapping order 0 with order 2 (saves 45) beats swapping it with order 1 (saves 40)
+        assertEquals(55, solution.meters(), 1e-9);
+        assertArrayEquals(new int[]{2, 0, 1}, solution.vehicleOfOrder());
+        assertEquals(1, solution.moves());
+    }
+
+    @Test
+    void solve_NeverOverloadsAndOnlyImprovesOnRandomInstances() {
+        Random random = new Random(7);
+        for (int instance = 0; instance < 20; instance++) {
+            int depots = 6;
+            int terminals = 40;
+            double[][] meters = new double[depots][terminals];
+            for (double[] row : meters) {
+                for (int t = 0; t < terminals; t++) {
+                    row[t] = random.nextDouble() * 50_000;
+                }
+            }
+            int[] vehicleDepot = new int[30];
+            double[] capacity = new double[30];
+            for (int v = 0; v < vehicleDepot.length; v++) {
+                vehicleDepot[v] = random.nextInt(depots);
+                capacity[v] = 20 + random.nextInt(20);
+            }
+            int[] orderTerminal = new int[300];
+            double[] quantity = new double[300];
+            for (int o = 0; o < orderTerminal.length; o++) {
+                orderTerminal[o] = random.nextInt(terminals);
+                quantity[o] = 1 + random.nextInt(4);
+            }
+            DispatchOptimizer.Problem problem = new DispatchOptimizer.Problem(meters, vehicleDepot, capacity,
+                    orderTerminal, quantity);
+
+            DispatchOptimizer.Solution solution = DispatchOptimizer.solve(problem, BUDGET);
+
+            assertFeasible(problem, solution.vehicleOfOrder());
+            assertTrue(solution.meters() <= solution.constructionMeters() + 1e-6);
+        }
+    }
+
+    private static int countAtDepot(DispatchOptimizer.Problem problem, int[] vehicleOf, int terminal, int depot) {
+        int count = 0;
+        for (int o = 0; o < vehicleOf.length; o++) {
+            if (problem.orderTerminal()[o] == terminal && vehicleOf[o] != DispatchOptimizer.UNASSIGNED
+                    && problem.vehicleDepot()[vehicleOf[o]] == depot) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void assertFeasible(DispatchOptimizer.Problem problem, int[] vehicleOf) {
+        double[] load = new double[problem.vehicleCapacity().length];
+        for (int o = 0; o < vehicleOf.length; o++) {
+            if (vehicleOf[o] != DispatchOptimizer.UNASSIGNED) {
+                load[vehicleOf[o]] += problem.orderQuantity()[o];
+            }
+        }
+        for (int v = 0; v < load.length; v++) {
+            assertTrue(load[v] <= problem.vehicleCapacity()[v] + 1e-6, "vehicle " + v + " overloaded");
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.DispatchPlanDTO;
+import com.fleetpanda.tracking.dto.VehicleDispatchDTO;
+import com.fleetpanda.tracking.entity.Driver;
+import com.fleetpanda.tracking.entity.Hub;
+import com.fleetpanda.tracking.entity.Shift;
+import com.fleetpanda.tracking.entity.Vehicle;
+import com.fleetpanda.tracking.entity.VehicleAllocation;
+import com.fleetpanda.tracking.repository.OrderRepository;
+import com.fleetpanda.tracking.repository.ShiftLoadView;
+import com.fleetpanda.tracking.repository.UnassignedOrderView;
+import com.fleetpanda.tracking.repository.VehicleAllocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DispatchServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 11, 29);
+
+    @Mock
+    private VehicleAllocationRepository allocationRepository;
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private ShiftRegistry shiftRegistry;
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+    @Mock
+    private OpenOrderRegistry openOrderRegistry;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private LatestPositionRegistry latestPositionRegistry;
+    private DispatchService dispatchService;
+
+    @BeforeEach
+    void setUp() {
+        latestPositionRegistry = new LatestPositionRegistry(null, null);
+        dispatchService = new DispatchService(allocationRepository, orderRepository, shiftRegistry,
+                referenceDataCache, latestPositionRegistry, openOrderRegistry, jdbcTemplate, transactionTemplate);
+        ReflectionTestUtils.setField(dispatchService, "defaultTimeBudgetMs", 200L);
+        ReflectionTestUtils.setField(dispatchService, "maxTimeBudgetMs", 30_000L);
+        ReflectionTestUtils.setField(dispatchService, "batchSize", 500);
+
+        // Hub 1 in the south, hub 2 in the north
+        when(referenceDataCache.getAllHubs()).thenReturn(List.of(hub(1L, 12.90, 77.60), hub(2L, 13.10, 77.60)));
+        // Vehicle 10 parked by hub 2; vehicle 20 has never reported
+        when(allocationRepository.findByDate(DAY)).thenReturn(List.of(
+                allocation(100L, 1L, 10L, 100.0), allocation(200L, 2L, 20L, 100.0)));
+        latestPositionRegistry.update(10L, 13.09, 77.60, LocalDateTime.of(2025, 11, 28, 18, 0));
+        when(shiftRegistry.findNextShift(1L, 10L)).thenReturn(Optional.of(shift(1000L, 10L)));
+        when(shiftRegistry.findNextShift(2L, 20L)).thenReturn(Optional.of(shift(2000L, 20L)));
+        // Vehicle 10's shift already carries 60
+        when(orderRepository.sumQuantityByShift(any(), any())).thenReturn(List.of(load(1000L, 60.0)));
+        when(orderRepository.findUnassignedOrders(DAY.plusDays(1).atStartOfDay())).thenReturn(List.of(
+                order(1L, 30.0, 50L, 13.11, 77.60),
+                order(2L, 30.0, 51L, 12.89, 77.60),
+                order(3L, 30.0, 50L, 13.11, 77.60),
+                order(4L, 30.0, 52L, null, null),
+                order(5L, 150.0, 51L, 12.89, 77.60)));
+    }
+
+    @Test
+    void optimize_RespectsTheLoadAlreadyOnTheShift() {
+        DispatchPlanDTO plan = dispatchService.optimize(DAY, null, false);
+
+        assertEquals(5, plan.getOrders());
+        assertEquals(3, plan.getAssignedOrders());
+        assertEquals(0, plan.getAppliedOrders());
+        // No coordinates, and too large for any vehicle
+        assertEquals(List.of(4L, 5L), plan.getUnassignedOrderIds());
+        Map<Long, VehicleDispatchDTO> byVehicle = plan.getVehicles().stream()
+                .collect(Collectors.toMap(VehicleDispatchDTO::getVehicleId, Function.identity()));
+        VehicleDispatchDTO north = byVehicle.get(10L);
+        assertEquals(2L, north.getHubId());
+        assertEquals(1, north.getOrderIds().size());
+        assertEquals(90.0, north.getLoad());
+        // Without a position the vehicle loads wherever is nearest, so it takes the rest
+        VehicleDispatchDTO floating = byVehicle.get(20L);
+        assertNull(floating.getHubId());
+        assertEquals(2, floating.getOrderIds().size());
+        assertTrue(floating.getOrderIds().contains(2L));
+        assertEquals(plan.getDistanceMeters(), north.getDistanceMeters() + floating.getDistanceMeters(), 0.2);
+        verifyNoInteractions(jdbcTemplate, transactionTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void optimize_WritesThePlanWhenApplying() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenReturn(new int[][]{{1, 1, 0}});
+
+        DispatchPlanDTO plan = dispatchService.optimize(DAY, 100L, true);
+
+        assertEquals(2, plan.getAppliedOrders());
+        ArgumentCaptor<Collection<long[]>> assignments = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(contains("shift_id IS NULL"), assignments.capture(), eq(500), any());
+        assertEquals(3, assignments.getValue().size());
+        verify(openOrderRegistry).reloadShiftsAfterCommit(argThat(ids -> ids.containsAll(List.of(1000L, 2000L))));
+    }
+
+    private static Hub hub(Long id, double latitude, double longitude) {
+        Hub hub = new Hub();
+        hub.setId(id);
+        hub.setLatitude(latitude);
+        hub.setLongitude(longitude);
+        return hub;
+    }
+
+    private static VehicleAllocation allocation(Long id, Long driverId, Long vehicleId, Double capacity) {
+        Driver driver = new Driver();
+        driver.setId(driverId);
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(vehicleId);
+        vehicle.setCapacity(capacity);
+        VehicleAllocation allocation = new VehicleAllocation();
+        allocation.setId(id);
+        allocation.setDriver(driver);
+        allocation.setVehicle(vehicle);
+        allocation.setDate(DAY);
+        return allocation;
+    }
+
+    private static Shift shift(Long id, Long vehicleId) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(vehicleId);
+        Shift shift = new Shift();
+        shift.setId(id);
+        shift.setVehicle(vehicle);
+        shift.setStatus(Shift.ShiftStatus.SCHEDULED);
+        return shift;
+    }
+
+    private static ShiftLoadView load(Long shiftId, Double quantity) {
+        return new ShiftLoadView() {
+            public Long getShiftId() {
+                return shiftId;
+            }
+
+            public Double getQuantity() {
+                return quantity;
+            }
+        };
+    }
+
+    private static UnassignedOrderView order(Long id, Double quantity, Long terminalId, Double latitude,
+                                             Double longitude) {
+        return new UnassignedOrderView() {
+            public Long getId() {
+                return id;
+            }
+
+            public Double getQuantity() {
+                return quantity;
+            }
+
+            public Long getTerminalId() {
+                return terminalId;
+            }
+
+            public Double getTerminalLatitude() {
+                return latitude;
+            }
+
+            public Double getTerminalLongitude() {
+                return longitude;
+            }
+        };
+    }
+}
@@ -1,17 +1,24 @@
 package com.fleetpanda.tracking.service;
 
+import com.fleetpanda.tracking.dto.GpsLogDTO;
 import com.fleetpanda.tracking.entity.*;
 import com.fleetpanda.tracking.repository.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,6 +28,20 @@ class DriverServiceTest {
     private OrderRepository orderRepository;
     @Mock
     private InventoryRepository inventoryRepository;
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+    @Mock
+    private GpsIngestService gpsIngestService;
+    @Mock
+    private InventoryHistoryService inventoryHistoryService;
+    @Mock
+    private ShiftRepository shiftRepository;
+    @Mock
+    private ShiftRegistry shiftRegistry;
+    @Mock
+    private TripAnalyticsService tripAnalyticsService;
+    @Mock
+    private OpenOrderRegistry openOrderRegistry;
 
     @InjectMocks
     private DriverService driverService;
@@ -40,15 +61,137 @@ class DriverServiceTest {
         product.setId(1L);
         order.setProduct(product);
 
+        // The conditional update writes the row, so only the reload after it sees COMPLETED
+        when(orderRepository.updateStatusIfChanged(1L, Order.OrderStatus.COMPLETED)).thenAnswer(invocation -> {
+            order.setStatus(Order.OrderStatus.COMPLETED);
+            return 1;
+        });
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any())).thenAnswer(i -> i.getArgument(0));
-        when(inventoryRepository.findByLocationIdAndLocationTypeAndProductId(any(), any(), any()))
-                .thenReturn(Optional.empty()); // New inventory
-        when(inventoryRepository.save(any())).thenAnswer(i -> i.getArgument(0));
 
         Order result = driverService.completeDelivery(1L);
 
         assertEquals(Order.OrderStatus.COMPLETED, result.getStatus());
-        verify(inventoryRepository).save(any());
+        InOrder inOrder = inOrder(orderRepository);
+        inOrder.verify(orderRepository).updateStatusIfChanged(1L, Order.OrderStatus.COMPLETED);
+        inOrder.verify(orderRepository).findById(1L);
+        verify(inventoryRepository).addQuantity(1L, "TERMINAL", 1L, 100.0);
+        verify(inventoryHistoryService).recordMovement(Inventory.LocationType.TERMINAL, 1L, product, 100.0,
+                InventoryMovement.MovementType.DELIVERY, 1L);
+        verify(openOrderRegistry).removeAfterCommit(1L);
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void completeDelivery_AlreadyCompletedLeavesInventoryAlone() {
+        when(orderRepository.updateStatusIfChanged(1L, Order.OrderStatus.COMPLETED)).thenReturn(0);
+        when(orderRepository.existsById(1L)).thenReturn(true);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> driverService.completeDelivery(1L));
+
+        assertEquals("Order already completed", error.getMessage());
+        verifyNoInteractions(inventoryRepository, inventoryHistoryService);
+    }
+
+    @Test
+    void startShift_ActivatesTheNextScheduledShiftFromTheRegistry() {
+        runDriverLockInline();
+        Shift scheduled = scheduledShift(5L, 7L);
+        when(shiftRegistry.findActive(7L)).thenReturn(Optional.empty());
+        when(shiftRegistry.findNextScheduled(7L)).thenReturn(Optional.of(scheduled));
+        when(shiftRepository.start(eq(5L), any())).thenReturn(1);
+
+        Shift result = driverService.startShift(7L);
+
+        assertEquals(Shift.ShiftStatus.ACTIVE, result.getStatus());
+        assertNotNull(result.getStartTime());
+        assertEquals(Shift.ShiftStatus.SCHEDULED, scheduled.getStatus(), "registry copies stay untouched");
+        verify(shiftRegistry).update(result);
+        verify(tripAnalyticsService).start(result);
+        verify(shiftRepository, never()).findByDriverIdAndStatus(any(), any());
+    }
+
+    @Test
+    void endShift_StoresTheMeasuredTrip() {
+        runDriverLockInline();
+        Shift active = scheduledShift(5L, 7L);
+        active.setStatus(Shift.ShiftStatus.ACTIVE);
+        TripSummary trip = new TripSummary(12_500.0, 2400L, 900L, 54.0, 3300L);
+        when(shiftRegistry.findOpenShift(5L)).thenReturn(Optional.of(active));
+        when(tripAnalyticsService.summarize(active)).thenReturn(Optional.of(trip));
+        when(shiftRepository.end(eq(5L), any(), eq(trip))).thenReturn(1);
+
+        Shift result = driverService.endShift(5L);
+
+        assertEquals(Shift.ShiftStatus.COMPLETED, result.getStatus());
+        assertSame(trip, result.getTripSummary());
+        verify(tripAnalyticsService).finish(result);
+    }
+
+    @Test
+    void getActiveShift_IncludesTheTripSoFar() {
+        Shift active = scheduledShift(5L, 7L);
+        active.setStatus(Shift.ShiftStatus.ACTIVE);
+        TripSummary trip = new TripSummary(800.0, 120L, 30L, 40.0, 150L);
+        when(shiftRegistry.findActive(7L)).thenReturn(Optional.of(active));
+        when(tripAnalyticsService.summarize(active)).thenReturn(Optional.of(trip));
+
+        Shift result = driverService.getActiveShift(7L);
+
+        assertSame(trip, result.getTripSummary());
+        assertNull(active.getTripSummary(), "registry copies stay untouched");
+    }
+
+    @Test
+    void startShift_ResyncsWhenTheShiftWasStartedElsewhere() {
+        runDriverLockInline();
+        when(shiftRegistry.findActive(7L)).thenReturn(Optional.empty());
+        when(shiftRegistry.findNextScheduled(7L)).thenReturn(Optional.of(scheduledShift(5L, 7L)));
+        when(shiftRepository.start(eq(5L), any())).thenReturn(0);
+
+        assertThrows(RuntimeException.class, () -> driverService.startShift(7L));
+        verify(shiftRegistry).reload(7L);
+        verify(shiftRegistry, never()).update(any());
+    }
+
+    @Test
+    void startShift_RejectsASecondActiveShift() {
+        runDriverLockInline();
+        when(shiftRegistry.findActive(7L)).thenReturn(Optional.of(new Shift()));
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> driverService.startShift(7L));
+
+        assertEquals("Driver already has an active shift", error.getMessage());
+        verifyNoInteractions(shiftRepository);
+    }
+
+    @Test
+    void sendGpsUpdate_KafkaModePublishesWithoutTouchingTheDatabase() {
+        ReflectionTestUtils.setField(driverService, "gpsIngestMode", "kafka");
+
+        GpsLogDTO dto = new GpsLogDTO();
+        dto.setVehicleId(7L);
+        dto.setLatitude(12.9716);
+        dto.setLongitude(77.5946);
+        dto.setTimestamp(LocalDateTime.of(2025, 11, 29, 10, 0));
+
+        driverService.sendGpsUpdate(dto);
+
+        verify(kafkaTemplate).send(GpsUpdateCodec.TOPIC, "7", GpsUpdateCodec.encode(dto));
+        verifyNoInteractions(gpsIngestService);
+        assertEquals(dto, GpsUpdateCodec.decode(GpsUpdateCodec.encode(dto)));
+    }
+
+    private void runDriverLockInline() {
+        when(shiftRegistry.withDriverLock(any(), any())).thenAnswer(i -> ((Supplier<?>) i.getArgument(1)).get());
+    }
+
+    private static Shift scheduledShift(Long shiftId, Long driverId) {
+        Driver driver = new Driver();
+        driver.setId(driverId);
+        Shift shift = new Shift();
+        shift.setId(shiftId);
+        shift.setDriver(driver);
+        shift.setStatus(Shift.ShiftStatus.SCHEDULED);
+        return shift;
     }
 }
@@ -0,0 +1,218 @@
+package com.fleetpanda.tracking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fleetpanda.tracking.dto.VehiclePositionDTO;
+import com.fleetpanda.tracking.repository.GpsLogRepository;
+import com.fleetpanda.tracking.repository.VehicleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedConstruction;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives {@link FleetStreamService} against a real {@link LatestPositionRegistry}. The emitters the
+ * service creates are replaced with mocks, so every event it sends can be read back.
+ */
+@ExtendWith(MockitoExtension.class)
+class FleetStreamServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 29, 10, 0);
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+    @Mock
+    private GpsLogRepository gpsLogRepository;
+
+    private LatestPositionRegistry registry;
+    private ObjectMapper objectMapper;
+    private FleetStreamService fleetStreamService;
+    private MockedConstruction<SseEmitter> emitters;
+
+    @BeforeEach
+    void setUp() {
+        registry = new LatestPositionRegistry(vehicleRepository, gpsLogRepository);
+        objectMapper = spy(new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        fleetStreamService = new FleetStreamService(registry, objectMapper);
+        emitters = mockConstruction(SseEmitter.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emitters.close();
+    }
+
+    @Test
+    void subscribe_SendsTheCurrentPositionsAsASnapshot() throws IOException {
+        registry.update(2L, 13.00, 77.60, T0);
+        registry.update(1L, 12.97, 77.59, T0);
+
+        SseEmitter emitter = fleetStreamService.subscribe();
+
+        List<Event> events = eventsSentTo(emitter);
+        assertEquals(1, events.size());
+        assertEquals("snapshot", events.get(0).name());
+        assertEquals(json(List.of(position(1L, 12.97, 77.59, T0), position(2L, 13.00, 77.60, T0))),
+                events.get(0).data());
+        assertEquals(1, fleetStreamService.getSubscriberCount());
+    }
+
+    @Test
+    void publishChanges_SendsEverySubscriberTheSameCoalescedDelta() throws IOException {
+        SseEmitter first = fleetStreamService.subscribe();
+        SseEmitter second = fleetStreamService.subscribe();
+        registry.update(1L, 12.97, 77.59, T0);
+        registry.update(1L, 12.98, 77.59, T0.plusSeconds(5));
+        registry.update(1L, 12.99, 77.59, T0.plusSeconds(10));
+        registry.update(2L, 13.00, 77.60, T0.plusSeconds(5));
+        clearInvocations(objectMapper);
+
+        fleetStreamService.publishChanges();
+        // Serialized once for both subscribers
+        verify(objectMapper, times(1)).writeValueAsString(any());
+
+        // Three fixes for vehicle 1 in one tick go out as its latest position only
+        String expected = json(List.of(position(1L, 12.99, 77.59, T0.plusSeconds(10)),
+                position(2L, 13.00, 77.60, T0.plusSeconds(5))));
+        Event toFirst = eventsSentTo(first).get(1);
+        Event toSecond = eventsSentTo(second).get(1);
+        assertEquals("delta", toFirst.name());
+        assertEquals(expected, sortedByVehicle(toFirst.data()));
+        assertEquals(toFirst, toSecond);
+
+        // Nothing moved since, so the next tick sends nothing
+        fleetStreamService.publishChanges();
+        assertEquals(2, eventsSentTo(first).size());
+        assertEquals(2, eventsSentTo(second).size());
+    }
+
+    @Test
+    void publishChanges_DrainsChangesEvenWithoutSubscribers() throws IOException {
+        registry.update(1L, 12.97, 77.59, T0);
+
+        fleetStreamService.publishChanges();
+        SseEmitter emitter = fleetStreamService.subscribe();
+        fleetStreamService.publishChanges();
+
+        // The move reached the new subscriber through its snapshot, never as a stale delta
+        List<Event> events = eventsSentTo(emitter);
+        assertEquals(1, events.size());
+        assertEquals("snapshot", events.get(0).name());
+        assertTrue(registry.drainChanged().isEmpty());
+    }
+
+    @Test
+    void publishChanges_DropsSubscribersWhoseSendFails() throws IOException {
+        SseEmitter broken = fleetStreamService.subscribe();
+        SseEmitter completed = fleetStreamService.subscribe();
+        SseEmitter healthy = fleetStreamService.subscribe();
+        doThrow(new IOException("Broken pipe")).when(broken).send(any(SseEmitter.SseEventBuilder.class));
+        doThrow(new IllegalStateException("ResponseBodyEmitter has already completed"))
+                .when(completed).send(any(SseEmitter.SseEventBuilder.class));
+        registry.update(1L, 12.97, 77.59, T0);
+
+        assertDoesNotThrow(() -> fleetStreamService.publishChanges());
+
+        assertEquals(1, fleetStreamService.getSubscriberCount());
+        registry.update(1L, 12.98, 77.59, T0.plusSeconds(5));
+        fleetStreamService.publishChanges();
+        verify(broken, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(completed, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(3, eventsSentTo(healthy).size());
+    }
+
+    @Test
+    void subscribe_DropsAnEmitterWhoseSnapshotFails() throws IOException {
+        emitters.close();
+        emitters = mockConstruction(SseEmitter.class, (emitter, context) ->
+                doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class)));
+
+        SseEmitter emitter = fleetStreamService.subscribe();
+
+        assertEquals(0, fleetStreamService.getSubscriberCount());
+        verify(emitter).completeWithError(any(IOException.class));
+    }
+
+    @Test
+    void timedOutCompletedAndFailedEmitters_AreRemoved() {
+        SseEmitter timedOut = fleetStreamService.subscribe();
+        SseEmitter completed = fleetStreamService.subscribe();
+        SseEmitter failed = fleetStreamService.subscribe();
+        assertEquals(3, fleetStreamService.getSubscriberCount());
+
+        ArgumentCaptor<Runnable> onTimeout = ArgumentCaptor.forClass(Runnable.class);
+        verify(timedOut).onTimeout(onTimeout.capture());
+        onTimeout.getValue().run();
+        assertEquals(2, fleetStreamService.getSubscriberCount());
+
+        ArgumentCaptor<Runnable> onCompletion = ArgumentCaptor.forClass(Runnable.class);
+        verify(completed).onCompletion(onCompletion.capture());
+        onCompletion.getValue().run();
+        assertEquals(1, fleetStreamService.getSubscriberCount());
+
+        ArgumentCaptor<Consumer<Throwable>> onError = ArgumentCaptor.captor();
+        verify(failed).onError(onError.capture());
+        onError.getValue().accept(new IOException("Connection reset"));
+        assertEquals(0, fleetStreamService.getSubscriberCount());
+    }
+
+    /**
+     * Renders every event sent to the emitter back into its name and data.
+     */
+    private static List<Event> eventsSentTo(SseEmitter emitter) throws IOException {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> captor = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, atLeast(0)).send(captor.capture());
+        return captor.getAllValues().stream().map(FleetStreamServiceTest::render).toList();
+    }
+
+    private static Event render(SseEmitter.SseEventBuilder builder) {
+        StringBuilder text = new StringBuilder();
+        for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+            text.append(part.getData());
+        }
+        String event = text.toString();
+        String name = event.substring("event:".length(), event.indexOf('\n'));
+        String data = event.substring(event.indexOf("data:") + "data:".length(), event.lastIndexOf("\n\n"));
+        return new Event(name, data);
+    }
+
+    private String sortedByVehicle(String data) throws IOException {
+        List<VehiclePositionDTO> positions = List.of(objectMapper.readValue(data, PositionJson[].class)).stream()
+                .sorted(Comparator.comparing(PositionJson::vehicleId))
+                .map(p -> position(p.vehicleId(), p.latitude(), p.longitude(), p.timestamp()))
+                .toList();
+        return json(positions);
+    }
+
+    private String json(List<VehiclePositionDTO> positions) throws IOException {
+        return objectMapper.writeValueAsString(positions);
+    }
+
+    private static VehiclePositionDTO position(Long vehicleId, double latitude, double longitude, LocalDateTime timestamp) {
+        return new VehiclePositionDTO(vehicleId, null, latitude, longitude, timestamp);
+    }
+
+    private record Event(String name, String data) {
+    }
+
+    private record PositionJson(Long vehicleId, String licensePlate, Double latitude, Double longitude,
+                                LocalDateTime timestamp) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.*;
+import com.fleetpanda.tracking.repository.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Follows an arrival from the transaction that publishes it, the way the GPS ingest does,
+ * through {@link GeofenceOrderTransitioner} to the orders in the database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class GeofenceArrivalTransitTest {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ShiftRepository shiftRepository;
+    @Autowired
+    private DriverRepository driverRepository;
+    @Autowired
+    private VehicleRepository vehicleRepository;
+    @Autowired
+    private TerminalRepository terminalRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void arrivalPublishedInACommittedTransaction_MovesTheOrdersToInTransit() throws InterruptedException {
+        Product product = new Product();
+        product.setName("Transit Diesel");
+        product.setType(Product.ProductType.DIESEL);
+        productRepository.save(product);
+        Terminal terminal = new Terminal();
+        terminal.setName("Transit Terminal");
+        terminal.setLatitude(12.97);
+        terminal.setLongitude(77.59);
+        terminalRepository.save(terminal);
+
+        Shift rolledBack = saveActiveShift("TRANSIT-1");
+        Shift committed = saveActiveShift("TRANSIT-2");
+        Order rolledBackOrder = saveOrder(rolledBack, terminal, product);
+        Order committedOrder = saveOrder(committed, terminal, product);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(arrival(rolledBack.getVehicle().getId(), terminal.getId()));
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status ->
+                eventPublisher.publishEvent(arrival(committed.getVehicle().getId(), terminal.getId())));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (statusOf(committedOrder) != Order.OrderStatus.IN_TRANSIT && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(Order.OrderStatus.IN_TRANSIT, statusOf(committedOrder));
+        // Arrivals are applied in order on one thread, so the rolled-back one would have been applied by now
+        assertEquals(Order.OrderStatus.PENDING, statusOf(rolledBackOrder));
+    }
+
+    private Shift saveActiveShift(String name) {
+        Driver driver = new Driver();
+        driver.setName(name);
+        driver.setLicenseNumber("DL-" + name);
+        driver.setStatus(Driver.DriverStatus.ACTIVE);
+        driverRepository.save(driver);
+        Vehicle vehicle = new Vehicle();
+        vehicle.setLicensePlate("KA-" + name);
+        vehicle.setCapacity(1000.0);
+        vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
+        vehicleRepository.save(vehicle);
+        Shift shift = new Shift();
+        shift.setDriver(driver);
+        shift.setVehicle(vehicle);
+        shift.setStatus(Shift.ShiftStatus.ACTIVE);
+        return shiftRepository.save(shift);
+    }
+
+    private Order saveOrder(Shift shift, Terminal terminal, Product product) {
+        Order order = new Order();
+        order.setShift(shift);
+        order.setTerminal(terminal);
+        order.setProduct(product);
+        order.setQuantity(100.0);
+        order.setStatus(Order.OrderStatus.PENDING);
+        return orderRepository.save(order);
+    }
+
+    private Order.OrderStatus statusOf(Order order) {
+        return orderRepository.findById(order.getId()).orElseThrow().getStatus();
+    }
+
+    private static GeofenceEvent arrival(Long vehicleId, Long terminalId) {
+        return new GeofenceEvent(GeofenceEvent.Type.ARRIVAL, vehicleId, Inventory.LocationType.TERMINAL, terminalId,
+                12.97, 77.59, LocalDateTime.now());
+    }
+}
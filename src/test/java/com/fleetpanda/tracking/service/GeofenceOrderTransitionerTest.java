@@ -0,0 +1,132 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.GeofenceTransitStatsDTO;
+import com.fleetpanda.tracking.entity.Inventory;
+import com.fleetpanda.tracking.entity.Order;
+import com.fleetpanda.tracking.entity.Shift;
+import com.fleetpanda.tracking.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith({MockitoExtension.class, OutputCaptureExtension.class})
+class GeofenceOrderTransitionerTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private OpenOrderRegistry openOrderRegistry;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private GeofenceOrderTransitioner transitioner;
+
+    @BeforeEach
+    void setUp() {
+        transitioner = new GeofenceOrderTransitioner(orderRepository, openOrderRegistry,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        transitioner.stop();
+    }
+
+    @Test
+    void arrivalAtTerminal_MovesPendingOrdersToInTransitOffTheCallingThread() throws Exception {
+        CompletableFuture<String> updatingThread = new CompletableFuture<>();
+        when(orderRepository.updateStatusForVehicleAtTerminal(5L, 7L, Shift.ShiftStatus.ACTIVE,
+                Order.OrderStatus.PENDING, Order.OrderStatus.IN_TRANSIT)).thenAnswer(invocation -> {
+                    updatingThread.complete(Thread.currentThread().getName());
+                    return 2;
+                });
+
+        transitioner.onGeofenceEvent(event(GeofenceEvent.Type.ARRIVAL, Inventory.LocationType.TERMINAL));
+
+        String thread = updatingThread.get(5, TimeUnit.SECONDS);
+        assertNotEquals(Thread.currentThread().getName(), thread);
+        assertEquals("geofence-transitions", thread);
+        verify(openOrderRegistry, timeout(5000)).reloadVehicleAfterCommit(5L);
+        verify(transactionManager, timeout(5000)).commit(any());
+    }
+
+    @Test
+    void failedUpdate_IsOnlyLoggedAndLaterArrivalsStillApply(CapturedOutput output) {
+        when(orderRepository.updateStatusForVehicleAtTerminal(5L, 7L, Shift.ShiftStatus.ACTIVE,
+                Order.OrderStatus.PENDING, Order.OrderStatus.IN_TRANSIT))
+                .thenThrow(new QueryTimeoutException("lock timeout"))
+                .thenReturn(1);
+
+        assertDoesNotThrow(() -> transitioner.onGeofenceEvent(
+                event(GeofenceEvent.Type.ARRIVAL, Inventory.LocationType.TERMINAL)));
+        transitioner.onGeofenceEvent(event(GeofenceEvent.Type.ARRIVAL, Inventory.LocationType.TERMINAL));
+
+        verify(openOrderRegistry, timeout(5000)).reloadVehicleAfterCommit(5L);
+        verify(transactionManager, timeout(5000)).rollback(any());
+        assertTrue(output.getOut().contains("Could not move the orders of vehicle 5 at terminal 7 to IN_TRANSIT"));
+    }
+
+    @Test
+    void arrivalsTurnedAwayByAFullQueue_AreQueuedAgainByTheCatchUpPass() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderRepository.updateStatusForVehicleAtTerminal(eq(5L), eq(7L), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    return 0;
+                });
+        // The first arrival holds the thread and the next 10,000 fill the queue
+        for (int i = 0; i <= 10_000; i++) {
+            transitioner.onGeofenceEvent(event(GeofenceEvent.Type.ARRIVAL, Inventory.LocationType.TERMINAL));
+        }
+        GeofenceEvent overflow = new GeofenceEvent(GeofenceEvent.Type.ARRIVAL, 6L, Inventory.LocationType.TERMINAL,
+                8L, 12.97, 77.59, LocalDateTime.of(2025, 11, 29, 10, 0));
+        transitioner.onGeofenceEvent(overflow);
+        transitioner.onGeofenceEvent(overflow);
+
+        assertEquals(new GeofenceTransitStatsDTO(10_000, 2, 1), transitioner.getStats());
+        transitioner.catchUp();
+        assertEquals(1, transitioner.getStats().getAwaitingCatchUp(), "still full, so still set aside");
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (transitioner.getStats().getQueued() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        transitioner.catchUp();
+
+        verify(orderRepository, timeout(5000)).updateStatusForVehicleAtTerminal(6L, 8L, Shift.ShiftStatus.ACTIVE,
+                Order.OrderStatus.PENDING, Order.OrderStatus.IN_TRANSIT);
+        assertEquals(new GeofenceTransitStatsDTO(0, 2, 0), transitioner.getStats());
+    }
+
+    @Test
+    void departuresAndHubArrivals_AreIgnored() throws InterruptedException {
+        transitioner.onGeofenceEvent(event(GeofenceEvent.Type.DEPARTURE, Inventory.LocationType.TERMINAL));
+        transitioner.onGeofenceEvent(event(GeofenceEvent.Type.ARRIVAL, Inventory.LocationType.HUB));
+        transitioner.stop();
+
+        verifyNoInteractions(orderRepository, openOrderRegistry, transactionManager);
+    }
+
+    private static GeofenceEvent event(GeofenceEvent.Type type, Inventory.LocationType siteType) {
+        return new GeofenceEvent(type, 5L, siteType, 7L, 12.97, 77.59, LocalDateTime.of(2025, 11, 29, 10, 0));
+    }
+}
@@ -0,0 +1,142 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.Hub;
+import com.fleetpanda.tracking.entity.Inventory;
+import com.fleetpanda.tracking.entity.Terminal;
+import com.fleetpanda.tracking.repository.HubRepository;
+import com.fleetpanda.tracking.repository.TerminalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GeofenceServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 29, 10, 0);
+    // One metre of latitude in degrees
+    private static final double METER = 1 / 111_195.0;
+
+    @Mock
+    private HubRepository hubRepository;
+    @Mock
+    private TerminalRepository terminalRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private GeofenceService geofenceService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(geofenceService, "enabled", true);
+        ReflectionTestUtils.setField(geofenceService, "hubRadiusMeters", 300.0);
+        ReflectionTestUtils.setField(geofenceService, "terminalRadiusMeters", 150.0);
+        ReflectionTestUtils.setField(geofenceService, "exitMarginMeters", 50.0);
+
+        Terminal terminal = new Terminal();
+        terminal.setId(7L);
+        terminal.setLatitude(12.97);
+        terminal.setLongitude(77.59);
+        Hub hub = new Hub();
+        hub.setId(3L);
+        hub.setLatitude(13.10);
+        hub.setLongitude(77.60);
+        when(terminalRepository.findAll()).thenReturn(List.of(terminal));
+        when(hubRepository.findAll()).thenReturn(List.of(hub));
+        geofenceService.warmUp();
+    }
+
+    @Test
+    void evaluate_EmitsArrivalOnceWhenEnteringTerminal() {
+        geofenceService.evaluate(1L, 12.97 + 500 * METER, 77.59, T0);
+        geofenceService.evaluate(1L, 12.97 + 100 * METER, 77.59, T0.plusSeconds(10));
+        geofenceService.evaluate(1L, 12.97 + 20 * METER, 77.59, T0.plusSeconds(20));
+
+        List<GeofenceEvent> events = capturedEvents();
+        assertEquals(1, events.size());
+        assertEquals(GeofenceEvent.Type.ARRIVAL, events.get(0).getType());
+        assertEquals(Inventory.LocationType.TERMINAL, events.get(0).getSiteType());
+        assertEquals(7L, events.get(0).getSiteId());
+    }
+
+    @Test
+    void evaluate_IgnoresJitterInsideExitMargin() {
+        geofenceService.evaluate(1L, 12.97 + 140 * METER, 77.59, T0);
+        // Beyond the radius but within the exit margin: still inside
+        geofenceService.evaluate(1L, 12.97 + 180 * METER, 77.59, T0.plusSeconds(1));
+        geofenceService.evaluate(1L, 12.97 + 145 * METER, 77.59, T0.plusSeconds(2));
+
+        assertEquals(1, capturedEvents().size());
+        assertEquals(1, geofenceService.getSitesContaining(1L).size());
+    }
+
+    @Test
+    void evaluate_EmitsDepartureOnceBeyondExitMargin() {
+        geofenceService.evaluate(1L, 13.10, 77.60, T0);
+        geofenceService.evaluate(1L, 13.10 + 400 * METER, 77.60, T0.plusSeconds(30));
+        geofenceService.evaluate(1L, 13.10 + 900 * METER, 77.60, T0.plusSeconds(60));
+
+        List<GeofenceEvent> events = capturedEvents();
+        assertEquals(List.of(GeofenceEvent.Type.ARRIVAL, GeofenceEvent.Type.DEPARTURE),
+                events.stream().map(GeofenceEvent::getType).toList());
+        assertEquals(Inventory.LocationType.HUB, events.get(1).getSiteType());
+        assertTrue(geofenceService.getSitesContaining(1L).isEmpty());
+    }
+
+    @Test
+    void evaluate_DoesNothingWhenDisabled() {
+        ReflectionTestUtils.setField(geofenceService, "enabled", false);
+
+        geofenceService.evaluate(1L, 12.97, 77.59, T0);
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void restore_ReportsARolledBackArrivalAgain() {
+        Map<Long, Set<GeofenceService.Site>> before = geofenceService.capture(List.of(1L));
+        geofenceService.evaluate(1L, 12.97, 77.59, T0);
+        geofenceService.restore(before, geofenceService.capture(List.of(1L)));
+
+        assertTrue(geofenceService.getSitesContaining(1L).isEmpty());
+        geofenceService.evaluate(1L, 12.97, 77.59, T0);
+        List<GeofenceEvent> events = capturedEvents();
+        assertEquals(2, events.size());
+        assertEquals(events.get(0).getType(), events.get(1).getType());
+        assertEquals(events.get(0).getSiteId(), events.get(1).getSiteId());
+    }
+
+    @Test
+    void restore_LeavesVehiclesThatMovedOnAlone() {
+        Map<Long, Set<GeofenceService.Site>> before = geofenceService.capture(List.of(1L));
+        geofenceService.evaluate(1L, 12.97, 77.59, T0);
+        Map<Long, Set<GeofenceService.Site>> after = geofenceService.capture(List.of(1L));
+        // A later batch evaluated the vehicle before the first one rolled back
+        geofenceService.evaluate(1L, 12.97 + 10 * METER, 77.59, T0.plusSeconds(10));
+
+        geofenceService.restore(before, after);
+
+        assertEquals(Set.of(new GeofenceService.Site(Inventory.LocationType.TERMINAL, 7L)),
+                geofenceService.getSitesContaining(1L));
+    }
+
+    private List<GeofenceEvent> capturedEvents() {
+        ArgumentCaptor<GeofenceEvent> captor = ArgumentCaptor.forClass(GeofenceEvent.class);
+        verify(eventPublisher, atLeast(0)).publishEvent(captor.capture());
+        return captor.getAllValues();
+    }
+}
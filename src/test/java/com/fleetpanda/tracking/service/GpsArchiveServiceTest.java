@@ -0,0 +1,136 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.Vehicle;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({GpsArchiveService.class, TrackHistoryService.class, JacksonAutoConfiguration.class})
+class GpsArchiveServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 11, 27);
+
+    @Autowired
+    private GpsArchiveService archiveService;
+    @Autowired
+    private TrackHistoryService trackHistoryService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long truck;
+    private Long van;
+    private long nextId = 1;
+
+    @BeforeEach
+    void seed() {
+        truck = persistVehicle("KA-01-ARCH");
+        van = persistVehicle("KA-02-ARCH");
+        // Three days of fixes every 10 minutes for both vehicles, ids interleaved like the shared sequence
+        for (int minute = 0; minute < 3 * 24 * 60; minute += 10) {
+            LocalDateTime timestamp = DAY.atStartOfDay().plusMinutes(minute);
+            insertFix(truck, timestamp, 12.97 + minute * 1e-5, 77.59 + minute * 2e-5);
+            insertFix(van, timestamp, 13.01 - minute * 1e-5, 77.61);
+        }
+    }
+
+    @Test
+    void compactClosedDays_ArchivesOnlyClosedDaysAndReadsBackTheSameTrack() {
+        List<String> before = track(truck);
+
+        // With the default two days of grace for late fixes, only the first day is closed
+        long archived = archiveService.compactClosedDays(DAY.plusDays(3));
+
+        assertEquals(2 * 144, archived);
+        assertEquals(2, count("SELECT COUNT(*) FROM gps_archive_chunk WHERE date = ?", Date.valueOf(DAY)));
+        assertEquals(0, count("SELECT COUNT(*) FROM gps_log WHERE timestamp < ?", Timestamp.valueOf(DAY.plusDays(1).atStartOfDay())));
+        assertEquals(2 * 288, count("SELECT COUNT(*) FROM gps_log"));
+        assertEquals(before, track(truck));
+    }
+
+    @Test
+    void lateFixesAreMergedOnReadAndFoldedIntoTheChunk() {
+        archiveService.archiveDay(DAY);
+        LocalDateTime late = DAY.atTime(12, 5);
+        insertFix(truck, late, 1.0, 2.0);
+
+        List<String> merged = track(truck);
+        assertEquals(3 * 144 + 1, merged.size());
+        assertEquals((nextId - 1) + "@" + late + "@1.0,2.0", merged.get(73));
+
+        assertEquals(1, archiveService.archiveDay(DAY));
+        assertEquals(0, count("SELECT COUNT(*) FROM gps_log WHERE timestamp < ?", Timestamp.valueOf(DAY.plusDays(1).atStartOfDay())));
+        assertEquals(145, count("SELECT point_count FROM gps_archive_chunk WHERE vehicle_id = ? AND date = ?", truck, Date.valueOf(DAY)));
+        assertEquals(merged, track(truck));
+    }
+
+    @Test
+    void pagesAcrossTheArchiveAndLiveRows() {
+        List<String> all = track(truck);
+        archiveService.archiveDay(DAY);
+
+        List<String> paged = new ArrayList<>();
+        TrackCursor cursor = null;
+        do {
+            CollectingSink page = new CollectingSink();
+            TrackHistoryService.TrackScan scan = trackHistoryService.readTrack(truck, DAY.atStartOfDay(),
+                    DAY.plusDays(3).atStartOfDay(), cursor, 50, page);
+            paged.addAll(page.points);
+            cursor = scan.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(all, paged);
+    }
+
+    private List<String> track(Long vehicleId) {
+        CollectingSink sink = new CollectingSink();
+        trackHistoryService.readTrack(vehicleId, DAY.atStartOfDay(), DAY.plusDays(3).atStartOfDay(), null, null, sink);
+        return sink.points;
+    }
+
+    private Long persistVehicle(String plate) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setLicensePlate(plate);
+        vehicle.setCapacity(1000.0);
+        vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
+        entityManager.persist(vehicle);
+        entityManager.flush();
+        return vehicle.getId();
+    }
+
+    private void insertFix(Long vehicleId, LocalDateTime timestamp, double latitude, double longitude) {
+        jdbcTemplate.update("INSERT INTO gps_log (id, vehicle_id, latitude, longitude, timestamp) VALUES (?, ?, ?, ?, ?)",
+                nextId++, vehicleId, latitude, longitude, Timestamp.valueOf(timestamp));
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+
+    private static class CollectingSink implements TrackPointSink {
+        final List<String> points = new ArrayList<>();
+
+        @Override
+        public void accept(long id, LocalDateTime timestamp, double latitude, double longitude) {
+            points.add(id + "@" + timestamp + "@" + latitude + "," + longitude);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.fleetpanda.tracking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GpsChunkTest {
+
+    @Test
+    void encode_RoundTripsARealisticDayExactly() {
+        SyntheticTrack track = new SyntheticTrack(86_400, 42);
+        GpsChunk chunk = new GpsChunk(track.size());
+        for (int i = 0; i < track.size(); i++) {
+            chunk.add(track.ids[i], track.timestamps[i], track.latitudes[i], track.longitudes[i]);
+        }
+
+        byte[] data = chunk.encode();
+        GpsChunk decoded = GpsChunk.decode(data);
+
+        assertEquals(track.size(), decoded.size());
+        for (int i = 0; i < track.size(); i++) {
+            assertEquals(track.ids[i], decoded.id(i));
+            assertEquals(track.timestamps[i], decoded.timestamp(i));
+            assertEquals(Double.doubleToRawLongBits(track.latitudes[i]), Double.doubleToRawLongBits(decoded.latitude(i)));
+            assertEquals(Double.doubleToRawLongBits(track.longitudes[i]), Double.doubleToRawLongBits(decoded.longitude(i)));
+        }
+        // A gps_log row is ~100 bytes before indexes
+        assertTrue(data.length < track.size() * 16, data.length / (double) track.size() + " bytes per fix");
+    }
+
+    @Test
+    void encode_RoundTripsIrregularGapsIdsAndValues() {
+        Random random = new Random(7);
+        GpsChunk chunk = new GpsChunk(0);
+        LocalDateTime timestamp = LocalDateTime.of(2025, 11, 29, 0, 0, 0, 123_456_000);
+        long id = 5_000_000_000L;
+        double[] values = {0.0, -0.0, 90.0, -180.0, 1e-300, Double.NaN, 12.9716, 12.9716, -33.8688};
+        for (int i = 0; i < 5_000; i++) {
+            // Jittered intervals, long gaps, and ids from a sequence shared with other vehicles
+            timestamp = timestamp.plusNanos(random.nextInt(4) == 0 ? random.nextLong(3_600_000_000_000L)
+                    : 1_000_000_000L + random.nextInt(2_000) * 1_000L);
+            id += random.nextInt(10) == 0 ? -random.nextInt(1_000) : random.nextInt(100_000);
+            chunk.add(id, timestamp, values[random.nextInt(values.length)], random.nextDouble() * 360 - 180);
+        }
+
+        GpsChunk decoded = GpsChunk.decode(chunk.encode());
+
+        assertEquals(chunk.size(), decoded.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            assertEquals(chunk.id(i), decoded.id(i));
+            assertEquals(chunk.timestamp(i), decoded.timestamp(i));
+            assertEquals(Double.doubleToRawLongBits(chunk.latitude(i)), Double.doubleToRawLongBits(decoded.latitude(i)));
+            assertEquals(Double.doubleToRawLongBits(chunk.longitude(i)), Double.doubleToRawLongBits(decoded.longitude(i)));
+        }
+        assertEquals(0, GpsChunk.decode(new GpsChunk(0).encode()).size());
+    }
+
+    @Test
+    void merge_InterleavesByTimeAndDropsRepeats() {
+        LocalDateTime t0 = LocalDateTime.of(2025, 11, 29, 10, 0);
+        GpsChunk archived = new GpsChunk(0);
+        archived.add(1, t0, 12.0, 77.0);
+        archived.add(3, t0.plusSeconds(2), 12.2, 77.2);
+        GpsChunk late = new GpsChunk(0);
+        late.add(2, t0.plusSeconds(1), 12.1, 77.1);
+        late.add(3, t0.plusSeconds(2), 12.2, 77.2);
+        late.add(4, t0.plusSeconds(3), 12.3, 77.3);
+
+        GpsChunk merged = GpsChunk.merge(archived, late);
+
+        assertEquals(4, merged.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i + 1, merged.id(i));
+            assertEquals(t0.plusSeconds(i), merged.timestamp(i));
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.fleetpanda.tracking.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Pushes synthetic GPS fixes at a running application through {@code POST /api/driver/gps},
+ * {@code POST /api/driver/gps/batch} and the binary socket listener, and prints the end-to-end
+ * throughput of each. A run only counts as done once the server has filtered every fix, read
+ * from {@code /api/admin/gps-filter-stats}, so it measures ingest and not just sending.
+ * Not a test; start the application with {@code fleet.gps.socket.enabled=true} and
+ * {@code fleet.gps.ingest-mode=direct}, then run {@code main} from the IDE or with
+ * {@code mvn test-compile exec:java
+ * -Dexec.mainClass=com.fleetpanda.tracking.service.GpsIngestLoadGenerator -Dexec.classpathScope=test
+ * -Dexec.args="http://localhost:8080 9099 200000 8"}.
+ */
+public class GpsIngestLoadGenerator {
+
+    private static final int REST_BATCH = 500;
+    private static final int SOCKET_CHUNK_FRAMES = 2048;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final int socketPort;
+    private final int threads;
+    private final long[] vehicleIds;
+    // Each vehicle's next fix number; threads own disjoint vehicles, so fixes stay in order per vehicle
+    private final long[] sequence;
+    private final LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusDays(1);
+
+    GpsIngestLoadGenerator(String baseUrl, int socketPort, int threads) throws Exception {
+        this.baseUrl = baseUrl;
+        this.socketPort = socketPort;
+        JsonNode vehicles = objectMapper.readTree(get("/api/admin/vehicles"));
+        vehicleIds = new long[vehicles.size()];
+        for (int i = 0; i < vehicleIds.length; i++) {
+            vehicleIds[i] = vehicles.get(i).get("id").asLong();
+        }
+        if (vehicleIds.length == 0) {
+            throw new IllegalStateException("No vehicles to send fixes for");
+        }
+        this.threads = Math.min(threads, vehicleIds.length);
+        sequence = new long[vehicleIds.length];
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int socketPort = args.length > 1 ? Integer.parseInt(args[1]) : 9099;
+        int fixes = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+        GpsIngestLoadGenerator generator = new GpsIngestLoadGenerator(baseUrl, socketPort, threads);
+        System.out.printf("%d vehicles, %d sender threads%n", generator.vehicleIds.length, generator.threads);
+        System.out.printf("%-22s %10s %10s %12s %12s%n", "path", "fixes", "seconds", "fixes/s", "bytes/fix");
+        // Single fixes are slow enough that a tenth of the volume gives a stable number
+        generator.run("rest single", Math.max(fixes / 10, 1000), generator::sendRestSingle);
+        generator.run("rest batch of " + REST_BATCH, fixes, generator::sendRestBatch);
+        generator.run("socket frames", fixes, generator::sendSocket);
+    }
+
+    private void run(String name, int fixes, Sender sender) throws Exception {
+        long before = processed();
+        long[] bytes = new long[threads];
+        long started = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> senders = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                int count = fixes / threads + (t < fixes % threads ? 1 : 0);
+                senders.add(pool.submit(() -> {
+                    bytes[thread] = sender.send(thread, count);
+                    return null;
+                }));
+            }
+            for (Future<?> future : senders) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long deadline = System.currentTimeMillis() + 300_000;
+        while (processed() - before < fixes) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException(name + ": server processed " + (processed() - before) + " of " + fixes);
+            }
+            Thread.sleep(20);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long totalBytes = 0;
+        for (long b : bytes) {
+            totalBytes += b;
+        }
+        System.out.printf("%-22s %10d %10.2f %12.0f %12.1f%n", name, fixes, seconds, fixes / seconds,
+                (double) totalBytes / fixes);
+    }
+
+    private long sendRestSingle(int thread, int count) throws Exception {
+        long bytes = 0;
+        StringBuilder json = new StringBuilder(128);
+        for (int i = 0; i < count; i++) {
+            json.setLength(0);
+            appendJson(json, nextVehicle(thread, i));
+            bytes += json.length();
+            post("/api/driver/gps", json.toString());
+        }
+        return bytes;
+    }
+
+    private long sendRestBatch(int thread, int count) throws Exception {
+        long bytes = 0;
+        StringBuilder json = new StringBuilder(REST_BATCH * 128);
+        for (int sent = 0; sent < count; ) {
+            int size = Math.min(REST_BATCH, count - sent);
+            json.setLength(0);
+            json.append('[');
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                appendJson(json, nextVehicle(thread, sent + i));
+            }
+            json.append(']');
+            bytes += json.length();
+            post("/api/driver/gps/batch", json.toString());
+            sent += size;
+        }
+        return bytes;
+    }
+
+    private long sendSocket(int thread, int count) throws Exception {
+        String host = URI.create(baseUrl).getHost();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(SOCKET_CHUNK_FRAMES * GpsFrameCodec.FRAME_BYTES);
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, socketPort))) {
+            for (int i = 0; i < count; i++) {
+                int vehicle = nextVehicle(thread, i);
+                long n = sequence[vehicle]++;
+                GpsFrameCodec.encode(buffer, vehicleIds[vehicle], latitude(vehicle, n), longitude(vehicle, n),
+                        start.plusSeconds(n).toInstant(ZoneOffset.UTC).toEpochMilli());
+                if (!buffer.hasRemaining()) {
+                    write(channel, buffer);
+                }
+            }
+            write(channel, buffer);
+        }
+        return (long) count * GpsFrameCodec.FRAME_BYTES;
+    }
+
+    private static void write(SocketChannel channel, ByteBuffer buffer) throws Exception {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private int nextVehicle(int thread, int i) {
+        // Thread t owns vehicles t, t + threads, t + 2 * threads, ...
+        int owned = (vehicleIds.length - thread + threads - 1) / threads;
+        return thread + (i % owned) * threads;
+    }
+
+    private void appendJson(StringBuilder json, int vehicle) {
+        long n = sequence[vehicle]++;
+        json.append(String.format(Locale.ROOT, "{\"vehicleId\":%d,\"latitude\":%.7f,\"longitude\":%.7f,\"timestamp\":\"%s\"}",
+                vehicleIds[vehicle], latitude(vehicle, n), longitude(vehicle, n), start.plusSeconds(n)));
+    }
+
+    // A straight drive at about 11 m/s, so the ping filter keeps some fixes and suppresses others
+    private static double latitude(int vehicle, long n) {
+        return 12.9 + vehicle * 0.001 + n * 0.0001;
+    }
+
+    private static double longitude(int vehicle, long n) {
+        return 77.5 + (n % 7) * 0.00001;
+    }
+
+    private long processed() throws Exception {
+        JsonNode stats = objectMapper.readTree(get("/api/admin/gps-filter-stats"));
+        return stats.get("kept").asLong() + stats.get("dropped").asLong();
+    }
+
+    private String get(String path) throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        return response.body();
+    }
+
+    private void post(String path, String json) throws Exception {
+        HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " returned " + response.statusCode());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Sender {
+        long send(int thread, int count) throws Exception;
+    }
+}
@@ -0,0 +1,191 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.GpsBatchResultDTO;
+import com.fleetpanda.tracking.dto.GpsLogDTO;
+import com.fleetpanda.tracking.entity.Inventory;
+import com.fleetpanda.tracking.repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GpsIngestServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 29, 10, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private VehicleRepository vehicleRepository;
+    @Mock
+    private LatestPositionRegistry latestPositionRegistry;
+    @Mock
+    private TripAnalyticsService tripAnalyticsService;
+    @Mock
+    private GeofenceService geofenceService;
+    @Spy
+    private GpsPingFilter gpsPingFilter = new GpsPingFilter();
+
+    @InjectMocks
+    private GpsIngestService gpsIngestService;
+
+    private long seconds;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(gpsPingFilter, "enabled", true);
+        ReflectionTestUtils.setField(gpsPingFilter, "distanceMeters", 15.0);
+        ReflectionTestUtils.setField(gpsPingFilter, "maxIntervalSeconds", 300L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingest_RejectsUnknownVehiclesAndBatchesTheRest() {
+        when(vehicleRepository.findExistingIds(any())).thenReturn(List.of(1L, 2L));
+
+        GpsBatchResultDTO result = gpsIngestService.ingest(List.of(
+                fix(1L, 12.97, 77.59), fix(2L, 12.98, 77.60), fix(99L, 13.00, 77.61), fix(1L, 12.99, 77.62)));
+
+        assertEquals(4, result.getReceived());
+        assertEquals(3, result.getAccepted());
+        assertEquals(1, result.getRejected());
+        assertEquals(Set.of(99L), result.getUnknownVehicleIds());
+
+        ArgumentCaptor<List<GpsLogDTO>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture(), anyInt(), any());
+        assertEquals(3, batch.getValue().size());
+        verify(latestPositionRegistry, times(3)).update(anyLong(), anyDouble(), anyDouble(), any());
+    }
+
+    @Test
+    void ingest_OnlyLooksUpVehiclesOnce() {
+        when(vehicleRepository.findExistingIds(any())).thenReturn(List.of(1L));
+
+        gpsIngestService.ingest(List.of(fix(1L, 12.97, 77.59)));
+        gpsIngestService.ingest(List.of(fix(1L, 12.98, 77.60)));
+
+        verify(vehicleRepository, times(1)).findExistingIds(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingest_StoresOnlyWhatThePingFilterKeeps() {
+        when(vehicleRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        GpsLogDTO first = fix(1L, 12.97, 77.59);
+        GpsLogDTO retry = fix(1L, 12.97, 77.59);
+        retry.setTimestamp(first.getTimestamp());
+        GpsLogDTO parked = fix(1L, 12.97001, 77.59);
+        parked.setTimestamp(first.getTimestamp().plusSeconds(10));
+
+        GpsBatchResultDTO result = gpsIngestService.ingest(List.of(first, retry, parked));
+
+        assertEquals(1, result.getAccepted());
+        assertEquals(2, result.getFiltered());
+        assertEquals(0, result.getRejected());
+        ArgumentCaptor<List<GpsLogDTO>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture(), anyInt(), any());
+        assertEquals(List.of(first), batch.getValue());
+        // The parked fix is not stored but is still the vehicle's latest position
+        verify(latestPositionRegistry).update(1L, 12.97001, 77.59, parked.getTimestamp());
+        verify(latestPositionRegistry, times(2)).update(anyLong(), anyDouble(), anyDouble(), any());
+        // ...and part of its trip, while the duplicate is neither
+        verify(tripAnalyticsService).record(1L, 12.97001, 77.59, parked.getTimestamp());
+        verify(tripAnalyticsService, times(2)).record(anyLong(), anyDouble(), anyDouble(), any());
+    }
+
+    @Test
+    void ingest_RecordsPositionsAndTripsOnlyOnceTheBatchCommits() {
+        when(vehicleRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(latestPositionRegistry.isNewest(eq(1L), any())).thenReturn(true);
+        GpsLogDTO fix = fix(1L, 12.97, 77.59);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            gpsIngestService.ingest(List.of(fix));
+
+            // Geofences are checked inside the transaction, whose events wait for the commit anyway
+            verify(geofenceService).evaluate(1L, 12.97, 77.59, fix.getTimestamp());
+            verify(latestPositionRegistry, never()).update(anyLong(), anyDouble(), anyDouble(), any());
+            verify(tripAnalyticsService, never()).record(anyLong(), anyDouble(), anyDouble(), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            verify(latestPositionRegistry).update(1L, 12.97, 77.59, fix.getTimestamp());
+            verify(tripAnalyticsService).record(1L, 12.97, 77.59, fix.getTimestamp());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void ingest_RecordsNothingWhenTheBatchRollsBack() {
+        when(vehicleRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(latestPositionRegistry.isNewest(eq(1L), any())).thenReturn(true);
+        Map<Long, Set<GeofenceService.Site>> outside = new HashMap<>();
+        outside.put(1L, null);
+        Map<Long, Set<GeofenceService.Site>> inside = Map.of(1L,
+                Set.of(new GeofenceService.Site(Inventory.LocationType.TERMINAL, 7L)));
+        when(geofenceService.capture(Set.of(1L))).thenReturn(outside, inside);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            gpsIngestService.ingest(List.of(fix(1L, 12.97, 77.59)));
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(latestPositionRegistry, never()).update(anyLong(), anyDouble(), anyDouble(), any());
+        verify(tripAnalyticsService, never()).record(anyLong(), anyDouble(), anyDouble(), any());
+        verify(gpsPingFilter).forget(Set.of(1L));
+        // The arrival this batch recorded is undone, so its redelivery reports it again
+        verify(geofenceService).restore(outside, inside);
+    }
+
+    @Test
+    void ingest_EvaluatesGeofencesForNewestFixesOnly() {
+        when(vehicleRepository.findExistingIds(any())).thenReturn(List.of(1L, 2L));
+        GpsLogDTO first = fix(1L, 12.97, 77.59);
+        GpsLogDTO second = fix(1L, 12.98, 77.59);
+        GpsLogDTO stale = fix(2L, 13.10, 77.60);
+        when(latestPositionRegistry.isNewest(1L, first.getTimestamp())).thenReturn(true);
+        when(latestPositionRegistry.isNewest(2L, stale.getTimestamp())).thenReturn(false);
+
+        gpsIngestService.ingest(List.of(first, second, stale));
+
+        // The second fix is newer than the first, which the registry has not recorded yet
+        verify(geofenceService).evaluate(1L, 12.97, 77.59, first.getTimestamp());
+        verify(geofenceService).evaluate(1L, 12.98, 77.59, second.getTimestamp());
+        verify(geofenceService, never()).evaluate(eq(2L), anyDouble(), anyDouble(), any());
+    }
+
+    private GpsLogDTO fix(Long vehicleId, double lat, double lon) {
+        GpsLogDTO dto = new GpsLogDTO();
+        dto.setVehicleId(vehicleId);
+        dto.setLatitude(lat);
+        dto.setLongitude(lon);
+        // Strictly increasing, so the ping filter never sees two fixes of a vehicle as one
+        dto.setTimestamp(T0.plusSeconds(seconds++));
+        return dto;
+    }
+}
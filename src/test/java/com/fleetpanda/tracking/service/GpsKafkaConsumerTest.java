@@ -0,0 +1,73 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.GpsLogDTO;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = GpsKafkaConsumer.class, properties = {
+        "fleet.gps.ingest-mode=kafka",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.consumer.group-id=gps-consumer-test",
+        "spring.kafka.consumer.auto-offset-reset=earliest"
+})
+@ImportAutoConfiguration(KafkaAutoConfiguration.class)
+@EmbeddedKafka(partitions = 3, topics = GpsUpdateCodec.TOPIC)
+class GpsKafkaConsumerTest {
+
+    @MockBean
+    private GpsIngestService gpsIngestService;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Test
+    void publishedUpdates_AreDrainedInBatches() throws InterruptedException {
+        for (long i = 0; i < 100; i++) {
+            GpsLogDTO dto = new GpsLogDTO();
+            dto.setVehicleId(i % 5 + 1);
+            dto.setLatitude(12.97 + i / 1000.0);
+            dto.setLongitude(77.59);
+            dto.setTimestamp(LocalDateTime.of(2025, 11, 29, 10, 0).plusSeconds(i));
+            kafkaTemplate.send(GpsUpdateCodec.TOPIC, GpsUpdateCodec.key(dto), GpsUpdateCodec.encode(dto));
+        }
+        kafkaTemplate.send(GpsUpdateCodec.TOPIC, "1", "not-a-gps-record");
+        kafkaTemplate.flush();
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (ingestedFixes().size() < 100 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        List<GpsLogDTO> received = ingestedFixes();
+        assertEquals(100, received.size());
+        assertTrue(ingestCalls().size() < 100, "fixes should arrive in batches, not one call per record");
+        assertEquals(LocalDateTime.of(2025, 11, 29, 10, 1, 39),
+                received.stream().map(GpsLogDTO::getTimestamp).max(LocalDateTime::compareTo).orElseThrow());
+    }
+
+    private List<Invocation> ingestCalls() {
+        return mockingDetails(gpsIngestService).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("ingest"))
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<GpsLogDTO> ingestedFixes() {
+        return ingestCalls().stream()
+                .flatMap(invocation -> ((List<GpsLogDTO>) invocation.getArgument(0)).stream())
+                .toList();
+    }
+}
@@ -0,0 +1,109 @@
+package com.fleetpanda.tracking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GpsLogPartitionMaintainerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private GpsLogPartitionMaintainer maintainer;
+
+    @BeforeEach
+    void setUp() {
+        maintainer = new GpsLogPartitionMaintainer(jdbcTemplate, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(maintainer, "retentionDays", 30);
+        ReflectionTestUtils.setField(maintainer, "precreateDays", 2);
+    }
+
+    @Test
+    void maintain_PrecreatesFutureAndDropsExpiredPartitions() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "gps_log_default", "gps_log_p20251030", "gps_log_p20251031", "gps_log_p20251101", "gps_log_p20251130"));
+
+        maintainer.maintain(LocalDate.of(2025, 11, 30));
+
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE gps_log_p20251130 "));
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE gps_log_p20251201 "));
+        verify(jdbcTemplate).execute("ALTER TABLE gps_log ATTACH PARTITION gps_log_p20251202 "
+                + "FOR VALUES FROM ('2025-12-02') TO ('2025-12-03')");
+
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS gps_log_p20251030");
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS gps_log_p20251031");
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS gps_log_default");
+    }
+
+    @Test
+    void maintain_MovesTheDaysRowsOutOfTheDefaultPartitionBeforeAttaching() {
+        ReflectionTestUtils.setField(maintainer, "precreateDays", 0);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("gps_log_default"));
+        lenient().when(jdbcTemplate.update(startsWith("WITH moved AS (DELETE FROM gps_log_default"), any(), any()))
+                .thenReturn(3);
+
+        maintainer.maintain(LocalDate.of(2025, 11, 30));
+
+        InOrder inOrder = inOrder(transactionManager, jdbcTemplate);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(jdbcTemplate).execute("LOCK TABLE gps_log_default IN EXCLUSIVE MODE");
+        inOrder.verify(jdbcTemplate).execute(
+                "CREATE TABLE gps_log_p20251130 (LIKE gps_log INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        inOrder.verify(jdbcTemplate).update("WITH moved AS (DELETE FROM gps_log_default "
+                        + "WHERE timestamp >= ? AND timestamp < ? RETURNING *) INSERT INTO gps_log_p20251130 SELECT * FROM moved",
+                LocalDate.of(2025, 11, 30).atStartOfDay(), LocalDate.of(2025, 12, 1).atStartOfDay());
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE gps_log ATTACH PARTITION gps_log_p20251130 "
+                + "FOR VALUES FROM ('2025-11-30') TO ('2025-12-01')");
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void maintain_RollsBackAFailedMoveAndCarriesOn() {
+        ReflectionTestUtils.setField(maintainer, "precreateDays", 1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("gps_log_default"));
+        lenient().doThrow(new DataIntegrityViolationException("partition constraint violated")).doNothing()
+                .when(jdbcTemplate).execute(startsWith("ALTER TABLE gps_log ATTACH PARTITION"));
+
+        maintainer.maintain(LocalDate.of(2025, 11, 30));
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+        verify(jdbcTemplate).execute("ALTER TABLE gps_log ATTACH PARTITION gps_log_p20251201 "
+                + "FOR VALUES FROM ('2025-12-01') TO ('2025-12-02')");
+    }
+
+    @Test
+    void maintain_WithTheArchiveOn_KeepsPartitionsTheArchiveHasNotReached() {
+        ReflectionTestUtils.setField(maintainer, "retentionDays", 1);
+        ReflectionTestUtils.setField(maintainer, "archiveEnabled", true);
+        ReflectionTestUtils.setField(maintainer, "archiveAfterDays", 2);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "gps_log_default", "gps_log_p20251126", "gps_log_p20251127", "gps_log_p20251128", "gps_log_p20251129"));
+
+        maintainer.maintain(LocalDate.of(2025, 11, 30));
+
+        // The archive takes the 27th later tonight, so only the 26th goes
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS gps_log_p20251126");
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS gps_log_p20251127");
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS gps_log_p20251128");
+        // Stragglers in the default partition are the archive's
+        verify(jdbcTemplate, never()).update(startsWith("DELETE FROM gps_log_default"), any(Object[].class));
+    }
+}
@@ -0,0 +1,129 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.GpsFilterStatsDTO;
+import com.fleetpanda.tracking.dto.GpsLogDTO;
+import com.fleetpanda.tracking.geo.GeoUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GpsPingFilterTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 29, 10, 0);
+    // One metre of latitude in degrees
+    private static final double METER = 1 / 111_195.0;
+
+    private GpsPingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new GpsPingFilter();
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "distanceMeters", 15.0);
+        ReflectionTestUtils.setField(filter, "maxIntervalSeconds", 300L);
+    }
+
+    @Test
+    void offer_ParkedVehicleOnlyStoresAHeartbeat() {
+        List<GpsLogDTO> stored = new ArrayList<>();
+        // Ten minutes parked, a fix every 10 s with a few metres of jitter
+        for (int i = 0; i <= 60; i++) {
+            filter.offer(fix(1L, 12.97 + (i % 3) * 2 * METER, 77.59, T0.plusSeconds(i * 10L)), stored);
+        }
+
+        assertEquals(List.of(T0, T0.plusMinutes(5), T0.plusMinutes(10)),
+                stored.stream().map(GpsLogDTO::getTimestamp).toList());
+        GpsFilterStatsDTO stats = filter.getStats();
+        assertEquals(3, stats.getKept());
+        assertEquals(58, stats.getSuppressed());
+    }
+
+    @Test
+    void offer_KeepsWhereMotionStartsAndStops() {
+        List<GpsLogDTO> stored = new ArrayList<>();
+        double lat = 12.97;
+        filter.offer(fix(1L, lat, 77.59, T0), stored);
+        filter.offer(fix(1L, lat, 77.59, T0.plusSeconds(10)), stored);
+        filter.offer(fix(1L, lat, 77.59, T0.plusSeconds(20)), stored);     // last parked fix
+        filter.offer(fix(1L, lat + 100 * METER, 77.59, T0.plusSeconds(30)), stored);
+        filter.offer(fix(1L, lat + 200 * METER, 77.59, T0.plusSeconds(40)), stored);
+        filter.offer(fix(1L, lat + 205 * METER, 77.59, T0.plusSeconds(50)), stored);   // stopped
+        filter.offer(fix(1L, lat + 205 * METER, 77.59, T0.plusSeconds(60)), stored);
+
+        assertEquals(List.of(T0, T0.plusSeconds(20), T0.plusSeconds(30), T0.plusSeconds(40), T0.plusSeconds(50)),
+                stored.stream().map(GpsLogDTO::getTimestamp).toList());
+        assertEquals(1L, stored.get(1).getVehicleId());
+        GpsFilterStatsDTO stats = filter.getStats();
+        assertEquals(5, stats.getKept());
+        assertEquals(2, stats.getSuppressed());
+    }
+
+    @Test
+    void offer_DropsDuplicatesAndStaleFixes() {
+        List<GpsLogDTO> stored = new ArrayList<>();
+        assertEquals(GpsPingFilter.Verdict.KEPT, filter.offer(fix(1L, 12.97, 77.59, T0.plusSeconds(10)), stored));
+        assertEquals(GpsPingFilter.Verdict.DUPLICATE, filter.offer(fix(1L, 12.97, 77.59, T0.plusSeconds(10)), stored));
+        assertEquals(GpsPingFilter.Verdict.STALE, filter.offer(fix(1L, 12.98, 77.59, T0), stored));
+        // Vehicles are filtered independently
+        assertEquals(GpsPingFilter.Verdict.KEPT, filter.offer(fix(2L, 12.97, 77.59, T0), stored));
+
+        assertEquals(2, stored.size());
+        GpsFilterStatsDTO stats = filter.getStats();
+        assertEquals(1, stats.getDuplicates());
+        assertEquals(1, stats.getStale());
+        assertEquals(2, stats.getDropped());
+    }
+
+    @Test
+    void offer_HalvesARealisticTrackAndStaysWithinTheBand() {
+        // A route that is moving five sixths of the time, reported every 5 s
+        SyntheticTrack track = new SyntheticTrack(20_000, 42);
+        List<GpsLogDTO> offered = new ArrayList<>();
+        for (int i = 0; i < track.size(); i += 5) {
+            offered.add(fix(1L, track.latitudes[i], track.longitudes[i], track.timestamps[i]));
+        }
+
+        List<GpsLogDTO> stored = new ArrayList<>();
+        offered.forEach(fix -> filter.offer(fix, stored));
+
+        // Distance of every offered fix from the stored track segment it falls in
+        double worstMeters = 0;
+        int segment = 0;
+        for (GpsLogDTO fix : offered) {
+            while (segment < stored.size() - 2 && stored.get(segment + 1).getTimestamp().isBefore(fix.getTimestamp())) {
+                segment++;
+            }
+            GpsLogDTO a = stored.get(segment);
+            GpsLogDTO b = stored.get(segment + 1);
+            worstMeters = Math.max(worstMeters, GeoUtils.segmentDistanceMeters(fix.getLatitude(), fix.getLongitude(),
+                    a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude()));
+        }
+
+        assertTrue(stored.size() < offered.size() / 2, stored.size() + " of " + offered.size() + " stored");
+        assertTrue(worstMeters < 15.0);
+    }
+
+    @Test
+    void forget_StartsAFreshFilter() {
+        List<GpsLogDTO> stored = new ArrayList<>();
+        filter.offer(fix(1L, 12.97, 77.59, T0), stored);
+        filter.forget(List.of(1L));
+
+        assertEquals(GpsPingFilter.Verdict.KEPT, filter.offer(fix(1L, 12.97, 77.59, T0), stored));
+    }
+
+    private static GpsLogDTO fix(Long vehicleId, double lat, double lon, LocalDateTime timestamp) {
+        GpsLogDTO dto = new GpsLogDTO();
+        dto.setVehicleId(vehicleId);
+        dto.setLatitude(lat);
+        dto.setLongitude(lon);
+        dto.setTimestamp(timestamp);
+        return dto;
+    }
+}
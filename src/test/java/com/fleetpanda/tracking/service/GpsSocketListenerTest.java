@@ -0,0 +1,97 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.GpsLogDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GpsSocketListenerTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 29, 10, 0, 0, 250_000_000);
+
+    @Mock
+    private DriverService driverService;
+
+    @InjectMocks
+    private GpsSocketListener listener;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(listener, "port", 0);
+        ReflectionTestUtils.setField(listener, "maxConnections", 4);
+        ReflectionTestUtils.setField(listener, "bufferBytes", 64);
+        ReflectionTestUtils.setField(listener, "batchSize", 500);
+        listener.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        listener.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void framesSplitAcrossWritesReachTheIngestPath() throws Exception {
+        ByteBuffer frames = ByteBuffer.allocate(10 * GpsFrameCodec.FRAME_BYTES);
+        for (int i = 0; i < 10; i++) {
+            GpsFrameCodec.encode(frames, 7L, 12.9716 + i * 0.0001, -77.5946,
+                    T0.plusSeconds(i).toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+        frames.flip();
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", listener.getPort()))) {
+            // Odd-sized writes, so frames straddle reads and the 64-byte connection buffer
+            while (frames.hasRemaining()) {
+                ByteBuffer chunk = frames.slice(frames.position(), Math.min(37, frames.remaining()));
+                channel.write(chunk);
+                frames.position(frames.position() + chunk.position());
+                Thread.sleep(2);
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (listener.getFramesReceived() < 10 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Stopping waits for everything read to be ingested
+        listener.stop();
+        ArgumentCaptor<List<GpsLogDTO>> batches = ArgumentCaptor.forClass(List.class);
+        verify(driverService, atLeastOnce()).sendGpsBatch(batches.capture());
+        List<GpsLogDTO> fixes = batches.getAllValues().stream().flatMap(List::stream).toList();
+        assertEquals(10, fixes.size());
+        assertEquals(10, listener.getFramesReceived());
+        GpsLogDTO last = fixes.get(9);
+        assertEquals(7L, last.getVehicleId());
+        assertEquals(12.9725, last.getLatitude(), 1e-9);
+        assertEquals(-77.5946, last.getLongitude(), 1e-9);
+        assertEquals(T0.plusSeconds(9), last.getTimestamp());
+    }
+
+    @Test
+    void aStreamOutOfStepIsDisconnected() throws Exception {
+        ByteBuffer garbage = ByteBuffer.allocate(GpsFrameCodec.FRAME_BYTES);
+        garbage.putLong(7L).putInt(Integer.MAX_VALUE).putInt(0).putLong(0L).flip();
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", listener.getPort()))) {
+            channel.write(garbage);
+            channel.socket().setSoTimeout(5000);
+            assertEquals(-1, channel.socket().getInputStream().read());
+        }
+        verifyNoInteractions(driverService);
+    }
+}
@@ -0,0 +1,166 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.Inventory;
+import com.fleetpanda.tracking.entity.Product;
+import com.fleetpanda.tracking.entity.Terminal;
+import com.fleetpanda.tracking.repository.ProductRepository;
+import com.fleetpanda.tracking.repository.TerminalRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fires thousands of concurrent deliveries, each order twice, at two terminals that start with
+ * no inventory, and checks that every order is counted exactly once. The upsert relies on
+ * Postgres' ON CONFLICT, which H2 does not support, so this runs only against a real database:
+ * {@code FLEET_PG_URL=jdbc:postgresql://localhost:5432/fleet_db mvn test}.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@EnabledIfEnvironmentVariable(named = "FLEET_PG_URL", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class InventoryConcurrencyTest {
+
+    private static final int ORDERS = 4000;
+    private static final int THREADS = 32;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("FLEET_PG_URL"));
+        registry.add("spring.datasource.username", () -> envOr("FLEET_PG_USER", "fleet_user"));
+        registry.add("spring.datasource.password", () -> envOr("FLEET_PG_PASSWORD", "fleet_password"));
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS);
+    }
+
+    @Autowired
+    private DriverService driverService;
+    @Autowired
+    private TerminalRepository terminalRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Product product;
+    private final List<Terminal> terminals = new ArrayList<>();
+    private final Map<Long, Double> expectedByTerminal = new ConcurrentHashMap<>();
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        product = new Product();
+        product.setName("Concurrency Diesel");
+        product.setType(Product.ProductType.DIESEL);
+        productRepository.save(product);
+
+        for (int i = 0; i < 2; i++) {
+            Terminal terminal = new Terminal();
+            terminal.setName("Concurrency Terminal " + i);
+            terminal.setLatitude(12.9);
+            terminal.setLongitude(77.5 + i * 0.01);
+            terminals.add(terminalRepository.save(terminal));
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Long terminalId = terminals.get(i % terminals.size()).getId();
+            // Whole numbers keep the expected sums exact in double precision
+            double quantity = i % 7 + 1;
+            expectedByTerminal.merge(terminalId, quantity, Double::sum);
+            rows.add(new Object[]{terminalId, product.getId(), quantity, "PENDING", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (terminal_id, product_id, quantity, status, created_at, updated_at) "
+                + "VALUES (?,?,?,?,?,?)", rows);
+        orderIds.addAll(jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE product_id = ?", Long.class, product.getId()));
+    }
+
+    @AfterAll
+    void cleanUp() {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM inventory_movement WHERE product_id = ?", product.getId());
+        jdbcTemplate.update("DELETE FROM inventory_snapshot WHERE product_id = ?", product.getId());
+        jdbcTemplate.update("DELETE FROM inventory WHERE product_id = ?", product.getId());
+        jdbcTemplate.update("DELETE FROM orders WHERE product_id = ?", product.getId());
+        terminalRepository.deleteAll(terminals);
+        productRepository.delete(product);
+    }
+
+    @Test
+    void parallelDeliveries_AreEachCountedOnce() throws Exception {
+        assertEquals(ORDERS, orderIds.size());
+
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            // Every order is completed twice to also race the duplicate-completion guard
+            for (int round = 0; round < 2; round++) {
+                for (Long orderId : orderIds) {
+                    calls.add(pool.submit(() -> {
+                        start.await();
+                        try {
+                            driverService.completeDelivery(orderId);
+                            completed.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            assertEquals("Order already completed", e.getMessage());
+                            rejected.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(ORDERS, completed.get());
+        assertEquals(ORDERS, rejected.get());
+        assertEquals(ORDERS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE product_id = ? AND status = 'COMPLETED'",
+                Integer.class, product.getId()));
+        for (Terminal terminal : terminals) {
+            List<Double> quantities = jdbcTemplate.queryForList(
+                    "SELECT quantity FROM inventory WHERE location_type = ? AND location_id = ? AND product_id = ?",
+                    Double.class, Inventory.LocationType.TERMINAL.name(), terminal.getId(), product.getId());
+            assertEquals(List.of(expectedByTerminal.get(terminal.getId())), quantities);
+            assertEquals(expectedByTerminal.get(terminal.getId()), jdbcTemplate.queryForObject(
+                    "SELECT SUM(quantity) FROM inventory_movement WHERE location_id = ? AND product_id = ?",
+                    Double.class, terminal.getId(), product.getId()));
+        }
+    }
+
+    private static String envOr(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+}
@@ -0,0 +1,125 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.InventoryLevelDTO;
+import com.fleetpanda.tracking.entity.Inventory;
+import com.fleetpanda.tracking.entity.InventoryMovement;
+import com.fleetpanda.tracking.entity.Product;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(InventoryHistoryService.class)
+class InventoryHistoryServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 25, 8, 0);
+
+    @Autowired
+    private InventoryHistoryService historyService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Product diesel;
+    private Product petrol;
+
+    @BeforeEach
+    void seed() {
+        diesel = persistProduct("Diesel", Product.ProductType.DIESEL);
+        petrol = persistProduct("Petrol", Product.ProductType.PETROL);
+
+        movement(4L, diesel, 1000.0, InventoryMovement.MovementType.OPENING, T0);
+        movement(4L, diesel, 200.0, InventoryMovement.MovementType.DELIVERY, T0.plusHours(1));
+        movement(5L, diesel, 300.0, InventoryMovement.MovementType.DELIVERY, T0.plusHours(2));
+        movement(4L, petrol, 50.0, InventoryMovement.MovementType.DELIVERY, T0.plusHours(3));
+        movement(4L, diesel, 25.0, InventoryMovement.MovementType.DELIVERY, T0.plusHours(4));
+        entityManager.flush();
+    }
+
+    @Test
+    void getLevelsAsOf_ReplaysTheLedgerWithoutSnapshots() {
+        List<InventoryLevelDTO> levels = historyService.getLevelsAsOf(T0.plusHours(2), null, null, null);
+
+        assertEquals(2, levels.size());
+        assertLevel(levels.get(0), 4L, diesel, 1200.0);
+        assertLevel(levels.get(1), 5L, diesel, 300.0);
+        assertTrue(historyService.getLevelsAsOf(T0.minusMinutes(1), null, null, null).isEmpty());
+    }
+
+    @Test
+    void getLevelsAsOf_StartsFromTheNearestSnapshot() {
+        assertEquals(3, historyService.takeSnapshot(T0.plusHours(3)));
+        // Movements folded into the snapshot are no longer read, so removing them changes nothing
+        jdbcTemplate.update("DELETE FROM inventory_movement WHERE occurred_at <= ?",
+                Timestamp.valueOf(T0.plusHours(3)));
+
+        List<InventoryLevelDTO> atSnapshot = historyService.getLevelsAsOf(T0.plusHours(3), null, null, null);
+        assertEquals(3, atSnapshot.size());
+        assertLevel(atSnapshot.get(0), 4L, diesel, 1200.0);
+        assertLevel(atSnapshot.get(1), 4L, petrol, 50.0);
+        assertLevel(atSnapshot.get(2), 5L, diesel, 300.0);
+
+        List<InventoryLevelDTO> later = historyService.getLevelsAsOf(T0.plusHours(5), null, 4L, diesel.getId());
+        assertEquals(1, later.size());
+        assertLevel(later.get(0), 4L, diesel, 1225.0);
+    }
+
+    @Test
+    void takeSnapshot_ChainsFromThePreviousSnapshot() {
+        historyService.takeSnapshot(T0.plusHours(1));
+        assertEquals(0, historyService.takeSnapshot(T0.plusMinutes(90)), "no movements since the last snapshot");
+        assertEquals(0, historyService.takeSnapshot(T0), "cutoff before the last snapshot");
+
+        historyService.takeSnapshot(T0.plusHours(5));
+        List<InventoryLevelDTO> levels = historyService.getLevelsAsOf(T0.plusHours(6), null, null, null);
+
+        assertEquals(historyService.getLevelsAsOf(T0.plusHours(6), null, null, null), levels);
+        assertLevel(levels.get(0), 4L, diesel, 1225.0);
+        assertLevel(levels.get(1), 4L, petrol, 50.0);
+        assertLevel(levels.get(2), 5L, diesel, 300.0);
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory_snapshot WHERE snapshot_at = ?", Integer.class,
+                Timestamp.valueOf(T0.plusHours(5))));
+    }
+
+    private void assertLevel(InventoryLevelDTO level, Long terminalId, Product product, double quantity) {
+        assertEquals(Inventory.LocationType.TERMINAL, level.getLocationType());
+        assertEquals(terminalId, level.getLocationId());
+        assertEquals(product.getId(), level.getProductId());
+        assertEquals(product.getName(), level.getProductName());
+        assertEquals(quantity, level.getQuantity());
+    }
+
+    private Product persistProduct(String name, Product.ProductType type) {
+        Product product = new Product();
+        product.setName(name);
+        product.setType(type);
+        entityManager.persist(product);
+        return product;
+    }
+
+    private void movement(Long terminalId, Product product, double quantity,
+                          InventoryMovement.MovementType type, LocalDateTime occurredAt) {
+        InventoryMovement movement = new InventoryMovement();
+        movement.setLocationType(Inventory.LocationType.TERMINAL);
+        movement.setLocationId(terminalId);
+        movement.setProduct(product);
+        movement.setQuantity(quantity);
+        movement.setType(type);
+        movement.setOccurredAt(occurredAt);
+        entityManager.persist(movement);
+    }
+}
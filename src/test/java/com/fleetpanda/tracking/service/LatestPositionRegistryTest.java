@@ -0,0 +1,89 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.NearbyVehicleDTO;
+import com.fleetpanda.tracking.dto.VehiclePositionDTO;
+import com.fleetpanda.tracking.entity.Vehicle;
+import com.fleetpanda.tracking.repository.GpsLogRepository;
+import com.fleetpanda.tracking.repository.LatestPositionView;
+import com.fleetpanda.tracking.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LatestPositionRegistryTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 29, 10, 0);
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+    @Mock
+    private GpsLogRepository gpsLogRepository;
+
+    @InjectMocks
+    private LatestPositionRegistry registry;
+
+    @Test
+    void warmUp_LoadsLatestRowsInOneQuery() {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(1L);
+        vehicle.setLicensePlate("KA-01-HH-1234");
+        when(vehicleRepository.findAll()).thenReturn(List.of(vehicle));
+        LatestPositionView row = mock(LatestPositionView.class);
+        when(row.getVehicleId()).thenReturn(1L);
+        when(row.getLatitude()).thenReturn(12.97);
+        when(row.getLongitude()).thenReturn(77.59);
+        when(row.getTimestamp()).thenReturn(T0);
+        when(gpsLogRepository.findLatestPerVehicle()).thenReturn(List.of(row));
+
+        registry.warmUp();
+
+        VehiclePositionDTO position = registry.get(1L).orElseThrow();
+        assertEquals("KA-01-HH-1234", position.getLicensePlate());
+        assertEquals(12.97, position.getLatitude());
+        verify(gpsLogRepository, times(1)).findLatestPerVehicle();
+    }
+
+    @Test
+    void update_IgnoresFixesOlderThanTheCurrentOne() {
+        registry.update(1L, 12.97, 77.59, T0.plusSeconds(10));
+        registry.update(1L, 13.00, 77.60, T0);
+
+        assertEquals(12.97, registry.get(1L).orElseThrow().getLatitude());
+        assertEquals(1, registry.snapshot().size());
+    }
+
+    @Test
+    void drainChanged_CoalescesUpdatesPerVehicle() {
+        registry.update(1L, 12.97, 77.59, T0);
+        registry.update(1L, 12.98, 77.60, T0.plusSeconds(1));
+        registry.update(2L, 13.00, 77.61, T0);
+
+        List<VehiclePositionDTO> changed = registry.drainChanged();
+
+        assertEquals(2, changed.size());
+        assertEquals(12.98, changed.stream().filter(p -> p.getVehicleId() == 1L).findFirst().orElseThrow().getLatitude());
+        assertTrue(registry.drainChanged().isEmpty());
+    }
+
+    @Test
+    void nearest_IgnoresPositionsReplacedByNewerFixes() {
+        registry.update(1L, 12.97, 77.59, T0.plusSeconds(10));
+        registry.update(1L, 12.9701, 77.5901, T0);
+        registry.update(2L, 13.20, 77.70, T0);
+
+        List<NearbyVehicleDTO> nearest = registry.nearest(12.97, 77.59, 1);
+
+        assertEquals(1L, nearest.get(0).getVehicleId());
+        assertEquals(0.0, nearest.get(0).getDistanceMeters(), 1e-6);
+        assertEquals(1, registry.withinRadius(13.20, 77.70, 500).size());
+    }
+}
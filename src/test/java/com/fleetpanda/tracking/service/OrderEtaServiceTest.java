@@ -0,0 +1,162 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.FleetEtaDTO;
+import com.fleetpanda.tracking.dto.OrderEtaDTO;
+import com.fleetpanda.tracking.entity.Order;
+import com.fleetpanda.tracking.geo.GeoUtils;
+import com.fleetpanda.tracking.repository.OpenOrderView;
+import com.fleetpanda.tracking.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderEtaServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 29, 10, 0);
+    // Terminals 10 and 11, both due north of where the vehicles start
+    private static final double TERMINAL_LAT = 13.0;
+    private static final double TERMINAL_LON = 77.59;
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private TripAnalyticsService tripAnalyticsService;
+
+    private OpenOrderRegistry openOrderRegistry;
+    private LatestPositionRegistry latestPositionRegistry;
+    private OrderEtaService orderEtaService;
+
+    @BeforeEach
+    void setUp() {
+        openOrderRegistry = new OpenOrderRegistry(orderRepository);
+        latestPositionRegistry = new LatestPositionRegistry(null, null);
+        orderEtaService = new OrderEtaService(openOrderRegistry, latestPositionRegistry, tripAnalyticsService);
+        ReflectionTestUtils.setField(orderEtaService, "roadFactor", 1.3);
+        ReflectionTestUtils.setField(orderEtaService, "defaultSpeedKmh", 30.0);
+        ReflectionTestUtils.setField(orderEtaService, "minSpeedKmh", 10.0);
+
+        when(orderRepository.findOpenOrders(any())).thenReturn(List.of(
+                row(1L, Order.OrderStatus.PENDING, 100L, 1L, 10L),
+                row(2L, Order.OrderStatus.IN_TRANSIT, 100L, 1L, 11L),
+                row(3L, Order.OrderStatus.PENDING, 200L, 2L, 10L),
+                row(4L, Order.OrderStatus.PENDING, 300L, 3L, 10L)));
+        openOrderRegistry.load();
+    }
+
+    @Test
+    void estimateAll_DrivesTheRoadDistanceAtTheRecentSpeed() {
+        latestPositionRegistry.update(1L, 12.97, 77.59, T0);
+        latestPositionRegistry.update(2L, 12.98, 77.59, T0);
+        when(tripAnalyticsService.recentSpeedKmh(1L)).thenReturn(36.0);
+        when(tripAnalyticsService.recentSpeedKmh(2L)).thenReturn(null);
+
+        Map<Long, OrderEtaDTO> etas = byOrder(orderEtaService.estimateAll());
+
+        assertEquals(4, etas.size());
+        double meters = 1.3 * GeoUtils.haversineMeters(12.97, 77.59, TERMINAL_LAT, TERMINAL_LON);
+        OrderEtaDTO eta = etas.get(1L);
+        assertEquals(meters, eta.getDistanceMeters(), 0.1);
+        assertEquals(36.0, eta.getSpeedKmh());
+        assertEquals(T0.plusSeconds(Math.round(meters / 10)), eta.getEstimatedArrival());
+        assertEquals(Order.OrderStatus.IN_TRANSIT, etas.get(2L).getStatus());
+        // Not driven yet, so the default speed
+        assertEquals(30.0, etas.get(3L).getSpeedKmh());
+        // No position yet, so no estimate
+        assertNull(etas.get(4L).getEstimatedArrival());
+        assertEquals(3L, etas.get(4L).getVehicleId());
+    }
+
+    @Test
+    void estimateAll_OnlyRecomputesVehiclesThatMovedOrWhoseOrdersChanged() {
+        latestPositionRegistry.update(1L, 12.97, 77.59, T0);
+        latestPositionRegistry.update(2L, 12.98, 77.59, T0);
+
+        assertEquals(3, orderEtaService.estimateAll().getRecomputedVehicles());
+        assertEquals(0, orderEtaService.estimateAll().getRecomputedVehicles());
+
+        latestPositionRegistry.update(1L, 12.975, 77.59, T0.plusSeconds(30));
+        FleetEtaDTO moved = orderEtaService.estimateAll();
+        assertEquals(1, moved.getRecomputedVehicles());
+        assertEquals(T0.plusSeconds(30), byOrder(moved).get(1L).getPositionTimestamp());
+
+        // Completing vehicle 2's only order drops the vehicle
+        openOrderRegistry.removeAfterCommit(3L);
+        FleetEtaDTO completed = orderEtaService.estimateAll();
+        assertEquals(0, completed.getRecomputedVehicles());
+        assertEquals(2, completed.getVehicles());
+        assertFalse(byOrder(completed).containsKey(3L));
+
+        // An arrival moves vehicle 1's order for terminal 10 to IN_TRANSIT
+        when(orderRepository.findOpenOrdersByVehicleId(any(), eq(1L))).thenReturn(List.of(
+                row(1L, Order.OrderStatus.IN_TRANSIT, 100L, 1L, 10L),
+                row(2L, Order.OrderStatus.IN_TRANSIT, 100L, 1L, 11L)));
+        openOrderRegistry.reloadVehicleAfterCommit(1L);
+        FleetEtaDTO arrived = orderEtaService.estimateAll();
+        assertEquals(1, arrived.getRecomputedVehicles());
+        assertEquals(Order.OrderStatus.IN_TRANSIT, byOrder(arrived).get(1L).getStatus());
+    }
+
+    @Test
+    void reloadShiftsAfterCommit_AddsNewOrders() {
+        when(orderRepository.findOpenOrdersByShiftIds(any(), eq(List.of(300L)))).thenReturn(List.of(
+                row(4L, Order.OrderStatus.PENDING, 300L, 3L, 10L),
+                row(5L, Order.OrderStatus.PENDING, 300L, 3L, 11L)));
+
+        openOrderRegistry.reloadShiftsAfterCommit(List.of(300L));
+
+        assertEquals(5, openOrderRegistry.size());
+        assertEquals(List.of(4L, 5L), openOrderRegistry.byVehicle().get(3L).stream()
+                .map(OpenOrderRegistry.OpenOrder::id).toList());
+    }
+
+    private static Map<Long, OrderEtaDTO> byOrder(FleetEtaDTO etas) {
+        return etas.getOrders().stream().collect(Collectors.toMap(OrderEtaDTO::getOrderId, Function.identity()));
+    }
+
+    private static OpenOrderView row(Long id, Order.OrderStatus status, Long shiftId, Long vehicleId, Long terminalId) {
+        return new OpenOrderView() {
+            public Long getId() {
+                return id;
+            }
+
+            public Order.OrderStatus getStatus() {
+                return status;
+            }
+
+            public Long getShiftId() {
+                return shiftId;
+            }
+
+            public Long getVehicleId() {
+                return vehicleId;
+            }
+
+            public Long getTerminalId() {
+                return terminalId;
+            }
+
+            public Double getTerminalLatitude() {
+                return TERMINAL_LAT;
+            }
+
+            public Double getTerminalLongitude() {
+                return TERMINAL_LON;
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.CacheStatsDTO;
+import com.fleetpanda.tracking.entity.Terminal;
+import com.fleetpanda.tracking.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataCacheTest {
+
+    @Mock
+    private HubRepository hubRepository;
+    @Mock
+    private TerminalRepository terminalRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private VehicleRepository vehicleRepository;
+    @Mock
+    private DriverRepository driverRepository;
+
+    private ReferenceDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ReferenceDataCache(hubRepository, terminalRepository, productRepository,
+                vehicleRepository, driverRepository, 2);
+    }
+
+    @Test
+    void findTerminal_LoadsOnceThenServesFromMemory() {
+        when(terminalRepository.findById(1L)).thenReturn(Optional.of(terminal(1L)));
+
+        cache.findTerminal(1L);
+        cache.findTerminal(1L);
+        cache.findTerminal(1L);
+
+        verify(terminalRepository, times(1)).findById(1L);
+        CacheStatsDTO stats = terminalStats();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+    }
+
+    @Test
+    void findTerminal_DoesNotCacheUnknownIds() {
+        when(terminalRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertTrue(cache.findTerminal(9L).isEmpty());
+        assertTrue(cache.findTerminal(9L).isEmpty());
+
+        verify(terminalRepository, times(2)).findById(9L);
+    }
+
+    @Test
+    void getAllTerminals_PrimesLookupsAndIsDroppedOnWrite() {
+        when(terminalRepository.findAll()).thenReturn(List.of(terminal(1L)));
+
+        assertEquals(1, cache.getAllTerminals().size());
+        cache.findTerminal(1L);
+        verify(terminalRepository, never()).findById(any());
+
+        cache.cacheTerminal(terminal(2L));
+        when(terminalRepository.findAll()).thenReturn(List.of(terminal(1L), terminal(2L)));
+
+        assertEquals(2, cache.getAllTerminals().size());
+        verify(terminalRepository, times(2)).findAll();
+    }
+
+    @Test
+    void findTerminals_LoadsOnlyMissesInOneQuery() {
+        cache.cacheTerminal(terminal(1L));
+        when(terminalRepository.findAllById(List.of(2L))).thenReturn(List.of(terminal(2L)));
+
+        Map<Long, Terminal> found = cache.findTerminals(List.of(1L, 2L));
+
+        assertEquals(Set.of(1L, 2L), found.keySet());
+        verify(terminalRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void findTerminal_EvictsBeyondMaxSize() {
+        for (long id = 1; id <= 3; id++) {
+            cache.cacheTerminal(terminal(id));
+        }
+
+        assertEquals(2, terminalStats().getSize());
+        assertEquals(1, terminalStats().getEvictionCount());
+    }
+
+    private CacheStatsDTO terminalStats() {
+        return cache.getStats().stream().filter(s -> s.getName().equals("terminals")).findFirst().orElseThrow();
+    }
+
+    private static Terminal terminal(Long id) {
+        Terminal terminal = new Terminal();
+        terminal.setId(id);
+        terminal.setName("T" + id);
+        return terminal;
+    }
+}
@@ -0,0 +1,161 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.dto.*;
+import com.fleetpanda.tracking.entity.Driver;
+import com.fleetpanda.tracking.entity.Vehicle;
+import com.fleetpanda.tracking.entity.Shift;
+import com.fleetpanda.tracking.repository.VehicleAllocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RosterServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 12, 1);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private VehicleAllocationRepository allocationRepository;
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+    @Mock
+    private ShiftRegistry shiftRegistry;
+
+    @InjectMocks
+    private RosterService rosterService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rosterService, "batchSize", 500);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void allocateRoster_ChecksTheRangeOnceAndReportsConflictsPerPair() {
+        Map<Long, Driver> drivers = new HashMap<>();
+        Map<Long, Vehicle> vehicles = new HashMap<>();
+        List<RosterPairDTO> pairs = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            drivers.put(id, driver(id));
+            vehicles.put(100 + id, vehicle(100 + id));
+            pairs.add(pair(id, 100 + id));
+        }
+        pairs.add(pair(1L, 999L));   // unknown vehicle
+        pairs.add(pair(1L, 101L));   // driver already in pair 0
+        when(referenceDataCache.findDrivers(any())).thenReturn(drivers);
+        when(referenceDataCache.findVehicles(any())).thenReturn(vehicles);
+        // Vehicle 102 is out on Wednesday, driver 3 on Sunday
+        when(allocationRepository.findInRange(eq(MONDAY), eq(MONDAY.plusDays(6)), any(), any())).thenReturn(List.of(
+                new AllocationSummaryDTO(1L, MONDAY.plusDays(2), 7777L, "Other", 102L, "KA-102"),
+                new AllocationSummaryDTO(2L, MONDAY.plusDays(6), 3L, "Driver 3", 9177L, "KA-9177")));
+
+        // The database hands out shift ids 1000, 1001, ... in insert order. Lenient, as the
+        // allocation batch goes through another batchUpdate overload
+        AtomicLong nextShiftId = new AtomicLong(1000);
+        lenient().when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(invocation -> {
+                    BatchPreparedStatementSetter batch = invocation.getArgument(1);
+                    KeyHolder keys = invocation.getArgument(2);
+                    for (int i = 0; i < batch.getBatchSize(); i++) {
+                        keys.getKeyList().add(Map.of("id", nextShiftId.getAndIncrement()));
+                    }
+                    return new int[batch.getBatchSize()];
+                });
+
+        RosterResultDTO result = rosterService.allocateRoster(roster(MONDAY, MONDAY.plusDays(6), pairs));
+
+        assertEquals(502, result.getPairs());
+        assertEquals(7, result.getDays());
+        assertEquals(500 * 7 - 2, result.getCreated());
+        assertEquals(4, result.getConflicts().size());
+        RosterConflictDTO vehicleTaken = result.getConflicts().get(0);
+        assertEquals(1, vehicleTaken.getPairIndex());
+        assertEquals(MONDAY.plusDays(2), vehicleTaken.getDate());
+        assertEquals("Vehicle KA-102 is already allocated for 2025-12-03", vehicleTaken.getMessage());
+        assertEquals("Driver Driver 3 is already allocated for 2025-12-07", result.getConflicts().get(1).getMessage());
+        assertEquals(new RosterConflictDTO(500, 1L, 999L, null, "Vehicle not found"), result.getConflicts().get(2));
+        assertEquals("Driver Driver 1 is in more than one pair", result.getConflicts().get(3).getMessage());
+
+        verify(allocationRepository, times(1)).findInRange(any(), any(), any(), any());
+        ArgumentCaptor<Collection<Object>> allocations = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO vehicle_allocation"), allocations.capture(), anyInt(), any());
+        assertEquals(3498, allocations.getValue().size());
+
+        // Seven batches of at most 500 shifts, each registered under the id the database gave it
+        ArgumentCaptor<BatchPreparedStatementSetter> batches = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate, times(7)).batchUpdate(any(PreparedStatementCreator.class), batches.capture(), any(KeyHolder.class));
+        assertEquals(3498, batches.getAllValues().stream().mapToInt(BatchPreparedStatementSetter::getBatchSize).sum());
+        ArgumentCaptor<Shift> registered = ArgumentCaptor.forClass(Shift.class);
+        verify(shiftRegistry, times(3498)).updateAfterCommit(registered.capture());
+        Shift first = registered.getAllValues().get(0);
+        assertEquals(1000L, first.getId());
+        assertSame(drivers.get(1L), first.getDriver());
+        assertSame(vehicles.get(101L), first.getVehicle());
+        assertEquals(Shift.ShiftStatus.SCHEDULED, first.getStatus());
+        assertEquals(1000L + 3497, registered.getAllValues().get(3497).getId());
+        assertEquals(3498, registered.getAllValues().stream().map(Shift::getId).distinct().count());
+    }
+
+    @Test
+    void allocateRoster_RejectsBadRanges() {
+        List<RosterPairDTO> pairs = List.of(pair(1L, 101L));
+
+        assertThrows(RuntimeException.class,
+                () -> rosterService.allocateRoster(roster(MONDAY, MONDAY.minusDays(1), pairs)));
+        assertThrows(RuntimeException.class,
+                () -> rosterService.allocateRoster(roster(MONDAY, MONDAY.plusDays(RosterService.MAX_DAYS), pairs)));
+        verifyNoInteractions(allocationRepository, jdbcTemplate);
+    }
+
+    private static RosterDTO roster(LocalDate from, LocalDate to, List<RosterPairDTO> pairs) {
+        RosterDTO dto = new RosterDTO();
+        dto.setFrom(from);
+        dto.setTo(to);
+        dto.setPairs(pairs);
+        return dto;
+    }
+
+    private static RosterPairDTO pair(Long driverId, Long vehicleId) {
+        RosterPairDTO pair = new RosterPairDTO();
+        pair.setDriverId(driverId);
+        pair.setVehicleId(vehicleId);
+        return pair;
+    }
+
+    private static Driver driver(Long id) {
+        Driver driver = new Driver();
+        driver.setId(id);
+        driver.setName("Driver " + id);
+        return driver;
+    }
+
+    private static Vehicle vehicle(Long id) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(id);
+        vehicle.setLicensePlate("KA-" + id);
+        return vehicle;
+    }
+}
@@ -0,0 +1,116 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.Driver;
+import com.fleetpanda.tracking.entity.Shift;
+import com.fleetpanda.tracking.entity.Vehicle;
+import com.fleetpanda.tracking.repository.DriverRepository;
+import com.fleetpanda.tracking.repository.ShiftRepository;
+import com.fleetpanda.tracking.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Races startShift and endShift for one driver from many threads and checks that the driver
+ * never ends up with two active shifts and that the registry agrees with the database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ShiftRegistryConcurrencyTest {
+
+    private static final int SCHEDULED_SHIFTS = 100;
+    private static final int THREADS = 16;
+    private static final int CALLS = 2000;
+
+    @Autowired
+    private DriverService driverService;
+    @Autowired
+    private ShiftRegistry shiftRegistry;
+    @Autowired
+    private ShiftRepository shiftRepository;
+    @Autowired
+    private DriverRepository driverRepository;
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Test
+    void concurrentStartsAndEnds_KeepOneActiveShiftAndMatchTheDatabase() throws Exception {
+        Driver driver = new Driver();
+        driver.setName("Racer");
+        driver.setLicenseNumber("DL-RACE");
+        driver.setStatus(Driver.DriverStatus.ACTIVE);
+        driverRepository.save(driver);
+        Vehicle vehicle = new Vehicle();
+        vehicle.setLicensePlate("KA-RACE");
+        vehicle.setCapacity(1000.0);
+        vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
+        vehicleRepository.save(vehicle);
+        for (int i = 0; i < SCHEDULED_SHIFTS; i++) {
+            Shift shift = new Shift();
+            shift.setDriver(driver);
+            shift.setVehicle(vehicle);
+            shift.setStatus(Shift.ShiftStatus.SCHEDULED);
+            shiftRepository.save(shift);
+        }
+        shiftRegistry.load();
+        Long driverId = driver.getId();
+
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger ended = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < CALLS; i++) {
+                calls.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        if (ThreadLocalRandom.current().nextBoolean()) {
+                            driverService.startShift(driverId);
+                            started.incrementAndGet();
+                        } else {
+                            Shift active = driverService.getActiveShift(driverId);
+                            if (active != null) {
+                                driverService.endShift(active.getId());
+                                ended.incrementAndGet();
+                            }
+                        }
+                    } catch (RuntimeException expected) {
+                        // Losing a race is fine ("already has an active shift", "already ended", ...)
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Shift> active = shiftRepository.findByDriverIdAndStatusIn(driverId, List.of(Shift.ShiftStatus.ACTIVE));
+        List<Shift> scheduled = shiftRepository.findByDriverIdAndStatusIn(driverId, List.of(Shift.ShiftStatus.SCHEDULED));
+        assertTrue(active.size() <= 1, "at most one active shift");
+        assertTrue(started.get() > 0 && ended.get() > 0, "both operations got through");
+        assertEquals(SCHEDULED_SHIFTS - started.get(), scheduled.size());
+        assertEquals(started.get() - ended.get(), active.size());
+
+        assertEquals(active.stream().map(Shift::getId).findFirst(),
+                shiftRegistry.findActive(driverId).map(Shift::getId));
+        assertEquals(scheduled.stream().map(Shift::getId).sorted().findFirst(),
+                shiftRegistry.findNextScheduled(driverId).map(Shift::getId));
+    }
+}
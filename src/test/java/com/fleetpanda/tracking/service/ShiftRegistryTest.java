@@ -0,0 +1,110 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.Driver;
+import com.fleetpanda.tracking.entity.Shift;
+import com.fleetpanda.tracking.entity.Vehicle;
+import com.fleetpanda.tracking.repository.ShiftRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShiftRegistryTest {
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @InjectMocks
+    private ShiftRegistry registry;
+
+    @Test
+    void load_IndexesOpenShiftsByDriverWithOneQuery() {
+        when(shiftRepository.findByStatusIn(ShiftRegistry.OPEN)).thenReturn(List.of(
+                shift(12L, 1L, Shift.ShiftStatus.SCHEDULED),
+                shift(10L, 1L, Shift.ShiftStatus.SCHEDULED),
+                shift(11L, 2L, Shift.ShiftStatus.ACTIVE)));
+
+        registry.load();
+
+        assertEquals(10L, registry.findNextScheduled(1L).orElseThrow().getId());
+        assertTrue(registry.findActive(1L).isEmpty());
+        assertEquals(11L, registry.findActive(2L).orElseThrow().getId());
+        assertEquals(12L, registry.findOpenShift(12L).orElseThrow().getId());
+        verify(shiftRepository, times(1)).findByStatusIn(any());
+    }
+
+    @Test
+    void update_FollowsAShiftThroughItsLifecycle() {
+        registry.update(shift(10L, 1L, Shift.ShiftStatus.SCHEDULED));
+        registry.update(shift(11L, 1L, Shift.ShiftStatus.SCHEDULED));
+
+        registry.update(shift(10L, 1L, Shift.ShiftStatus.ACTIVE));
+        assertEquals(10L, registry.findActive(1L).orElseThrow().getId());
+        assertEquals(11L, registry.findNextScheduled(1L).orElseThrow().getId());
+
+        registry.update(shift(10L, 1L, Shift.ShiftStatus.COMPLETED));
+        assertTrue(registry.findActive(1L).isEmpty());
+        assertTrue(registry.findOpenShift(10L).isEmpty());
+        assertEquals(11L, registry.findOpenShift(11L).orElseThrow().getId());
+    }
+
+    @Test
+    void updateAfterCommit_OutsideATransactionAppliesACopyRightAway() {
+        Shift shift = shift(10L, 1L, Shift.ShiftStatus.SCHEDULED);
+
+        registry.updateAfterCommit(shift);
+        shift.setStatus(Shift.ShiftStatus.COMPLETED);
+
+        assertEquals(Shift.ShiftStatus.SCHEDULED, registry.findNextScheduled(1L).orElseThrow().getStatus());
+    }
+
+    @Test
+    void reload_ReplacesOneDriversEntry() {
+        registry.update(shift(10L, 1L, Shift.ShiftStatus.SCHEDULED));
+        registry.update(shift(20L, 2L, Shift.ShiftStatus.ACTIVE));
+        when(shiftRepository.findByDriverIdAndStatusIn(1L, ShiftRegistry.OPEN))
+                .thenReturn(List.of(shift(10L, 1L, Shift.ShiftStatus.ACTIVE)));
+
+        registry.reload(1L);
+
+        assertEquals(10L, registry.findActive(1L).orElseThrow().getId());
+        assertTrue(registry.findNextScheduled(1L).isEmpty());
+        assertEquals(20L, registry.findActive(2L).orElseThrow().getId());
+    }
+
+    @Test
+    void findNextShift_PrefersTheActiveShiftThenTheOldestScheduledOneForTheVehicle() {
+        registry.update(withVehicle(shift(10L, 1L, Shift.ShiftStatus.ACTIVE), 7L));
+        registry.update(withVehicle(shift(12L, 1L, Shift.ShiftStatus.SCHEDULED), 8L));
+        registry.update(withVehicle(shift(11L, 1L, Shift.ShiftStatus.SCHEDULED), 8L));
+
+        assertEquals(10L, registry.findNextShift(1L, 7L).orElseThrow().getId());
+        assertEquals(11L, registry.findNextShift(1L, 8L).orElseThrow().getId());
+        assertTrue(registry.findNextShift(1L, 9L).isEmpty());
+        assertTrue(registry.findNextShift(2L, 7L).isEmpty());
+    }
+
+    private static Shift withVehicle(Shift shift, Long vehicleId) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(vehicleId);
+        shift.setVehicle(vehicle);
+        return shift;
+    }
+
+    private static Shift shift(Long id, Long driverId, Shift.ShiftStatus status) {
+        Driver driver = new Driver();
+        driver.setId(driverId);
+        Shift shift = new Shift();
+        shift.setId(id);
+        shift.setDriver(driver);
+        shift.setStatus(status);
+        return shift;
+    }
+}
@@ -0,0 +1,60 @@
+package com.fleetpanda.tracking.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Deterministic 1 Hz truck route around Bangalore: straight legs at urban speeds, turns every
+ * few minutes, stops at terminals, and a few metres of GPS jitter on every fix.
+ */
+public final class SyntheticTrack {
+
+    public static final LocalDateTime START = LocalDateTime.of(2025, 11, 29, 6, 0);
+
+    public final long[] ids;
+    public final LocalDateTime[] timestamps;
+    public final double[] latitudes;
+    public final double[] longitudes;
+
+    public SyntheticTrack(int points, long seed) {
+        Random random = new Random(seed);
+        ids = new long[points];
+        timestamps = new LocalDateTime[points];
+        latitudes = new double[points];
+        longitudes = new double[points];
+
+        double lat = 12.9716;
+        double lon = 77.5946;
+        double heading = random.nextDouble() * 2 * Math.PI;
+        double speed = 10;
+        int legRemaining = 0;
+        for (int i = 0; i < points; i++) {
+            if (legRemaining-- <= 0) {
+                legRemaining = 60 + random.nextInt(300);
+                heading += (random.nextDouble() - 0.5) * Math.PI;
+                // Roughly one leg in six is a stop at a terminal
+                speed = random.nextInt(6) == 0 ? 0 : 5 + random.nextDouble() * 15;
+            }
+            lat += speed * Math.cos(heading) / 111_320.0;
+            lon += speed * Math.sin(heading) / (111_320.0 * Math.cos(Math.toRadians(lat)));
+
+            double jitter = 3.0 / 111_320.0;
+            ids[i] = i + 1;
+            timestamps[i] = START.plusSeconds(i);
+            latitudes[i] = lat + random.nextGaussian() * jitter;
+            longitudes[i] = lon + random.nextGaussian() * jitter;
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public void replay(TrackPointSink sink) throws IOException {
+        for (int i = 0; i < ids.length; i++) {
+            sink.accept(ids[i], timestamps[i], latitudes[i], longitudes[i]);
+        }
+        sink.complete();
+    }
+}
@@ -0,0 +1,36 @@
+package com.fleetpanda.tracking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackCursorTest {
+
+    @Test
+    void parse_RoundTripsToString() {
+        for (LocalDateTime timestamp : new LocalDateTime[]{
+                LocalDateTime.of(2025, 11, 29, 10, 0),
+                LocalDateTime.of(2025, 11, 29, 10, 0, 7),
+                LocalDateTime.of(2025, 11, 29, 10, 0, 7, 123_456_000)}) {
+            TrackCursor cursor = new TrackCursor(timestamp, 42);
+
+            TrackCursor parsed = TrackCursor.parse(cursor.toString());
+
+            assertEquals(cursor, parsed);
+            assertEquals(cursor.toString(), parsed.toString());
+        }
+    }
+
+    @Test
+    void parse_RejectsAnythingToStringDoesNotWrite() {
+        for (String value : Arrays.asList(null, "", "_", "42", "_42", "2025-11-29T10:00_", "2025-11-29T10:00",
+                "2025-11-29_42", "2025-11-29T25:00_42", "not-a-date_42", "2025-11-29T10:00_abc",
+                "2025-11-29T10:00_-1", "2025-11-29T10:00_99999999999999999999", "2025-11-29T10:00_4_2")) {
+            RuntimeException e = assertThrows(RuntimeException.class, () -> TrackCursor.parse(value), value);
+            assertEquals("Invalid cursor", e.getMessage(), value);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.Vehicle;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TrackHistoryService.class, GpsArchiveService.class, JacksonAutoConfiguration.class})
+class TrackHistoryServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 11, 29, 10, 0);
+    private static final LocalDateTime TO = FROM.plusHours(1);
+
+    @Autowired
+    private TrackHistoryService trackHistoryService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long vehicleId;
+    private long nextId = 1;
+
+    @BeforeEach
+    void seed() {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setLicensePlate("KA-01-TRACK");
+        vehicle.setCapacity(1000.0);
+        vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
+        entityManager.persist(vehicle);
+        entityManager.flush();
+        vehicleId = vehicle.getId();
+    }
+
+    @Test
+    void streamTrack_RejectsBadRequestsBeforeStreaming() {
+        assertError("Invalid cursor", () -> trackHistoryService.streamTrack(vehicleId, FROM, TO, "garbage", 10, null, null));
+        assertError("Invalid cursor", () -> trackHistoryService.streamTrack(vehicleId, FROM, TO, "2025-11-29T10:00_", 10, null, null));
+        assertError("'from' must be before 'to'", () -> trackHistoryService.streamTrack(vehicleId, TO, FROM, null, null, null, null));
+        assertError("'from' must be before 'to'", () -> trackHistoryService.streamTrack(vehicleId, FROM, FROM, null, null, null, null));
+        assertError("'limit' must be positive", () -> trackHistoryService.streamTrack(vehicleId, FROM, TO, null, 0, null, null));
+        assertError("'limit' must be positive", () -> trackHistoryService.streamTrack(vehicleId, FROM, TO, null, -1, null, null));
+        assertNotNull(trackHistoryService.streamTrack(vehicleId, FROM, TO,
+                new TrackCursor(FROM, 1).toString(), 1, null, null));
+    }
+
+    @Test
+    void readTrack_PagesThroughRowsThatShareATimestamp() {
+        // Seven fixes in the same second, bracketed by one before and one after; pages of two split them up
+        insertFix(FROM.plusSeconds(1));
+        for (int i = 0; i < 7; i++) {
+            insertFix(FROM.plusSeconds(2));
+        }
+        insertFix(FROM.plusSeconds(3));
+
+        List<Long> ids = new ArrayList<>();
+        List<String> cursors = new ArrayList<>();
+        TrackCursor cursor = null;
+        do {
+            List<Long> page = new ArrayList<>();
+            TrackHistoryService.TrackScan scan = trackHistoryService.readTrack(vehicleId, FROM, TO,
+                    cursor != null ? TrackCursor.parse(cursor.toString()) : null, 2,
+                    (id, timestamp, latitude, longitude) -> page.add(id));
+            assertTrue(page.size() <= 2);
+            ids.addAll(page);
+            cursor = scan.getNextCursor();
+            if (cursor != null) {
+                cursors.add(cursor.toString());
+            }
+        } while (cursor != null);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), ids);
+        // Every page ends inside the run of equal timestamps, so the cursors differ only by id
+        String second = FROM.plusSeconds(2).toString();
+        assertEquals(List.of(second + "_2", second + "_4", second + "_6", second + "_8"), cursors);
+    }
+
+    private void insertFix(LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO gps_log (id, vehicle_id, latitude, longitude, timestamp) VALUES (?, ?, ?, ?, ?)",
+                nextId++, vehicleId, 12.97, 77.59, Timestamp.valueOf(timestamp));
+    }
+
+    private static void assertError(String message, Runnable call) {
+        RuntimeException e = assertThrows(RuntimeException.class, call::run);
+        assertEquals(message, e.getMessage());
+    }
+}
@@ -0,0 +1,92 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.geo.GeoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackSimplificationTest {
+
+    @Test
+    void douglasPeucker_StaysWithinToleranceAcrossWindows() throws IOException {
+        SyntheticTrack track = new SyntheticTrack(30_000, 42);
+        CollectingSink out = new CollectingSink();
+
+        track.replay(new DouglasPeuckerSink(out, 10.0, 1024));
+
+        assertTrue(out.size() < track.size() / 10, "expected >90% reduction, kept " + out.size());
+        assertEquals(track.ids[0], out.ids.get(0));
+        assertEquals(track.ids[track.size() - 1], out.ids.get(out.size() - 1));
+
+        // Every raw point must lie within tolerance of the simplified segment that spans it
+        int segment = 0;
+        for (int i = 0; i < track.size(); i++) {
+            while (out.ids.get(segment + 1) < track.ids[i]) {
+                segment++;
+            }
+            double distance = GeoUtils.segmentDistanceMeters(track.latitudes[i], track.longitudes[i],
+                    out.latitudes.get(segment), out.longitudes.get(segment),
+                    out.latitudes.get(segment + 1), out.longitudes.get(segment + 1));
+            assertTrue(distance <= 10.0 + 1e-6, "point " + track.ids[i] + " is " + distance + " m off");
+        }
+    }
+
+    @Test
+    void douglasPeucker_CollapsesStraightLine() throws IOException {
+        CollectingSink out = new CollectingSink();
+        DouglasPeuckerSink sink = new DouglasPeuckerSink(out, 1.0);
+        for (int i = 0; i < 100; i++) {
+            sink.accept(i, SyntheticTrack.START.plusSeconds(i), 12.9 + i * 0.0001, 77.5 + i * 0.0001);
+        }
+        sink.complete();
+
+        assertEquals(List.of(0L, 99L), out.ids);
+    }
+
+    @Test
+    void timeBucket_KeepsFirstFixPerBucketAndTheLastFix() throws IOException {
+        SyntheticTrack track = new SyntheticTrack(3_601, 7);
+        CollectingSink out = new CollectingSink();
+
+        track.replay(new TimeBucketSink(out, 60));
+
+        assertEquals(61, out.size());
+        assertEquals(track.ids[60], out.ids.get(1));
+        assertEquals(track.ids[3_600], out.ids.get(60));
+    }
+
+    @Test
+    void pipeline_BucketsBeforeSimplifying() throws IOException {
+        SyntheticTrack track = new SyntheticTrack(30_000, 42);
+        CollectingSink bucketed = new CollectingSink();
+        CollectingSink both = new CollectingSink();
+
+        track.replay(TrackHistoryService.simplificationPipeline(bucketed, null, 10));
+        track.replay(TrackHistoryService.simplificationPipeline(both, 10.0, 10));
+
+        assertEquals(3_001, bucketed.size());
+        assertTrue(both.size() < bucketed.size());
+    }
+
+    static class CollectingSink implements TrackPointSink {
+        final List<Long> ids = new ArrayList<>();
+        final List<Double> latitudes = new ArrayList<>();
+        final List<Double> longitudes = new ArrayList<>();
+
+        @Override
+        public void accept(long id, LocalDateTime timestamp, double latitude, double longitude) {
+            ids.add(id);
+            latitudes.add(latitude);
+            longitudes.add(longitude);
+        }
+
+        int size() {
+            return ids.size();
+        }
+    }
+}
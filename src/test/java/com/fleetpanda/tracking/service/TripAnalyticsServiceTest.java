@@ -0,0 +1,149 @@
+package com.fleetpanda.tracking.service;
+
+import com.fleetpanda.tracking.entity.Shift;
+import com.fleetpanda.tracking.entity.TripSummary;
+import com.fleetpanda.tracking.entity.Vehicle;
+import com.fleetpanda.tracking.repository.ShiftRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TripAnalyticsServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 29, 6, 0);
+    // One metre of latitude in degrees
+    private static final double METER = 1 / 111_195.0;
+
+    @Mock
+    private ShiftRepository shiftRepository;
+    @Mock
+    private TrackHistoryService trackHistoryService;
+
+    @InjectMocks
+    private TripAnalyticsService tripAnalyticsService;
+
+    private final Random random = new Random(7);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tripAnalyticsService, "windowSeconds", 10.0);
+        ReflectionTestUtils.setField(tripAnalyticsService, "movingSpeedKmh", 5.0);
+        ReflectionTestUtils.setField(tripAnalyticsService, "maxSpeedKmh", 200.0);
+        ReflectionTestUtils.setField(tripAnalyticsService, "maxGapSeconds", 600.0);
+    }
+
+    @Test
+    void record_SeparatesDrivingFromParking() {
+        Shift shift = activeShift(5L, 1L);
+        tripAnalyticsService.start(shift);
+
+        // Ten minutes parked with GPS jitter, then ten minutes north at 10 m/s, at 1 Hz
+        for (int i = 0; i < 600; i++) {
+            record(1L, 0, i);
+        }
+        for (int i = 1; i <= 600; i++) {
+            record(1L, i * 10 * METER, 600 + i);
+        }
+
+        TripSummary trip = tripAnalyticsService.summarize(shift).orElseThrow();
+        assertEquals(6000, trip.getDistanceMeters(), 60);
+        assertEquals(600, trip.getMovingSeconds(), 10);
+        assertEquals(600, trip.getIdleSeconds(), 10);
+        // The fastest of sixty 10 s averages, each a few percent off from the jitter
+        assertEquals(36, trip.getMaxSpeedKmh(), 4);
+        assertEquals(1200, trip.getFixCount());
+        // Stops do not drag down the recent driving speed used for ETAs
+        assertEquals(36, tripAnalyticsService.recentSpeedKmh(1L), 2);
+        assertNull(tripAnalyticsService.recentSpeedKmh(2L));
+    }
+
+    @Test
+    void record_IgnoresJumpsStaleFixesAndOtherShifts() {
+        Shift shift = activeShift(5L, 1L);
+        tripAnalyticsService.start(shift);
+
+        tripAnalyticsService.record(1L, 12.97, 77.59, T0.minusMinutes(1));   // before the shift
+        for (int i = 0; i <= 120; i++) {
+            if (i == 70) {
+                // A fix five kilometres off the route, then a late retry of an earlier one
+                tripAnalyticsService.record(1L, 12.97 + 5000 * METER, 77.59, T0.plusSeconds(i));
+                tripAnalyticsService.record(1L, 12.97, 77.59, T0.plusSeconds(30));
+            } else {
+                record(1L, i * 10 * METER, i);
+            }
+        }
+        tripAnalyticsService.record(2L, 13.5, 77.59, T0.plusSeconds(200));   // another vehicle
+
+        TripSummary trip = tripAnalyticsService.summarize(shift).orElseThrow();
+        assertEquals(1200, trip.getDistanceMeters(), 20);
+        assertEquals(120, trip.getMovingSeconds(), 2);
+        assertEquals(36, trip.getMaxSpeedKmh(), 4);
+        assertEquals(121, trip.getFixCount());
+    }
+
+    @Test
+    void finish_StopsMeasuringOnlyThatShift() {
+        Shift ended = activeShift(5L, 1L);
+        Shift next = activeShift(6L, 1L);
+        tripAnalyticsService.start(ended);
+        tripAnalyticsService.start(next);
+
+        tripAnalyticsService.finish(ended);
+
+        assertTrue(tripAnalyticsService.summarize(ended).isEmpty());
+        assertTrue(tripAnalyticsService.summarize(next).isPresent());
+        tripAnalyticsService.finish(next);
+        assertTrue(tripAnalyticsService.summarize(next).isEmpty());
+    }
+
+    @Test
+    void recover_ReplaysTheStoredTrackOfActiveShifts() {
+        Shift shift = activeShift(5L, 1L);
+        when(shiftRepository.findByStatusIn(any())).thenReturn(List.of(shift));
+        when(trackHistoryService.readTrack(eq(1L), eq(T0), any(), isNull(), isNull(), any())).thenAnswer(i -> {
+            TrackPointSink sink = i.getArgument(5);
+            for (int s = 0; s <= 300; s++) {
+                sink.accept(s + 1, T0.plusSeconds(s), 12.97 + s * 10 * METER, 77.59);
+            }
+            return new TrackHistoryService.TrackScan(301, null);
+        });
+
+        tripAnalyticsService.recover();
+
+        TripSummary trip = tripAnalyticsService.summarize(shift).orElseThrow();
+        assertEquals(3000, trip.getDistanceMeters(), 30);
+        assertEquals(301, trip.getFixCount());
+    }
+
+    private void record(Long vehicleId, double northDegrees, int second) {
+        double jitter = 3 * METER;
+        tripAnalyticsService.record(vehicleId, 12.97 + northDegrees + random.nextGaussian() * jitter,
+                77.59 + random.nextGaussian() * jitter, T0.plusSeconds(second));
+    }
+
+    private static Shift activeShift(Long shiftId, Long vehicleId) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(vehicleId);
+        Shift shift = new Shift();
+        shift.setId(shiftId);
+        shift.setVehicle(vehicle);
+        shift.setStartTime(T0);
+        shift.setStatus(Shift.ShiftStatus.ACTIVE);
+        return shift;
+    }
+}
@@ -0,0 +1,98 @@
+package com.fleetpanda.tracking.simulator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Blocking calls to the REST API, each timed into a {@link LatencyRecorder} under an endpoint
+ * name with the path variables left as placeholders. A call fails on a non-2xx status or an I/O
+ * error; callers get {@code null} (or {@code false}) back and carry on, so a struggling server
+ * shows up in the error counts rather than stopping the run.
+ */
+final class FleetClient {
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+
+    FleetClient(String baseUrl, LatencyRecorder recorder) {
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+    }
+
+    JsonNode getJson(String endpoint, String path) {
+        return json(send(endpoint, request(path).GET().build()));
+    }
+
+    JsonNode postJson(String endpoint, String path, Object body) {
+        return json(send(endpoint, post(path, body)));
+    }
+
+    /**
+     * Calls without reading the response, for calls whose answer the simulator does not use.
+     */
+    boolean get(String endpoint, String path) {
+        return send(endpoint, request(path).GET().build(), HttpResponse.BodyHandlers.discarding()) != null;
+    }
+
+    boolean post(String endpoint, String path, Object body) {
+        return send(endpoint, post(path, body), HttpResponse.BodyHandlers.discarding()) != null;
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            HttpRequest.BodyPublisher publisher = body == null ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+            return request(path).header("Content-Type", "application/json").POST(publisher).build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path));
+    }
+
+    private String send(String endpoint, HttpRequest request) {
+        HttpResponse<String> response = send(endpoint, request, HttpResponse.BodyHandlers.ofString());
+        return response != null ? response.body() : null;
+    }
+
+    private <T> HttpResponse<T> send(String endpoint, HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        long started = System.nanoTime();
+        HttpResponse<T> response = null;
+        try {
+            response = http.send(request, handler);
+        } catch (IOException e) {
+            // Counted as an error below
+        } catch (InterruptedException e) {
+            // The run is being shut down; the call says nothing about the server
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        boolean ok = response != null && response.statusCode() / 100 == 2;
+        recorder.record(endpoint, System.nanoTime() - started, ok);
+        return ok ? response : null;
+    }
+
+    private JsonNode json(String body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.fleetpanda.tracking.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fleetpanda.tracking.FleetTrackingApplication;
+import com.fleetpanda.tracking.dto.DriverDTO;
+import com.fleetpanda.tracking.dto.ProductDTO;
+import com.fleetpanda.tracking.dto.RosterDTO;
+import com.fleetpanda.tracking.dto.RosterPairDTO;
+import com.fleetpanda.tracking.dto.VehicleDTO;
+import com.fleetpanda.tracking.entity.Product;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drives a simulated fleet through the REST API and prints latency percentiles per endpoint and
+ * the overall throughput.
+ * <p>
+ * Seeds hubs, terminals, products and one driver and vehicle per simulated vehicle through the
+ * admin API and rosters them for today. Each {@link VirtualVehicle} then starts its shift
+ * through the driver API, sends {@code fixesPerSecond} GPS fixes a second while driving its
+ * orders from its hub and back, and completes or fails each order on arrival. Meanwhile a
+ * dispatcher polls the fleet status and order ETAs every two seconds. Vehicles still out after
+ * {@code seconds} end their shifts where they are.
+ * <p>
+ * Without a base URL the application is started in this JVM on a random port, on the H2
+ * database of the test profile (see {@link H2StandIn}), or on the Postgres database in
+ * {@code FLEET_PG_URL} if that is set; either way no other service is needed. The simulator
+ * then shares the CPU with the server, so for latencies that mean something on a small machine,
+ * start the application separately and pass its URL. Not a test; run {@code main} from the IDE
+ * or with {@code mvn test-compile exec:java
+ * -Dexec.mainClass=com.fleetpanda.tracking.simulator.FleetSimulator -Dexec.classpathScope=test
+ * -Dexec.args="100 4 1 300"} (vehicles, orders per vehicle, fixes per second per vehicle,
+ * seconds, and optionally the base URL of a running instance).
+ */
+public class FleetSimulator {
+
+    private static final int HUBS = 5;
+    private static final int TERMINALS = 40;
+    private static final double FAIL_RATE = 0.1;
+    private static final int MAX_THREADS = 32;
+    private static final long DISPATCHER_PERIOD_MS = 2000;
+    // Vehicles told to stop get this long to end their shifts
+    private static final long STOP_GRACE_SECONDS = 60;
+
+    record Site(long id, double latitude, double longitude) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int vehicleCount = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int ordersPerVehicle = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        double fixesPerSecond = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 300;
+        String baseUrl = args.length > 4 ? args[4] : null;
+
+        ConfigurableApplicationContext context = null;
+        if (baseUrl == null) {
+            context = startApplication();
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        }
+        try {
+            run(context, baseUrl, vehicleCount, ordersPerVehicle, fixesPerSecond, seconds);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(FleetTrackingApplication.class)
+                .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN",
+                        "spring.jpa.show-sql=false");
+        String postgresUrl = System.getenv("FLEET_PG_URL");
+        if (postgresUrl != null) {
+            System.out.println("Starting the application on " + postgresUrl);
+            return builder.properties("spring.datasource.url=" + postgresUrl,
+                    "spring.datasource.username=" + envOr("FLEET_PG_USER", "fleet_user"),
+                    "spring.datasource.password=" + envOr("FLEET_PG_PASSWORD", "fleet_password")).run();
+        }
+        System.out.println("Starting the application on in-memory H2");
+        // The archive's blob column does not exist in H2, and the archive is not used here
+        ConfigurableApplicationContext context = H2StandIn.install(builder.profiles("test")
+                .properties("spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.org.hibernate.tool.schema=ERROR")).run();
+        H2StandIn.prepareSchema(context);
+        return context;
+    }
+
+    private static void run(ConfigurableApplicationContext context, String baseUrl, int vehicleCount,
+                            int ordersPerVehicle, double fixesPerSecond, int seconds) throws Exception {
+        Random random = new Random(42);
+        // Seeding is not part of the measurement
+        FleetClient admin = new FleetClient(baseUrl, new LatencyRecorder());
+        String tag = Long.toString(System.currentTimeMillis(), 36).toUpperCase();
+        List<Long> productIds = seedProducts(admin);
+        List<Site> hubs = seedSites(admin, random, "/api/admin/hubs", "Hub", HUBS, tag);
+        List<Site> terminals = seedSites(admin, random, "/api/admin/terminals", "Terminal", TERMINALS, tag);
+        if (context != null && System.getenv("FLEET_PG_URL") == null) {
+            H2StandIn.openInventory(context);
+        }
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        FleetClient client = new FleetClient(baseUrl, recorder);
+        List<VirtualVehicle> vehicles = new ArrayList<>(vehicleCount);
+        RosterDTO roster = new RosterDTO();
+        roster.setFrom(LocalDate.now());
+        roster.setTo(LocalDate.now());
+        roster.setPairs(new ArrayList<>());
+        for (int i = 0; i < vehicleCount; i++) {
+            long driverId = seedDriver(admin, tag, i);
+            long vehicleId = seedVehicle(admin, tag, i);
+            RosterPairDTO pair = new RosterPairDTO();
+            pair.setDriverId(driverId);
+            pair.setVehicleId(vehicleId);
+            roster.getPairs().add(pair);
+            vehicles.add(new VirtualVehicle(client, driverId, vehicleId, hubs.get(i % hubs.size()), terminals,
+                    productIds, ordersPerVehicle, FAIL_RATE, random.nextLong()));
+        }
+        JsonNode rostered = admin.postJson("POST /api/admin/allocations/roster", "/api/admin/allocations/roster",
+                roster);
+        if (rostered == null || rostered.get("created").asInt() != vehicleCount) {
+            throw new IllegalStateException("Could not roster the fleet: " + rostered);
+        }
+
+        int threads = Math.min(vehicleCount, MAX_THREADS);
+        System.out.printf("%d vehicles, %d orders each, %.1f fixes/s each (%d s of driving per fix), "
+                        + "%d s, %d threads, %s%n", vehicleCount, ordersPerVehicle, fixesPerSecond,
+                VirtualVehicle.SECONDS_PER_FIX, seconds, threads, baseUrl);
+
+        ScheduledExecutorService pool = Executors.newScheduledThreadPool(threads + 1);
+        AtomicBoolean stopping = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(vehicleCount);
+        long periodNanos = Math.round(TimeUnit.SECONDS.toNanos(1) / fixesPerSecond);
+        long started = System.nanoTime();
+        for (VirtualVehicle vehicle : vehicles) {
+            Tick tick = new Tick(vehicle, stopping, finished);
+            // Spread the fleet over the period rather than sending in bursts
+            tick.future = pool.scheduleAtFixedRate(tick, (long) (random.nextDouble() * periodNanos), periodNanos,
+                    TimeUnit.NANOSECONDS);
+        }
+        pool.scheduleAtFixedRate(() -> {
+            client.get("GET /api/admin/fleet-status", "/api/admin/fleet-status");
+            client.get("GET /api/admin/orders/eta", "/api/admin/orders/eta");
+        }, DISPATCHER_PERIOD_MS, DISPATCHER_PERIOD_MS, TimeUnit.MILLISECONDS);
+
+        if (!finished.await(seconds, TimeUnit.SECONDS)) {
+            System.out.printf("Time is up with %d vehicles still out; ending their shifts%n", finished.getCount());
+            stopping.set(true);
+            finished.await(STOP_GRACE_SECONDS, TimeUnit.SECONDS);
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        pool.shutdownNow();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        int completed = 0;
+        int failed = 0;
+        long fixes = 0;
+        for (VirtualVehicle vehicle : vehicles) {
+            completed += vehicle.getCompleted();
+            failed += vehicle.getFailed();
+            fixes += vehicle.getFixes();
+        }
+        System.out.printf("%.1f s: %d of %d shifts ended, %d fixes, %d orders completed, %d failed%n", elapsed,
+                vehicleCount - finished.getCount(), vehicleCount, fixes, completed, failed);
+        JsonNode filter = admin.getJson("GET /api/admin/gps-filter-stats", "/api/admin/gps-filter-stats");
+        if (filter != null) {
+            System.out.printf("Ping filter: %d kept, %d suppressed, %d duplicates, %d stale%n",
+                    filter.get("kept").asLong(), filter.get("suppressed").asLong(),
+                    filter.get("duplicates").asLong(), filter.get("stale").asLong());
+        }
+        recorder.print(System.out, elapsed);
+    }
+
+    private static List<Long> seedProducts(FleetClient admin) {
+        List<Long> ids = new ArrayList<>();
+        for (Product.ProductType type : List.of(Product.ProductType.DIESEL, Product.ProductType.PETROL)) {
+            ProductDTO product = new ProductDTO();
+            product.setName(type.name().charAt(0) + type.name().substring(1).toLowerCase());
+            product.setType(type);
+            ids.add(created(admin.postJson("POST /api/admin/products", "/api/admin/products", product)));
+        }
+        return ids;
+    }
+
+    /**
+     * Hubs and terminals scattered over a 22 km square of Bangalore.
+     */
+    private static List<Site> seedSites(FleetClient admin, Random random, String path, String name, int count,
+                                        String tag) {
+        List<Site> sites = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double latitude = 12.85 + random.nextDouble() * 0.2;
+            double longitude = 77.5 + random.nextDouble() * 0.2;
+            // Hubs and terminals take the same fields
+            JsonNode site = admin.postJson("POST " + path, path, Map.of("name", name + " " + tag + "-" + i,
+                    "address", "Simulated", "latitude", latitude, "longitude", longitude));
+            sites.add(new Site(created(site), latitude, longitude));
+        }
+        return sites;
+    }
+
+    private static long seedDriver(FleetClient admin, String tag, int i) {
+        DriverDTO driver = new DriverDTO();
+        driver.setName("Simulated Driver " + tag + "-" + i);
+        driver.setLicenseNumber("SIM-" + tag + "-" + i);
+        return created(admin.postJson("POST /api/admin/drivers", "/api/admin/drivers", driver));
+    }
+
+    private static long seedVehicle(FleetClient admin, String tag, int i) {
+        VehicleDTO vehicle = new VehicleDTO();
+        vehicle.setLicensePlate("SIM-" + tag + "-" + i);
+        vehicle.setCapacity(40_000.0);
+        return created(admin.postJson("POST /api/admin/vehicles", "/api/admin/vehicles", vehicle));
+    }
+
+    private static long created(JsonNode entity) {
+        if (entity == null) {
+            throw new IllegalStateException("Seeding failed");
+        }
+        return entity.get("id").asLong();
+    }
+
+    private static String envOr(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+
+    /**
+     * Steps one vehicle per period, and stops once it has finished.
+     */
+    private static final class Tick implements Runnable {
+        private final VirtualVehicle vehicle;
+        private final AtomicBoolean stopping;
+        private final CountDownLatch finished;
+        private volatile ScheduledFuture<?> future;
+        private boolean counted;
+
+        Tick(VirtualVehicle vehicle, AtomicBoolean stopping, CountDownLatch finished) {
+            this.vehicle = vehicle;
+            this.stopping = stopping;
+            this.finished = finished;
+        }
+
+        @Override
+        public void run() {
+            try {
+                vehicle.step(stopping.get());
+            } catch (RuntimeException e) {
+                // Keep the vehicle going; one bad response should not end the run
+                e.printStackTrace();
+            }
+            if (vehicle.isFinished()) {
+                if (!counted) {
+                    counted = true;
+                    finished.countDown();
+                }
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.fleetpanda.tracking.simulator;
+
+import com.fleetpanda.tracking.repository.InventoryRepository;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Lets the application run on the in-memory H2 database of the test profile for a whole shift,
+ * by standing in for the two things the Liquibase schema and Postgres provide and H2 does not:
+ * the gps_log id default, and the ON CONFLICT upsert that adds a delivery to inventory. The
+ * upsert becomes an UPDATE of an inventory row created up front for every terminal and product,
+ * with an INSERT if there is none, which is only safe because those rows exist before the first
+ * delivery.
+ */
+final class H2StandIn {
+
+    private static final String ADD_SQL = "UPDATE inventory SET quantity = COALESCE(quantity, 0) + ?, "
+            + "updated_at = LOCALTIMESTAMP WHERE location_id = ? AND location_type = ? AND product_id = ?";
+    private static final String INSERT_SQL = "INSERT INTO inventory "
+            + "(location_id, location_type, product_id, quantity, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, LOCALTIMESTAMP, LOCALTIMESTAMP)";
+    private static final String OPEN_INVENTORY_SQL = "INSERT INTO inventory "
+            + "(location_id, location_type, product_id, quantity, created_at, updated_at) "
+            + "SELECT t.id, 'TERMINAL', p.id, 0, LOCALTIMESTAMP, LOCALTIMESTAMP FROM terminal t CROSS JOIN product p "
+            + "WHERE NOT EXISTS (SELECT 1 FROM inventory i WHERE i.location_id = t.id "
+            + "AND i.location_type = 'TERMINAL' AND i.product_id = p.id)";
+
+    private H2StandIn() {
+    }
+
+    /**
+     * Replaces {@link InventoryRepository#addQuantity} before the application starts.
+     */
+    static SpringApplicationBuilder install(SpringApplicationBuilder builder) {
+        return builder.initializers(context -> context.getBeanFactory()
+                .addBeanPostProcessor(new InventoryUpsert(context.getBeanFactory())));
+    }
+
+    /**
+     * Gives gps_log ids the default the ingest's INSERT relies on; call once the application is up.
+     */
+    static void prepareSchema(ConfigurableApplicationContext context) {
+        context.getBean(JdbcTemplate.class)
+                .execute("ALTER TABLE gps_log ALTER COLUMN id SET DEFAULT nextval('gps_log_id_seq')");
+    }
+
+    /**
+     * Creates the empty inventory rows deliveries add to; call once terminals and products exist.
+     */
+    static void openInventory(ConfigurableApplicationContext context) {
+        context.getBean(JdbcTemplate.class).update(OPEN_INVENTORY_SQL);
+    }
+
+    private record InventoryUpsert(BeanFactory beanFactory) implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof InventoryRepository)) {
+                return bean;
+            }
+            ProxyFactory proxy = new ProxyFactory(bean);
+            proxy.addAdvice((MethodInterceptor) invocation -> {
+                if (!invocation.getMethod().getName().equals("addQuantity")) {
+                    return invocation.proceed();
+                }
+                Object[] args = invocation.getArguments();
+                JdbcTemplate jdbcTemplate = beanFactory.getBean(JdbcTemplate.class);
+                int updated = jdbcTemplate.update(ADD_SQL, args[3], args[0], args[1], args[2]);
+                return updated > 0 ? updated : jdbcTemplate.update(INSERT_SQL, args);
+            });
+            return proxy.getProxy();
+        }
+    }
+}
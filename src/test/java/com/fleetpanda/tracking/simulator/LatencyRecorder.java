@@ -0,0 +1,64 @@
+package com.fleetpanda.tracking.simulator;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Response times per endpoint in HdrHistograms, recorded in microseconds with three significant
+ * digits, and the number of calls that failed. Failed calls are recorded too, since a slow
+ * error costs the caller as much as a slow success.
+ */
+final class LatencyRecorder {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, boolean ok) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.histogram.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        if (!ok) {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * Prints a row per endpoint and one for all of them together, with throughput over
+     * {@code seconds}. Latencies are in milliseconds.
+     */
+    void print(PrintStream out, double seconds) {
+        out.printf("%-42s %9s %7s %9s %8s %8s %8s %8s %8s %8s%n", "endpoint", "calls", "errors", "calls/s",
+                "mean", "p50", "p90", "p99", "p99.9", "max");
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            Histogram histogram = entry.getValue().histogram.copy();
+            long errors = entry.getValue().errors.sum();
+            all.add(histogram);
+            allErrors += errors;
+            printRow(out, entry.getKey(), histogram, errors, seconds);
+        }
+        printRow(out, "all", all, allErrors, seconds);
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, long errors, double seconds) {
+        out.printf("%-42s %9d %7d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %8.2f%n", name, histogram.getTotalCount(),
+                errors, histogram.getTotalCount() / seconds, histogram.getMean() / 1000,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static final class Endpoint {
+        private final Histogram histogram = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,231 @@
+package com.fleetpanda.tracking.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fleetpanda.tracking.dto.GpsLogDTO;
+import com.fleetpanda.tracking.dto.OrderDTO;
+import com.fleetpanda.tracking.geo.GeoUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * One driver and vehicle working a shift, advanced one GPS fix at a time by {@link #step}.
+ * <p>
+ * The first step starts the driver's scheduled shift, has the dispatcher create the shift's
+ * orders at random terminals and reads them back the way the driver app does. The vehicle then
+ * drives from its hub to the nearest unvisited terminal, again and again, and back to the hub,
+ * where it ends the shift. Each fix covers {@link #SECONDS_PER_FIX} seconds of driving in a
+ * straight line, so the track runs on a clock of its own that starts at the shift's start time
+ * and runs faster than the wall clock. At each terminal the vehicle stands still for a few fixes
+ * and then completes the order, or fails it with the configured probability.
+ */
+final class VirtualVehicle {
+
+    static final int SECONDS_PER_FIX = 20;
+    // About 43 km/h
+    private static final double SPEED_MPS = 12;
+    private static final int DWELL_FIXES = 3;
+
+    private final FleetClient client;
+    private final long driverId;
+    private final long vehicleId;
+    private final FleetSimulator.Site hub;
+    private final List<FleetSimulator.Site> terminals;
+    private final List<Long> productIds;
+    private final int orders;
+    private final double failRate;
+    private final Random random;
+
+    private boolean started;
+    private boolean finished;
+    private long shiftId;
+    private LocalDateTime clock;
+    private double latitude;
+    private double longitude;
+    private final Deque<Stop> stops = new ArrayDeque<>();
+    private Stop target;
+    private int dwell;
+
+    private int completed;
+    private int failed;
+    private int fixes;
+
+    VirtualVehicle(FleetClient client, long driverId, long vehicleId, FleetSimulator.Site hub,
+                   List<FleetSimulator.Site> terminals, List<Long> productIds, int orders, double failRate,
+                   long seed) {
+        this.client = client;
+        this.driverId = driverId;
+        this.vehicleId = vehicleId;
+        this.hub = hub;
+        this.terminals = terminals;
+        this.productIds = productIds;
+        this.orders = Math.min(orders, terminals.size());
+        this.failRate = failRate;
+        this.random = new Random(seed);
+        this.latitude = hub.latitude();
+        this.longitude = hub.longitude();
+    }
+
+    /**
+     * Makes the vehicle's next call or calls. Once {@code stopping} is set the vehicle ends its
+     * shift wherever it is. Does nothing after the vehicle has finished.
+     */
+    void step(boolean stopping) {
+        if (finished) {
+            return;
+        }
+        if (!started) {
+            start();
+            return;
+        }
+        if (stopping) {
+            endShift();
+            return;
+        }
+
+        if (dwell > 0) {
+            sendFix();
+            if (--dwell == 0) {
+                deliver(target.orderId());
+                target = stops.poll();
+            }
+            return;
+        }
+
+        double meters = GeoUtils.haversineMeters(latitude, longitude, target.latitude(), target.longitude());
+        double step = SPEED_MPS * SECONDS_PER_FIX;
+        if (meters <= step) {
+            latitude = target.latitude();
+            longitude = target.longitude();
+        } else {
+            double fraction = step / meters;
+            latitude += (target.latitude() - latitude) * fraction;
+            longitude += (target.longitude() - longitude) * fraction;
+        }
+        sendFix();
+        if (meters <= step) {
+            if (target.orderId() == null) {
+                endShift();
+            } else {
+                dwell = DWELL_FIXES;
+            }
+        }
+    }
+
+    boolean isFinished() {
+        return finished;
+    }
+
+    int getCompleted() {
+        return completed;
+    }
+
+    int getFailed() {
+        return failed;
+    }
+
+    int getFixes() {
+        return fixes;
+    }
+
+    private void start() {
+        started = true;
+        JsonNode shift = client.postJson("POST /api/driver/{driverId}/shift/start",
+                "/api/driver/" + driverId + "/shift/start", null);
+        if (shift == null) {
+            finished = true;
+            return;
+        }
+        shiftId = shift.get("id").asLong();
+        clock = LocalDateTime.parse(shift.get("startTime").asText());
+
+        List<FleetSimulator.Site> destinations = new ArrayList<>(terminals);
+        Collections.shuffle(destinations, random);
+        List<OrderDTO> batch = new ArrayList<>(orders);
+        for (FleetSimulator.Site terminal : destinations.subList(0, orders)) {
+            OrderDTO order = new OrderDTO();
+            order.setShiftId(shiftId);
+            order.setTerminalId(terminal.id());
+            order.setProductId(productIds.get(random.nextInt(productIds.size())));
+            order.setQuantity(1000.0 + 500 * random.nextInt(9));
+            batch.add(order);
+        }
+        client.post("POST /api/admin/orders/bulk", "/api/admin/orders/bulk", batch);
+
+        JsonNode assigned = client.getJson("GET /api/driver/shift/{shiftId}/orders",
+                "/api/driver/shift/" + shiftId + "/orders");
+        List<Stop> pending = new ArrayList<>();
+        if (assigned != null) {
+            for (JsonNode order : assigned) {
+                JsonNode terminal = order.get("terminal");
+                pending.add(new Stop(order.get("id").asLong(), terminal.get("latitude").asDouble(),
+                        terminal.get("longitude").asDouble()));
+            }
+        }
+        planRoute(pending);
+        target = stops.poll();
+        sendFix();
+    }
+
+    /**
+     * Visits the nearest remaining terminal each time, then returns to the hub.
+     */
+    private void planRoute(List<Stop> pending) {
+        double fromLatitude = hub.latitude();
+        double fromLongitude = hub.longitude();
+        while (!pending.isEmpty()) {
+            Stop nearest = null;
+            double best = Double.MAX_VALUE;
+            for (Stop stop : pending) {
+                double meters = GeoUtils.haversineMeters(fromLatitude, fromLongitude, stop.latitude(),
+                        stop.longitude());
+                if (meters < best) {
+                    best = meters;
+                    nearest = stop;
+                }
+            }
+            pending.remove(nearest);
+            stops.add(nearest);
+            fromLatitude = nearest.latitude();
+            fromLongitude = nearest.longitude();
+        }
+        stops.add(new Stop(null, hub.latitude(), hub.longitude()));
+    }
+
+    private void sendFix() {
+        GpsLogDTO fix = new GpsLogDTO();
+        fix.setVehicleId(vehicleId);
+        fix.setLatitude(latitude);
+        fix.setLongitude(longitude);
+        fix.setTimestamp(clock);
+        client.post("POST /api/driver/gps", "/api/driver/gps", fix);
+        clock = clock.plusSeconds(SECONDS_PER_FIX);
+        fixes++;
+    }
+
+    private void deliver(long orderId) {
+        if (random.nextDouble() < failRate) {
+            if (client.post("POST /api/driver/orders/{orderId}/fail",
+                    "/api/driver/orders/" + orderId + "/fail?reason=Customer%20unavailable", null)) {
+                failed++;
+            }
+        } else if (client.post("POST /api/driver/orders/{orderId}/complete",
+                "/api/driver/orders/" + orderId + "/complete", null)) {
+            completed++;
+        }
+    }
+
+    private void endShift() {
+        client.post("POST /api/driver/shift/{shiftId}/end", "/api/driver/shift/" + shiftId + "/end", null);
+        finished = true;
+    }
+
+    // A terminal to deliver an order at, or the hub at the end of the shift
+    private record Stop(Long orderId, double latitude, double longitude) {
+    }
+}